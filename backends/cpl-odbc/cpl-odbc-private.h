@@ -108,6 +108,17 @@ typedef struct {
 	 */
 	SQLHSTMT* create_object_stmts;
 
+	/**
+	 * Lock for creating many objects at once
+	 */
+	sema_t create_objects_sem;
+	mutex_t create_objects_lock;
+
+	/**
+	 * The statement for creating many objects at once
+	 */
+	SQLHSTMT* create_objects_stmts;
+
 	/**
 	 * The lock for lookup_object
 	 */
@@ -149,6 +160,17 @@ typedef struct {
 	 * The statement that adds a new relation
 	 */
 	SQLHSTMT* add_relation_stmts;
+
+	/**
+	 * Lock for adding many relations at once
+	 */
+	sema_t add_relations_sem;
+	mutex_t add_relations_lock;
+
+	/**
+	 * The statement for adding many relations at once
+	 */
+	SQLHSTMT* add_relations_stmts;
 	SQLHSTMT* bundle_relation_helper_stmts;
 	/**
 	 * Lock for bundle creation
@@ -215,6 +237,17 @@ typedef struct {
 	 */
 	SQLHSTMT* add_object_property_stmts;
 
+	/**
+	 * Lock for adding many object properties at once
+	 */
+	sema_t add_object_properties_sem;
+	mutex_t add_object_properties_lock;
+
+	/**
+	 * The statement for adding many object properties at once
+	 */
+	SQLHSTMT* add_object_properties_stmts;
+
 	/**
 	* The lock for add_relation_property
 	*/
@@ -226,6 +259,17 @@ typedef struct {
 	*/
 	SQLHSTMT* add_relation_property_stmts;
 
+	/**
+	 * Lock for adding many relation properties at once
+	 */
+	sema_t add_relation_properties_sem;
+	mutex_t add_relation_properties_lock;
+
+	/**
+	 * The statement for adding many relation properties at once
+	 */
+	SQLHSTMT* add_relation_properties_stmts;
+
 	/**
 	* The lock for add_bundle_property
 	*/
@@ -281,6 +325,28 @@ typedef struct {
      */
     SQLHSTMT* get_all_objects_t_stmts;
 
+	/**
+	 * The lock for get_all_objects_page
+	 */
+	sema_t get_all_objects_nt_page_sem;
+	mutex_t get_all_objects_nt_page_lock;
+
+	/**
+	 * The statement that returns one page of all provenance objects
+	 */
+	SQLHSTMT* get_all_objects_nt_page_stmts;
+
+	/**
+	 * The lock for get_all_objects_page
+	 */
+	sema_t get_all_objects_t_page_sem;
+	mutex_t get_all_objects_t_page_lock;
+
+	/**
+	 * The statement that returns one page of provenance objects of a type
+	 */
+	SQLHSTMT* get_all_objects_t_page_stmts;
+
 	/**
 	 * The lock for get_object_info
 	 */
@@ -292,6 +358,17 @@ typedef struct {
 	 */
 	SQLHSTMT* get_object_info_stmts;
 
+	/**
+	 * The lock for get_object_info_batch
+	 */
+	sema_t get_object_info_batch_sem;
+	mutex_t get_object_info_batch_lock;
+
+	/**
+	 * The statement that returns information about a set of objects
+	 */
+	SQLHSTMT* get_object_info_batch_stmts;
+
 	/**
 	 * The mutex for get_object_relations
 	 */
@@ -309,6 +386,138 @@ typedef struct {
 	 */
 	SQLHSTMT* get_object_descendants_stmts;
 
+	/**
+	 * Lock for the type-filtered ancestor query
+	 */
+	sema_t get_object_ancestors_typed_sem;
+	mutex_t get_object_ancestors_typed_lock;
+
+	/**
+	 * The statement for listing ancestors of the given relation types
+	 */
+	SQLHSTMT* get_object_ancestors_typed_stmts;
+
+	/**
+	 * Lock for the type-filtered descendant query
+	 */
+	sema_t get_object_descendants_typed_sem;
+	mutex_t get_object_descendants_typed_lock;
+
+	/**
+	 * The statement for listing descendants of the given relation types
+	 */
+	SQLHSTMT* get_object_descendants_typed_stmts;
+
+	/**
+	 * Lock for the joined ancestor query
+	 */
+	sema_t get_object_ancestors_info_sem;
+	mutex_t get_object_ancestors_info_lock;
+
+	/**
+	 * The statement that returns ancestors along with their object info
+	 */
+	SQLHSTMT* get_object_ancestors_info_stmts;
+
+	/**
+	 * Lock for the joined descendant query
+	 */
+	sema_t get_object_descendants_info_sem;
+	mutex_t get_object_descendants_info_lock;
+
+	/**
+	 * The statement that returns descendants along with their object info
+	 */
+	SQLHSTMT* get_object_descendants_info_stmts;
+
+	/**
+	 * The lock for get_object_relations_page
+	 */
+	sema_t get_object_ancestors_page_sem;
+	mutex_t get_object_ancestors_page_lock;
+
+	/**
+	 * The statement for listing one page of ancestors
+	 */
+	SQLHSTMT* get_object_ancestors_page_stmts;
+
+	/**
+	 * The lock for get_object_relations_page
+	 */
+	sema_t get_object_descendants_page_sem;
+	mutex_t get_object_descendants_page_lock;
+
+	/**
+	 * The statement for listing one page of descendants
+	 */
+	SQLHSTMT* get_object_descendants_page_stmts;
+
+	/**
+	 * Lock for the transitive ancestry query
+	 */
+	sema_t get_object_ancestry_sem;
+	mutex_t get_object_ancestry_lock;
+
+	/**
+	 * Transitive ancestry up to a maximum depth
+	 */
+	SQLHSTMT* get_object_ancestry_stmts;
+
+	/**
+	 * Lock for the transitive progeny query
+	 */
+	sema_t get_object_progeny_sem;
+	mutex_t get_object_progeny_lock;
+
+	/**
+	 * Transitive progeny up to a maximum depth
+	 */
+	SQLHSTMT* get_object_progeny_stmts;
+
+	/**
+	 * Lock for the unbounded transitive ancestry query
+	 */
+	sema_t get_object_ancestry_all_sem;
+	mutex_t get_object_ancestry_all_lock;
+
+	/**
+	 * Transitive ancestry with no depth limit
+	 */
+	SQLHSTMT* get_object_ancestry_all_stmts;
+
+	/**
+	 * Lock for the unbounded transitive progeny query
+	 */
+	sema_t get_object_progeny_all_sem;
+	mutex_t get_object_progeny_all_lock;
+
+	/**
+	 * Transitive progeny with no depth limit
+	 */
+	SQLHSTMT* get_object_progeny_all_stmts;
+
+	/**
+	 * Lock for the batched ancestors query
+	 */
+	sema_t get_object_ancestors_batch_sem;
+	mutex_t get_object_ancestors_batch_lock;
+
+	/**
+	 * Immediate ancestors of a set of objects
+	 */
+	SQLHSTMT* get_object_ancestors_batch_stmts;
+
+	/**
+	 * Lock for the batched descendants query
+	 */
+	sema_t get_object_descendants_batch_sem;
+	mutex_t get_object_descendants_batch_lock;
+
+	/**
+	 * Immediate descendants of a set of objects
+	 */
+	SQLHSTMT* get_object_descendants_batch_stmts;
+
 	/**
 	 * The mutex for get_object_properties
 	 */
@@ -411,6 +620,94 @@ typedef struct {
 	*/
 	SQLHSTMT* get_bundle_relations_stmts;
 
+	/**
+	 * The lock for get_bundle_relations_page
+	 */
+	sema_t get_bundle_relations_page_sem;
+	mutex_t get_bundle_relations_page_lock;
+
+	/**
+	 * The statement that returns one page of the relations in a bundle
+	 */
+	SQLHSTMT* get_bundle_relations_page_stmts;
+
+	/**
+	 * The lock for get_bundle_relations_page_by_membership
+	 */
+	sema_t get_bundle_relations_page_by_membership_sem;
+	mutex_t get_bundle_relations_page_by_membership_lock;
+
+	/**
+	 * The statement that returns one page of the relations in a bundle, in the order of the bundle membership rows
+	 */
+	SQLHSTMT* get_bundle_relations_page_by_membership_stmts;
+
+	/**
+	 * The lock for get_bundle_objects_page
+	 */
+	sema_t get_bundle_objects_page_sem;
+	mutex_t get_bundle_objects_page_lock;
+
+	/**
+	 * Get one page of the objects of a bundle
+	 */
+	SQLHSTMT* get_bundle_objects_page_stmts;
+
+	/**
+	 * The lock for get_bundle_relations_page_ext
+	 */
+	sema_t get_bundle_relations_page_ext_sem;
+	mutex_t get_bundle_relations_page_ext_lock;
+
+	/**
+	 * Get one page of the relations of a bundle, filtered by type
+	 */
+	SQLHSTMT* get_bundle_relations_page_ext_stmts;
+
+	/**
+	 * The lock for get_bundle_object_properties
+	 */
+	sema_t get_bundle_object_properties_sem;
+	mutex_t get_bundle_object_properties_lock;
+
+	/**
+	 * Get the properties of all objects of a bundle in one scan
+	 */
+	SQLHSTMT* get_bundle_object_properties_stmts;
+
+	/**
+	 * The lock for get_bundle_relation_properties
+	 */
+	sema_t get_bundle_relation_properties_sem;
+	mutex_t get_bundle_relation_properties_lock;
+
+	/**
+	 * Get the properties of all relations of a bundle in one scan
+	 */
+	SQLHSTMT* get_bundle_relation_properties_stmts;
+
+	/**
+	 * Lock for paging through all relations
+	 */
+	sema_t get_all_relations_page_sem;
+	mutex_t get_all_relations_page_lock;
+
+	/**
+	 * Get one page of all relations
+	 */
+	SQLHSTMT* get_all_relations_page_stmts;
+
+	/**
+	 * The lock for get_last_relation_id
+	 */
+	sema_t get_last_relation_id_sem;
+	mutex_t get_last_relation_id_lock;
+
+	/**
+	 * The statement that returns the highest relation ID
+	 */
+	SQLHSTMT* get_last_relation_id_stmts;
+
 	/**
 	* The mutex for get_bundle_properties
 	*/
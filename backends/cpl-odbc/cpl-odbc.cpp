@@ -34,7 +34,9 @@
 
 #include "stdafx.h"
 #include "cpl-odbc-private.h"
+#include <algorithm>
 #include <list>
+#include <map>
 #include <vector>
 
 // NOTE: The locking is currently too conservative -- we should improve this.
@@ -329,6 +331,106 @@ cpl_sql_fetch_single_int(SQLHSTMT stmt, int* out, int column=1,
 	return CPL_OK;
 }
 
+/**
+ * Read all IDs from a column of the result set, such as the one produced by
+ * INSERT ... RETURNING id, and then close the cursor
+ *
+ * @param stmt the statement handle
+ * @param out the vector to which the IDs are appended
+ * @param column the column number
+ * @return CPL_OK or an error code
+ */
+static cpl_return_t
+cpl_sql_fetch_all_ids(SQLHSTMT stmt, std::vector<cpl_id_t>& out,
+					  int column=1)
+{
+	cpl_id_t id;
+	SQLRETURN ret;
+
+	ret = SQLBindCol(stmt, column, SQL_C_UBIGINT, &id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLBindCol", stmt, SQL_HANDLE_STMT);
+		goto err_close;
+	}
+
+	while (true) {
+
+		ret = SQLFetch(stmt);
+		if (!SQL_SUCCEEDED(ret)) {
+			if (ret != SQL_NO_DATA) {
+				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
+				goto err_close;
+			}
+			break;
+		}
+
+		out.push_back(id);
+	}
+
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+		return CPL_E_STATEMENT_ERROR;
+	}
+
+	return CPL_OK;
+
+err_close:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+	}
+	return CPL_E_STATEMENT_ERROR;
+}
+
+/**
+ * Append a string to a PostgreSQL array literal as a quoted element,
+ * escaping backslashes and double quotes
+ *
+ * @param array the array literal under construction
+ * @param value the element value
+ */
+static void
+cpl_sql_append_array_string(std::string& array, const char* value)
+{
+	array += '"';
+	for (const char* c = value; *c != '\0'; c++) {
+		if (*c == '"' || *c == '\\') array += '\\';
+		array += *c;
+	}
+	array += '"';
+}
+
+/**
+ * Convert a relation type mask to a PostgreSQL array literal of the
+ * selected types, such as {1,8}, so that a query can match the types with
+ * type = ANY(...) and use an index on the type column. CPL_R_ALL_TYPES
+ * selects all relation types except BUNDLERELATION.
+ *
+ * @param type_mask a combination of CPL_R_TYPE_MASK() bits, or
+ *                  CPL_R_ALL_TYPES
+ * @return the array literal
+ */
+static std::string
+cpl_sql_type_mask_array(const int type_mask)
+{
+	std::string array = "{";
+	char buf[16];
+
+	for (int t = 0; t < 32; t++) {
+		if (type_mask == CPL_R_ALL_TYPES) {
+			if (!CPL_IS_RELATION_TYPE(t)) continue;
+		}
+		else if ((type_mask & CPL_R_TYPE_MASK(t)) == 0) continue;
+		if (array.length() > 1) array += ",";
+		snprintf(buf, sizeof(buf), "%d", t);
+		array += buf;
+	}
+
+	array += "}";
+	return array;
+}
+
 /**
  * Convert a SQL timestamp to UNIX time
  *
@@ -484,22 +586,41 @@ cpl_odbc_free_statement_handles(cpl_odbc_t* odbc)
 {	
 	FREE_HANDLE(create_session_stmts);
 	FREE_HANDLE(create_object_stmts);
+	FREE_HANDLE(create_objects_stmts);
 	FREE_HANDLE(lookup_object_nt_stmts);
 	FREE_HANDLE(lookup_object_t_stmts);
 	FREE_HANDLE(lookup_object_nt_ext_stmts);
 	FREE_HANDLE(lookup_object_t_ext_stmts);
 	FREE_HANDLE(add_relation_stmts);
+	FREE_HANDLE(add_relations_stmts);
 	FREE_HANDLE(lookup_relation_stmts);
 	FREE_HANDLE(lookup_object_property_wildcard_stmts);
 	FREE_HANDLE(add_object_property_stmts);
+	FREE_HANDLE(add_object_properties_stmts);
 	FREE_HANDLE(add_relation_property_stmts);
+	FREE_HANDLE(add_relation_properties_stmts);
 	FREE_HANDLE(add_prefix_stmts);
 	FREE_HANDLE(get_session_info_stmts);
 	FREE_HANDLE(get_all_objects_nt_stmts);
     FREE_HANDLE(get_all_objects_t_stmts);
+	FREE_HANDLE(get_all_objects_nt_page_stmts);
+	FREE_HANDLE(get_all_objects_t_page_stmts);
     FREE_HANDLE(get_object_info_stmts);
+    FREE_HANDLE(get_object_info_batch_stmts);
 	FREE_HANDLE(get_object_ancestors_stmts);
 	FREE_HANDLE(get_object_descendants_stmts);
+	FREE_HANDLE(get_object_ancestors_typed_stmts);
+	FREE_HANDLE(get_object_descendants_typed_stmts);
+	FREE_HANDLE(get_object_ancestors_info_stmts);
+	FREE_HANDLE(get_object_descendants_info_stmts);
+	FREE_HANDLE(get_object_ancestors_page_stmts);
+	FREE_HANDLE(get_object_descendants_page_stmts);
+	FREE_HANDLE(get_object_ancestry_stmts);
+	FREE_HANDLE(get_object_progeny_stmts);
+	FREE_HANDLE(get_object_ancestry_all_stmts);
+	FREE_HANDLE(get_object_progeny_all_stmts);
+	FREE_HANDLE(get_object_ancestors_batch_stmts);
+	FREE_HANDLE(get_object_descendants_batch_stmts);
 	FREE_HANDLE(get_object_properties_stmts);
 	FREE_HANDLE(get_object_properties_with_key_stmts);
 	FREE_HANDLE(lookup_object_by_property_stmts);
@@ -508,6 +629,14 @@ cpl_odbc_free_statement_handles(cpl_odbc_t* odbc)
 	FREE_HANDLE(has_immediate_ancestor_stmts);
 	FREE_HANDLE(get_bundle_objects_stmts);
 	FREE_HANDLE(get_bundle_relations_stmts);
+	FREE_HANDLE(get_bundle_relations_page_stmts);
+	FREE_HANDLE(get_bundle_relations_page_by_membership_stmts);
+	FREE_HANDLE(get_bundle_objects_page_stmts);
+	FREE_HANDLE(get_bundle_relations_page_ext_stmts);
+	FREE_HANDLE(get_bundle_object_properties_stmts);
+	FREE_HANDLE(get_bundle_relation_properties_stmts);
+	FREE_HANDLE(get_all_relations_page_stmts);
+	FREE_HANDLE(get_last_relation_id_stmts);
 	FREE_HANDLE(get_prefixes_stmts);
 	FREE_HANDLE(get_prefixes_with_key_stmts);
 
@@ -573,22 +702,41 @@ cpl_odbc_connect(cpl_odbc_t* odbc)
 	
 	ALLOC_STMT(create_session_stmts);
 	ALLOC_STMT(create_object_stmts);
+	ALLOC_STMT(create_objects_stmts);
 	ALLOC_STMT(lookup_object_nt_stmts);
 	ALLOC_STMT(lookup_object_t_stmts);
 	ALLOC_STMT(lookup_object_nt_ext_stmts);
 	ALLOC_STMT(lookup_object_t_ext_stmts);
 	ALLOC_STMT(add_relation_stmts);
+	ALLOC_STMT(add_relations_stmts);
 	ALLOC_STMT(lookup_relation_stmts);
 	ALLOC_STMT(lookup_object_property_wildcard_stmts);
 	ALLOC_STMT(add_object_property_stmts);
+	ALLOC_STMT(add_object_properties_stmts);
 	ALLOC_STMT(add_relation_property_stmts);
+	ALLOC_STMT(add_relation_properties_stmts);
 	ALLOC_STMT(add_prefix_stmts);
 	ALLOC_STMT(get_session_info_stmts);
 	ALLOC_STMT(get_all_objects_nt_stmts);
     ALLOC_STMT(get_all_objects_t_stmts);
+	ALLOC_STMT(get_all_objects_nt_page_stmts);
+	ALLOC_STMT(get_all_objects_t_page_stmts);
     ALLOC_STMT(get_object_info_stmts);
+    ALLOC_STMT(get_object_info_batch_stmts);
 	ALLOC_STMT(get_object_ancestors_stmts);
 	ALLOC_STMT(get_object_descendants_stmts);
+	ALLOC_STMT(get_object_ancestors_typed_stmts);
+	ALLOC_STMT(get_object_descendants_typed_stmts);
+	ALLOC_STMT(get_object_ancestors_info_stmts);
+	ALLOC_STMT(get_object_descendants_info_stmts);
+	ALLOC_STMT(get_object_ancestors_page_stmts);
+	ALLOC_STMT(get_object_descendants_page_stmts);
+	ALLOC_STMT(get_object_ancestry_stmts);
+	ALLOC_STMT(get_object_progeny_stmts);
+	ALLOC_STMT(get_object_ancestry_all_stmts);
+	ALLOC_STMT(get_object_progeny_all_stmts);
+	ALLOC_STMT(get_object_ancestors_batch_stmts);
+	ALLOC_STMT(get_object_descendants_batch_stmts);
 	ALLOC_STMT(get_object_properties_stmts);
 	ALLOC_STMT(get_object_properties_with_key_stmts);
 	ALLOC_STMT(lookup_object_by_property_stmts);
@@ -597,6 +745,14 @@ cpl_odbc_connect(cpl_odbc_t* odbc)
 	ALLOC_STMT(has_immediate_ancestor_stmts);
 	ALLOC_STMT(get_bundle_objects_stmts);
 	ALLOC_STMT(get_bundle_relations_stmts);
+	ALLOC_STMT(get_bundle_relations_page_stmts);
+	ALLOC_STMT(get_bundle_relations_page_by_membership_stmts);
+	ALLOC_STMT(get_bundle_objects_page_stmts);
+	ALLOC_STMT(get_bundle_relations_page_ext_stmts);
+	ALLOC_STMT(get_bundle_object_properties_stmts);
+	ALLOC_STMT(get_bundle_relation_properties_stmts);
+	ALLOC_STMT(get_all_relations_page_stmts);
+	ALLOC_STMT(get_last_relation_id_stmts);
 	ALLOC_STMT(get_prefixes_stmts);
 	ALLOC_STMT(get_prefixes_with_key_stmts);
 
@@ -627,6 +783,15 @@ cpl_odbc_connect(cpl_odbc_t* odbc)
 			"     VALUES (DEFAULT, ?, ?, ?)"
 			"   RETURNING id;");
 
+	PREPARE(create_objects_stmts,
+			"INSERT INTO cpl_objects"
+			"            (id, prefix, name, type)"
+			"     SELECT nextval('cpl_objects_id_seq'), ?, N.name, ?"
+			"       FROM unnest(CAST(? AS VARCHAR[]))"
+			"            WITH ORDINALITY AS N(name, ord)"
+			"   ORDER BY N.ord"
+			"  RETURNING id;");
+
 	PREPARE(lookup_object_nt_stmts,
 			"SELECT id"
 			"  FROM cpl_objects"
@@ -658,6 +823,18 @@ cpl_odbc_connect(cpl_odbc_t* odbc)
 			"     VALUES (DEFAULT, ?, ?, ?)"
             "   RETURNING id;");
 
+	PREPARE(add_relations_stmts,
+			"INSERT INTO cpl_relations"
+			"            (id, from_id, to_id, type)"
+			"     SELECT nextval('cpl_relations_id_seq'),"
+			"            R.from_id, R.to_id, R.type"
+			"       FROM unnest(CAST(? AS BIGINT[]),"
+			"                   CAST(? AS BIGINT[]),"
+			"                   CAST(? AS INT[]))"
+			"            WITH ORDINALITY AS R(from_id, to_id, type, ord)"
+			"   ORDER BY R.ord"
+			"  RETURNING id;");
+
     PREPARE(lookup_relation_stmts,
             "SELECT id"
             "  FROM cpl_relations"
@@ -674,11 +851,37 @@ cpl_odbc_connect(cpl_odbc_t* odbc)
 			"            (id, prefix, name, value, type)"
 			"     VALUES (?, ?, ?, ?, ?);");
 
+	PREPARE(add_object_properties_stmts,
+			"INSERT INTO cpl_object_properties"
+			"            (id, prefix, name, value, type)"
+			"     SELECT DISTINCT ON (P.id, P.prefix, P.name, P.type)"
+			"            P.id, P.prefix, P.name, P.value, P.type"
+			"       FROM unnest(CAST(? AS BIGINT[]),"
+			"                   CAST(? AS VARCHAR[]),"
+			"                   CAST(? AS VARCHAR[]),"
+			"                   CAST(? AS VARCHAR[]),"
+			"                   CAST(? AS INT[]))"
+			"            WITH ORDINALITY AS P(id, prefix, name, value, type, ord)"
+			"   ORDER BY P.id, P.prefix, P.name, P.type, P.ord;");
+
 	PREPARE(add_relation_property_stmts,
 		"INSERT INTO cpl_relation_properties"
 		"            (id, prefix, name, value, type)"
 		"     VALUES (?, ?, ?, ?, ?);");
 
+	PREPARE(add_relation_properties_stmts,
+			"INSERT INTO cpl_relation_properties"
+			"            (id, prefix, name, value, type)"
+			"     SELECT DISTINCT ON (P.id, P.prefix, P.name, P.type)"
+			"            P.id, P.prefix, P.name, P.value, P.type"
+			"       FROM unnest(CAST(? AS BIGINT[]),"
+			"                   CAST(? AS VARCHAR[]),"
+			"                   CAST(? AS VARCHAR[]),"
+			"                   CAST(? AS VARCHAR[]),"
+			"                   CAST(? AS INT[]))"
+			"            WITH ORDINALITY AS P(id, prefix, name, value, type, ord)"
+			"   ORDER BY P.id, P.prefix, P.name, P.type, P.ord;");
+
 	PREPARE(add_prefix_stmts,
 		"INSERT INTO cpl_prefixes"
 		"            (id, prefix, iri)"
@@ -694,12 +897,31 @@ cpl_odbc_connect(cpl_odbc_t* odbc)
 			"  FROM cpl_objects"
 			" WHERE id > 0 AND prefix = ? AND type = ?;");
 
+	PREPARE(get_all_objects_nt_page_stmts,
+			"SELECT id, creation_time, prefix, name, type"
+			"  FROM cpl_objects"
+			" WHERE id > ? AND prefix = ?"
+			" ORDER BY id"
+			" LIMIT ?;");
+
+	PREPARE(get_all_objects_t_page_stmts,
+			"SELECT id, creation_time, prefix, name, type"
+			"  FROM cpl_objects"
+			" WHERE id > ? AND prefix = ? AND type = ?"
+			" ORDER BY id"
+			" LIMIT ?;");
+
 	PREPARE(get_object_info_stmts,
 			"SELECT creation_time, prefix, name, type"
 			"  FROM cpl_objects"
 			" WHERE id = ?"
 			" LIMIT 1;");
 
+	PREPARE(get_object_info_batch_stmts,
+			"SELECT id, creation_time, prefix, name, type"
+			"  FROM cpl_objects"
+			" WHERE id = ANY(CAST(? AS BIGINT[]));");
+
 	PREPARE(get_session_info_stmts,
 			"SELECT mac_address, username,"
 			"       pid, program, cmdline, initialization_time"
@@ -717,6 +939,130 @@ cpl_odbc_connect(cpl_odbc_t* odbc)
 			"  FROM cpl_relations"
 			" WHERE to_id = ?");
 
+	PREPARE(get_object_ancestors_typed_stmts,
+			"SELECT id, to_id, type"
+			"  FROM cpl_relations"
+			" WHERE from_id = ? AND type = ANY(CAST(? AS INT[]))");
+
+	PREPARE(get_object_descendants_typed_stmts,
+			"SELECT id, from_id, type"
+			"  FROM cpl_relations"
+			" WHERE to_id = ? AND type = ANY(CAST(? AS INT[]))");
+
+	PREPARE(get_object_ancestors_info_stmts,
+			"SELECT r.id, r.to_id, r.type, o.creation_time, o.prefix, o.name, o.type"
+			"  FROM cpl_relations AS r"
+			"  JOIN cpl_objects AS o ON o.id = r.to_id"
+			" WHERE r.from_id = ? AND r.type <> 20"
+			"       AND r.type = ANY(CAST(? AS INT[]))");
+
+	PREPARE(get_object_descendants_info_stmts,
+			"SELECT r.id, r.from_id, r.type, o.creation_time, o.prefix, o.name, o.type"
+			"  FROM cpl_relations AS r"
+			"  JOIN cpl_objects AS o ON o.id = r.from_id"
+			" WHERE r.to_id = ? AND r.type <> 20"
+			"       AND r.type = ANY(CAST(? AS INT[]))");
+
+	PREPARE(get_object_ancestors_page_stmts,
+			"SELECT id, to_id, type"
+			"  FROM cpl_relations"
+			" WHERE from_id = ? AND id > ?"
+			" ORDER BY id"
+			" LIMIT ?;");
+
+	PREPARE(get_object_descendants_page_stmts,
+			"SELECT id, from_id, type"
+			"  FROM cpl_relations"
+			" WHERE to_id = ? AND id > ?"
+			" ORDER BY id"
+			" LIMIT ?;");
+
+	PREPARE(get_object_ancestry_stmts,
+			"WITH RECURSIVE lineage(id, from_id, to_id, type, depth) AS ("
+			"     SELECT id, from_id, to_id, type, 1"
+			"       FROM cpl_relations"
+			"      WHERE from_id = ? AND type <> 20"
+			"            AND type = ANY(CAST(? AS INT[]))"
+			"      UNION"
+			"     SELECT r.id, r.from_id, r.to_id, r.type, l.depth + 1"
+			"       FROM lineage l JOIN cpl_relations r ON r.from_id = l.to_id"
+			"      WHERE l.depth < ? AND r.type <> 20"
+			"            AND r.type = ANY(CAST(? AS INT[])))"
+			" SELECT id, from_id, to_id, type, MIN(depth) FROM lineage"
+			" GROUP BY id, from_id, to_id, type"
+			" ORDER BY 5, 1;");
+
+	PREPARE(get_object_progeny_stmts,
+			"WITH RECURSIVE lineage(id, from_id, to_id, type, depth) AS ("
+			"     SELECT id, from_id, to_id, type, 1"
+			"       FROM cpl_relations"
+			"      WHERE to_id = ? AND type <> 20"
+			"            AND type = ANY(CAST(? AS INT[]))"
+			"      UNION"
+			"     SELECT r.id, r.from_id, r.to_id, r.type, l.depth + 1"
+			"       FROM lineage l JOIN cpl_relations r ON r.to_id = l.from_id"
+			"      WHERE l.depth < ? AND r.type <> 20"
+			"            AND r.type = ANY(CAST(? AS INT[])))"
+			" SELECT id, from_id, to_id, type, MIN(depth) FROM lineage"
+			" GROUP BY id, from_id, to_id, type"
+			" ORDER BY 5, 1;");
+
+	PREPARE(get_object_ancestry_all_stmts,
+			"WITH RECURSIVE reach(id, from_id, to_id, type) AS ("
+			"     SELECT id, from_id, to_id, type"
+			"       FROM cpl_relations"
+			"      WHERE from_id = ? AND type <> 20"
+			"            AND type = ANY(CAST(? AS INT[]))"
+			"      UNION"
+			"     SELECT r.id, r.from_id, r.to_id, r.type"
+			"       FROM reach l JOIN cpl_relations r ON r.from_id = l.to_id"
+			"      WHERE r.type <> 20 AND r.type = ANY(CAST(? AS INT[]))),"
+			" lineage(id, from_id, to_id, type, depth) AS ("
+			"     SELECT id, from_id, to_id, type, 1"
+			"       FROM reach"
+			"      WHERE from_id = ?"
+			"      UNION"
+			"     SELECT r.id, r.from_id, r.to_id, r.type, l.depth + 1"
+			"       FROM lineage l JOIN reach r ON r.from_id = l.to_id"
+			"      WHERE l.depth < (SELECT COUNT(*) FROM reach))"
+			" SELECT id, from_id, to_id, type, MIN(depth) FROM lineage"
+			" GROUP BY id, from_id, to_id, type"
+			" ORDER BY 5, 1;");
+
+	PREPARE(get_object_progeny_all_stmts,
+			"WITH RECURSIVE reach(id, from_id, to_id, type) AS ("
+			"     SELECT id, from_id, to_id, type"
+			"       FROM cpl_relations"
+			"      WHERE to_id = ? AND type <> 20"
+			"            AND type = ANY(CAST(? AS INT[]))"
+			"      UNION"
+			"     SELECT r.id, r.from_id, r.to_id, r.type"
+			"       FROM reach l JOIN cpl_relations r ON r.to_id = l.from_id"
+			"      WHERE r.type <> 20 AND r.type = ANY(CAST(? AS INT[]))),"
+			" lineage(id, from_id, to_id, type, depth) AS ("
+			"     SELECT id, from_id, to_id, type, 1"
+			"       FROM reach"
+			"      WHERE to_id = ?"
+			"      UNION"
+			"     SELECT r.id, r.from_id, r.to_id, r.type, l.depth + 1"
+			"       FROM lineage l JOIN reach r ON r.to_id = l.from_id"
+			"      WHERE l.depth < (SELECT COUNT(*) FROM reach))"
+			" SELECT id, from_id, to_id, type, MIN(depth) FROM lineage"
+			" GROUP BY id, from_id, to_id, type"
+			" ORDER BY 5, 1;");
+
+	PREPARE(get_object_ancestors_batch_stmts,
+			"SELECT id, from_id, to_id, type"
+			"  FROM cpl_relations"
+			" WHERE from_id = ANY(CAST(? AS BIGINT[])) AND type <> 20"
+			"       AND type = ANY(CAST(? AS INT[]));");
+
+	PREPARE(get_object_descendants_batch_stmts,
+			"SELECT id, from_id, to_id, type"
+			"  FROM cpl_relations"
+			" WHERE to_id = ANY(CAST(? AS BIGINT[])) AND type <> 20"
+			"       AND type = ANY(CAST(? AS INT[]));");
+
 	PREPARE(get_object_properties_stmts,
 			"SELECT id, prefix, name, value"
 			"  FROM cpl_object_properties"
@@ -759,6 +1105,87 @@ cpl_odbc_connect(cpl_odbc_t* odbc)
 			"       cpl_relations as RinB"
 			" WHERE RinB.from_id = ? AND RinB.type = 20 AND R.id = RinB.to_id;")
 
+	PREPARE(get_bundle_relations_page_stmts,
+			"SELECT R.id, R.from_id, R.to_id, R.type"
+			"  FROM cpl_relations as R,"
+			"       cpl_relations as RinB"
+			" WHERE RinB.from_id = ? AND RinB.type = 20 AND R.id = RinB.to_id"
+			"       AND R.id > ?"
+			" ORDER BY R.id"
+			" LIMIT ?;");
+
+	PREPARE(get_bundle_relations_page_by_membership_stmts,
+			"SELECT RinB.id, R.id, R.from_id, R.to_id, R.type"
+			"  FROM cpl_relations as R,"
+			"       cpl_relations as RinB"
+			" WHERE RinB.from_id = ? AND RinB.type = 20 AND R.id = RinB.to_id"
+			"       AND RinB.id > ?"
+			" ORDER BY RinB.id"
+			" LIMIT ?;");
+
+	PREPARE(get_bundle_objects_page_stmts,
+			"SELECT C.id, C.creation_time, C.prefix, C.name, C.type"
+			"  FROM cpl_objects as C"
+			" WHERE (? = 0 OR C.type = ?) AND C.id > ?"
+			"       AND C.id IN (SELECT R2.from_id"
+			"                      FROM cpl_relations as R1, cpl_relations as R2"
+			"                     WHERE R1.from_id = ? AND R1.type = 20"
+			"                           AND R2.id = R1.to_id"
+			"                    UNION ALL"
+			"                    SELECT R2.to_id"
+			"                      FROM cpl_relations as R1, cpl_relations as R2"
+			"                     WHERE R1.from_id = ? AND R1.type = 20"
+			"                           AND R2.id = R1.to_id)"
+			" ORDER BY C.id"
+			" LIMIT ?;");
+
+	PREPARE(get_bundle_relations_page_ext_stmts,
+			"SELECT R.id, R.from_id, R.to_id, R.type"
+			"  FROM cpl_relations as R,"
+			"       cpl_relations as RinB"
+			" WHERE RinB.from_id = ? AND RinB.type = 20 AND R.id = RinB.to_id"
+			"       AND R.type = ANY(CAST(? AS INT[])) AND R.id > ?"
+			" ORDER BY R.id"
+			" LIMIT ?;");
+
+	PREPARE(get_bundle_object_properties_stmts,
+			"SELECT P.id, P.prefix, P.name, P.value, P.type"
+			"  FROM cpl_object_properties as P, cpl_objects as C"
+			" WHERE P.id = C.id AND (? = 0 OR C.type = ?)"
+			"       AND C.id > ? AND (? = 0 OR C.id <= ?)"
+			"       AND C.id IN (SELECT R2.from_id"
+			"                      FROM cpl_relations as R1, cpl_relations as R2"
+			"                     WHERE R1.from_id = ? AND R1.type = 20"
+			"                           AND R2.id = R1.to_id"
+			"                    UNION ALL"
+			"                    SELECT R2.to_id"
+			"                      FROM cpl_relations as R1, cpl_relations as R2"
+			"                     WHERE R1.from_id = ? AND R1.type = 20"
+			"                           AND R2.id = R1.to_id)"
+			" ORDER BY P.id, P.type;");
+
+	PREPARE(get_bundle_relation_properties_stmts,
+			"SELECT P.id, P.prefix, P.name, P.value, P.type"
+			"  FROM cpl_relation_properties as P,"
+			"       cpl_relations as R,"
+			"       cpl_relations as RinB"
+			" WHERE RinB.from_id = ? AND RinB.type = 20 AND R.id = RinB.to_id"
+			"       AND P.id = R.id"
+			"       AND R.type = ANY(CAST(? AS INT[]))"
+			"       AND R.id > ? AND (? = 0 OR R.id <= ?)"
+			" ORDER BY P.id, P.type;");
+
+	PREPARE(get_all_relations_page_stmts,
+			"SELECT id, from_id, to_id, type"
+			"  FROM cpl_relations"
+			" WHERE id > ? AND type <> 20"
+			" ORDER BY id"
+			" LIMIT ?;");
+
+	PREPARE(get_last_relation_id_stmts,
+			"SELECT COALESCE(MAX(id), 0)"
+			"  FROM cpl_relations");
+
 	PREPARE(get_prefixes_stmts,
 			"SELECT id, prefix, iri"
 			"  FROM cpl_prefixes"
@@ -829,46 +1256,47 @@ cpl_odbc_reconnect(cpl_odbc_t* odbc)
 }
 
 static SQLHSTMT
-cpl_acquire_stmt(sema_t semaphore, mutex_t mutex, SQLHSTMT* stmt_array){
+cpl_acquire_stmt(sema_t* semaphore, mutex_t* mutex, SQLHSTMT* stmt_array){
 
-	sema_wait(semaphore);
-	mutex_lock(mutex);
+	sema_wait(*semaphore);
+	mutex_lock(*mutex);
 
 	for(int i=0;i<CPL_STMT_MAX;i++){
 		if(stmt_array[i]!= NULL){
 			SQLHSTMT ret = stmt_array[i];
 			stmt_array[i] = NULL;
-			mutex_unlock(mutex);
+			mutex_unlock(*mutex);
 			return ret;
 		}
 	}
-	mutex_unlock(mutex);
-	sema_post(semaphore);
+	mutex_unlock(*mutex);
+	sema_post(*semaphore);
 
 	return NULL;
 }
 
 static void
-cpl_release_stmt(sema_t semaphore, mutex_t mutex, SQLHSTMT* stmt_array, SQLHSTMT stmt){
+cpl_release_stmt(sema_t* semaphore, mutex_t* mutex, SQLHSTMT* stmt_array, SQLHSTMT stmt){
 
-	mutex_lock(mutex);
+	mutex_lock(*mutex);
 
 	for(int i=0;i<CPL_STMT_MAX;i++){
 		if(stmt_array[i]== NULL){
 			stmt_array[i] = stmt;
-			mutex_unlock(mutex);
-			sema_post(semaphore);
+			mutex_unlock(*mutex);
+			sema_post(*semaphore);
+			return;
 		}
 	}
-	mutex_unlock(mutex);
-	sema_post(semaphore);
+	mutex_unlock(*mutex);
+	sema_post(*semaphore);
 }
 
 #define STMT_ACQUIRE(name) \
-	cpl_acquire_stmt(odbc->name ## _sem, odbc->name ## _lock, odbc->name ## _stmts);
+	cpl_acquire_stmt(&odbc->name ## _sem, &odbc->name ## _lock, odbc->name ## _stmts);
 
 #define STMT_RELEASE(name, stmt) \
-	cpl_release_stmt(odbc->name ## _sem, odbc->name ## _lock, odbc->name ## _stmts, stmt);
+	cpl_release_stmt(&odbc->name ## _sem, &odbc->name ## _lock, odbc->name ## _stmts, stmt);
 
 /***************************************************************************/
 /** Constructors and a Destructor                                         **/
@@ -907,22 +1335,41 @@ cpl_create_odbc_backend(const char* connection_string,
 
 	sema_init(odbc->create_session_sem, 4);
 	sema_init(odbc->create_object_sem, 4);
+	sema_init(odbc->create_objects_sem, 4);
 	sema_init(odbc->lookup_object_nt_sem, 4);
 	sema_init(odbc->lookup_object_t_sem, 4);
 	sema_init(odbc->lookup_object_nt_ext_sem, 4);
 	sema_init(odbc->lookup_object_t_ext_sem, 4);
 	sema_init(odbc->add_relation_sem, 4);
+	sema_init(odbc->add_relations_sem, 4);
 	sema_init(odbc->lookup_relation_sem, 4);
 	sema_init(odbc->lookup_object_property_wildcard_sem, 4);
 	sema_init(odbc->add_object_property_sem, 4);
+	sema_init(odbc->add_object_properties_sem, 4);
 	sema_init(odbc->add_relation_property_sem, 4);
+	sema_init(odbc->add_relation_properties_sem, 4);
 	sema_init(odbc->add_prefix_sem, 4);
 	sema_init(odbc->get_session_info_sem, 4);
     sema_init(odbc->get_all_objects_nt_sem, 4);
     sema_init(odbc->get_all_objects_t_sem, 4);
+	sema_init(odbc->get_all_objects_nt_page_sem, 4);
+	sema_init(odbc->get_all_objects_t_page_sem, 4);
 	sema_init(odbc->get_object_info_sem, 4);
+	sema_init(odbc->get_object_info_batch_sem, 4);
 	sema_init(odbc->get_object_ancestors_sem, 4);
 	sema_init(odbc->get_object_descendants_sem, 4);
+	sema_init(odbc->get_object_ancestors_typed_sem, 4);
+	sema_init(odbc->get_object_descendants_typed_sem, 4);
+	sema_init(odbc->get_object_ancestors_info_sem, 4);
+	sema_init(odbc->get_object_descendants_info_sem, 4);
+	sema_init(odbc->get_object_ancestors_page_sem, 4);
+	sema_init(odbc->get_object_descendants_page_sem, 4);
+	sema_init(odbc->get_object_ancestry_sem, 4);
+	sema_init(odbc->get_object_progeny_sem, 4);
+	sema_init(odbc->get_object_ancestry_all_sem, 4);
+	sema_init(odbc->get_object_progeny_all_sem, 4);
+	sema_init(odbc->get_object_ancestors_batch_sem, 4);
+	sema_init(odbc->get_object_descendants_batch_sem, 4);
 	sema_init(odbc->get_object_properties_sem, 4);
 	sema_init(odbc->get_object_properties_with_key_sem, 4);
 	sema_init(odbc->lookup_object_by_property_sem, 4);
@@ -931,26 +1378,53 @@ cpl_create_odbc_backend(const char* connection_string,
 	sema_init(odbc->has_immediate_ancestor_sem, 4);
 	sema_init(odbc->get_bundle_objects_sem, 4);
 	sema_init(odbc->get_bundle_relations_sem, 4);
+	sema_init(odbc->get_bundle_relations_page_sem, 4);
+	sema_init(odbc->get_bundle_relations_page_by_membership_sem, 4);
+	sema_init(odbc->get_bundle_objects_page_sem, 4);
+	sema_init(odbc->get_bundle_relations_page_ext_sem, 4);
+	sema_init(odbc->get_bundle_object_properties_sem, 4);
+	sema_init(odbc->get_bundle_relation_properties_sem, 4);
+	sema_init(odbc->get_all_relations_page_sem, 4);
+	sema_init(odbc->get_last_relation_id_sem, 4);
 	sema_init(odbc->get_prefixes_sem, 4);
 
 	mutex_init(odbc->create_session_lock);
 	mutex_init(odbc->create_object_lock);
+	mutex_init(odbc->create_objects_lock);
 	mutex_init(odbc->lookup_object_nt_lock);
 	mutex_init(odbc->lookup_object_t_lock);
 	mutex_init(odbc->lookup_object_nt_ext_lock);
 	mutex_init(odbc->lookup_object_t_ext_lock);
 	mutex_init(odbc->add_relation_lock);
+	mutex_init(odbc->add_relations_lock);
 	mutex_init(odbc->lookup_relation_lock);
 	mutex_init(odbc->lookup_object_property_wildcard_lock);
 	mutex_init(odbc->add_object_property_lock);
+	mutex_init(odbc->add_object_properties_lock);
 	mutex_init(odbc->add_relation_property_lock);
+	mutex_init(odbc->add_relation_properties_lock);
 	mutex_init(odbc->add_prefix_lock);
 	mutex_init(odbc->get_session_info_lock);
 	mutex_init(odbc->get_all_objects_nt_lock);
     mutex_init(odbc->get_all_objects_t_lock);
+	mutex_init(odbc->get_all_objects_nt_page_lock);
+	mutex_init(odbc->get_all_objects_t_page_lock);
     mutex_init(odbc->get_object_info_lock);
+    mutex_init(odbc->get_object_info_batch_lock);
 	mutex_init(odbc->get_object_ancestors_lock);
 	mutex_init(odbc->get_object_descendants_lock);
+	mutex_init(odbc->get_object_ancestors_typed_lock);
+	mutex_init(odbc->get_object_descendants_typed_lock);
+	mutex_init(odbc->get_object_ancestors_info_lock);
+	mutex_init(odbc->get_object_descendants_info_lock);
+	mutex_init(odbc->get_object_ancestors_page_lock);
+	mutex_init(odbc->get_object_descendants_page_lock);
+	mutex_init(odbc->get_object_ancestry_lock);
+	mutex_init(odbc->get_object_progeny_lock);
+	mutex_init(odbc->get_object_ancestry_all_lock);
+	mutex_init(odbc->get_object_progeny_all_lock);
+	mutex_init(odbc->get_object_ancestors_batch_lock);
+	mutex_init(odbc->get_object_descendants_batch_lock);
 	mutex_init(odbc->get_object_properties_lock);
 	mutex_init(odbc->get_object_properties_with_key_lock);
 	mutex_init(odbc->lookup_object_by_property_lock);
@@ -959,6 +1433,14 @@ cpl_create_odbc_backend(const char* connection_string,
 	mutex_init(odbc->has_immediate_ancestor_lock);
 	mutex_init(odbc->get_bundle_objects_lock);
 	mutex_init(odbc->get_bundle_relations_lock);
+	mutex_init(odbc->get_bundle_relations_page_lock);
+	mutex_init(odbc->get_bundle_relations_page_by_membership_lock);
+	mutex_init(odbc->get_bundle_objects_page_lock);
+	mutex_init(odbc->get_bundle_relations_page_ext_lock);
+	mutex_init(odbc->get_bundle_object_properties_lock);
+	mutex_init(odbc->get_bundle_relation_properties_lock);
+	mutex_init(odbc->get_all_relations_page_lock);
+	mutex_init(odbc->get_last_relation_id_lock);
 	mutex_init(odbc->get_prefixes_lock);
 	// Open the database connection
 	
@@ -977,22 +1459,41 @@ cpl_create_odbc_backend(const char* connection_string,
 err_sync:
 	sema_destroy(odbc->create_session_sem);
 	sema_destroy(odbc->create_object_sem);
+	sema_destroy(odbc->create_objects_sem);
 	sema_destroy(odbc->lookup_object_nt_sem);
 	sema_destroy(odbc->lookup_object_t_sem);
 	sema_destroy(odbc->lookup_object_nt_ext_sem);
 	sema_destroy(odbc->lookup_object_t_ext_sem);
 	sema_destroy(odbc->add_relation_sem);
+	sema_destroy(odbc->add_relations_sem);
 	sema_destroy(odbc->lookup_relation_sem);
 	sema_destroy(odbc->lookup_object_property_wildcard_sem);
 	sema_destroy(odbc->add_object_property_sem);
+	sema_destroy(odbc->add_object_properties_sem);
 	sema_destroy(odbc->add_relation_property_sem);
+	sema_destroy(odbc->add_relation_properties_sem);
 	sema_destroy(odbc->add_prefix_sem);
 	sema_destroy(odbc->get_session_info_sem);
 	sema_destroy(odbc->get_all_objects_nt_sem);
     sema_destroy(odbc->get_all_objects_t_sem);
+	sema_destroy(odbc->get_all_objects_nt_page_sem);
+	sema_destroy(odbc->get_all_objects_t_page_sem);
     sema_destroy(odbc->get_object_info_sem);
+    sema_destroy(odbc->get_object_info_batch_sem);
 	sema_destroy(odbc->get_object_ancestors_sem);
 	sema_destroy(odbc->get_object_descendants_sem);
+	sema_destroy(odbc->get_object_ancestors_typed_sem);
+	sema_destroy(odbc->get_object_descendants_typed_sem);
+	sema_destroy(odbc->get_object_ancestors_info_sem);
+	sema_destroy(odbc->get_object_descendants_info_sem);
+	sema_destroy(odbc->get_object_ancestors_page_sem);
+	sema_destroy(odbc->get_object_descendants_page_sem);
+	sema_destroy(odbc->get_object_ancestry_sem);
+	sema_destroy(odbc->get_object_progeny_sem);
+	sema_destroy(odbc->get_object_ancestry_all_sem);
+	sema_destroy(odbc->get_object_progeny_all_sem);
+	sema_destroy(odbc->get_object_ancestors_batch_sem);
+	sema_destroy(odbc->get_object_descendants_batch_sem);
 	sema_destroy(odbc->get_object_properties_sem);
 	sema_destroy(odbc->get_object_properties_with_key_sem);
 	sema_destroy(odbc->lookup_object_by_property_sem);
@@ -1001,26 +1502,53 @@ err_sync:
 	sema_destroy(odbc->has_immediate_ancestor_sem);
 	sema_destroy(odbc->get_bundle_objects_sem);
 	sema_destroy(odbc->get_bundle_relations_sem);
+	sema_destroy(odbc->get_bundle_relations_page_sem);
+	sema_destroy(odbc->get_bundle_relations_page_by_membership_sem);
+	sema_destroy(odbc->get_bundle_objects_page_sem);
+	sema_destroy(odbc->get_bundle_relations_page_ext_sem);
+	sema_destroy(odbc->get_bundle_object_properties_sem);
+	sema_destroy(odbc->get_bundle_relation_properties_sem);
+	sema_destroy(odbc->get_all_relations_page_sem);
+	sema_destroy(odbc->get_last_relation_id_sem);
 	sema_destroy(odbc->get_prefixes_sem);
 
 	mutex_destroy(odbc->create_session_lock);
 	mutex_destroy(odbc->create_object_lock);
+	mutex_destroy(odbc->create_objects_lock);
 	mutex_destroy(odbc->lookup_object_nt_lock);
 	mutex_destroy(odbc->lookup_object_t_lock);
 	mutex_destroy(odbc->lookup_object_nt_ext_lock);
 	mutex_destroy(odbc->lookup_object_t_ext_lock);
 	mutex_destroy(odbc->add_relation_lock);
+	mutex_destroy(odbc->add_relations_lock);
 	mutex_destroy(odbc->lookup_relation_lock);
 	mutex_destroy(odbc->lookup_object_property_wildcard_lock);
 	mutex_destroy(odbc->add_object_property_lock);
+	mutex_destroy(odbc->add_object_properties_lock);
 	mutex_destroy(odbc->add_relation_property_lock);
+	mutex_destroy(odbc->add_relation_properties_lock);
 	mutex_destroy(odbc->add_prefix_lock);
 	mutex_destroy(odbc->get_session_info_lock);
 	mutex_destroy(odbc->get_all_objects_nt_lock);
     mutex_destroy(odbc->get_all_objects_t_lock);
+	mutex_destroy(odbc->get_all_objects_nt_page_lock);
+	mutex_destroy(odbc->get_all_objects_t_page_lock);
     mutex_destroy(odbc->get_object_info_lock);
+    mutex_destroy(odbc->get_object_info_batch_lock);
 	mutex_destroy(odbc->get_object_ancestors_lock);
 	mutex_destroy(odbc->get_object_descendants_lock);
+	mutex_destroy(odbc->get_object_ancestors_typed_lock);
+	mutex_destroy(odbc->get_object_descendants_typed_lock);
+	mutex_destroy(odbc->get_object_ancestors_info_lock);
+	mutex_destroy(odbc->get_object_descendants_info_lock);
+	mutex_destroy(odbc->get_object_ancestors_page_lock);
+	mutex_destroy(odbc->get_object_descendants_page_lock);
+	mutex_destroy(odbc->get_object_ancestry_lock);
+	mutex_destroy(odbc->get_object_progeny_lock);
+	mutex_destroy(odbc->get_object_ancestry_all_lock);
+	mutex_destroy(odbc->get_object_progeny_all_lock);
+	mutex_destroy(odbc->get_object_ancestors_batch_lock);
+	mutex_destroy(odbc->get_object_descendants_batch_lock);
 	mutex_destroy(odbc->get_object_properties_lock);
 	mutex_destroy(odbc->get_object_properties_with_key_lock);
 	mutex_destroy(odbc->lookup_object_by_property_lock);
@@ -1029,6 +1557,14 @@ err_sync:
 	mutex_destroy(odbc->has_immediate_ancestor_lock);
 	mutex_destroy(odbc->get_bundle_objects_lock);
 	mutex_destroy(odbc->get_bundle_relations_lock);
+	mutex_destroy(odbc->get_bundle_relations_page_lock);
+	mutex_destroy(odbc->get_bundle_relations_page_by_membership_lock);
+	mutex_destroy(odbc->get_bundle_objects_page_lock);
+	mutex_destroy(odbc->get_bundle_relations_page_ext_lock);
+	mutex_destroy(odbc->get_bundle_object_properties_lock);
+	mutex_destroy(odbc->get_bundle_relation_properties_lock);
+	mutex_destroy(odbc->get_all_relations_page_lock);
+	mutex_destroy(odbc->get_last_relation_id_lock);
 	mutex_destroy(odbc->get_prefixes_lock);
 
 	delete odbc;
@@ -1097,22 +1633,41 @@ cpl_odbc_destroy(struct _cpl_db_backend_t* backend)
 	
 	sema_destroy(odbc->create_session_sem);
 	sema_destroy(odbc->create_object_sem);
+	sema_destroy(odbc->create_objects_sem);
 	sema_destroy(odbc->lookup_object_nt_sem);
 	sema_destroy(odbc->lookup_object_t_sem);
 	sema_destroy(odbc->lookup_object_nt_ext_sem);
 	sema_destroy(odbc->lookup_object_t_ext_sem);
 	sema_destroy(odbc->add_relation_sem);
+	sema_destroy(odbc->add_relations_sem);
 	sema_destroy(odbc->lookup_relation_sem);
 	sema_destroy(odbc->lookup_object_property_wildcard_sem);
 	sema_destroy(odbc->add_object_property_sem);
+	sema_destroy(odbc->add_object_properties_sem);
 	sema_destroy(odbc->add_relation_property_sem);
+	sema_destroy(odbc->add_relation_properties_sem);
 	sema_destroy(odbc->add_prefix_sem);
 	sema_destroy(odbc->get_session_info_sem);
 	sema_destroy(odbc->get_all_objects_nt_sem);
     sema_destroy(odbc->get_all_objects_t_sem);
+	sema_destroy(odbc->get_all_objects_nt_page_sem);
+	sema_destroy(odbc->get_all_objects_t_page_sem);
     sema_destroy(odbc->get_object_info_sem);
+    sema_destroy(odbc->get_object_info_batch_sem);
 	sema_destroy(odbc->get_object_ancestors_sem);
 	sema_destroy(odbc->get_object_descendants_sem);
+	sema_destroy(odbc->get_object_ancestors_typed_sem);
+	sema_destroy(odbc->get_object_descendants_typed_sem);
+	sema_destroy(odbc->get_object_ancestors_info_sem);
+	sema_destroy(odbc->get_object_descendants_info_sem);
+	sema_destroy(odbc->get_object_ancestors_page_sem);
+	sema_destroy(odbc->get_object_descendants_page_sem);
+	sema_destroy(odbc->get_object_ancestry_sem);
+	sema_destroy(odbc->get_object_progeny_sem);
+	sema_destroy(odbc->get_object_ancestry_all_sem);
+	sema_destroy(odbc->get_object_progeny_all_sem);
+	sema_destroy(odbc->get_object_ancestors_batch_sem);
+	sema_destroy(odbc->get_object_descendants_batch_sem);
 	sema_destroy(odbc->get_object_properties_sem);
 	sema_destroy(odbc->get_object_properties_with_key_sem);
 	sema_destroy(odbc->lookup_object_by_property_sem);
@@ -1121,26 +1676,53 @@ cpl_odbc_destroy(struct _cpl_db_backend_t* backend)
 	sema_destroy(odbc->has_immediate_ancestor_sem);
 	sema_destroy(odbc->get_bundle_objects_sem);
 	sema_destroy(odbc->get_bundle_relations_sem);
+	sema_destroy(odbc->get_bundle_relations_page_sem);
+	sema_destroy(odbc->get_bundle_relations_page_by_membership_sem);
+	sema_destroy(odbc->get_bundle_objects_page_sem);
+	sema_destroy(odbc->get_bundle_relations_page_ext_sem);
+	sema_destroy(odbc->get_bundle_object_properties_sem);
+	sema_destroy(odbc->get_bundle_relation_properties_sem);
+	sema_destroy(odbc->get_all_relations_page_sem);
+	sema_destroy(odbc->get_last_relation_id_sem);
 	sema_destroy(odbc->get_prefixes_sem);
 	
 	mutex_destroy(odbc->create_session_lock);
 	mutex_destroy(odbc->create_object_lock);
+	mutex_destroy(odbc->create_objects_lock);
 	mutex_destroy(odbc->lookup_object_nt_lock);
 	mutex_destroy(odbc->lookup_object_t_lock);
 	mutex_destroy(odbc->lookup_object_nt_ext_lock);
 	mutex_destroy(odbc->lookup_object_t_ext_lock);
 	mutex_destroy(odbc->add_relation_lock);
+	mutex_destroy(odbc->add_relations_lock);
 	mutex_destroy(odbc->lookup_relation_lock);
 	mutex_destroy(odbc->lookup_object_property_wildcard_lock);
 	mutex_destroy(odbc->add_object_property_lock);
+	mutex_destroy(odbc->add_object_properties_lock);
 	mutex_destroy(odbc->add_relation_property_lock);
+	mutex_destroy(odbc->add_relation_properties_lock);
 	mutex_destroy(odbc->add_prefix_lock);
 	mutex_destroy(odbc->get_session_info_lock);
 	mutex_destroy(odbc->get_all_objects_nt_lock);
     mutex_destroy(odbc->get_all_objects_t_lock);
+	mutex_destroy(odbc->get_all_objects_nt_page_lock);
+	mutex_destroy(odbc->get_all_objects_t_page_lock);
     mutex_destroy(odbc->get_object_info_lock);
+    mutex_destroy(odbc->get_object_info_batch_lock);
 	mutex_destroy(odbc->get_object_ancestors_lock);
 	mutex_destroy(odbc->get_object_descendants_lock);
+	mutex_destroy(odbc->get_object_ancestors_typed_lock);
+	mutex_destroy(odbc->get_object_descendants_typed_lock);
+	mutex_destroy(odbc->get_object_ancestors_info_lock);
+	mutex_destroy(odbc->get_object_descendants_info_lock);
+	mutex_destroy(odbc->get_object_ancestors_page_lock);
+	mutex_destroy(odbc->get_object_descendants_page_lock);
+	mutex_destroy(odbc->get_object_ancestry_lock);
+	mutex_destroy(odbc->get_object_progeny_lock);
+	mutex_destroy(odbc->get_object_ancestry_all_lock);
+	mutex_destroy(odbc->get_object_progeny_all_lock);
+	mutex_destroy(odbc->get_object_ancestors_batch_lock);
+	mutex_destroy(odbc->get_object_descendants_batch_lock);
 	mutex_destroy(odbc->get_object_properties_lock);
 	mutex_destroy(odbc->get_object_properties_with_key_lock);
 	mutex_destroy(odbc->lookup_object_by_property_lock);
@@ -1149,6 +1731,14 @@ cpl_odbc_destroy(struct _cpl_db_backend_t* backend)
 	mutex_destroy(odbc->has_immediate_ancestor_lock);
 	mutex_destroy(odbc->get_bundle_objects_lock);
 	mutex_destroy(odbc->get_bundle_relations_lock);
+	mutex_destroy(odbc->get_bundle_relations_page_lock);
+	mutex_destroy(odbc->get_bundle_relations_page_by_membership_lock);
+	mutex_destroy(odbc->get_bundle_objects_page_lock);
+	mutex_destroy(odbc->get_bundle_relations_page_ext_lock);
+	mutex_destroy(odbc->get_bundle_object_properties_lock);
+	mutex_destroy(odbc->get_bundle_relation_properties_lock);
+	mutex_destroy(odbc->get_all_relations_page_lock);
+	mutex_destroy(odbc->get_last_relation_id_lock);
 	mutex_destroy(odbc->get_prefixes_lock);
 	delete odbc;
 	
@@ -1335,6 +1925,119 @@ err:
 	return CPL_E_STATEMENT_ERROR;
 }
 
+
+/**
+ * Create the objects whose names are listed in a PostgreSQL array literal,
+ * such as {"a","b"}. This is a helper for cpl_odbc_create_objects().
+ *
+ * @param odbc the backend structure
+ * @param prefix the namespace prefix
+ * @param type the object type
+ * @param name_array the array literal with the object names
+ * @param ids the vector to which the new IDs are appended, in ascending order
+ * @return CPL_OK or an error code
+ */
+static cpl_return_t
+cpl_odbc_create_objects_chunk(cpl_odbc_t* odbc,
+							  const char* prefix,
+							  const int type,
+							  const std::string& name_array,
+							  std::vector<cpl_id_t>& ids)
+{
+	SQL_START;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+	std::vector<cpl_id_t> chunk;
+
+	SQLHSTMT stmt = STMT_ACQUIRE(create_objects);
+
+retry:
+
+	SQL_BIND_VARCHAR(stmt, 1, CPL_PREFIX_LEN, prefix);
+	SQL_BIND_INTEGER(stmt, 2, type);
+	SQL_BIND_VARCHAR(stmt, 3, name_array.length(), name_array.c_str());
+
+	// Insert the new rows to the objects table
+
+	SQL_EXECUTE(stmt);
+
+	r = cpl_sql_fetch_all_ids(stmt, chunk);
+	STMT_RELEASE(create_objects, stmt);
+	if (!CPL_IS_OK(r)) return r;
+
+
+	// Finish. The IDs are drawn from the sequence in the order of the names,
+	// but RETURNING does not promise any particular order, so sort them.
+
+	std::sort(chunk.begin(), chunk.end());
+	ids.insert(ids.end(), chunk.begin(), chunk.end());
+	return CPL_OK;
+
+
+	// Error handling
+
+err:
+	STMT_RELEASE(create_objects, stmt);
+	return CPL_E_STATEMENT_ERROR;
+}
+
+
+/**
+ * Create several objects with the same prefix and type at once. The names
+ * are sent to the database in chunks of at most CPL_ID_BATCH_MAX, each of
+ * which is inserted by a single statement. If a chunk fails, the objects
+ * from the previous chunks remain created.
+ *
+ * @param backend the pointer to the backend structure
+ * @param prefix the namespace prefix
+ * @param names the array of object names
+ * @param num_names the number of elements in the array
+ * @param type the object type
+ * @param out_ids the array of num_names elements to store the object IDs,
+ *                in the same order as the names
+ * @return CPL_OK or an error code
+ */
+extern "C" cpl_return_t
+cpl_odbc_create_objects(struct _cpl_db_backend_t* backend,
+						const char* prefix,
+						const char* const* names,
+						const size_t num_names,
+						const int type,
+						cpl_id_t* out_ids)
+{
+	assert(backend != NULL && prefix != NULL
+			&& names != NULL && CPL_IS_OBJECT_TYPE(type));
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+	std::vector<cpl_id_t> ids;
+	ids.reserve(num_names);
+
+	for (size_t start = 0; start < num_names; start += CPL_ID_BATCH_MAX) {
+
+		size_t end = start + CPL_ID_BATCH_MAX;
+		if (end > num_names) end = num_names;
+
+		std::string name_array = "{";
+		for (size_t k = start; k < end; k++) {
+			if (k > start) name_array += ",";
+			cpl_sql_append_array_string(name_array, names[k]);
+		}
+		name_array += "}";
+
+		r = cpl_odbc_create_objects_chunk(odbc, prefix, type, name_array, ids);
+		if (!CPL_IS_OK(r)) return r;
+
+		if (ids.size() != end) return CPL_E_INTERNAL_ERROR;
+	}
+
+	if (out_ids != NULL) {
+		for (size_t k = 0; k < num_names; k++) out_ids[k] = ids[k];
+	}
+
+	return CPL_OK;
+}
+
 /**
  * Look up an object by name. If multiple objects share the same name,
  * get one.
@@ -1618,6 +2321,134 @@ err:
 }
 
 
+/**
+ * Add the relations described by three PostgreSQL array literals of equal
+ * length. This is a helper for cpl_odbc_add_relations().
+ *
+ * @param odbc the backend structure
+ * @param from_array the array literal with the source IDs
+ * @param to_array the array literal with the destination IDs
+ * @param type_array the array literal with the relation types
+ * @param ids the vector to which the new IDs are appended, in ascending order
+ * @return CPL_OK or an error code
+ */
+static cpl_return_t
+cpl_odbc_add_relations_chunk(cpl_odbc_t* odbc,
+							 const std::string& from_array,
+							 const std::string& to_array,
+							 const std::string& type_array,
+							 std::vector<cpl_id_t>& ids)
+{
+	SQL_START;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+	std::vector<cpl_id_t> chunk;
+
+	SQLHSTMT stmt = STMT_ACQUIRE(add_relations);
+
+retry:
+
+	SQL_BIND_VARCHAR(stmt, 1, from_array.length(), from_array.c_str());
+	SQL_BIND_VARCHAR(stmt, 2, to_array.length(), to_array.c_str());
+	SQL_BIND_VARCHAR(stmt, 3, type_array.length(), type_array.c_str());
+
+	// Execute
+
+	SQL_EXECUTE(stmt);
+
+	r = cpl_sql_fetch_all_ids(stmt, chunk);
+	STMT_RELEASE(add_relations, stmt);
+	if (!CPL_IS_OK(r)) return r;
+
+	// The IDs come from the sequence in the input order
+
+	std::sort(chunk.begin(), chunk.end());
+	ids.insert(ids.end(), chunk.begin(), chunk.end());
+	return CPL_OK;
+
+
+	// Error handling
+
+err:
+	STMT_RELEASE(add_relations, stmt);
+	return CPL_E_STATEMENT_ERROR;
+}
+
+
+/**
+ * Add many provenance relations at once. The relations are sent to
+ * the database in chunks of at most CPL_ID_BATCH_MAX, one statement
+ * per chunk. If a chunk fails, the relations from the previous chunks
+ * remain in the database.
+ *
+ * @param backend the pointer to the backend structure
+ * @param from_ids the array of the relation source IDs
+ * @param to_ids the array of the relation destination IDs
+ * @param types the array of the relation types
+ * @param num_relations the number of elements in each of the arrays
+ * @param out_ids the array to store the relation IDs, in the input order
+ * @return CPL_OK or an error code
+ */
+extern "C" cpl_return_t
+cpl_odbc_add_relations(struct _cpl_db_backend_t* backend,
+					   const cpl_id_t* from_ids,
+					   const cpl_id_t* to_ids,
+					   const int* types,
+					   const size_t num_relations,
+					   cpl_id_t* out_ids)
+{
+	assert(backend != NULL && from_ids != NULL && to_ids != NULL
+			&& types != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+	std::vector<cpl_id_t> ids;
+	ids.reserve(num_relations);
+	char buf[32];
+
+	for (size_t start = 0; start < num_relations; start += CPL_ID_BATCH_MAX) {
+
+		size_t end = start + CPL_ID_BATCH_MAX;
+		if (end > num_relations) end = num_relations;
+
+		std::string from_array = "{";
+		std::string to_array = "{";
+		std::string type_array = "{";
+
+		for (size_t k = start; k < end; k++) {
+			if (k > start) {
+				from_array += ",";
+				to_array += ",";
+				type_array += ",";
+			}
+
+			snprintf(buf, sizeof(buf), "%llu", (unsigned long long) from_ids[k]);
+			from_array += buf;
+			snprintf(buf, sizeof(buf), "%llu", (unsigned long long) to_ids[k]);
+			to_array += buf;
+			snprintf(buf, sizeof(buf), "%d", types[k]);
+			type_array += buf;
+		}
+
+		from_array += "}";
+		to_array += "}";
+		type_array += "}";
+
+		r = cpl_odbc_add_relations_chunk(odbc, from_array, to_array,
+										 type_array, ids);
+		if (!CPL_IS_OK(r)) return r;
+
+		if (ids.size() != end) return CPL_E_INTERNAL_ERROR;
+	}
+
+	if (out_ids != NULL) {
+		for (size_t k = 0; k < num_relations; k++) out_ids[k] = ids[k];
+	}
+
+	return CPL_OK;
+}
+
+
 /**
  * Determine whether the given object has the given ancestor
  * 
@@ -1793,31 +2624,214 @@ err:
 
 
 /**
- * Lookup an relation based on from_id, to_id and type
+ * Add the properties described by five PostgreSQL array literals of equal
+ * length to either objects or relations. This is a helper for
+ * cpl_odbc_add_properties().
  *
- * @param backend the pointer to the backend structure
- * @param prefix the property prefix
- * @param key the property name
- * @param value the property value
- * @param callback the iterator callback function
- * @param context the user context to be passed to the iterator function
- * @return CPL_OK, CPL_E_NOT_FOUND, or an error code
+ * @param odbc the backend structure
+ * @param relations true for relation properties, false for object properties
+ * @param arrays the array literals with the IDs, prefixes, keys, values,
+ *               and types, in this order
+ * @return CPL_OK or an error code
  */
-extern "C" cpl_return_t
-cpl_odbc_lookup_relation(struct _cpl_db_backend_t* backend,
-                         const cpl_id_t from_id,
-                         const cpl_id_t to_id,
-                         const long type,
-                         cpl_id_t* out_id)
+static cpl_return_t
+cpl_odbc_add_properties_chunk(cpl_odbc_t* odbc,
+							  const bool relations,
+							  const std::string* arrays)
 {
-    assert(backend != NULL);
-    cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
-    SQL_START;
-
-    cpl_id_t id = CPL_NONE;
-    cpl_return_t r = CPL_E_INTERNAL_ERROR;
+	SQL_START;
 
-    // Prepare the statement
+	SQLHSTMT stmt;
+	if (relations) {
+		stmt = STMT_ACQUIRE(add_relation_properties);
+	}
+	else {
+		stmt = STMT_ACQUIRE(add_object_properties);
+	}
+
+retry:
+
+	for (int k = 0; k < 5; k++) {
+		SQL_BIND_VARCHAR(stmt, k + 1, arrays[k].length(), arrays[k].c_str());
+	}
+
+	// Execute
+
+	SQL_EXECUTE(stmt);
+
+
+	// Cleanup
+
+	if (relations) {
+		STMT_RELEASE(add_relation_properties, stmt);
+	}
+	else {
+		STMT_RELEASE(add_object_properties, stmt);
+	}
+	return CPL_OK;
+
+
+	// Error handling
+
+err:
+	if (relations) {
+		STMT_RELEASE(add_relation_properties, stmt);
+	}
+	else {
+		STMT_RELEASE(add_object_properties, stmt);
+	}
+	return CPL_E_STATEMENT_ERROR;
+}
+
+
+/**
+ * Add the properties described by parallel arrays to either objects or
+ * relations. The properties are sent to the database in chunks of at most
+ * CPL_ID_BATCH_MAX, one statement per chunk. Duplicates are ignored the
+ * same way as by a series of cpl_odbc_add_object_property() calls: only the
+ * first value for each ID, prefix, key, and type is stored.
+ *
+ * @param odbc the backend structure
+ * @param relations true for relation properties, false for object properties
+ * @param ids the array of object or relation IDs
+ * @param prefixes the array of namespace prefixes
+ * @param keys the array of keys
+ * @param values the array of values
+ * @param types the array of property types
+ * @param num_properties the number of elements in each of the arrays
+ * @return CPL_OK or an error code
+ */
+static cpl_return_t
+cpl_odbc_add_properties(cpl_odbc_t* odbc,
+						const bool relations,
+						const cpl_id_t* ids,
+						const char* const* prefixes,
+						const char* const* keys,
+						const char* const* values,
+						const int* types,
+						const size_t num_properties)
+{
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+	char buf[32];
+
+	for (size_t start = 0; start < num_properties; start += CPL_ID_BATCH_MAX) {
+
+		size_t end = start + CPL_ID_BATCH_MAX;
+		if (end > num_properties) end = num_properties;
+
+		// The IDs, prefixes, keys, values, and types
+
+		std::string arrays[5];
+		for (int a = 0; a < 5; a++) arrays[a] = "{";
+
+		for (size_t k = start; k < end; k++) {
+			if (k > start) {
+				for (int a = 0; a < 5; a++) arrays[a] += ",";
+			}
+
+			snprintf(buf, sizeof(buf), "%llu", (unsigned long long) ids[k]);
+			arrays[0] += buf;
+			cpl_sql_append_array_string(arrays[1], prefixes[k]);
+			cpl_sql_append_array_string(arrays[2], keys[k]);
+			cpl_sql_append_array_string(arrays[3], values[k]);
+			snprintf(buf, sizeof(buf), "%d", types[k]);
+			arrays[4] += buf;
+		}
+
+		for (int a = 0; a < 5; a++) arrays[a] += "}";
+
+		r = cpl_odbc_add_properties_chunk(odbc, relations, arrays);
+		if (!CPL_IS_OK(r)) return r;
+	}
+
+	return CPL_OK;
+}
+
+
+/**
+ * Add many properties to objects at once
+ *
+ * @param backend the pointer to the backend structure
+ * @param ids the array of object IDs
+ * @param prefixes the array of namespace prefixes
+ * @param keys the array of keys
+ * @param values the array of values
+ * @param types the array of property types
+ * @param num_properties the number of elements in each of the arrays
+ * @return CPL_OK or an error code
+ */
+extern "C" cpl_return_t
+cpl_odbc_add_object_properties(struct _cpl_db_backend_t* backend,
+							   const cpl_id_t* ids,
+							   const char* const* prefixes,
+							   const char* const* keys,
+							   const char* const* values,
+							   const int* types,
+							   const size_t num_properties)
+{
+	assert(backend != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+
+	return cpl_odbc_add_properties(odbc, false, ids, prefixes, keys,
+								   values, types, num_properties);
+}
+
+
+/**
+ * Add many properties to relations at once
+ *
+ * @param backend the pointer to the backend structure
+ * @param ids the array of relation IDs
+ * @param prefixes the array of namespace prefixes
+ * @param keys the array of keys
+ * @param values the array of values
+ * @param types the array of property types
+ * @param num_properties the number of elements in each of the arrays
+ * @return CPL_OK or an error code
+ */
+extern "C" cpl_return_t
+cpl_odbc_add_relation_properties(struct _cpl_db_backend_t* backend,
+								 const cpl_id_t* ids,
+								 const char* const* prefixes,
+								 const char* const* keys,
+								 const char* const* values,
+								 const int* types,
+								 const size_t num_properties)
+{
+	assert(backend != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+
+	return cpl_odbc_add_properties(odbc, true, ids, prefixes, keys,
+								   values, types, num_properties);
+}
+
+
+/**
+ * Lookup an relation based on from_id, to_id and type
+ *
+ * @param backend the pointer to the backend structure
+ * @param prefix the property prefix
+ * @param key the property name
+ * @param value the property value
+ * @param callback the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_E_NOT_FOUND, or an error code
+ */
+extern "C" cpl_return_t
+cpl_odbc_lookup_relation(struct _cpl_db_backend_t* backend,
+                         const cpl_id_t from_id,
+                         const cpl_id_t to_id,
+                         const long type,
+                         cpl_id_t* out_id)
+{
+    assert(backend != NULL);
+    cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+    SQL_START;
+
+    cpl_id_t id = CPL_NONE;
+    cpl_return_t r = CPL_E_INTERNAL_ERROR;
+
+    // Prepare the statement
     SQLHSTMT stmt = STMT_ACQUIRE(lookup_relation);
 
     retry:
@@ -2192,58 +3206,115 @@ err:
 
 
 /**
- * Get information about the given provenance object
+ * Get one page of the objects in the database, ordered by their IDs. Call
+ * this repeatedly with after_id set to the ID of the last returned object
+ * to walk through a large result set without holding all of it in memory.
  *
  * @param backend the pointer to the backend structure
- * @param id the object ID
- * @param out_info the pointer to store the object info structure
- * @return CPL_OK or an error code
+ * @param prefix the namespace prefix
+ * @param flags a logical combination of CPL_I_* flags
+ * @param type the object type, or 0 for all types
+ * @param after_id return only objects with IDs greater than this one
+ * @param limit the maximum number of objects to return
+ * @param callback the iterator to be called for each matching object
+ * @param context the caller-provided iterator context
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
  */
 cpl_return_t
-cpl_odbc_get_object_info(struct _cpl_db_backend_t* backend,
-						 const cpl_id_t id,
-						 cpl_object_info_t** out_info)
+cpl_odbc_get_all_objects_page(struct _cpl_db_backend_t* backend,
+							  const char* prefix,
+							  const int flags,
+							  const int type,
+							  const cpl_id_t after_id,
+							  const size_t limit,
+							  cpl_object_info_iterator_t callback,
+							  void* context)
 {
 	assert(backend != NULL);
-	
 	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
-	
+
 	SQL_START;
 
 	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+	cplxx_object_info_t entry;
+	std::list<cplxx_object_info_t> entries;
+	SQL_TIMESTAMP_STRUCT t;
 
+	size_t prefix_size = CPL_PREFIX_LEN + 1;
+	size_t name_size = CPL_NAME_LEN + 1;
 
-	cpl_object_info_t* p = (cpl_object_info_t*) malloc(sizeof(*p));
-	if (p == NULL) return CPL_E_INSUFFICIENT_RESOURCES;
-	memset(p, 0, sizeof(*p));
-	p->id = id;
+	char* entry_prefix = (char*) alloca(prefix_size);
+	char* entry_name = (char*) alloca(name_size);
 
+	if (entry_prefix == NULL || entry_name == NULL) {
+		return CPL_E_INSUFFICIENT_RESOURCES;
+	}
 
-	// Prepare the statement
+	// Get and execute the statement
 
-	SQLHSTMT stmt = STMT_ACQUIRE(get_object_info);
+	SQLHSTMT stmt;
+	if (type == 0) {
+		stmt = STMT_ACQUIRE(get_all_objects_nt_page);
+	}
+	else {
+		stmt = STMT_ACQUIRE(get_all_objects_t_page);
+	}
 
 retry:
 
-	SQL_BIND_INTEGER(stmt, 1, id);
+	SQL_BIND_INTEGER(stmt, 1, after_id);
+	SQL_BIND_VARCHAR(stmt, 2, CPL_PREFIX_LEN, prefix);
+	if (type == 0) {
+		SQL_BIND_INTEGER(stmt, 3, limit);
+	}
+	else {
+		SQL_BIND_INTEGER(stmt, 3, type);
+		SQL_BIND_INTEGER(stmt, 4, limit);
+	}
 
+	entries.clear();
 
-	// Execute
-	
 	SQL_EXECUTE(stmt);
 
 
+	// Bind the columns
+
+	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 2, SQL_C_TYPE_TIMESTAMP, &t, sizeof(t), NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 3, SQL_C_CHAR, entry_prefix, prefix_size,
+					 NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 4, SQL_C_CHAR, entry_name, name_size, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 5, SQL_C_SLONG, &entry.type, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+
 	// Fetch the result
 
-	CPL_SQL_SIMPLE_FETCH(timestamp_as_unix_time, 1, &p->creation_time);
+	while (true) {
+
+		ret = SQLFetch(stmt);
+		if (!SQL_SUCCEEDED(ret)) {
+			if (ret != SQL_NO_DATA) {
+				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
+				goto err_close;
+			}
+			break;
+		}
+
+		entry.creation_time = cpl_sql_timestamp_to_unix_time(t);
+		entry.prefix = entry_prefix;
+		entry.name = entry_name;
+		entries.push_back(entry);
+	}
 
-	CPL_SQL_SIMPLE_FETCH_EXT(dynamically_allocated_string, 2, &p->prefix,
-							 true);
-	if (r == CPL_E_DB_NULL) p->prefix = strdup("");
-	CPL_SQL_SIMPLE_FETCH_EXT(dynamically_allocated_string, 3, &p->name, true);
-	if (r == CPL_E_DB_NULL) p->name = strdup("");
-	CPL_SQL_SIMPLE_FETCH(int, 4, (int*) &p->type);
-	
 	ret = SQLCloseCursor(stmt);
 	if (!SQL_SUCCEEDED(ret)) {
 		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
@@ -2251,64 +3322,1948 @@ retry:
 	}
 
 
-	// Cleanup
+	// Unlock
 
-	STMT_RELEASE(get_object_info, stmt);
-	
-	*out_info = p;
-	return CPL_OK;
+	if (type == 0) {
+		STMT_RELEASE(get_all_objects_nt_page, stmt);
+	}
+	else {
+		STMT_RELEASE(get_all_objects_t_page, stmt);
+	}
 
 
-	// Error handling
+	// If we did not get any data back, terminate
 
-err:
-	r = CPL_E_STATEMENT_ERROR;
+	if (entries.empty()) return CPL_S_NO_DATA;
 
-err_r:
-	STMT_RELEASE(get_object_info, stmt);
 
-	if (p->prefix != NULL) free(p->prefix);
-	if (p->name != NULL) free(p->name);
-	free(p);
+	// Call the user-provided callback function
 
-	return r;
-}
+	if (callback != NULL) {
+		std::list<cplxx_object_info_t>::iterator i;
+		for (i = entries.begin(); i != entries.end(); i++) {
 
+			strncpy(entry_prefix, i->prefix.c_str(), prefix_size);
+			strncpy(entry_name, i->name.c_str(), name_size);
+			entry_prefix[prefix_size - 1] = '\0';
+			entry_name[name_size - 1] = '\0';
 
+			cpl_object_info_t e;
+			e.id = i->id;
+			e.creation_time = i->creation_time;
+			e.prefix = entry_prefix;
+			e.name = entry_name;
+			e.type = i->type;
 
-/**
- * 
- * An entry in the result set of the queries issued by
- * cpl_odbc_get_object_relations().
- */ 
-typedef struct __get_object_relation__entry {
-	cpl_id_t relation_id;
-	cpl_id_t other_id;
-	long type;
-} __get_object_relation__entry_t;
+			r = callback(&e, context);
+			if (!CPL_IS_OK(r)) return r;
+		}
+	}
 
+	return CPL_OK;
 
-/**
- * Iterate over the ancestors or the descendants of a provenance object.
- *
- * @param backend the pointer to the backend structure
- * @param id the object ID
- * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
- *                  or CPL_D_DESCENDANTS)
- * @param flags the bitwise combination of flags describing how should
- *              the graph be traversed
- * @param callback the iterator callback function
- * @param context the user context to be passed to the iterator function
+
+	// Error handling
+
+err_close:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+	}
+
+err:
+	if (type == 0) {
+		STMT_RELEASE(get_all_objects_nt_page, stmt);
+	}
+	else {
+		STMT_RELEASE(get_all_objects_t_page, stmt);
+	}
+	return CPL_E_STATEMENT_ERROR;
+}
+
+
+/**
+ * Get information about the given provenance object
+ *
+ * @param backend the pointer to the backend structure
+ * @param id the object ID
+ * @param out_info the pointer to store the object info structure
+ * @return CPL_OK or an error code
+ */
+cpl_return_t
+cpl_odbc_get_object_info(struct _cpl_db_backend_t* backend,
+						 const cpl_id_t id,
+						 cpl_object_info_t** out_info)
+{
+	assert(backend != NULL);
+	
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+	
+	SQL_START;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+
+
+	cpl_object_info_t* p = (cpl_object_info_t*) malloc(sizeof(*p));
+	if (p == NULL) return CPL_E_INSUFFICIENT_RESOURCES;
+	memset(p, 0, sizeof(*p));
+	p->id = id;
+
+
+	// Prepare the statement
+
+	SQLHSTMT stmt = STMT_ACQUIRE(get_object_info);
+
+retry:
+
+	SQL_BIND_INTEGER(stmt, 1, id);
+
+
+	// Execute
+	
+	SQL_EXECUTE(stmt);
+
+
+	// Fetch the result
+
+	CPL_SQL_SIMPLE_FETCH(timestamp_as_unix_time, 1, &p->creation_time);
+
+	CPL_SQL_SIMPLE_FETCH_EXT(dynamically_allocated_string, 2, &p->prefix,
+							 true);
+	if (r == CPL_E_DB_NULL) p->prefix = strdup("");
+	CPL_SQL_SIMPLE_FETCH_EXT(dynamically_allocated_string, 3, &p->name, true);
+	if (r == CPL_E_DB_NULL) p->name = strdup("");
+	CPL_SQL_SIMPLE_FETCH(int, 4, (int*) &p->type);
+	
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+		goto err;
+	}
+
+
+	// Cleanup
+
+	STMT_RELEASE(get_object_info, stmt);
+	
+	*out_info = p;
+	return CPL_OK;
+
+
+	// Error handling
+
+err:
+	r = CPL_E_STATEMENT_ERROR;
+
+err_r:
+	STMT_RELEASE(get_object_info, stmt);
+
+	if (p->prefix != NULL) free(p->prefix);
+	if (p->name != NULL) free(p->name);
+	free(p);
+
+	return r;
+}
+
+
+
+/**
+ * Fetch the information about the objects listed in a PostgreSQL array
+ * literal, such as "{1,2,3}". This is a helper for
+ * cpl_odbc_get_object_info_batch().
+ *
+ * @param odbc the backend structure
+ * @param id_array the array literal with the object IDs
+ * @param entries the list to which the results are appended
+ * @return CPL_OK or an error code
+ */
+static cpl_return_t
+cpl_odbc_get_object_info_chunk(cpl_odbc_t* odbc,
+							   const std::string& id_array,
+							   std::list<cplxx_object_info_t>& entries)
+{
+	SQL_START;
+
+	cplxx_object_info_t entry;
+	std::list<cplxx_object_info_t> chunk;
+	SQL_TIMESTAMP_STRUCT t;
+
+	char entry_prefix[CPL_PREFIX_LEN + 1];
+	char entry_name[CPL_NAME_LEN + 1];
+
+
+	// Get and execute the statement
+
+	SQLHSTMT stmt = STMT_ACQUIRE(get_object_info_batch);
+
+retry:
+
+	chunk.clear();
+
+	SQL_BIND_VARCHAR(stmt, 1, id_array.length(), id_array.c_str());
+
+	SQL_EXECUTE(stmt);
+
+
+	// Bind the columns
+
+	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 2, SQL_C_TYPE_TIMESTAMP, &t, sizeof(t), NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 3, SQL_C_CHAR, entry_prefix, sizeof(entry_prefix),
+					 NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 4, SQL_C_CHAR, entry_name, sizeof(entry_name),
+					 NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 5, SQL_C_SLONG, &entry.type, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+
+	// Fetch the result
+
+	while (true) {
+
+		ret = SQLFetch(stmt);
+		if (!SQL_SUCCEEDED(ret)) {
+			if (ret != SQL_NO_DATA) {
+				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
+				goto err_close;
+			}
+			break;
+		}
+
+		entry.creation_time = cpl_sql_timestamp_to_unix_time(t);
+		entry.prefix = entry_prefix;
+		entry.name = entry_name;
+		chunk.push_back(entry);
+	}
+
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+		goto err;
+	}
+
+
+	// Unlock and return
+
+	STMT_RELEASE(get_object_info_batch, stmt);
+
+	entries.splice(entries.end(), chunk);
+	return CPL_OK;
+
+
+	// Error handling
+
+err_close:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+	}
+
+err:
+	STMT_RELEASE(get_object_info_batch, stmt);
+	return CPL_E_STATEMENT_ERROR;
+}
+
+
+/**
+ * Get information about several provenance objects at once. The IDs are
+ * sent to the database in chunks of at most CPL_ID_BATCH_MAX, so that a
+ * single round trip replaces up to that many calls to
+ * cpl_odbc_get_object_info().
+ *
+ * @param backend the pointer to the backend structure
+ * @param ids the array of object IDs
+ * @param num_ids the number of elements in the array
+ * @param callback the iterator to be called for each found object
+ * @param context the caller-provided iterator context
  * @return CPL_OK, CPL_S_NO_DATA, or an error code
  */
 cpl_return_t
-cpl_odbc_get_object_relations(struct _cpl_db_backend_t* backend,
-							 const cpl_id_t id,
-							 const int direction,
-							 const int flags,
-							 cpl_relation_iterator_t callback,
-							 void* context)
-{
+cpl_odbc_get_object_info_batch(struct _cpl_db_backend_t* backend,
+							   const cpl_id_t* ids,
+							   const size_t num_ids,
+							   cpl_object_info_iterator_t callback,
+							   void* context)
+{
+	assert(backend != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+	std::list<cplxx_object_info_t> entries;
+	char buf[32];
+
+	char entry_prefix[CPL_PREFIX_LEN + 1];
+	char entry_name[CPL_NAME_LEN + 1];
+
+
+	// Fetch the objects, one chunk of IDs at a time
+
+	for (size_t start = 0; start < num_ids; start += CPL_ID_BATCH_MAX) {
+
+		size_t end = start + CPL_ID_BATCH_MAX;
+		if (end > num_ids) end = num_ids;
+
+		std::string id_array = "{";
+		for (size_t k = start; k < end; k++) {
+			if (k > start) id_array += ",";
+			snprintf(buf, sizeof(buf), "%llu", (unsigned long long) ids[k]);
+			id_array += buf;
+		}
+		id_array += "}";
+
+		r = cpl_odbc_get_object_info_chunk(odbc, id_array, entries);
+		if (!CPL_IS_OK(r)) return r;
+	}
+
+
+	// If we did not get any data back, terminate
+
+	if (entries.empty()) return CPL_S_NO_DATA;
+
+
+	// Call the user-provided callback function
+
+	if (callback != NULL) {
+		std::list<cplxx_object_info_t>::iterator i;
+		for (i = entries.begin(); i != entries.end(); i++) {
+
+			strncpy(entry_prefix, i->prefix.c_str(), sizeof(entry_prefix));
+			strncpy(entry_name, i->name.c_str(), sizeof(entry_name));
+			entry_prefix[sizeof(entry_prefix) - 1] = '\0';
+			entry_name[sizeof(entry_name) - 1] = '\0';
+
+			cpl_object_info_t e;
+			e.id = i->id;
+			e.creation_time = i->creation_time;
+			e.prefix = entry_prefix;
+			e.name = entry_name;
+			e.type = i->type;
+
+			r = callback(&e, context);
+			if (!CPL_IS_OK(r)) return r;
+		}
+	}
+
+	return CPL_OK;
+}
+
+
+/**
+ * 
+ * An entry in the result set of the queries issued by
+ * cpl_odbc_get_object_relations().
+ */ 
+typedef struct __get_object_relation__entry {
+	cpl_id_t relation_id;
+	cpl_id_t other_id;
+	long type;
+} __get_object_relation__entry_t;
+
+
+/**
+ * An entry in the result set of the queries issued by
+ * cpl_odbc_get_object_relations_info().
+ */
+typedef struct __get_object_relation_info__entry {
+	cpl_id_t relation_id;
+	int type;
+	cplxx_object_info_t other;
+} __get_object_relation_info__entry_t;
+
+
+/**
+ * Iterate over the ancestors or the descendants of a provenance object,
+ * joined with the information about the objects on the other ends.
+ *
+ * @param backend the pointer to the backend structure
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param flags the bitwise combination of flags describing how should
+ *              the graph be traversed
+ * @param type_mask return only the relations whose types are selected
+ *                  by this mask, or CPL_R_ALL_TYPES
+ * @param callback the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+cpl_return_t
+cpl_odbc_get_object_relations_info(struct _cpl_db_backend_t* backend,
+								   const cpl_id_t id,
+								   const int direction,
+								   const int flags,
+								   const int type_mask,
+								   cpl_relation_info_iterator_t callback,
+								   void* context)
+{
+	assert(backend != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+
+	SQL_START;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+
+	std::list<__get_object_relation_info__entry_t> entries;
+	__get_object_relation_info__entry_t entry;
+	SQL_TIMESTAMP_STRUCT t;
+
+	char entry_prefix[CPL_PREFIX_LEN + 1];
+	char entry_name[CPL_NAME_LEN + 1];
+
+	std::string type_array = cpl_sql_type_mask_array(type_mask);
+
+
+	// Prepare the statement
+
+	SQLHSTMT stmt;
+	if (direction == CPL_D_ANCESTORS) {
+		stmt = STMT_ACQUIRE(get_object_ancestors_info);
+	}
+	else {
+		stmt = STMT_ACQUIRE(get_object_descendants_info);
+	}
+
+retry:
+
+	entries.clear();
+
+	SQL_BIND_INTEGER(stmt, 1, id);
+	SQL_BIND_VARCHAR(stmt, 2, type_array.length(), type_array.c_str());
+
+
+	// Execute
+
+	SQL_EXECUTE(stmt);
+
+
+	// Bind the columns
+
+	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.relation_id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 2, SQL_C_UBIGINT, &entry.other.id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 3, SQL_C_SLONG, &entry.type, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 4, SQL_C_TYPE_TIMESTAMP, &t, sizeof(t), NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 5, SQL_C_CHAR, entry_prefix, sizeof(entry_prefix),
+					 NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 6, SQL_C_CHAR, entry_name, sizeof(entry_name),
+					 NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 7, SQL_C_SLONG, &entry.other.type, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+
+	// Fetch the result
+
+	while (true) {
+
+		ret = SQLFetch(stmt);
+		if (!SQL_SUCCEEDED(ret)) {
+			if (ret != SQL_NO_DATA) {
+				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
+				goto err_close;
+			}
+			break;
+		}
+
+		entry.other.creation_time = cpl_sql_timestamp_to_unix_time(t);
+		entry.other.prefix = entry_prefix;
+		entry.other.name = entry_name;
+		entries.push_back(entry);
+	}
+
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+		goto err;
+	}
+
+
+	// Unlock
+
+	if (direction == CPL_D_ANCESTORS) {
+		STMT_RELEASE(get_object_ancestors_info, stmt);
+	}
+	else {
+		STMT_RELEASE(get_object_descendants_info, stmt);
+	}
+
+
+	// If we did not get any data back, terminate
+
+	if (entries.empty()) return CPL_S_NO_DATA;
+
+
+	// Call the user-provided callback function
+
+	if (callback != NULL) {
+		std::list<__get_object_relation_info__entry_t>::iterator i;
+		for (i = entries.begin(); i != entries.end(); i++) {
+
+			strncpy(entry_prefix, i->other.prefix.c_str(),
+					sizeof(entry_prefix));
+			strncpy(entry_name, i->other.name.c_str(), sizeof(entry_name));
+			entry_prefix[sizeof(entry_prefix) - 1] = '\0';
+			entry_name[sizeof(entry_name) - 1] = '\0';
+
+			cpl_object_info_t e;
+			e.id = i->other.id;
+			e.creation_time = i->other.creation_time;
+			e.prefix = entry_prefix;
+			e.name = entry_name;
+			e.type = i->other.type;
+
+			r = callback(i->relation_id, id, &e, i->type, context);
+			if (!CPL_IS_OK(r)) return r;
+		}
+	}
+
+	return CPL_OK;
+
+
+	// Error handling
+
+err_close:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+	}
+
+err:
+	if (direction == CPL_D_ANCESTORS) {
+		STMT_RELEASE(get_object_ancestors_info, stmt);
+	}
+	else {
+		STMT_RELEASE(get_object_descendants_info, stmt);
+	}
+	return CPL_E_STATEMENT_ERROR;
+}
+
+
+/**
+ * Iterate over the ancestors or the descendants of a provenance object.
+ *
+ * @param backend the pointer to the backend structure
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param flags the bitwise combination of flags describing how should
+ *              the graph be traversed
+ * @param type_mask return only the relations whose types are selected
+ *                  by this mask, or CPL_R_ALL_TYPES
+ * @param callback the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+cpl_return_t
+cpl_odbc_get_object_relations(struct _cpl_db_backend_t* backend,
+							 const cpl_id_t id,
+							 const int direction,
+							 const int flags,
+							 const int type_mask,
+							 cpl_relation_iterator_t callback,
+							 void* context)
+{
+	assert(backend != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+	
+	SQL_START;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+
+	std::list<__get_object_relation__entry_t> entries;
+	__get_object_relation__entry_t entry;
+	SQLLEN ind_type;
+
+	bool ancestors = direction == CPL_D_ANCESTORS;
+	bool typed = type_mask != CPL_R_ALL_TYPES;
+	std::string type_array;
+	if (typed) type_array = cpl_sql_type_mask_array(type_mask);
+
+
+	// Pick and prepare the statement; a type filter uses a separate
+	// statement, which matches the types as an array so that the
+	// (from_id, type) and (to_id, type) indexes can seek on them
+
+	sema_t* sem;
+	mutex_t* lock;
+	SQLHSTMT* stmts;
+	if (ancestors) {
+		sem = typed ? &odbc->get_object_ancestors_typed_sem
+					: &odbc->get_object_ancestors_sem;
+		lock = typed ? &odbc->get_object_ancestors_typed_lock
+					 : &odbc->get_object_ancestors_lock;
+		stmts = typed ? odbc->get_object_ancestors_typed_stmts
+					  : odbc->get_object_ancestors_stmts;
+	}
+	else {
+		sem = typed ? &odbc->get_object_descendants_typed_sem
+					: &odbc->get_object_descendants_sem;
+		lock = typed ? &odbc->get_object_descendants_typed_lock
+					 : &odbc->get_object_descendants_lock;
+		stmts = typed ? odbc->get_object_descendants_typed_stmts
+					  : odbc->get_object_descendants_stmts;
+	}
+
+	SQLHSTMT stmt = cpl_acquire_stmt(sem, lock, stmts);
+
+retry:
+
+	SQL_BIND_INTEGER(stmt, 1, id);
+	if (typed) {
+		SQL_BIND_VARCHAR(stmt, 2, type_array.length(), type_array.c_str());
+	}
+
+
+	// Execute
+	
+	SQL_EXECUTE(stmt);
+
+
+	// Bind the columns
+
+	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.relation_id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 2, SQL_C_UBIGINT, &entry.other_id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 3, SQL_C_SLONG, &entry.type, 0, &ind_type);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+
+
+	// Fetch the result
+
+	while (true) {
+
+		ret = SQLFetch(stmt);
+		if (!SQL_SUCCEEDED(ret)) {
+			if (ret != SQL_NO_DATA) {
+				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
+				goto err_close;
+			}
+			break;
+		}
+
+		entries.push_back(entry);
+	}
+	
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+		goto err;
+	}
+
+
+	// Unlock
+
+	cpl_release_stmt(sem, lock, stmts, stmt);
+
+
+	// If we did not get any data back, terminate
+
+	if (entries.empty()) return CPL_S_NO_DATA;
+
+
+	// Call the user-provided callback function
+
+	if (callback != NULL) {
+		std::list<__get_object_relation__entry_t>::iterator i;
+		for (i = entries.begin(); i != entries.end(); i++) {
+			r = callback(i->relation_id, id, i->other_id, (int) i->type, context);
+			if (!CPL_IS_OK(r)) return r;
+		}
+	}
+
+	return CPL_OK;
+
+
+	// Error handling
+
+err_close:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+	}
+
+err:
+	cpl_release_stmt(sem, lock, stmts, stmt);
+	return CPL_E_STATEMENT_ERROR;
+}
+
+
+/**
+ * Iterate over one page of the ancestors or the descendants of a provenance
+ * object, ordered by the relation IDs.
+ *
+ * @param backend the pointer to the backend structure
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param flags the bitwise combination of flags describing how should
+ *              the graph be traversed
+ * @param after_id return only relations with IDs greater than this one
+ * @param limit the maximum number of relations to return
+ * @param callback the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+cpl_return_t
+cpl_odbc_get_object_relations_page(struct _cpl_db_backend_t* backend,
+								   const cpl_id_t id,
+								   const int direction,
+								   const int flags,
+								   const cpl_id_t after_id,
+								   const size_t limit,
+								   cpl_relation_iterator_t callback,
+								   void* context)
+{
+	assert(backend != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+	
+	SQL_START;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+
+	std::list<__get_object_relation__entry_t> entries;
+	__get_object_relation__entry_t entry;
+	SQLLEN ind_type;
+
+	// Prepare the statement
+
+	SQLHSTMT stmt;
+	if (direction == CPL_D_ANCESTORS) {
+		stmt = STMT_ACQUIRE(get_object_ancestors_page);
+	}
+	else {
+		stmt = STMT_ACQUIRE(get_object_descendants_page);
+	}
+
+retry:
+
+	entries.clear();
+
+	SQL_BIND_INTEGER(stmt, 1, id);
+	SQL_BIND_INTEGER(stmt, 2, after_id);
+	SQL_BIND_INTEGER(stmt, 3, limit);
+
+
+	// Execute
+	
+	SQL_EXECUTE(stmt);
+
+
+	// Bind the columns
+
+	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.relation_id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 2, SQL_C_UBIGINT, &entry.other_id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 3, SQL_C_SLONG, &entry.type, 0, &ind_type);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+
+
+	// Fetch the result
+
+	while (true) {
+
+		ret = SQLFetch(stmt);
+		if (!SQL_SUCCEEDED(ret)) {
+			if (ret != SQL_NO_DATA) {
+				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
+				goto err_close;
+			}
+			break;
+		}
+
+		entries.push_back(entry);
+	}
+	
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+		goto err;
+	}
+
+
+	// Unlock
+
+	if (direction == CPL_D_ANCESTORS) {
+		STMT_RELEASE(get_object_ancestors_page, stmt);
+	}
+	else {
+		STMT_RELEASE(get_object_descendants_page, stmt);
+	}
+
+
+	// If we did not get any data back, terminate
+
+	if (entries.empty()) return CPL_S_NO_DATA;
+
+
+	// Call the user-provided callback function
+
+	if (callback != NULL) {
+		std::list<__get_object_relation__entry_t>::iterator i;
+		for (i = entries.begin(); i != entries.end(); i++) {
+			r = callback(i->relation_id, id, i->other_id, (int) i->type, context);
+			if (!CPL_IS_OK(r)) return r;
+		}
+	}
+
+	return CPL_OK;
+
+
+	// Error handling
+
+err_close:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+	}
+
+err:
+	if (direction == CPL_D_ANCESTORS) {
+		STMT_RELEASE(get_object_ancestors_page, stmt);
+	}
+	else {
+		STMT_RELEASE(get_object_descendants_page, stmt);
+	}
+	return CPL_E_STATEMENT_ERROR;
+}
+
+
+/**
+ * Iterate over all relations transitively reachable from an object
+ * in the given direction, ordered by depth and then by ID. The database
+ * computes the reachable relations and the length of the shortest path to
+ * each of them in a single recursive query, and the rows are passed to the
+ * callback as soon as they are fetched. Without a depth limit, the query
+ * first collects the reachable relations and then bounds the depth by
+ * their number, which no shortest path can exceed, so that it terminates
+ * even if the relations form a cycle.
+ *
+ * @param backend the pointer to the backend structure
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param max_depth the maximum depth, or 0 for no limit
+ * @param type_mask the mask of relation types to follow, or
+ *                  CPL_R_ALL_TYPES
+ * @param callback the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+cpl_return_t
+cpl_odbc_get_object_lineage(struct _cpl_db_backend_t* backend,
+							const cpl_id_t id,
+							const int direction,
+							const int max_depth,
+							const int type_mask,
+							cpl_lineage_iterator_t callback,
+							void* context)
+{
+	assert(backend != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+	
+	SQL_START;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+
+	cpl_id_t relation_id;
+	cpl_id_t from_id;
+	cpl_id_t to_id;
+	long type;
+	int depth;
+	SQLLEN ind_type;
+	int arg;
+	bool found;
+
+	bool ancestors = direction == CPL_D_ANCESTORS;
+	bool bounded = max_depth > 0;
+	std::string type_array = cpl_sql_type_mask_array(type_mask);
+
+
+	// Pick and prepare the statement
+
+	sema_t* sem;
+	mutex_t* lock;
+	SQLHSTMT* stmts;
+	if (ancestors) {
+		sem = bounded ? &odbc->get_object_ancestry_sem
+					  : &odbc->get_object_ancestry_all_sem;
+		lock = bounded ? &odbc->get_object_ancestry_lock
+					   : &odbc->get_object_ancestry_all_lock;
+		stmts = bounded ? odbc->get_object_ancestry_stmts
+						: odbc->get_object_ancestry_all_stmts;
+	}
+	else {
+		sem = bounded ? &odbc->get_object_progeny_sem
+					  : &odbc->get_object_progeny_all_sem;
+		lock = bounded ? &odbc->get_object_progeny_lock
+					   : &odbc->get_object_progeny_all_lock;
+		stmts = bounded ? odbc->get_object_progeny_stmts
+						: odbc->get_object_progeny_all_stmts;
+	}
+
+	SQLHSTMT stmt = cpl_acquire_stmt(sem, lock, stmts);
+
+retry:
+
+	found = false;
+	arg = 1;
+
+	SQL_BIND_INTEGER(stmt, arg++, id);
+	SQL_BIND_VARCHAR(stmt, arg++, type_array.length(), type_array.c_str());
+	if (bounded) SQL_BIND_INTEGER(stmt, arg++, max_depth);
+	SQL_BIND_VARCHAR(stmt, arg++, type_array.length(), type_array.c_str());
+	if (!bounded) SQL_BIND_INTEGER(stmt, arg++, id);
+
+
+	// Execute
+	
+	SQL_EXECUTE(stmt);
+
+
+	// Bind the columns
+
+	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &relation_id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 2, SQL_C_UBIGINT, &from_id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 3, SQL_C_UBIGINT, &to_id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 4, SQL_C_SLONG, &type, 0, &ind_type);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 5, SQL_C_SLONG, &depth, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+
+	// Fetch the result and call the user-provided callback for each row
+
+	while (true) {
+
+		ret = SQLFetch(stmt);
+		if (!SQL_SUCCEEDED(ret)) {
+			if (ret != SQL_NO_DATA) {
+				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
+				goto err_close;
+			}
+			break;
+		}
+
+		found = true;
+
+		if (callback != NULL) {
+			r = callback(relation_id, from_id, to_id, (int) type, depth,
+						 context);
+			if (!CPL_IS_OK(r)) goto err_callback;
+		}
+	}
+	
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+		goto err;
+	}
+
+
+	// Unlock
+
+	cpl_release_stmt(sem, lock, stmts, stmt);
+
+	return found ? CPL_OK : CPL_S_NO_DATA;
+
+
+	// Error handling
+
+err_callback:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+	}
+	cpl_release_stmt(sem, lock, stmts, stmt);
+	return r;
+
+err_close:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+	}
+
+err:
+	cpl_release_stmt(sem, lock, stmts, stmt);
+	return CPL_E_STATEMENT_ERROR;
+}
+
+
+/**
+ * An entry in the result set of the queries issued by
+ * cpl_odbc_get_*_properties().
+ */
+typedef struct __get_properties__entry {
+	cpl_id_t id;
+	SQLCHAR prefix[CPL_PREFIX_LEN];
+	SQLCHAR key[CPL_KEY_LEN];
+	SQLCHAR value[CPL_VALUE_LEN];
+    int type;
+} __get_properties__entry_t;
+
+
+/**
+ * Get the properties associated with the given provenance object.
+ *
+ * @param backend the pointer to the backend structure
+ * @param id the the object ID
+ * @param prefix the prefix to fetch - or NULL for all prefixes
+ * @param key the property key to fetch - or NULL for all keys
+ * @param callback the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+cpl_return_t
+cpl_odbc_get_object_properties(struct _cpl_db_backend_t* backend,
+						const cpl_id_t id,
+						const char* prefix,
+						const char* key,
+						int type,
+						cpl_property_iterator_t callback,
+						void* context)
+{
+	assert(backend != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+
+	std::list<__get_properties__entry_t*> entries;
+	__get_properties__entry_t entry;
+	SQLLEN ind_prefix, ind_key, ind_value;
+
+	SQL_START;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+	std::list<__get_properties__entry_t*>::iterator i;
+
+	// Prepare the statement
+
+	SQLHSTMT stmt;
+	if (prefix == NULL || key == NULL) {
+		stmt = STMT_ACQUIRE(get_object_properties);
+	}
+	else {
+		stmt = STMT_ACQUIRE(get_object_properties_with_key);
+	}
+
+retry:
+
+	SQL_BIND_INTEGER(stmt, 1, id);
+
+	if (prefix != NULL && key != NULL) {
+		SQL_BIND_VARCHAR(stmt, 2, CPL_PREFIX_LEN, prefix);
+		SQL_BIND_VARCHAR(stmt, 3, CPL_KEY_LEN, key);
+        SQL_BIND_INTEGER(stmt, 4, type);
+    } else {
+        SQL_BIND_INTEGER(stmt, 2, type);
+    }
+
+
+	// Execute
+	
+	SQL_EXECUTE(stmt);
+
+
+	// Bind the columns
+
+	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 2, SQL_C_CHAR, entry.prefix, sizeof(entry.prefix),
+			&ind_prefix);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 3, SQL_C_CHAR, entry.key, sizeof(entry.key),
+			&ind_key);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 4, SQL_C_CHAR, entry.value, sizeof(entry.value),
+			&ind_value);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	// Fetch the result
+
+	while (true) {
+
+		ret = SQLFetch(stmt);
+		if (!SQL_SUCCEEDED(ret)) {
+			if (ret != SQL_NO_DATA) {
+				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
+				goto err_close;
+			}
+			break;
+		}
+
+		if (ind_prefix == SQL_NULL_DATA || ind_key == SQL_NULL_DATA || ind_value == SQL_NULL_DATA) {
+			// NULLs should never occur here
+			continue;
+		}
+
+		__get_properties__entry_t* e = new __get_properties__entry_t;
+		memcpy(e, (const void*) &entry, sizeof(*e));
+
+		entries.push_back(e);
+	}
+	
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+		goto err;
+	}
+
+
+	// Unlock
+
+	if (prefix == NULL || key == NULL) {
+		STMT_RELEASE(get_object_properties, stmt);
+	}
+	else {
+		STMT_RELEASE(get_object_properties_with_key, stmt);
+	}
+
+	// If we did not get any data back, terminate
+
+	if (entries.empty()) return CPL_S_NO_DATA;
+
+
+	// Call the user-provided callback function
+
+	if (callback != NULL) {
+		for (i = entries.begin(); i != entries.end(); i++) {
+			r = callback(id, (const char*) (*i)->prefix, 
+						 (const char*) (*i)->key,
+						 (const char*) (*i)->value,
+                         type,
+                         context);
+			if (!CPL_IS_OK(r)) goto err_free;
+		}
+	}
+
+	r = CPL_OK;
+
+
+	// Error handling
+
+err_free:
+	for (i = entries.begin(); i != entries.end(); i++) {
+		delete *i;
+	}
+	return r;
+
+err_close:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+	}
+
+err:
+	if (prefix == NULL || key == NULL) {
+		STMT_RELEASE(get_object_properties, stmt);
+	}
+	else {
+		STMT_RELEASE(get_object_properties_with_key, stmt);
+	}
+	return CPL_E_STATEMENT_ERROR;
+}
+
+
+/**
+ * Lookup an object based on a property value.
+ *
+ * @param backend the pointer to the backend structure
+ * @param prefix the property prefix
+ * @param key the property name
+ * @param value the property value
+ * @param callback the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_E_NOT_FOUND, or an error code
+ */
+cpl_return_t
+cpl_odbc_lookup_object_by_property(struct _cpl_db_backend_t* backend,
+							const char* prefix,
+							const char* key,
+							const char* value,
+							const int type,
+							cpl_property_iterator_t callback,
+							void* context)
+{
+	assert(backend != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+
+	SQL_START;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+
+	std::list<cpl_id_t> entries;
+	cpl_id_t entry;
+
+	SQLHSTMT stmt = STMT_ACQUIRE(lookup_object_by_property);
+
+
+	// Prepare the statement
+
+retry:
+
+	SQL_BIND_VARCHAR(stmt, 1, CPL_PREFIX_LEN, prefix);
+	SQL_BIND_VARCHAR(stmt, 2, CPL_KEY_LEN, key);
+	SQL_BIND_VARCHAR(stmt, 3, CPL_VALUE_LEN, value);
+    SQL_BIND_INTEGER(stmt, 4, type);
+
+	// Execute
+	
+	SQL_EXECUTE(stmt);
+
+
+	// Bind the columns
+
+	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+
+	// Fetch the result
+
+	while (true) {
+
+		ret = SQLFetch(stmt);
+		if (!SQL_SUCCEEDED(ret)) {
+			if (ret != SQL_NO_DATA) {
+				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
+				goto err_close;
+			}
+			break;
+		}
+
+		entries.push_back(entry);
+	}
+	
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+		goto err;
+	}
+
+
+	// Unlock
+
+	STMT_RELEASE(lookup_object_by_property, stmt);
+
+
+	// If we did not get any data back, terminate
+
+	if (entries.empty()) return CPL_E_NOT_FOUND;
+
+
+	// Call the user-provided callback function
+
+	if (callback != NULL) {
+		std::list<cpl_id_t>::iterator i;
+		for (i = entries.begin(); i != entries.end(); i++) {
+			r = callback(*i, prefix, key, value, type, context);
+			if (!CPL_IS_OK(r)) return r;
+		}
+	}
+
+	return CPL_OK;
+
+
+	// Error handling
+
+err_close:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+	}
+
+err:
+	STMT_RELEASE(lookup_object_by_property, stmt);
+	return CPL_E_STATEMENT_ERROR;
+}
+
+/**
+ * Get the properties associated with the given provenance relation.
+ *
+ * @param backend the pointer to the backend structure
+ * @param id the the relation ID
+ * @param prefix the prefix to fetch - or NULL for all prefixes
+ * @param key the property key to fetch - or NULL for all keys
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+cpl_return_t
+cpl_odbc_get_relation_properties(struct _cpl_db_backend_t* backend,
+						const cpl_id_t id,
+						const char* prefix,
+						const char* key,
+						const int type,
+						cpl_property_iterator_t callback,
+						void* context)
+{
+	assert(backend != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+
+	std::list<__get_properties__entry_t*> entries;
+	__get_properties__entry_t entry;
+	SQLLEN ind_prefix, ind_key, ind_value;
+
+	SQL_START;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+	std::list<__get_properties__entry_t*>::iterator i;
+
+	SQLHSTMT stmt; 
+
+
+	if (prefix == NULL || key == NULL) {
+		stmt = STMT_ACQUIRE(get_relation_properties);
+	}
+	else {
+		stmt = STMT_ACQUIRE(get_relation_properties_with_key);
+	}
+
+
+	// Prepare the statement
+
+retry:
+
+	SQL_BIND_INTEGER(stmt, 1, id);
+
+	if (prefix != NULL && key != NULL) {
+		SQL_BIND_VARCHAR(stmt, 2, CPL_PREFIX_LEN, prefix);
+		SQL_BIND_VARCHAR(stmt, 3, CPL_KEY_LEN, key);
+        SQL_BIND_INTEGER(stmt, 4, type);
+	} else {
+        SQL_BIND_INTEGER(stmt, 2, type);
+	}
+
+
+	// Execute
+	
+	SQL_EXECUTE(stmt);
+
+
+	// Bind the columns
+
+	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 2, SQL_C_CHAR, entry.prefix, sizeof(entry.prefix),
+			&ind_prefix);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 3, SQL_C_CHAR, entry.key, sizeof(entry.key),
+			&ind_key);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 4, SQL_C_CHAR, entry.value, sizeof(entry.value),
+			&ind_value);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+
+	// Fetch the result
+
+	while (true) {
+
+		ret = SQLFetch(stmt);
+		if (!SQL_SUCCEEDED(ret)) {
+			if (ret != SQL_NO_DATA) {
+				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
+				goto err_close;
+			}
+			break;
+		}
+
+		if (ind_prefix == SQL_NULL_DATA || ind_key == SQL_NULL_DATA || ind_value == SQL_NULL_DATA) {
+			// NULLs should never occur here
+			continue;
+		}
+
+		__get_properties__entry_t* e = new __get_properties__entry_t;
+		memcpy(e, (const void*) &entry, sizeof(*e));
+
+		entries.push_back(e);
+	}
+	
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+		goto err;
+	}
+
+
+	// Unlock
+
+	if (prefix == NULL || key == NULL) {
+		STMT_RELEASE(get_relation_properties, stmt);
+	}
+	else {
+		STMT_RELEASE(get_relation_properties_with_key, stmt);
+	}
+
+	// If we did not get any data back, terminate
+
+	if (entries.empty()) return CPL_S_NO_DATA;
+
+
+	// Call the user-provided callback function
+
+	if (callback != NULL) {
+		for (i = entries.begin(); i != entries.end(); i++) {
+			r = callback(id,
+						 (const char*) (*i)->prefix,
+						 (const char*) (*i)->key,
+						 (const char*) (*i)->value,
+                         type,
+                         context);
+			if (!CPL_IS_OK(r)) goto err_free;
+		}
+	}
+
+	r = CPL_OK;
+
+
+	// Error handling
+
+err_free:
+	for (i = entries.begin(); i != entries.end(); i++) {
+		delete *i;
+	}
+	return r;
+
+err_close:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+	}
+
+err:
+	if (prefix == NULL || key == NULL) {
+		STMT_RELEASE(get_relation_properties, stmt);
+	}
+	else {
+		STMT_RELEASE(get_relation_properties_with_key, stmt);
+	}
+	return CPL_E_STATEMENT_ERROR;
+}
+
+/**
+ * An entry in the result set of the queries issued by
+ * cpl_odbc_get_*_properties().
+ */
+typedef struct __get_prefixes__entry {
+	cpl_id_t id;
+	SQLCHAR prefix[CPL_PREFIX_LEN];
+	SQLCHAR iri[CPL_VALUE_LEN];
+} __get_prefixes__entry_t;
+
+
+/**
+ * Get the properties associated with the given provenance bundle.
+ *
+ * @param backend the pointer to the backend structure
+ * @param id the the relation ID
+ * @param prefix the prefix to fetch - or NULL for all prefixes
+ * @param iri the 
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+cpl_return_t
+cpl_odbc_get_prefixes(struct _cpl_db_backend_t* backend,
+						const cpl_id_t id,
+						const char* prefix,
+						cpl_prefix_iterator_t callback,
+						void* context)
+{
+	assert(backend != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+
+	std::list<__get_prefixes__entry_t*> entries;
+	__get_prefixes__entry_t entry;
+	SQLLEN ind_prefix, ind_iri;
+
+	SQL_START;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+	std::list<__get_prefixes__entry_t*>::iterator i;
+
+	SQLHSTMT stmt;
+
+	if (prefix == NULL) {
+		stmt = STMT_ACQUIRE(get_prefixes);
+	}
+	else {
+		stmt = STMT_ACQUIRE(get_prefixes_with_key);
+	}
+
+	// Prepare the statement
+
+retry:
+
+	SQL_BIND_INTEGER(stmt, 1, id);
+
+	if (prefix != NULL) {
+		SQL_BIND_VARCHAR(stmt, 2, CPL_PREFIX_LEN, prefix);
+	}
+
+	// Execute
+	
+	SQL_EXECUTE(stmt);
+
+	// Bind the columns
+
+	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 2, SQL_C_CHAR, entry.prefix, sizeof(entry.prefix),
+			&ind_prefix);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 3, SQL_C_CHAR, entry.iri, sizeof(entry.iri),
+			&ind_iri);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+
+	// Fetch the result
+
+	while (true) {
+
+		ret = SQLFetch(stmt);
+		if (!SQL_SUCCEEDED(ret)) {
+			if (ret != SQL_NO_DATA) {
+				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
+				goto err_close;
+			}
+			break;
+		}
+
+		if (ind_prefix == SQL_NULL_DATA || ind_iri == SQL_NULL_DATA) {
+			// NULLs should never occur here
+			continue;
+		}
+
+		__get_prefixes__entry_t* e = new __get_prefixes__entry_t;
+		memcpy(e, (const void*) &entry, sizeof(*e));
+
+		entries.push_back(e);
+	}
+	
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+		goto err;
+	}
+
+	// Unlock
+
+	if (prefix == NULL) {
+		STMT_RELEASE(get_prefixes, stmt);
+	}
+	else {
+		STMT_RELEASE(get_prefixes_with_key, stmt);
+	}
+
+	// If we did not get any data back, terminate
+
+	if (entries.empty()) return CPL_S_NO_DATA;
+
+	// Call the user-provided callback function
+
+	if (callback != NULL) {
+
+		for (i = entries.begin(); i != entries.end(); i++) {
+			r = callback(id,
+						 (const char*) (*i)->prefix,
+						 (const char*) (*i)->iri,
+						 context);
+			if (!CPL_IS_OK(r)) goto err_free;
+		}
+	}
+
+	r = CPL_OK;
+
+	// Error handling
+
+err_free:
+	for (i = entries.begin(); i != entries.end(); i++) {
+		delete *i;
+	}
+	return r;
+
+err_close:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+	}
+
+err:
+	if (prefix == NULL) {
+		STMT_RELEASE(get_prefixes, stmt);
+	}
+	else {
+		STMT_RELEASE(get_prefixes_with_key, stmt);
+	}
+	return CPL_E_STATEMENT_ERROR;
+}
+
+
+/**
+ * Returns all objects contained in a bundle.
+ *
+ * @param backend the pointer to the backend structure
+ * @param id the bundle ID
+ * @param callback the iterator to be called for each matching object
+ * @param context the caller-provided iterator context
+ * @return CPL_OK or an error code
+ */
+cpl_return_t
+cpl_odbc_get_bundle_objects(struct _cpl_db_backend_t* backend,
+						     const cpl_id_t id,
+						     cpl_object_info_iterator_t callback,
+						     void* context)
+{
+	assert(backend != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+
+	SQL_START;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+	cplxx_object_info_t entry;
+	std::list<cplxx_object_info_t> entries;
+	SQL_TIMESTAMP_STRUCT t;
+
+	size_t prefix_size = CPL_PREFIX_LEN + 1;
+	size_t name_size = CPL_NAME_LEN + 1;
+
+	char* entry_prefix = (char*) alloca(prefix_size);
+	char* entry_name = (char*) alloca(name_size);
+
+	if (entry_prefix == NULL || entry_name == NULL) {
+		return CPL_E_INSUFFICIENT_RESOURCES;
+	}
+
+	// Get and execute the statement
+
+	SQLHSTMT stmt = STMT_ACQUIRE(get_bundle_objects);
+	
+retry:
+
+	entries.clear();
+
+	SQL_BIND_INTEGER(stmt, 1, id);
+
+	// Execute
+	
+	SQL_EXECUTE(stmt);
+
+	// Bind the columns
+
+	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 2, SQL_C_TYPE_TIMESTAMP, &t, sizeof(t), NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 3, SQL_C_CHAR, entry_prefix, prefix_size,
+					 NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 4, SQL_C_CHAR, entry_name, name_size, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 5, SQL_C_SLONG, &entry.type, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+
+	// Fetch the result
+
+	while (true) {
+
+		ret = SQLFetch(stmt);
+		if (!SQL_SUCCEEDED(ret)) {
+			if (ret == SQL_INVALID_HANDLE) {
+				fprintf(stderr, "\nThe ODBC driver failed while running "
+								"SQLFetch due to SQL_INVALID_HANDLE\n\n");
+				goto err_close;
+			}
+			else if (ret != SQL_NO_DATA) {
+				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
+				goto err_close;
+			}
+			break;
+		}
+
+		entry.creation_time = cpl_sql_timestamp_to_unix_time(t);
+		entry.prefix = entry_prefix;
+		entry.name = entry_name;
+
+		entries.push_back(entry);
+	}
+	
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+		goto err;
+	}
+
+
+	// Unlock
+
+	STMT_RELEASE(get_bundle_objects, stmt);
+
+
+	// If we did not get any data back, terminate
+
+	if (entries.empty()) return CPL_S_NO_DATA;
+
+
+	// Call the user-provided callback function
+
+	if (callback != NULL) {
+		std::list<cplxx_object_info_t>::iterator i;
+		for (i = entries.begin(); i != entries.end(); i++) {
+
+			strncpy(entry_prefix, i->prefix.c_str(), prefix_size);
+			strncpy(entry_name, i->name.c_str(), name_size);
+			entry_prefix[prefix_size - 1] = '\0';
+			entry_name[name_size - 1] = '\0';
+
+			cpl_object_info_t e;
+			e.id = i->id;
+			e.creation_time = i->creation_time;
+			e.prefix = entry_prefix;
+			e.name = entry_name;
+			e.type = i->type;
+
+			r = callback(&e, context);
+			if (!CPL_IS_OK(r)) return r;
+		}
+	}
+
+	return CPL_OK;
+
+
+	// Error handling
+
+err_close:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+	}
+
+err:
+	STMT_RELEASE(get_bundle_objects, stmt);
+	return CPL_E_STATEMENT_ERROR;
+}
+
+
+///**
+// * Returns all bundles belonging to a certain originator
+// *
+// * @param backend the pointer to the backend structure
+// * @param prefix the originator
+// * @param callback the iterator to be called for each matching object
+// * @param context the caller-provided iterator context
+// * @return CPL_OK or an error code
+// */
+//cpl_return_t
+//cpl_odbc_get_prefix_bundles(struct _cpl_db_backend_t* backend,
+//							const char* prefix,
+//							cpl_object_info_iterator_t callback,
+//							void* context)
+//{
+//	assert(backend != NULL);
+//	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+//
+//	SQL_START;
+//
+//	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+//	cplxx_object_info_t entry;
+//	std::list<cplxx_object_info_t> entries;
+//	SQL_TIMESTAMP_STRUCT t;
+//
+//	size_t prefix_size = CPL_PREFIX_LEN + 1;
+//	size_t name_size = CPL_NAME_LEN + 1;
+//
+//	char* entry_prefix = (char*) alloca(prefix_size);
+//	char* entry_name = (char*) alloca(name_size);
+//
+//	if (entry_prefix == NULL || entry_name == NULL) {
+//		return CPL_E_INSUFFICIENT_RESOURCES;
+//	}
+//
+//	// Get and execute the statement
+//
+//	SQLHSTMT stmt = STMT_ACQUIRE(get_prefix_bundles);
+//
+//	retry:
+//
+//	entries.clear();
+//
+//	SQL_BIND_INTEGER(stmt, 1, prefix);
+//
+//	// Execute
+//
+//	SQL_EXECUTE(stmt);
+//
+//	// Bind the columns
+//
+//	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.id, 0, NULL);
+//	if (!SQL_SUCCEEDED(ret)) goto err_close;
+//
+//	ret = SQLBindCol(stmt, 2, SQL_C_TYPE_TIMESTAMP, &t, sizeof(t), NULL);
+//	if (!SQL_SUCCEEDED(ret)) goto err_close;
+//
+//	ret = SQLBindCol(stmt, 3, SQL_C_CHAR, entry_prefix, prefix_size,
+//					 NULL);
+//	if (!SQL_SUCCEEDED(ret)) goto err_close;
+//
+//	ret = SQLBindCol(stmt, 4, SQL_C_CHAR, entry_name, name_size, NULL);
+//	if (!SQL_SUCCEEDED(ret)) goto err_close;
+//
+//	ret = SQLBindCol(stmt, 5, SQL_C_SLONG, &entry.type, 0, NULL);
+//	if (!SQL_SUCCEEDED(ret)) goto err_close;
+//
+//	entry.bundle_id = id;
+//
+//
+//
+//	// Fetch the result
+//
+//	while (true) {
+//
+//		ret = SQLFetch(stmt);
+//		if (!SQL_SUCCEEDED(ret)) {
+//			if (ret == SQL_INVALID_HANDLE) {
+//				fprintf(stderr, "\nThe ODBC driver failed while running "
+//								"SQLFetch due to SQL_INVALID_HANDLE\n\n");
+//				goto err_close;
+//			}
+//			else if (ret != SQL_NO_DATA) {
+//				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
+//				goto err_close;
+//			}
+//			break;
+//		}
+//
+//		entry.creation_time = cpl_sql_timestamp_to_unix_time(t);
+//		entry.prefix = entry_prefix;
+//		entry.name = entry_name;
+//
+//		entries.push_back(entry);
+//	}
+//
+//	ret = SQLCloseCursor(stmt);
+//	if (!SQL_SUCCEEDED(ret)) {
+//		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+//		goto err;
+//	}
+//
+//
+//	// Unlock
+//
+//	STMT_RELEASE(get_bundle_objects, stmt);
+//
+//
+//	// If we did not get any data back, terminate
+//
+//	if (entries.empty()) return CPL_S_NO_DATA;
+//
+//
+//	// Call the user-provided callback function
+//
+//	if (callback != NULL) {
+//		std::list<cplxx_object_info_t>::iterator i;
+//		for (i = entries.begin(); i != entries.end(); i++) {
+//
+//			strncpy(entry_prefix, i->prefix.c_str(), prefix_size);
+//			strncpy(entry_name, i->name.c_str(), name_size);
+//			entry_prefix[prefix_size - 1] = '\0';
+//			entry_name[name_size - 1] = '\0';
+//
+//			cpl_object_info_t e;
+//			e.id = i->id;
+//			e.creation_time = i->creation_time;
+//			e.prefix = entry_prefix;
+//			e.name = entry_name;
+//			e.type = i->type;
+//			e.bundle_id = i->bundle_id;
+//
+//			r = callback(&e, context);
+//			if (!CPL_IS_OK(r)) return r;
+//		}
+//	}
+//
+//	return CPL_OK;
+//
+//
+//	// Error handling
+//
+//	err_close:
+//	ret = SQLCloseCursor(stmt);
+//	if (!SQL_SUCCEEDED(ret)) {
+//		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+//	}
+//
+//	err:
+//	STMT_RELEASE(get_bundle_objects, stmt);
+//	return CPL_E_STATEMENT_ERROR;
+//}
+
+
+typedef struct __get_bundle_relation__entry {
+	cpl_id_t relation_id;
+	cpl_id_t from_id;
+	cpl_id_t to_id;
+	long type;
+	cpl_id_t bundle_id;
+} __get_bundle_relation__entry_t;
+
+/**
+ * Returns all relations contained in a bundle.
+ *
+ * @param backend the pointer to the backend structure
+ * @param id the bundle ID
+ * @param callback the iterator to be called for each matching object
+ * @param context the caller-provided iterator context
+ * @return CPL_OK or an error code
+ */
+cpl_return_t
+cpl_odbc_get_bundle_relations(struct _cpl_db_backend_t* backend,
+						     const cpl_id_t id,
+						     cpl_relation_iterator_t callback,
+							 void* context){
+
 	assert(backend != NULL);
 	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
 	
@@ -2316,19 +5271,13 @@ cpl_odbc_get_object_relations(struct _cpl_db_backend_t* backend,
 
 	cpl_return_t r = CPL_E_INTERNAL_ERROR;
 
-	std::list<__get_object_relation__entry_t> entries;
-	__get_object_relation__entry_t entry;
+	std::list<__get_bundle_relation__entry_t> entries;
+	__get_bundle_relation__entry_t entry;
 	SQLLEN ind_type;
 
-	// Prepare the statement
+	SQLHSTMT stmt = STMT_ACQUIRE(get_bundle_relations);
 
-	SQLHSTMT stmt;
-	if (direction == CPL_D_ANCESTORS) {
-		stmt = STMT_ACQUIRE(get_object_ancestors);
-	}
-	else {
-		stmt = STMT_ACQUIRE(get_object_descendants);
-	}
+	// Prepare the statement
 
 retry:
 
@@ -2345,12 +5294,14 @@ retry:
 	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.relation_id, 0, NULL);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
-	ret = SQLBindCol(stmt, 2, SQL_C_UBIGINT, &entry.other_id, 0, NULL);
+	ret = SQLBindCol(stmt, 2, SQL_C_UBIGINT, &entry.from_id, 0, NULL);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
-	ret = SQLBindCol(stmt, 3, SQL_C_SLONG, &entry.type, 0, &ind_type);
+	ret = SQLBindCol(stmt, 3, SQL_C_UBIGINT, &entry.to_id, 0, NULL);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
+	ret = SQLBindCol(stmt, 4, SQL_C_SLONG, &entry.type, 0, &ind_type);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
 
 	// Fetch the result
@@ -2378,12 +5329,7 @@ retry:
 
 	// Unlock
 
-	if (direction == CPL_D_ANCESTORS) {
-		STMT_RELEASE(get_object_ancestors, stmt);
-	}
-	else {
-		STMT_RELEASE(get_object_descendants, stmt);
-	}
+	STMT_RELEASE(get_bundle_relations, stmt);
 
 
 	// If we did not get any data back, terminate
@@ -2394,9 +5340,9 @@ retry:
 	// Call the user-provided callback function
 
 	if (callback != NULL) {
-		std::list<__get_object_relation__entry_t>::iterator i;
+		std::list<__get_bundle_relation__entry_t>::iterator i;
 		for (i = entries.begin(); i != entries.end(); i++) {
-			r = callback(i->relation_id, id, i->other_id, (int) i->type, context);
+			r = callback(i->relation_id, i->from_id, i->to_id, (int) i->type, context);
 			if (!CPL_IS_OK(r)) return r;
 		}
 	}
@@ -2413,82 +5359,54 @@ err_close:
 	}
 
 err:
-	if (direction == CPL_D_ANCESTORS) {
-		STMT_RELEASE(get_object_ancestors, stmt);
-	}
-	else {
-		STMT_RELEASE(get_object_descendants, stmt);
-	}
+	STMT_RELEASE(get_bundle_relations, stmt);
 	return CPL_E_STATEMENT_ERROR;
 }
 
 
 /**
- * An entry in the result set of the queries issued by
- * cpl_odbc_get_*_properties().
- */
-typedef struct __get_properties__entry {
-	cpl_id_t id;
-	SQLCHAR prefix[CPL_PREFIX_LEN];
-	SQLCHAR key[CPL_KEY_LEN];
-	SQLCHAR value[CPL_VALUE_LEN];
-    int type;
-} __get_properties__entry_t;
-
-
-/**
- * Get the properties associated with the given provenance object.
+ * Returns one page of the relations contained in a bundle, ordered by the
+ * relation IDs.
  *
  * @param backend the pointer to the backend structure
- * @param id the the object ID
- * @param prefix the prefix to fetch - or NULL for all prefixes
- * @param key the property key to fetch - or NULL for all keys
- * @param callback the iterator callback function
- * @param context the user context to be passed to the iterator function
+ * @param id the bundle ID
+ * @param after_id return only relations with IDs greater than this one
+ * @param limit the maximum number of relations to return
+ * @param callback the iterator to be called for each matching object
+ * @param context the caller-provided iterator context
  * @return CPL_OK, CPL_S_NO_DATA, or an error code
  */
 cpl_return_t
-cpl_odbc_get_object_properties(struct _cpl_db_backend_t* backend,
-						const cpl_id_t id,
-						const char* prefix,
-						const char* key,
-						int type,
-						cpl_property_iterator_t callback,
-						void* context)
+cpl_odbc_get_bundle_relations_page(struct _cpl_db_backend_t* backend,
+								   const cpl_id_t id,
+								   const cpl_id_t after_id,
+								   const size_t limit,
+								   cpl_relation_iterator_t callback,
+								   void* context)
 {
+
 	assert(backend != NULL);
 	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
-
-	std::list<__get_properties__entry_t*> entries;
-	__get_properties__entry_t entry;
-	SQLLEN ind_prefix, ind_key, ind_value;
-
+	
 	SQL_START;
 
 	cpl_return_t r = CPL_E_INTERNAL_ERROR;
-	std::list<__get_properties__entry_t*>::iterator i;
 
-	// Prepare the statement
+	std::list<__get_bundle_relation__entry_t> entries;
+	__get_bundle_relation__entry_t entry;
+	SQLLEN ind_type;
 
-	SQLHSTMT stmt;
-	if (prefix == NULL || key == NULL) {
-		stmt = STMT_ACQUIRE(get_object_properties);
-	}
-	else {
-		stmt = STMT_ACQUIRE(get_object_properties_with_key);
-	}
+	SQLHSTMT stmt = STMT_ACQUIRE(get_bundle_relations_page);
+
+	// Prepare the statement
 
 retry:
 
-	SQL_BIND_INTEGER(stmt, 1, id);
+	entries.clear();
 
-	if (prefix != NULL && key != NULL) {
-		SQL_BIND_VARCHAR(stmt, 2, CPL_PREFIX_LEN, prefix);
-		SQL_BIND_VARCHAR(stmt, 3, CPL_KEY_LEN, key);
-        SQL_BIND_INTEGER(stmt, 4, type);
-    } else {
-        SQL_BIND_INTEGER(stmt, 2, type);
-    }
+	SQL_BIND_INTEGER(stmt, 1, id);
+	SQL_BIND_INTEGER(stmt, 2, after_id);
+	SQL_BIND_INTEGER(stmt, 3, limit);
 
 
 	// Execute
@@ -2498,21 +5416,19 @@ retry:
 
 	// Bind the columns
 
-	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.id, 0, NULL);
+	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.relation_id, 0, NULL);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
-	ret = SQLBindCol(stmt, 2, SQL_C_CHAR, entry.prefix, sizeof(entry.prefix),
-			&ind_prefix);
+	ret = SQLBindCol(stmt, 2, SQL_C_UBIGINT, &entry.from_id, 0, NULL);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
-	ret = SQLBindCol(stmt, 3, SQL_C_CHAR, entry.key, sizeof(entry.key),
-			&ind_key);
+	ret = SQLBindCol(stmt, 3, SQL_C_UBIGINT, &entry.to_id, 0, NULL);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
-	ret = SQLBindCol(stmt, 4, SQL_C_CHAR, entry.value, sizeof(entry.value),
-			&ind_value);
+	ret = SQLBindCol(stmt, 4, SQL_C_SLONG, &entry.type, 0, &ind_type);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
+
 	// Fetch the result
 
 	while (true) {
@@ -2526,15 +5442,7 @@ retry:
 			break;
 		}
 
-		if (ind_prefix == SQL_NULL_DATA || ind_key == SQL_NULL_DATA || ind_value == SQL_NULL_DATA) {
-			// NULLs should never occur here
-			continue;
-		}
-
-		__get_properties__entry_t* e = new __get_properties__entry_t;
-		memcpy(e, (const void*) &entry, sizeof(*e));
-
-		entries.push_back(e);
+		entries.push_back(entry);
 	}
 	
 	ret = SQLCloseCursor(stmt);
@@ -2546,12 +5454,8 @@ retry:
 
 	// Unlock
 
-	if (prefix == NULL || key == NULL) {
-		STMT_RELEASE(get_object_properties, stmt);
-	}
-	else {
-		STMT_RELEASE(get_object_properties_with_key, stmt);
-	}
+	STMT_RELEASE(get_bundle_relations_page, stmt);
+
 
 	// If we did not get any data back, terminate
 
@@ -2561,27 +5465,18 @@ retry:
 	// Call the user-provided callback function
 
 	if (callback != NULL) {
+		std::list<__get_bundle_relation__entry_t>::iterator i;
 		for (i = entries.begin(); i != entries.end(); i++) {
-			r = callback(id, (const char*) (*i)->prefix, 
-						 (const char*) (*i)->key,
-						 (const char*) (*i)->value,
-                         type,
-                         context);
-			if (!CPL_IS_OK(r)) goto err_free;
+			r = callback(i->relation_id, i->from_id, i->to_id, (int) i->type, context);
+			if (!CPL_IS_OK(r)) return r;
 		}
 	}
 
-	r = CPL_OK;
+	return CPL_OK;
 
 
 	// Error handling
 
-err_free:
-	for (i = entries.begin(); i != entries.end(); i++) {
-		delete *i;
-	}
-	return r;
-
 err_close:
 	ret = SQLCloseCursor(stmt);
 	if (!SQL_SUCCEEDED(ret)) {
@@ -2589,57 +5484,65 @@ err_close:
 	}
 
 err:
-	if (prefix == NULL || key == NULL) {
-		STMT_RELEASE(get_object_properties, stmt);
-	}
-	else {
-		STMT_RELEASE(get_object_properties_with_key, stmt);
-	}
+	STMT_RELEASE(get_bundle_relations_page, stmt);
 	return CPL_E_STATEMENT_ERROR;
 }
 
 
 /**
- * Lookup an object based on a property value.
+ * Returns one page of the relations contained in a bundle, ordered by the
+ * IDs of the bundle membership rows, so that relations added to the bundle
+ * after the previous page are returned even if they are older.
  *
- * @param backend the pointer to the backend structure
- * @param prefix the property prefix
- * @param key the property name
- * @param value the property value
- * @param callback the iterator callback function
- * @param context the user context to be passed to the iterator function
- * @return CPL_OK, CPL_E_NOT_FOUND, or an error code
+ * @param backend the pointer to the backend structure
+ * @param id the bundle ID
+ * @param after_membership_id return only relations with membership rows
+ *                            newer than this one
+ * @param limit the maximum number of relations to return
+ * @param out_last_membership_id the pointer to store the ID of the last
+ *                               membership row on the page (unchanged if
+ *                               the page is empty)
+ * @param callback the iterator to be called for each matching relation
+ * @param context the caller-provided iterator context
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
  */
 cpl_return_t
-cpl_odbc_lookup_object_by_property(struct _cpl_db_backend_t* backend,
-							const char* prefix,
-							const char* key,
-							const char* value,
-							const int type,
-							cpl_property_iterator_t callback,
-							void* context)
+cpl_odbc_get_bundle_relations_page_by_membership(
+								   struct _cpl_db_backend_t* backend,
+								   const cpl_id_t id,
+								   const cpl_id_t after_membership_id,
+								   const size_t limit,
+								   cpl_id_t* out_last_membership_id,
+								   cpl_relation_iterator_t callback,
+								   void* context)
 {
+
 	assert(backend != NULL);
 	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
-
+	
 	SQL_START;
 
 	cpl_return_t r = CPL_E_INTERNAL_ERROR;
 
-	std::list<cpl_id_t> entries;
-	cpl_id_t entry;
-
-	SQLHSTMT stmt = STMT_ACQUIRE(lookup_object_by_property);
+	std::list<__get_bundle_relation__entry_t> entries;
+	__get_bundle_relation__entry_t entry;
+	cpl_id_t membership_id = CPL_NONE;
+	cpl_id_t last_membership_id = CPL_NONE;
+	SQLLEN ind_type;
 
+	SQLHSTMT stmt = STMT_ACQUIRE(get_bundle_relations_page_by_membership);
 
 	// Prepare the statement
 
 retry:
 
-	SQL_BIND_VARCHAR(stmt, 1, CPL_PREFIX_LEN, prefix);
-	SQL_BIND_VARCHAR(stmt, 2, CPL_KEY_LEN, key);
-	SQL_BIND_VARCHAR(stmt, 3, CPL_VALUE_LEN, value);
-    SQL_BIND_INTEGER(stmt, 4, type);
+	entries.clear();
+	last_membership_id = CPL_NONE;
+
+	SQL_BIND_INTEGER(stmt, 1, id);
+	SQL_BIND_INTEGER(stmt, 2, after_membership_id);
+	SQL_BIND_INTEGER(stmt, 3, limit);
+
 
 	// Execute
 	
@@ -2648,7 +5551,19 @@ retry:
 
 	// Bind the columns
 
-	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry, 0, NULL);
+	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &membership_id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 2, SQL_C_UBIGINT, &entry.relation_id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 3, SQL_C_UBIGINT, &entry.from_id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 4, SQL_C_UBIGINT, &entry.to_id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 5, SQL_C_SLONG, &entry.type, 0, &ind_type);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
 
@@ -2666,6 +5581,7 @@ retry:
 		}
 
 		entries.push_back(entry);
+		last_membership_id = membership_id;
 	}
 	
 	ret = SQLCloseCursor(stmt);
@@ -2677,20 +5593,23 @@ retry:
 
 	// Unlock
 
-	STMT_RELEASE(lookup_object_by_property, stmt);
+	STMT_RELEASE(get_bundle_relations_page_by_membership, stmt);
 
 
 	// If we did not get any data back, terminate
 
-	if (entries.empty()) return CPL_E_NOT_FOUND;
+	if (entries.empty()) return CPL_S_NO_DATA;
+	if (out_last_membership_id != NULL) {
+		*out_last_membership_id = last_membership_id;
+	}
 
 
 	// Call the user-provided callback function
 
 	if (callback != NULL) {
-		std::list<cpl_id_t>::iterator i;
+		std::list<__get_bundle_relation__entry_t>::iterator i;
 		for (i = entries.begin(); i != entries.end(); i++) {
-			r = callback(*i, prefix, key, value, type, context);
+			r = callback(i->relation_id, i->from_id, i->to_id, (int) i->type, context);
 			if (!CPL_IS_OK(r)) return r;
 		}
 	}
@@ -2707,88 +5626,88 @@ err_close:
 	}
 
 err:
-	STMT_RELEASE(lookup_object_by_property, stmt);
+	STMT_RELEASE(get_bundle_relations_page_by_membership, stmt);
 	return CPL_E_STATEMENT_ERROR;
 }
 
+
 /**
- * Get the properties associated with the given provenance relation.
+ * Get one page of the objects belonging to a bundle, in the order of the
+ * object IDs.
  *
  * @param backend the pointer to the backend structure
- * @param id the the relation ID
- * @param prefix the prefix to fetch - or NULL for all prefixes
- * @param key the property key to fetch - or NULL for all keys
- * @param iterator the iterator callback function
- * @param context the user context to be passed to the iterator function
+ * @param id the bundle ID
+ * @param type the object type, or 0 for all types
+ * @param after_id return only objects with IDs greater than this one
+ * @param limit the maximum number of objects to return
+ * @param callback the iterator to be called for each matching object
+ * @param context the caller-provided iterator context
  * @return CPL_OK, CPL_S_NO_DATA, or an error code
  */
 cpl_return_t
-cpl_odbc_get_relation_properties(struct _cpl_db_backend_t* backend,
-						const cpl_id_t id,
-						const char* prefix,
-						const char* key,
-						const int type,
-						cpl_property_iterator_t callback,
-						void* context)
+cpl_odbc_get_bundle_objects_page(struct _cpl_db_backend_t* backend,
+								 const cpl_id_t id,
+								 const int type,
+								 const cpl_id_t after_id,
+								 const size_t limit,
+								 cpl_object_info_iterator_t callback,
+								 void* context)
 {
 	assert(backend != NULL);
 	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
 
-	std::list<__get_properties__entry_t*> entries;
-	__get_properties__entry_t entry;
-	SQLLEN ind_prefix, ind_key, ind_value;
-
 	SQL_START;
 
 	cpl_return_t r = CPL_E_INTERNAL_ERROR;
-	std::list<__get_properties__entry_t*>::iterator i;
+	cplxx_object_info_t entry;
+	std::list<cplxx_object_info_t> entries;
+	SQL_TIMESTAMP_STRUCT t;
 
-	SQLHSTMT stmt; 
+	size_t prefix_size = CPL_PREFIX_LEN + 1;
+	size_t name_size = CPL_NAME_LEN + 1;
 
+	char* entry_prefix = (char*) alloca(prefix_size);
+	char* entry_name = (char*) alloca(name_size);
 
-	if (prefix == NULL || key == NULL) {
-		stmt = STMT_ACQUIRE(get_relation_properties);
-	}
-	else {
-		stmt = STMT_ACQUIRE(get_relation_properties_with_key);
+	if (entry_prefix == NULL || entry_name == NULL) {
+		return CPL_E_INSUFFICIENT_RESOURCES;
 	}
 
+	// Get and execute the statement
 
-	// Prepare the statement
+	SQLHSTMT stmt = STMT_ACQUIRE(get_bundle_objects_page);
 
 retry:
 
-	SQL_BIND_INTEGER(stmt, 1, id);
-
-	if (prefix != NULL && key != NULL) {
-		SQL_BIND_VARCHAR(stmt, 2, CPL_PREFIX_LEN, prefix);
-		SQL_BIND_VARCHAR(stmt, 3, CPL_KEY_LEN, key);
-        SQL_BIND_INTEGER(stmt, 4, type);
-	} else {
-        SQL_BIND_INTEGER(stmt, 2, type);
-	}
+	entries.clear();
 
+	SQL_BIND_INTEGER(stmt, 1, type);
+	SQL_BIND_INTEGER(stmt, 2, type);
+	SQL_BIND_INTEGER(stmt, 3, after_id);
+	SQL_BIND_INTEGER(stmt, 4, id);
+	SQL_BIND_INTEGER(stmt, 5, id);
+	SQL_BIND_INTEGER(stmt, 6, limit);
 
 	// Execute
-	
-	SQL_EXECUTE(stmt);
 
+	SQL_EXECUTE(stmt);
 
 	// Bind the columns
 
 	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.id, 0, NULL);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
-	ret = SQLBindCol(stmt, 2, SQL_C_CHAR, entry.prefix, sizeof(entry.prefix),
-			&ind_prefix);
+	ret = SQLBindCol(stmt, 2, SQL_C_TYPE_TIMESTAMP, &t, sizeof(t), NULL);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
-	ret = SQLBindCol(stmt, 3, SQL_C_CHAR, entry.key, sizeof(entry.key),
-			&ind_key);
+	ret = SQLBindCol(stmt, 3, SQL_C_CHAR, entry_prefix, prefix_size,
+					 NULL);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
-	ret = SQLBindCol(stmt, 4, SQL_C_CHAR, entry.value, sizeof(entry.value),
-			&ind_value);
+	ret = SQLBindCol(stmt, 4, SQL_C_CHAR, entry_name, name_size, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 5, SQL_C_SLONG, &entry.type, 0, NULL);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
 
@@ -2805,17 +5724,13 @@ retry:
 			break;
 		}
 
-		if (ind_prefix == SQL_NULL_DATA || ind_key == SQL_NULL_DATA || ind_value == SQL_NULL_DATA) {
-			// NULLs should never occur here
-			continue;
-		}
-
-		__get_properties__entry_t* e = new __get_properties__entry_t;
-		memcpy(e, (const void*) &entry, sizeof(*e));
+		entry.creation_time = cpl_sql_timestamp_to_unix_time(t);
+		entry.prefix = entry_prefix;
+		entry.name = entry_name;
 
-		entries.push_back(e);
+		entries.push_back(entry);
 	}
-	
+
 	ret = SQLCloseCursor(stmt);
 	if (!SQL_SUCCEEDED(ret)) {
 		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
@@ -2825,12 +5740,8 @@ retry:
 
 	// Unlock
 
-	if (prefix == NULL || key == NULL) {
-		STMT_RELEASE(get_relation_properties, stmt);
-	}
-	else {
-		STMT_RELEASE(get_relation_properties_with_key, stmt);
-	}
+	STMT_RELEASE(get_bundle_objects_page, stmt);
+
 
 	// If we did not get any data back, terminate
 
@@ -2840,28 +5751,26 @@ retry:
 	// Call the user-provided callback function
 
 	if (callback != NULL) {
+		std::list<cplxx_object_info_t>::iterator i;
 		for (i = entries.begin(); i != entries.end(); i++) {
-			r = callback(id,
-						 (const char*) (*i)->prefix,
-						 (const char*) (*i)->key,
-						 (const char*) (*i)->value,
-                         type,
-                         context);
-			if (!CPL_IS_OK(r)) goto err_free;
+
+			cpl_object_info_t e;
+			e.id = i->id;
+			e.creation_time = i->creation_time;
+			e.prefix = (char*) i->prefix.c_str();
+			e.name = (char*) i->name.c_str();
+			e.type = i->type;
+
+			r = callback(&e, context);
+			if (!CPL_IS_OK(r)) return r;
 		}
 	}
 
-	r = CPL_OK;
+	return CPL_OK;
 
 
 	// Error handling
 
-err_free:
-	for (i = entries.begin(); i != entries.end(); i++) {
-		delete *i;
-	}
-	return r;
-
 err_close:
 	ret = SQLCloseCursor(stmt);
 	if (!SQL_SUCCEEDED(ret)) {
@@ -2869,77 +5778,162 @@ err_close:
 	}
 
 err:
-	if (prefix == NULL || key == NULL) {
-		STMT_RELEASE(get_relation_properties, stmt);
-	}
-	else {
-		STMT_RELEASE(get_relation_properties_with_key, stmt);
-	}
+	STMT_RELEASE(get_bundle_objects_page, stmt);
 	return CPL_E_STATEMENT_ERROR;
 }
 
-/**
- * An entry in the result set of the queries issued by
- * cpl_odbc_get_*_properties().
- */
-typedef struct __get_prefixes__entry {
-	cpl_id_t id;
-	SQLCHAR prefix[CPL_PREFIX_LEN];
-	SQLCHAR iri[CPL_VALUE_LEN];
-} __get_prefixes__entry_t;
-
 
 /**
- * Get the properties associated with the given provenance bundle.
+ * Get one page of the relations of the given types belonging to a bundle,
+ * in the order of the relation IDs.
  *
  * @param backend the pointer to the backend structure
- * @param id the the relation ID
- * @param prefix the prefix to fetch - or NULL for all prefixes
- * @param iri the 
- * @param context the user context to be passed to the iterator function
+ * @param id the bundle ID
+ * @param type_mask the mask of relation types to return, or CPL_R_ALL_TYPES
+ * @param after_id return only relations with IDs greater than this one
+ * @param limit the maximum number of relations to return
+ * @param callback the iterator to be called for each matching relation
+ * @param context the caller-provided iterator context
  * @return CPL_OK, CPL_S_NO_DATA, or an error code
  */
 cpl_return_t
-cpl_odbc_get_prefixes(struct _cpl_db_backend_t* backend,
-						const cpl_id_t id,
-						const char* prefix,
-						cpl_prefix_iterator_t callback,
-						void* context)
+cpl_odbc_get_bundle_relations_page_ext(struct _cpl_db_backend_t* backend,
+									   const cpl_id_t id,
+									   const int type_mask,
+									   const cpl_id_t after_id,
+									   const size_t limit,
+									   cpl_relation_iterator_t callback,
+									   void* context)
 {
 	assert(backend != NULL);
 	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
 
-	std::list<__get_prefixes__entry_t*> entries;
-	__get_prefixes__entry_t entry;
-	SQLLEN ind_prefix, ind_iri;
-
 	SQL_START;
 
-	cpl_return_t r = CPL_E_INTERNAL_ERROR;
-	std::list<__get_prefixes__entry_t*>::iterator i;
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+
+	std::list<__get_bundle_relation__entry_t> entries;
+	__get_bundle_relation__entry_t entry;
+	SQLLEN ind_type;
+
+	std::string type_array = cpl_sql_type_mask_array(type_mask);
+
+	SQLHSTMT stmt = STMT_ACQUIRE(get_bundle_relations_page_ext);
+
+	// Prepare the statement
+
+retry:
+
+	entries.clear();
+
+	SQL_BIND_INTEGER(stmt, 1, id);
+	SQL_BIND_VARCHAR(stmt, 2, type_array.length(), type_array.c_str());
+	SQL_BIND_INTEGER(stmt, 3, after_id);
+	SQL_BIND_INTEGER(stmt, 4, limit);
+
+
+	// Execute
+
+	SQL_EXECUTE(stmt);
+
+
+	// Bind the columns
+
+	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.relation_id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 2, SQL_C_UBIGINT, &entry.from_id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 3, SQL_C_UBIGINT, &entry.to_id, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+	ret = SQLBindCol(stmt, 4, SQL_C_SLONG, &entry.type, 0, &ind_type);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+
+	// Fetch the result
+
+	while (true) {
+
+		ret = SQLFetch(stmt);
+		if (!SQL_SUCCEEDED(ret)) {
+			if (ret != SQL_NO_DATA) {
+				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
+				goto err_close;
+			}
+			break;
+		}
+
+		entries.push_back(entry);
+	}
+
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+		goto err;
+	}
+
+
+	// Unlock
+
+	STMT_RELEASE(get_bundle_relations_page_ext, stmt);
+
+
+	// If we did not get any data back, terminate
+
+	if (entries.empty()) return CPL_S_NO_DATA;
+
 
-	SQLHSTMT stmt;
+	// Call the user-provided callback function
 
-	if (prefix == NULL) {
-		stmt = STMT_ACQUIRE(get_prefixes);
-	}
-	else {
-		stmt = STMT_ACQUIRE(get_prefixes_with_key);
+	if (callback != NULL) {
+		std::list<__get_bundle_relation__entry_t>::iterator i;
+		for (i = entries.begin(); i != entries.end(); i++) {
+			r = callback(i->relation_id, i->from_id, i->to_id, (int) i->type, context);
+			if (!CPL_IS_OK(r)) return r;
+		}
 	}
 
-	// Prepare the statement
+	return CPL_OK;
 
-retry:
 
-	SQL_BIND_INTEGER(stmt, 1, id);
+	// Error handling
 
-	if (prefix != NULL) {
-		SQL_BIND_VARCHAR(stmt, 2, CPL_PREFIX_LEN, prefix);
+err_close:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
 	}
 
-	// Execute
-	
-	SQL_EXECUTE(stmt);
+err:
+	STMT_RELEASE(get_bundle_relations_page_ext, stmt);
+	return CPL_E_STATEMENT_ERROR;
+}
+
+
+/**
+ * Read the result set of a bundle property query, i.e. the ID, prefix,
+ * key, value, and type of each property, pass each row to the callback as
+ * soon as it has been fetched, and close the cursor. Only one row is held
+ * in memory at a time.
+ *
+ * @param stmt the executed statement
+ * @param callback the iterator to be called for each property, or NULL
+ * @param context the caller-provided iterator context
+ * @return CPL_OK, CPL_S_NO_DATA, the callback's error, or
+ *         CPL_E_STATEMENT_ERROR
+ */
+static cpl_return_t
+cpl_odbc_fetch_bundle_properties(SQLHSTMT stmt,
+								 cpl_property_iterator_t callback,
+								 void* context)
+{
+	SQLRETURN ret;
+	cpl_return_t r = CPL_E_STATEMENT_ERROR;
+	__get_properties__entry_t entry;
+	SQLLEN ind_prefix, ind_key, ind_value;
+	bool found = false;
 
 	// Bind the columns
 
@@ -2950,12 +5944,19 @@ retry:
 			&ind_prefix);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
-	ret = SQLBindCol(stmt, 3, SQL_C_CHAR, entry.iri, sizeof(entry.iri),
-			&ind_iri);
+	ret = SQLBindCol(stmt, 3, SQL_C_CHAR, entry.key, sizeof(entry.key),
+			&ind_key);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
+	ret = SQLBindCol(stmt, 4, SQL_C_CHAR, entry.value, sizeof(entry.value),
+			&ind_value);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
-	// Fetch the result
+	ret = SQLBindCol(stmt, 5, SQL_C_SLONG, &entry.type, 0, NULL);
+	if (!SQL_SUCCEEDED(ret)) goto err_close;
+
+
+	// Fetch the result and call the user-provided callback for each row
 
 	while (true) {
 
@@ -2968,90 +5969,116 @@ retry:
 			break;
 		}
 
-		if (ind_prefix == SQL_NULL_DATA || ind_iri == SQL_NULL_DATA) {
+		if (ind_prefix == SQL_NULL_DATA || ind_key == SQL_NULL_DATA
+				|| ind_value == SQL_NULL_DATA) {
 			// NULLs should never occur here
 			continue;
 		}
 
-		__get_prefixes__entry_t* e = new __get_prefixes__entry_t;
-		memcpy(e, (const void*) &entry, sizeof(*e));
+		found = true;
 
-		entries.push_back(e);
+		if (callback != NULL) {
+			r = callback(entry.id, (const char*) entry.prefix,
+						 (const char*) entry.key, (const char*) entry.value,
+						 entry.type, context);
+			if (!CPL_IS_OK(r)) goto err_close;
+		}
 	}
-	
+
 	ret = SQLCloseCursor(stmt);
 	if (!SQL_SUCCEEDED(ret)) {
 		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
-		goto err;
+		return CPL_E_STATEMENT_ERROR;
 	}
 
-	// Unlock
+	return found ? CPL_OK : CPL_S_NO_DATA;
 
-	if (prefix == NULL) {
-		STMT_RELEASE(get_prefixes, stmt);
-	}
-	else {
-		STMT_RELEASE(get_prefixes_with_key, stmt);
+err_close:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
 	}
+	return r;
+}
 
-	// If we did not get any data back, terminate
 
-	if (entries.empty()) return CPL_S_NO_DATA;
+/**
+ * Get the properties of all objects belonging to a bundle in a single
+ * scan, ordered by the object ID. The callback is called while the rows are
+ * being fetched.
+ *
+ * @param backend the pointer to the backend structure
+ * @param id the bundle ID
+ * @param type the object type, or 0 for all types
+ * @param after_id include only objects with IDs greater than this one
+ * @param last_id include only objects with IDs up to this one, or CPL_NONE
+ * @param callback the iterator to be called for each property
+ * @param context the caller-provided iterator context
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+cpl_return_t
+cpl_odbc_get_bundle_object_properties(struct _cpl_db_backend_t* backend,
+									  const cpl_id_t id,
+									  const int type,
+									  const cpl_id_t after_id,
+									  const cpl_id_t last_id,
+									  cpl_property_iterator_t callback,
+									  void* context)
+{
+	assert(backend != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
 
-	// Call the user-provided callback function
+	SQL_START;
 
-	if (callback != NULL) {
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
 
-		for (i = entries.begin(); i != entries.end(); i++) {
-			r = callback(id,
-						 (const char*) (*i)->prefix,
-						 (const char*) (*i)->iri,
-						 context);
-			if (!CPL_IS_OK(r)) goto err_free;
-		}
-	}
+	SQLHSTMT stmt = STMT_ACQUIRE(get_bundle_object_properties);
 
-	r = CPL_OK;
+retry:
 
-	// Error handling
+	SQL_BIND_INTEGER(stmt, 1, type);
+	SQL_BIND_INTEGER(stmt, 2, type);
+	SQL_BIND_INTEGER(stmt, 3, after_id);
+	SQL_BIND_INTEGER(stmt, 4, last_id);
+	SQL_BIND_INTEGER(stmt, 5, last_id);
+	SQL_BIND_INTEGER(stmt, 6, id);
+	SQL_BIND_INTEGER(stmt, 7, id);
 
-err_free:
-	for (i = entries.begin(); i != entries.end(); i++) {
-		delete *i;
-	}
-	return r;
+	SQL_EXECUTE(stmt);
 
-err_close:
-	ret = SQLCloseCursor(stmt);
-	if (!SQL_SUCCEEDED(ret)) {
-		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
-	}
+	r = cpl_odbc_fetch_bundle_properties(stmt, callback, context);
+
+	STMT_RELEASE(get_bundle_object_properties, stmt);
+	return r;
 
 err:
-	if (prefix == NULL) {
-		STMT_RELEASE(get_prefixes, stmt);
-	}
-	else {
-		STMT_RELEASE(get_prefixes_with_key, stmt);
-	}
+	STMT_RELEASE(get_bundle_object_properties, stmt);
 	return CPL_E_STATEMENT_ERROR;
 }
 
 
 /**
- * Returns all objects contained in a bundle.
+ * Get the properties of all relations belonging to a bundle in a single
+ * scan, ordered by the relation ID. The callback is called while the rows are
+ * being fetched.
  *
  * @param backend the pointer to the backend structure
  * @param id the bundle ID
- * @param callback the iterator to be called for each matching object
+ * @param type_mask the mask of relation types, or CPL_R_ALL_TYPES
+ * @param after_id include only relations with IDs greater than this one
+ * @param last_id include only relations with IDs up to this one, or CPL_NONE
+ * @param callback the iterator to be called for each property
  * @param context the caller-provided iterator context
- * @return CPL_OK or an error code
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
  */
 cpl_return_t
-cpl_odbc_get_bundle_objects(struct _cpl_db_backend_t* backend,
-						     const cpl_id_t id,
-						     cpl_object_info_iterator_t callback,
-						     void* context)
+cpl_odbc_get_bundle_relation_properties(struct _cpl_db_backend_t* backend,
+										const cpl_id_t id,
+										const int type_mask,
+										const cpl_id_t after_id,
+										const cpl_id_t last_id,
+										cpl_property_iterator_t callback,
+										void* context)
 {
 	assert(backend != NULL);
 	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
@@ -3059,50 +6086,90 @@ cpl_odbc_get_bundle_objects(struct _cpl_db_backend_t* backend,
 	SQL_START;
 
 	cpl_return_t r = CPL_E_INTERNAL_ERROR;
-	cplxx_object_info_t entry;
-	std::list<cplxx_object_info_t> entries;
-	SQL_TIMESTAMP_STRUCT t;
 
-	size_t prefix_size = CPL_PREFIX_LEN + 1;
-	size_t name_size = CPL_NAME_LEN + 1;
+	std::string type_array = cpl_sql_type_mask_array(type_mask);
 
-	char* entry_prefix = (char*) alloca(prefix_size);
-	char* entry_name = (char*) alloca(name_size);
+	SQLHSTMT stmt = STMT_ACQUIRE(get_bundle_relation_properties);
+
+retry:
+
+	SQL_BIND_INTEGER(stmt, 1, id);
+	SQL_BIND_VARCHAR(stmt, 2, type_array.length(), type_array.c_str());
+	SQL_BIND_INTEGER(stmt, 3, after_id);
+	SQL_BIND_INTEGER(stmt, 4, last_id);
+	SQL_BIND_INTEGER(stmt, 5, last_id);
+
+	SQL_EXECUTE(stmt);
+
+	r = cpl_odbc_fetch_bundle_properties(stmt, callback, context);
+
+	STMT_RELEASE(get_bundle_relation_properties, stmt);
+	return r;
+
+err:
+	STMT_RELEASE(get_bundle_relation_properties, stmt);
+	return CPL_E_STATEMENT_ERROR;
+}
+
+
+/**
+ * Fetch the relations of one chunk of objects for
+ * cpl_odbc_get_relations_batch().
+ *
+ * @param odbc the backend structure
+ * @param direction the direction of the graph traversal
+ * @param id_array the array literal with the object IDs
+ * @param type_mask the mask of relation types to return
+ * @param entries the vector to which the results are appended
+ * @return CPL_OK or an error code
+ */
+static cpl_return_t
+cpl_odbc_get_relations_chunk(cpl_odbc_t* odbc,
+							 const int direction,
+							 const std::string& id_array,
+							 const int type_mask,
+							 std::vector<__get_bundle_relation__entry_t>& entries)
+{
+	SQL_START;
+
+	__get_bundle_relation__entry_t entry;
+	size_t old_size = entries.size();
+	SQLLEN ind_type;
+	std::string type_array = cpl_sql_type_mask_array(type_mask);
 
-	if (entry_prefix == NULL || entry_name == NULL) {
-		return CPL_E_INSUFFICIENT_RESOURCES;
-	}
 
 	// Get and execute the statement
 
-	SQLHSTMT stmt = STMT_ACQUIRE(get_bundle_objects);
-	
+	SQLHSTMT stmt;
+	if (direction == CPL_D_ANCESTORS) {
+		stmt = STMT_ACQUIRE(get_object_ancestors_batch);
+	}
+	else {
+		stmt = STMT_ACQUIRE(get_object_descendants_batch);
+	}
+
 retry:
 
-	entries.clear();
+	entries.resize(old_size);
 
-	SQL_BIND_INTEGER(stmt, 1, id);
+	SQL_BIND_VARCHAR(stmt, 1, id_array.length(), id_array.c_str());
+	SQL_BIND_VARCHAR(stmt, 2, type_array.length(), type_array.c_str());
 
-	// Execute
-	
 	SQL_EXECUTE(stmt);
 
-	// Bind the columns
 
-	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.id, 0, NULL);
-	if (!SQL_SUCCEEDED(ret)) goto err_close;
+	// Bind the columns
 
-	ret = SQLBindCol(stmt, 2, SQL_C_TYPE_TIMESTAMP, &t, sizeof(t), NULL);
+	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.relation_id, 0, NULL);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
-	ret = SQLBindCol(stmt, 3, SQL_C_CHAR, entry_prefix, prefix_size,
-					 NULL);
+	ret = SQLBindCol(stmt, 2, SQL_C_UBIGINT, &entry.from_id, 0, NULL);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
-	ret = SQLBindCol(stmt, 4, SQL_C_CHAR, entry_name, name_size, NULL);
+	ret = SQLBindCol(stmt, 3, SQL_C_UBIGINT, &entry.to_id, 0, NULL);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
-	ret = SQLBindCol(stmt, 5, SQL_C_SLONG, &entry.type, 0, NULL);
+	ret = SQLBindCol(stmt, 4, SQL_C_SLONG, &entry.type, 0, &ind_type);
 	if (!SQL_SUCCEEDED(ret)) goto err_close;
 
 
@@ -3112,35 +6179,104 @@ retry:
 
 		ret = SQLFetch(stmt);
 		if (!SQL_SUCCEEDED(ret)) {
-			if (ret == SQL_INVALID_HANDLE) {
-				fprintf(stderr, "\nThe ODBC driver failed while running "
-								"SQLFetch due to SQL_INVALID_HANDLE\n\n");
-				goto err_close;
-			}
-			else if (ret != SQL_NO_DATA) {
+			if (ret != SQL_NO_DATA) {
 				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
 				goto err_close;
 			}
 			break;
 		}
 
-		entry.creation_time = cpl_sql_timestamp_to_unix_time(t);
-		entry.prefix = entry_prefix;
-		entry.name = entry_name;
+		entries.push_back(entry);
+	}
+
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+		goto err;
+	}
+
+
+	// Unlock and return
+
+	if (direction == CPL_D_ANCESTORS) {
+		STMT_RELEASE(get_object_ancestors_batch, stmt);
+	}
+	else {
+		STMT_RELEASE(get_object_descendants_batch, stmt);
+	}
+	return CPL_OK;
+
+
+	// Error handling
+
+err_close:
+	ret = SQLCloseCursor(stmt);
+	if (!SQL_SUCCEEDED(ret)) {
+		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+	}
+
+err:
+	if (direction == CPL_D_ANCESTORS) {
+		STMT_RELEASE(get_object_ancestors_batch, stmt);
+	}
+	else {
+		STMT_RELEASE(get_object_descendants_batch, stmt);
+	}
+	return CPL_E_STATEMENT_ERROR;
+}
+
+
+/**
+ * Iterate over the immediate ancestors or descendants of several objects
+ * at once. The IDs are sent in chunks of at most CPL_ID_BATCH_MAX.
+ *
+ * @param backend the pointer to the backend structure
+ * @param ids the array of object IDs
+ * @param num_ids the number of elements in the array
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param type_mask the mask of relation types to return, or
+ *                  CPL_R_ALL_TYPES
+ * @param callback the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+cpl_return_t
+cpl_odbc_get_relations_batch(struct _cpl_db_backend_t* backend,
+							 const cpl_id_t* ids,
+							 const size_t num_ids,
+							 const int direction,
+							 const int type_mask,
+							 cpl_relation_iterator_t callback,
+							 void* context)
+{
+	assert(backend != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
+
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+	std::vector<__get_bundle_relation__entry_t> entries;
+	char buf[32];
+
+
+	// Fetch the relations, one chunk of IDs at a time
 
-		entries.push_back(entry);
-	}
-	
-	ret = SQLCloseCursor(stmt);
-	if (!SQL_SUCCEEDED(ret)) {
-		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
-		goto err;
-	}
+	for (size_t start = 0; start < num_ids; start += CPL_ID_BATCH_MAX) {
 
+		size_t end = start + CPL_ID_BATCH_MAX;
+		if (end > num_ids) end = num_ids;
 
-	// Unlock
+		std::string id_array = "{";
+		for (size_t k = start; k < end; k++) {
+			if (k > start) id_array += ",";
+			snprintf(buf, sizeof(buf), "%llu", (unsigned long long) ids[k]);
+			id_array += buf;
+		}
+		id_array += "}";
 
-	STMT_RELEASE(get_bundle_objects, stmt);
+		r = cpl_odbc_get_relations_chunk(odbc, direction, id_array,
+										 type_mask, entries);
+		if (!CPL_IS_OK(r)) return r;
+	}
 
 
 	// If we did not get any data back, terminate
@@ -3151,220 +6287,93 @@ retry:
 	// Call the user-provided callback function
 
 	if (callback != NULL) {
-		std::list<cplxx_object_info_t>::iterator i;
+		bool ancestors = direction == CPL_D_ANCESTORS;
+		std::vector<__get_bundle_relation__entry_t>::iterator i;
 		for (i = entries.begin(); i != entries.end(); i++) {
-
-			strncpy(entry_prefix, i->prefix.c_str(), prefix_size);
-			strncpy(entry_name, i->name.c_str(), name_size);
-			entry_prefix[prefix_size - 1] = '\0';
-			entry_name[name_size - 1] = '\0';
-
-			cpl_object_info_t e;
-			e.id = i->id;
-			e.creation_time = i->creation_time;
-			e.prefix = entry_prefix;
-			e.name = entry_name;
-			e.type = i->type;
-
-			r = callback(&e, context);
+			r = callback(i->relation_id,
+						 ancestors ? i->from_id : i->to_id,
+						 ancestors ? i->to_id : i->from_id,
+						 (int) i->type, context);
 			if (!CPL_IS_OK(r)) return r;
 		}
 	}
 
 	return CPL_OK;
+}
 
 
-	// Error handling
+/**
+ * Get the highest relation ID in the database.
+ *
+ * @param backend the pointer to the backend structure
+ * @param out_id the pointer to store the relation ID (CPL_NONE if there
+ *               are no relations)
+ * @return CPL_OK or an error code
+ */
+cpl_return_t
+cpl_odbc_get_last_relation_id(struct _cpl_db_backend_t* backend,
+							  cpl_id_t* out_id)
+{
+	assert(backend != NULL);
+	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
 
-err_close:
-	ret = SQLCloseCursor(stmt);
-	if (!SQL_SUCCEEDED(ret)) {
-		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
+	SQL_START;
+
+	cpl_id_t id = CPL_NONE;
+	cpl_return_t r = CPL_E_INTERNAL_ERROR;
+
+	SQLHSTMT stmt = STMT_ACQUIRE(get_last_relation_id);
+
+retry:
+
+	// Execute
+
+	SQL_EXECUTE(stmt);
+
+
+	// Fetch the result
+
+	r = cpl_sql_fetch_single_llong(stmt, (long long*) &id, 1);
+	if (!CPL_IS_OK(r)) {
+		STMT_RELEASE(get_last_relation_id, stmt);
+		return r;
 	}
 
-err:
-	STMT_RELEASE(get_bundle_objects, stmt);
-	return CPL_E_STATEMENT_ERROR;
-}
 
+	// Cleanup
 
-///**
-// * Returns all bundles belonging to a certain originator
-// *
-// * @param backend the pointer to the backend structure
-// * @param prefix the originator
-// * @param callback the iterator to be called for each matching object
-// * @param context the caller-provided iterator context
-// * @return CPL_OK or an error code
-// */
-//cpl_return_t
-//cpl_odbc_get_prefix_bundles(struct _cpl_db_backend_t* backend,
-//							const char* prefix,
-//							cpl_object_info_iterator_t callback,
-//							void* context)
-//{
-//	assert(backend != NULL);
-//	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
-//
-//	SQL_START;
-//
-//	cpl_return_t r = CPL_E_INTERNAL_ERROR;
-//	cplxx_object_info_t entry;
-//	std::list<cplxx_object_info_t> entries;
-//	SQL_TIMESTAMP_STRUCT t;
-//
-//	size_t prefix_size = CPL_PREFIX_LEN + 1;
-//	size_t name_size = CPL_NAME_LEN + 1;
-//
-//	char* entry_prefix = (char*) alloca(prefix_size);
-//	char* entry_name = (char*) alloca(name_size);
-//
-//	if (entry_prefix == NULL || entry_name == NULL) {
-//		return CPL_E_INSUFFICIENT_RESOURCES;
-//	}
-//
-//	// Get and execute the statement
-//
-//	SQLHSTMT stmt = STMT_ACQUIRE(get_prefix_bundles);
-//
-//	retry:
-//
-//	entries.clear();
-//
-//	SQL_BIND_INTEGER(stmt, 1, prefix);
-//
-//	// Execute
-//
-//	SQL_EXECUTE(stmt);
-//
-//	// Bind the columns
-//
-//	ret = SQLBindCol(stmt, 1, SQL_C_UBIGINT, &entry.id, 0, NULL);
-//	if (!SQL_SUCCEEDED(ret)) goto err_close;
-//
-//	ret = SQLBindCol(stmt, 2, SQL_C_TYPE_TIMESTAMP, &t, sizeof(t), NULL);
-//	if (!SQL_SUCCEEDED(ret)) goto err_close;
-//
-//	ret = SQLBindCol(stmt, 3, SQL_C_CHAR, entry_prefix, prefix_size,
-//					 NULL);
-//	if (!SQL_SUCCEEDED(ret)) goto err_close;
-//
-//	ret = SQLBindCol(stmt, 4, SQL_C_CHAR, entry_name, name_size, NULL);
-//	if (!SQL_SUCCEEDED(ret)) goto err_close;
-//
-//	ret = SQLBindCol(stmt, 5, SQL_C_SLONG, &entry.type, 0, NULL);
-//	if (!SQL_SUCCEEDED(ret)) goto err_close;
-//
-//	entry.bundle_id = id;
-//
-//
-//
-//	// Fetch the result
-//
-//	while (true) {
-//
-//		ret = SQLFetch(stmt);
-//		if (!SQL_SUCCEEDED(ret)) {
-//			if (ret == SQL_INVALID_HANDLE) {
-//				fprintf(stderr, "\nThe ODBC driver failed while running "
-//								"SQLFetch due to SQL_INVALID_HANDLE\n\n");
-//				goto err_close;
-//			}
-//			else if (ret != SQL_NO_DATA) {
-//				print_odbc_error("SQLFetch", stmt, SQL_HANDLE_STMT);
-//				goto err_close;
-//			}
-//			break;
-//		}
-//
-//		entry.creation_time = cpl_sql_timestamp_to_unix_time(t);
-//		entry.prefix = entry_prefix;
-//		entry.name = entry_name;
-//
-//		entries.push_back(entry);
-//	}
-//
-//	ret = SQLCloseCursor(stmt);
-//	if (!SQL_SUCCEEDED(ret)) {
-//		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
-//		goto err;
-//	}
-//
-//
-//	// Unlock
-//
-//	STMT_RELEASE(get_bundle_objects, stmt);
-//
-//
-//	// If we did not get any data back, terminate
-//
-//	if (entries.empty()) return CPL_S_NO_DATA;
-//
-//
-//	// Call the user-provided callback function
-//
-//	if (callback != NULL) {
-//		std::list<cplxx_object_info_t>::iterator i;
-//		for (i = entries.begin(); i != entries.end(); i++) {
-//
-//			strncpy(entry_prefix, i->prefix.c_str(), prefix_size);
-//			strncpy(entry_name, i->name.c_str(), name_size);
-//			entry_prefix[prefix_size - 1] = '\0';
-//			entry_name[name_size - 1] = '\0';
-//
-//			cpl_object_info_t e;
-//			e.id = i->id;
-//			e.creation_time = i->creation_time;
-//			e.prefix = entry_prefix;
-//			e.name = entry_name;
-//			e.type = i->type;
-//			e.bundle_id = i->bundle_id;
-//
-//			r = callback(&e, context);
-//			if (!CPL_IS_OK(r)) return r;
-//		}
-//	}
-//
-//	return CPL_OK;
-//
-//
-//	// Error handling
-//
-//	err_close:
-//	ret = SQLCloseCursor(stmt);
-//	if (!SQL_SUCCEEDED(ret)) {
-//		print_odbc_error("SQLCloseCursor", stmt, SQL_HANDLE_STMT);
-//	}
-//
-//	err:
-//	STMT_RELEASE(get_bundle_objects, stmt);
-//	return CPL_E_STATEMENT_ERROR;
-//}
+	STMT_RELEASE(get_last_relation_id, stmt);
 
+	if (out_id != NULL) *out_id = id;
+	return CPL_OK;
+
+
+	// Error handling
+
+err:
+	STMT_RELEASE(get_last_relation_id, stmt);
+	return CPL_E_STATEMENT_ERROR;
+}
 
-typedef struct __get_bundle_relation__entry {
-	cpl_id_t relation_id;
-	cpl_id_t from_id;
-	cpl_id_t to_id;
-	long type;
-	cpl_id_t bundle_id;
-} __get_bundle_relation__entry_t;
 
 /**
- * Returns all relations contained in a bundle.
+ * Returns one page of all relations except the bundle membership records,
+ * ordered by the relation IDs.
  *
  * @param backend the pointer to the backend structure
- * @param id the bundle ID
- * @param callback the iterator to be called for each matching object
+ * @param after_id return only relations with IDs greater than this one
+ * @param limit the maximum number of relations to return
+ * @param callback the iterator to be called for each relation
  * @param context the caller-provided iterator context
- * @return CPL_OK or an error code
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
  */
 cpl_return_t
-cpl_odbc_get_bundle_relations(struct _cpl_db_backend_t* backend,
-						     const cpl_id_t id,
-						     cpl_relation_iterator_t callback,
-							 void* context){
-
+cpl_odbc_get_all_relations_page(struct _cpl_db_backend_t* backend,
+								const cpl_id_t after_id,
+								const size_t limit,
+								cpl_relation_iterator_t callback,
+								void* context)
+{
 	assert(backend != NULL);
 	cpl_odbc_t* odbc = (cpl_odbc_t*) backend;
 	
@@ -3372,17 +6381,20 @@ cpl_odbc_get_bundle_relations(struct _cpl_db_backend_t* backend,
 
 	cpl_return_t r = CPL_E_INTERNAL_ERROR;
 
-	std::list<__get_bundle_relation__entry_t> entries;
+	std::vector<__get_bundle_relation__entry_t> entries;
 	__get_bundle_relation__entry_t entry;
 	SQLLEN ind_type;
 
-	SQLHSTMT stmt = STMT_ACQUIRE(get_bundle_relations);
+	SQLHSTMT stmt = STMT_ACQUIRE(get_all_relations_page);
 
 	// Prepare the statement
 
 retry:
 
-	SQL_BIND_INTEGER(stmt, 1, id);
+	entries.clear();
+
+	SQL_BIND_INTEGER(stmt, 1, after_id);
+	SQL_BIND_INTEGER(stmt, 2, limit);
 
 
 	// Execute
@@ -3407,6 +6419,8 @@ retry:
 
 	// Fetch the result
 
+	entries.reserve(limit < 65536 ? limit : 65536);
+
 	while (true) {
 
 		ret = SQLFetch(stmt);
@@ -3430,7 +6444,7 @@ retry:
 
 	// Unlock
 
-	STMT_RELEASE(get_bundle_relations, stmt);
+	STMT_RELEASE(get_all_relations_page, stmt);
 
 
 	// If we did not get any data back, terminate
@@ -3441,7 +6455,7 @@ retry:
 	// Call the user-provided callback function
 
 	if (callback != NULL) {
-		std::list<__get_bundle_relation__entry_t>::iterator i;
+		std::vector<__get_bundle_relation__entry_t>::iterator i;
 		for (i = entries.begin(); i != entries.end(); i++) {
 			r = callback(i->relation_id, i->from_id, i->to_id, (int) i->type, context);
 			if (!CPL_IS_OK(r)) return r;
@@ -3460,7 +6474,7 @@ err_close:
 	}
 
 err:
-	STMT_RELEASE(get_bundle_relations, stmt);
+	STMT_RELEASE(get_all_relations_page, stmt);
 	return CPL_E_STATEMENT_ERROR;
 }
 /***************************************************************************/
@@ -3492,6 +6506,24 @@ const cpl_db_backend_t CPL_ODBC_BACKEND = {
 	cpl_odbc_get_relation_properties,
 	cpl_odbc_get_bundle_objects,
 	cpl_odbc_get_bundle_relations,
-	cpl_odbc_get_prefixes
+	cpl_odbc_get_prefixes,
+	cpl_odbc_get_object_info_batch,
+	cpl_odbc_get_all_objects_page,
+	cpl_odbc_get_object_relations_page,
+	cpl_odbc_get_bundle_relations_page,
+	cpl_odbc_get_bundle_relations_page_by_membership,
+	cpl_odbc_create_objects,
+	cpl_odbc_add_relations,
+	cpl_odbc_add_object_properties,
+	cpl_odbc_add_relation_properties,
+	cpl_odbc_get_object_lineage,
+	cpl_odbc_get_all_relations_page,
+	cpl_odbc_get_relations_batch,
+	cpl_odbc_get_object_relations_info,
+	cpl_odbc_get_last_relation_id,
+	cpl_odbc_get_bundle_objects_page,
+	cpl_odbc_get_bundle_relations_page_ext,
+	cpl_odbc_get_bundle_object_properties,
+	cpl_odbc_get_bundle_relation_properties
 };
 
@@ -130,6 +130,12 @@ cpl_convert_p_std_vector_cplxx_object_info_t_to_p_void(
     return (void*) p;
 }
 
+inline void*
+cpl_convert_p_cplxx_object_columns_t_to_p_void(
+        cplxx_object_columns_t* p) {
+    return (void*) p;
+}
+
 typedef std::vector<cplxx_string_property_entry_t> std_vector_cplxx_string_property_entry_t;
 
 inline std::vector<cplxx_string_property_entry_t>&
@@ -276,6 +282,17 @@ cpl_add_relation(const cpl_id_t from_id,
 cpl_return_t
 cpl_get_current_session(unsigned long long* OUTPUT);
 
+cpl_return_t
+cpl_get_last_relation_id(unsigned long long* OUTPUT);
+
+cpl_return_t
+cpl_get_bundle_relations_page_by_membership(const cpl_id_t id,
+                    const cpl_id_t after_membership_id,
+                    const size_t limit,
+                    unsigned long long* OUTPUT,
+                    cpl_relation_iterator_t iterator,
+                    void* context);
+
 cpl_return_t
 import_document_json(const std::string& filename,
                      const std::string& bundle_name,
@@ -318,6 +335,10 @@ inline void*
 cpl_convert_p_std_vector_cplxx_object_info_t_to_p_void(
         std_vector_cplxx_object_info_t* p);
 
+inline void*
+cpl_convert_p_cplxx_object_columns_t_to_p_void(
+        cplxx_object_columns_t* p);
+
 %template (cplxx_string_property_entry_t_vector) std::vector<cplxx_string_property_entry_t>;
 
 inline std::vector<cplxx_string_property_entry_t>&
@@ -368,6 +389,12 @@ inline void*
 cpl_convert_p_std_vector_cpl_id_t_to_p_void(
         std_vector_cpl_id_t* p);
 
+%template (std_string_vector) std::vector<std::string>;
+
+%template (int_vector) std::vector<int>;
+
+%template (unsigned_long_vector) std::vector<unsigned long>;
+
 %template(cplxx_id_name_pair) std::pair<cpl_id_t, std::string>;
 
 %template (cplxx_id_name_pair_vector) std::vector<std::pair<cpl_id_t, std::string>>;
@@ -208,5 +208,16 @@ public class CPL {
 	static boolean isNone(BigInteger id) {
 		return id.equals(BigInteger.ZERO);
 	}
+
+
+	/**
+	 * Determine whether the given CPL internal ID is CPL_NONE
+	 *
+	 * @param id the internal id
+	 * @return if it is CPL_NONE
+	 */
+	static boolean isNone(long id) {
+		return id == 0;
+	}
 }
 
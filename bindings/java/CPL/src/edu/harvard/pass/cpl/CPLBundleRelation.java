@@ -12,9 +12,9 @@ public class CPLBundleRelation {
     private static final int BUNDLERELATION 		= CPLDirectConstants.BUNDLERELATION;
 
     /// The null object
-    private static BigInteger nullId = BigInteger.ZERO;
+    private static final long nullId = 0;
 
-    private 	BigInteger id;
+    private 	long id;
 
     /// The bundle object
     private CPLObject bundle;
@@ -22,7 +22,7 @@ public class CPLBundleRelation {
     /// The relation
     private CPLRelation relation;
 
-    CPLBundleRelation(BigInteger id){
+    CPLBundleRelation(long id){
         this.id = id;
     }
 
@@ -30,9 +30,9 @@ public class CPLBundleRelation {
         if (bundle.getType() != CPLDirect.CPL_BUNDLE) {
             throw new CPLException("Cannot create bundle relation from non-bundle", CPLDirect.CPL_E_INVALID_ARGUMENT);
         }
-        BigInteger[] id = {nullId};
+        long[] id = {nullId};
 
-        int r = CPLDirect.cpl_add_relation(bundle.getId(), relation.getId(), BUNDLERELATION, id);
+        int r = CPLDirect.cpl_add_relation(bundle.getLongId(), relation.getLongId(), BUNDLERELATION, id);
         CPLException.assertSuccess(r);
 
         CPLBundleRelation a = new CPLBundleRelation(id[0]);
@@ -48,6 +48,15 @@ public class CPLBundleRelation {
      * @return the internal ID of this relation
      */
     public BigInteger getId() {
+        return BigInteger.valueOf(id);
+    }
+
+    /**
+     * Get the ID of the relation as a primitive long
+     *
+     * @return the internal ID of this relation
+     */
+    public long getLongId() {
         return id;
     }
 }
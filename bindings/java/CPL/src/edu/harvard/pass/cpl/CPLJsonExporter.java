@@ -0,0 +1,620 @@
+package edu.harvard.pass.cpl;
+
+/*
+ * JsonUtility.java
+ * Prov-CPL
+ *
+ * Copyright 2026
+ *      The President and Fellows of Harvard College.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the University nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE UNIVERSITY AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE UNIVERSITY OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ *
+ * Contributor(s): agent
+ */
+
+import swig.direct.CPLDirect.*;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A streaming exporter of bundles as Prov JSON documents. While
+ * export_bundle_json() builds the whole document in memory and returns it
+ * as a single string, the exporter reads the objects and relations of the
+ * bundles one page at a time and writes each of them to the output as soon
+ * as it has been read. The properties of all objects or relations on a page
+ * are fetched together with one query. The document has the same layout as
+ * the output of export_bundle_json(): a single prefix section merged from
+ * all bundles, then one section per object type and per relation type, with
+ * empty sections left out.
+ *
+ * @author agent
+ */
+public class CPLJsonExporter {
+
+	/// The default number of objects or relations read per page
+	public static final int DEFAULT_PAGE_SIZE
+		= CPLResultIterator.DEFAULT_PAGE_SIZE;
+
+	/// The exported object types and the names of their sections
+	private static final int[] OBJECT_TYPES = {
+		CPLObject.ENTITY, CPLObject.AGENT, CPLObject.ACTIVITY,
+	};
+	private static final String[] OBJECT_SECTIONS = {
+		CPLDirectConstants.CPL_ENTITY_STR,
+		CPLDirectConstants.CPL_AGENT_STR,
+		CPLDirectConstants.CPL_ACTIVITY_STR,
+	};
+
+	/// The bundles to export
+	private final CPLObject[] bundles;
+
+	/// The number of objects or relations read at once
+	private final int pageSize;
+
+	/// The IDs of the objects and relations written so far, used only to
+	/// skip duplicates when exporting more than one bundle
+	private HashSet<Long> written = null;
+
+	/// The output
+	private Writer out;
+
+	/// Whether the current section or document already has an entry
+	private boolean sectionStarted;
+	private boolean documentStarted;
+
+
+	/**
+	 * Create an instance of CPLJsonExporter
+	 *
+	 * @param bundles the bundles to export
+	 * @param pageSize the number of objects or relations to read at once
+	 */
+	public CPLJsonExporter(CPLObject[] bundles, int pageSize) {
+
+		if (bundles == null || bundles.length == 0 || pageSize <= 0) {
+			throw new CPLException("Nothing to export or invalid page size",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+
+		this.bundles = bundles.clone();
+		this.pageSize = pageSize;
+	}
+
+
+	/**
+	 * Export the bundles. The writer is flushed, but not closed.
+	 *
+	 * @param out the writer
+	 * @throws IOException if writing fails
+	 */
+	public void exportTo(Writer out) throws IOException {
+
+		this.out = out;
+		this.documentStarted = false;
+		this.written = bundles.length > 1 ? new HashSet<Long>() : null;
+
+		out.write('{');
+
+		writePrefixes();
+
+		for (int i = 0; i < OBJECT_TYPES.length; i++) {
+			startSection();
+			for (CPLObject b : bundles) {
+				writeObjects(b, OBJECT_TYPES[i], OBJECT_SECTIONS[i]);
+			}
+			endSection();
+		}
+
+		if (written != null) written.clear();
+
+		for (int t = 0; t < CPLJsonImporter.RELATION_NAMES.length; t++) {
+			startSection();
+			for (CPLObject b : bundles) {
+				writeRelations(b, t);
+			}
+			endSection();
+		}
+
+		out.write('}');
+		out.flush();
+
+		written = null;
+	}
+
+
+	/**
+	 * Write the prefix section, merged from the prefixes of all bundles
+	 */
+	private void writePrefixes() throws IOException {
+
+		LinkedHashMap<String, String> prefixes
+			= new LinkedHashMap<String, String>();
+
+		for (CPLObject bundle : bundles) {
+			SWIGTYPE_p_std_vector_cplxx_prefix_entry_t pVector
+				= CPLDirect.new_std_vector_cplxx_prefix_entry_tp();
+			SWIGTYPE_p_void pv = CPLDirect
+				.cpl_convert_p_std_vector_cplxx_prefix_entry_t_to_p_void(pVector);
+
+			try {
+				int r = CPLDirect.cpl_get_prefixes(bundle.getLongId(), null,
+						CPLDirect.cpl_cb_collect_prefixes_vector, pv);
+				if (r == CPLDirect.CPL_S_NO_DATA) continue;
+				CPLException.assertSuccess(r);
+
+				cplxx_prefix_entry_t_vector v = CPLDirect
+					.cpl_dereference_p_std_vector_cplxx_prefix_entry_t(pVector);
+				long l = v.size();
+				for (long i = 0; i < l; i++) {
+					cplxx_prefix_entry_t e = v.get((int) i);
+					String iri = prefixes.get(e.getPrefix());
+					if (iri == null) {
+						prefixes.put(e.getPrefix(), e.getIri());
+					}
+					else if (!iri.equals(e.getIri())) {
+						throw new CPLException("Prefix " + e.getPrefix()
+								+ " is bound to different IRIs in the bundles",
+								CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+					}
+				}
+			}
+			finally {
+				CPLDirect.delete_std_vector_cplxx_prefix_entry_tp(pVector);
+			}
+		}
+
+		startSection();
+		for (Map.Entry<String, String> e : prefixes.entrySet()) {
+			startEntry("prefix", e.getKey());
+			writeString(e.getValue());
+		}
+		endSection();
+	}
+
+
+	/**
+	 * Write the objects of one type in a bundle
+	 *
+	 * @param bundle the bundle
+	 * @param type the object type
+	 * @param section the section name
+	 */
+	private void writeObjects(CPLObject bundle, int type, String section)
+			throws IOException {
+
+		long afterId = CPLObject.nullId;
+		while (true) {
+			List<CPLObject> page = fetchObjectsPage(bundle, type, afterId);
+			if (page.isEmpty()) break;
+			long lastId = page.get(page.size() - 1).getLongId();
+
+			// Fetch the properties of the whole page with a single query
+
+			cplxx_string_property_entry_t_vector sv
+				= new cplxx_string_property_entry_t_vector();
+			cplxx_numerical_property_entry_t_vector nv
+				= new cplxx_numerical_property_entry_t_vector();
+			cplxx_boolean_property_entry_t_vector bv
+				= new cplxx_boolean_property_entry_t_vector();
+			int r = CPLDirect.cpl_get_bundle_object_properties(
+					bundle.getLongId(), type, afterId, lastId, sv, nv, bv);
+			CPLException.assertSuccess(r);
+			HashMap<Long, Map<String, Object>> properties
+				= collectProperties(sv, nv, bv);
+			afterId = lastId;
+
+			for (CPLObject o : page) {
+				if (written != null && !written.add(o.getLongId())) continue;
+
+				startEntry(section, fullName(o));
+				writeProperties(properties.get(o.getLongId()), null, null,
+						null, null);
+			}
+
+			if (page.size() < pageSize) break;
+		}
+	}
+
+
+	/**
+	 * Write the relations of one type in a bundle
+	 *
+	 * @param bundle the bundle
+	 * @param t the index into the relation tables (the type minus one)
+	 */
+	private void writeRelations(CPLObject bundle, int t) throws IOException {
+
+		String section = CPLJsonImporter.RELATION_NAMES[t];
+		int mask = CPLRelation.typeMask(t + 1);
+
+		long afterId = CPLObject.nullId;
+		while (true) {
+			List<CPLRelation> page = fetchRelationsPage(bundle, mask, afterId);
+			if (page.isEmpty()) break;
+			long lastId = page.get(page.size() - 1).getLongId();
+
+			cplxx_string_property_entry_t_vector sv
+				= new cplxx_string_property_entry_t_vector();
+			cplxx_numerical_property_entry_t_vector nv
+				= new cplxx_numerical_property_entry_t_vector();
+			cplxx_boolean_property_entry_t_vector bv
+				= new cplxx_boolean_property_entry_t_vector();
+			int r = CPLDirect.cpl_get_bundle_relation_properties(
+					bundle.getLongId(), mask, afterId, lastId, sv, nv, bv);
+			CPLException.assertSuccess(r);
+			HashMap<Long, Map<String, Object>> properties
+				= collectProperties(sv, nv, bv);
+			afterId = lastId;
+
+			// Resolve the names of all endpoints on the page at once
+
+			ArrayList<CPLObject> endpoints
+				= new ArrayList<CPLObject>(2 * page.size());
+			for (CPLRelation e : page) {
+				endpoints.add(e.getAncestor());
+				endpoints.add(e.getDescendant());
+			}
+			CPLObject.prefetchInfo(endpoints);
+
+			for (CPLRelation e : page) {
+				if (written != null && !written.add(e.getLongId())) continue;
+
+				startEntry(section, Long.toString(e.getLongId()));
+				writeProperties(properties.get(e.getLongId()),
+						CPLJsonImporter.SOURCE_KEYS[t],
+						fullName(e.getDescendant()),
+						CPLJsonImporter.DEST_KEYS[t],
+						fullName(e.getAncestor()));
+			}
+
+			if (page.size() < pageSize) break;
+		}
+	}
+
+
+	/**
+	 * Fetch one page of the objects of a bundle
+	 *
+	 * @param bundle the bundle
+	 * @param type the object type
+	 * @param afterId fetch only objects with IDs greater than this one
+	 * @return the objects, with their information filled in
+	 */
+	private List<CPLObject> fetchObjectsPage(CPLObject bundle, int type,
+			long afterId) {
+
+		SWIGTYPE_p_std_vector_cplxx_object_info_t pVector
+			= CPLDirect.new_std_vector_cplxx_object_info_tp();
+		SWIGTYPE_p_void pv = CPLDirect
+			.cpl_convert_p_std_vector_cplxx_object_info_t_to_p_void(pVector);
+		ArrayList<CPLObject> result = new ArrayList<CPLObject>();
+
+		try {
+			int r = CPLDirect.cpl_get_bundle_objects_page(bundle.getLongId(),
+					type, afterId, pageSize,
+					CPLDirect.cpl_cb_collect_object_info_vector, pv);
+			if (r == CPLDirect.CPL_S_NO_DATA) return result;
+			CPLException.assertSuccess(r);
+
+			cplxx_object_info_t_vector v = CPLDirect
+				.cpl_dereference_p_std_vector_cplxx_object_info_t(pVector);
+			long l = v.size();
+			for (long i = 0; i < l; i++) {
+				cplxx_object_info_t e = v.get((int) i);
+
+				CPLObject o = new CPLObject(e.getId());
+				o.prefix = e.getPrefix();
+				o.name = e.getName();
+				o.type = e.getType();
+				o.creationTime = e.getCreation_time();
+				o.knowCreationInfo = true;
+				CPLObjectCache.offer(o);
+
+				result.add(o);
+			}
+		}
+		finally {
+			CPLDirect.delete_std_vector_cplxx_object_info_tp(pVector);
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Fetch one page of the relations of a bundle
+	 *
+	 * @param bundle the bundle
+	 * @param mask the mask of relation types
+	 * @param afterId fetch only relations with IDs greater than this one
+	 * @return the relations
+	 */
+	private List<CPLRelation> fetchRelationsPage(CPLObject bundle, int mask,
+			long afterId) {
+
+		SWIGTYPE_p_std_vector_cpl_relation_t pVector
+			= CPLDirect.new_std_vector_cpl_relation_tp();
+		SWIGTYPE_p_void pv = CPLDirect
+			.cpl_convert_p_std_vector_cpl_relation_t_to_p_void(pVector);
+		ArrayList<CPLRelation> result = new ArrayList<CPLRelation>();
+
+		try {
+			int r = CPLDirect.cpl_get_bundle_relations_page_ext(
+					bundle.getLongId(), mask, afterId, pageSize,
+					CPLDirect.cpl_cb_collect_relation_vector, pv);
+			if (r == CPLDirect.CPL_S_NO_DATA) return result;
+			CPLException.assertSuccess(r);
+
+			cpl_relation_t_vector v = CPLDirect
+				.cpl_dereference_p_std_vector_cpl_relation_t(pVector);
+			long l = v.size();
+			for (long i = 0; i < l; i++) {
+				cpl_relation_t e = v.get((int) i);
+				result.add(new CPLRelation(
+						e.getId(),
+						new CPLObject(e.getQuery_object_id()),
+						new CPLObject(e.getOther_object_id()),
+						e.getType(),
+						true));
+			}
+		}
+		finally {
+			CPLDirect.delete_std_vector_cpl_relation_tp(pVector);
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Group the properties returned by a bundle property query by the object
+	 * or relation ID, keyed by the qualified property names. As in
+	 * export_bundle_json(), a later value replaces an earlier one with the
+	 * same name, and the types are applied in the same order.
+	 *
+	 * @param sv the string properties
+	 * @param nv the numerical properties
+	 * @param bv the boolean properties
+	 * @return the map from IDs to the properties
+	 */
+	private static HashMap<Long, Map<String, Object>> collectProperties(
+			cplxx_string_property_entry_t_vector sv,
+			cplxx_numerical_property_entry_t_vector nv,
+			cplxx_boolean_property_entry_t_vector bv) {
+
+		HashMap<Long, Map<String, Object>> m
+			= new HashMap<Long, Map<String, Object>>();
+
+		long l = sv.size();
+		for (long i = 0; i < l; i++) {
+			cplxx_string_property_entry_t e = sv.get((int) i);
+			properties(m, e.getId()).put(
+					qualify(e.getPrefix(), e.getKey()), e.getValue());
+		}
+
+		l = nv.size();
+		for (long i = 0; i < l; i++) {
+			cplxx_numerical_property_entry_t e = nv.get((int) i);
+			properties(m, e.getId()).put(
+					qualify(e.getPrefix(), e.getKey()), e.getValue());
+		}
+
+		l = bv.size();
+		for (long i = 0; i < l; i++) {
+			cplxx_boolean_property_entry_t e = bv.get((int) i);
+			properties(m, e.getId()).put(
+					qualify(e.getPrefix(), e.getKey()), e.getValue());
+		}
+
+		return m;
+	}
+
+
+	/**
+	 * Get the property map of an ID, creating it if necessary
+	 *
+	 * @param m the map from IDs to the properties
+	 * @param id the object or relation ID
+	 * @return the property map
+	 */
+	private static Map<String, Object> properties(
+			HashMap<Long, Map<String, Object>> m, long id) {
+		Map<String, Object> p = m.get(id);
+		if (p == null) {
+			p = new LinkedHashMap<String, Object>();
+			m.put(id, p);
+		}
+		return p;
+	}
+
+
+	/**
+	 * Join a prefix and a name
+	 *
+	 * @param prefix the prefix, possibly empty
+	 * @param name the name
+	 * @return the qualified name
+	 */
+	private static String qualify(String prefix, String name) {
+		if (prefix == null || prefix.isEmpty()) return name;
+		return prefix + ":" + name;
+	}
+
+
+	/**
+	 * Get the qualified name of an object
+	 *
+	 * @param o the object
+	 * @return the name, prefixed by the namespace prefix if there is one
+	 */
+	private static String fullName(CPLObject o) {
+		return qualify(o.getPrefix(), o.getName());
+	}
+
+
+	/**
+	 * Prepare for writing a section; it is opened only once it gets an entry
+	 */
+	private void startSection() {
+		sectionStarted = false;
+	}
+
+
+	/**
+	 * Start an entry of the current section, opening the section if needed
+	 *
+	 * @param section the section name
+	 * @param key the entry key
+	 */
+	private void startEntry(String section, String key) throws IOException {
+		if (!sectionStarted) {
+			if (documentStarted) out.write(',');
+			writeString(section);
+			out.write(":{");
+			sectionStarted = true;
+			documentStarted = true;
+		}
+		else {
+			out.write(',');
+		}
+		writeString(key);
+		out.write(':');
+	}
+
+
+	/**
+	 * Close the current section, if it was opened
+	 */
+	private void endSection() throws IOException {
+		if (sectionStarted) out.write('}');
+		sectionStarted = false;
+	}
+
+
+	/**
+	 * Write a JSON object of properties, followed by up to two more
+	 * string-valued entries that replace properties with the same names
+	 *
+	 * @param properties the properties, or null if there are none
+	 * @param key1 the name of the first extra entry, or null
+	 * @param value1 the value of the first extra entry
+	 * @param key2 the name of the second extra entry, or null
+	 * @param value2 the value of the second extra entry
+	 */
+	private void writeProperties(Map<String, Object> properties,
+			String key1, String value1, String key2, String value2)
+			throws IOException {
+
+		out.write('{');
+		boolean first = true;
+		if (properties != null) {
+			for (Map.Entry<String, Object> p : properties.entrySet()) {
+				String k = p.getKey();
+				if (k.equals(key1) || k.equals(key2)) continue;
+
+				if (!first) out.write(',');
+				first = false;
+				writeString(k);
+				out.write(':');
+				writeValue(p.getValue());
+			}
+		}
+		if (key1 != null) {
+			if (!first) out.write(',');
+			first = false;
+			writeString(key1);
+			out.write(':');
+			writeString(value1);
+		}
+		if (key2 != null) {
+			if (!first) out.write(',');
+			writeString(key2);
+			out.write(':');
+			writeString(value2);
+		}
+		out.write('}');
+	}
+
+
+	/**
+	 * Write a property value
+	 *
+	 * @param v a String, Double, or Boolean
+	 */
+	private void writeValue(Object v) throws IOException {
+		if (v instanceof Double) {
+			double d = (Double) v;
+			out.write(Double.isNaN(d) || Double.isInfinite(d)
+					? "null" : Double.toString(d));
+		}
+		else if (v instanceof Boolean) {
+			out.write(v.toString());
+		}
+		else {
+			writeString(String.valueOf(v));
+		}
+	}
+
+
+	/**
+	 * Write a JSON string
+	 *
+	 * @param s the string
+	 */
+	private void writeString(String s) throws IOException {
+		out.write('"');
+		int start = 0;
+		int l = s.length();
+		for (int i = 0; i < l; i++) {
+			char c = s.charAt(i);
+			if (c >= 0x20 && c != '"' && c != '\\') continue;
+
+			out.write(s, start, i - start);
+			start = i + 1;
+			switch (c) {
+				case '"':  out.write("\\\""); break;
+				case '\\': out.write("\\\\"); break;
+				case '\b': out.write("\\b"); break;
+				case '\f': out.write("\\f"); break;
+				case '\n': out.write("\\n"); break;
+				case '\r': out.write("\\r"); break;
+				case '\t': out.write("\\t"); break;
+				default:
+					out.write(String.format("\\u%04x", (int) c));
+			}
+		}
+		out.write(s, start, l - start);
+		out.write('"');
+	}
+}
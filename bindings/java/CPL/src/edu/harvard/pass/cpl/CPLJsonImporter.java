@@ -0,0 +1,1107 @@
+package edu.harvard.pass.cpl;
+
+/*
+ * JsonUtility.java
+ * Prov-CPL
+ *
+ * Copyright 2026
+ *      The President and Fellows of Harvard College.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the University nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE UNIVERSITY AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE UNIVERSITY OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ *
+ * Contributor(s): agent
+ */
+
+import swig.direct.CPLDirect.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * A streaming importer of Prov JSON documents. Unlike import_document_json(),
+ * which parses the whole document into memory first, the importer reads it
+ * token by token and creates the objects and relations in batches as their
+ * sections arrive. Memory use is bounded by the window, i.e. the number of
+ * records buffered before they are written, plus the table that maps the
+ * document's object names to their IDs.
+ *
+ * The result is the same as that of import_document_json(): a new bundle
+ * that contains all imported relations. A relation that refers to an
+ * object defined later in the document, or to an external object, waits
+ * until the end. One window of such relations is kept in memory; the rest
+ * are spilled to a temporary file, so the window never limits the size of
+ * the documents that can be imported.
+ *
+ * @author agent
+ */
+public class CPLJsonImporter {
+
+	/// The default number of records buffered before they are written
+	public static final int DEFAULT_WINDOW = 10000;
+
+	/// The relation types, in the order of import_document_json()
+	private static final int[] RELATION_TYPES = {
+		CPLRelation.WASINFLUENCEDBY, CPLRelation.ALTERNATEOF,
+		CPLRelation.DERIVEDBYINSERTIONFROM, CPLRelation.DERIVEDBYREMOVALFROM,
+		CPLRelation.HADMEMBER, CPLRelation.HADDICTIONARYMEMBER,
+		CPLRelation.SPECIALIZATIONOF, CPLRelation.WASDERIVEDFROM,
+		CPLRelation.WASGENERATEDBY, CPLRelation.WASINVALIDATEDBY,
+		CPLRelation.WASATTRIBUTEDTO, CPLRelation.USED,
+		CPLRelation.WASINFORMEDBY, CPLRelation.WASSTARTEDBY,
+		CPLRelation.WASENDEDBY, CPLRelation.HADPLAN,
+		CPLRelation.WASASSOCIATEDWITH, CPLRelation.ACTEDONBEHALFOF,
+		CPLDirectConstants.INBUNDLE,
+	};
+
+	/// The section names of the relation types
+	static final String[] RELATION_NAMES = {
+		CPLDirectConstants.WASINFLUENCEDBY_STR,
+		CPLDirectConstants.ALTERNATEOF_STR,
+		CPLDirectConstants.DERIVEDBYINSERTIONFROM_STR,
+		CPLDirectConstants.DERIVEDBYREMOVALFROM_STR,
+		CPLDirectConstants.HADMEMBER_STR,
+		CPLDirectConstants.HADDICTIONARYMEMBER_STR,
+		CPLDirectConstants.SPECIALIZATIONOF_STR,
+		CPLDirectConstants.WASDERIVEDFROM_STR,
+		CPLDirectConstants.WASGENERATEDBY_STR,
+		CPLDirectConstants.WASINVALIDATEDBY_STR,
+		CPLDirectConstants.WASATTRIBUTEDTO_STR,
+		CPLDirectConstants.USED_STR,
+		CPLDirectConstants.WASINFORMEDBY_STR,
+		CPLDirectConstants.WASSTARTEDBY_STR,
+		CPLDirectConstants.WASENDEDBY_STR,
+		CPLDirectConstants.HADPLAN_STR,
+		CPLDirectConstants.WASASSOCIATEDWITH_STR,
+		CPLDirectConstants.ACTEDONBEHALFOF_STR,
+		CPLDirectConstants.INBUNDLE_STR,
+	};
+
+	/// The keys of the source objects of the relation types
+	static final String[] SOURCE_KEYS = {
+		"prov:influencee", "prov:alternate1", "prov:after", "prov:after",
+		"prov:collection", "prov:dictionary", "prov:specificEntity",
+		"prov:generatedEntity", "prov:entity", "prov:entity", "prov:entity",
+		"prov:activity", "prov:informed", "prov:activity", "prov:activity",
+		"prov:agent", "prov:activity", "prov:delegate", "prov:bundle",
+	};
+
+	/// The keys of the destination objects of the relation types
+	static final String[] DEST_KEYS = {
+		"prov:influencer", "prov:alternate2", "prov:before", "prov:before",
+		"prov:before", "prov:entity", "prov:generalEntity",
+		"prov:usedEntity", "prov:activity", "prov:activity", "prov:agent",
+		"prov:entity", "prov:informant", "prov:trigger", "prov:trigger",
+		"prov:plan", "prov:agent", "prov:responsible", "prov:object",
+	};
+
+	/// The types of the source objects, used to look up external objects
+	private static final int[] SOURCE_TYPES = {
+		0, CPLObject.ENTITY, CPLObject.ENTITY, CPLObject.ENTITY,
+		CPLObject.ENTITY, CPLObject.ENTITY, CPLObject.ENTITY,
+		CPLObject.ENTITY, CPLObject.ENTITY, CPLObject.ENTITY,
+		CPLObject.ENTITY, CPLObject.ACTIVITY, CPLObject.ACTIVITY,
+		CPLObject.ACTIVITY, CPLObject.ACTIVITY, CPLObject.AGENT,
+		CPLObject.ACTIVITY, CPLObject.AGENT, CPLObject.BUNDLE,
+	};
+
+	/// The types of the destination objects, used to look up external objects
+	private static final int[] DEST_TYPES = {
+		0, CPLObject.ENTITY, CPLObject.ENTITY, CPLObject.ENTITY,
+		CPLObject.ENTITY, CPLObject.ENTITY, CPLObject.ENTITY,
+		CPLObject.ENTITY, CPLObject.ACTIVITY, CPLObject.ACTIVITY,
+		CPLObject.AGENT, CPLObject.ENTITY, CPLObject.ACTIVITY,
+		CPLObject.ENTITY, CPLObject.ENTITY, CPLObject.ENTITY,
+		CPLObject.AGENT, CPLObject.AGENT, CPLObject.ENTITY,
+	};
+
+	/// The name of the bundle to create
+	private final String bundleName;
+
+	/// Existing objects that correspond to objects named in the document
+	private final Map<CPLObject, String> anchorObjects;
+
+	/// Whether relations may refer to objects outside of the document
+	private final boolean externObjects;
+
+	/// The maximum number of buffered records
+	private final int window;
+
+	/// The IDs of the imported (and the resolved external) objects by name
+	private final HashMap<String, Long> lookupTable
+		= new HashMap<String, Long>();
+
+	/// The objects waiting to be created
+	private final ArrayList<Record> objects = new ArrayList<Record>();
+
+	/// The names of the objects waiting to be created
+	private final HashSet<String> objectNames = new HashSet<String>();
+
+	/// The relations waiting to be created
+	private final ArrayList<Record> relations = new ArrayList<Record>();
+
+	/// The relations whose objects have not been defined yet
+	private ArrayList<Record> deferred = new ArrayList<Record>();
+
+	/// The file with the deferred relations that did not fit in the window
+	private File spillFile = null;
+
+	/// The output stream of the spill file, or null if it is not open
+	private DataOutputStream spill = null;
+
+	/// The bundle
+	private CPLObject bundle;
+
+	/// The property batch of the imported objects and relations
+	private CPLPropertyBatch properties;
+
+
+	/**
+	 * A buffered object or relation together with its properties
+	 */
+	private static class Record {
+
+		/// The object name, or the relation's source name
+		String name;
+
+		/// The relation's destination name
+		String dest;
+
+		/// The index into the relation tables, or the object type
+		int type;
+
+		/// The property names and values
+		ArrayList<String> keys = null;
+		ArrayList<Object> values = null;
+
+		/**
+		 * Add a property
+		 *
+		 * @param key the property name, including the prefix
+		 * @param value a String, Double, or Boolean
+		 */
+		void addProperty(String key, Object value) {
+			if (keys == null) {
+				keys = new ArrayList<String>();
+				values = new ArrayList<Object>();
+			}
+			keys.add(key);
+			values.add(value);
+		}
+	}
+
+
+	/**
+	 * Create an instance of CPLJsonImporter
+	 *
+	 * @param bundleName the name of the bundle to create
+	 * @param anchorObjects map of existing objects to the names of the
+	 *                      matching objects in the document, or null
+	 * @param externObjects whether the document contains relations that
+	 *                      reference external objects
+	 * @param window the maximum number of records to buffer
+	 */
+	public CPLJsonImporter(String bundleName,
+			Map<CPLObject, String> anchorObjects, boolean externObjects,
+			int window) {
+
+		if (window <= 0) {
+			throw new CPLException("The window must be positive",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+
+		this.bundleName = bundleName;
+		this.anchorObjects = anchorObjects;
+		this.externObjects = externObjects;
+		this.window = window;
+	}
+
+
+	/**
+	 * Import a document
+	 *
+	 * @param in the reader of the document; it is not closed
+	 * @return the new bundle
+	 * @throws IOException if reading the document fails
+	 */
+	public CPLBundle importFrom(Reader in) throws IOException {
+
+		Tokenizer t = new Tokenizer(in);
+		if (t.next() != Tokenizer.START_OBJECT) {
+			throw t.error("The document must be an object");
+		}
+
+		bundle = CPLObject.create(bundleName, "", CPLObject.BUNDLE);
+		properties = new CPLPropertyBatch(window);
+
+		try {
+			while (t.next() == Tokenizer.KEY) {
+				String section = t.text();
+
+				if (section.equals("prefix")) {
+					readPrefixes(t);
+				}
+				else if (section.equals(CPLDirectConstants.CPL_ENTITY_STR)) {
+					readObjects(t, CPLObject.ENTITY);
+				}
+				else if (section.equals(CPLDirectConstants.CPL_AGENT_STR)) {
+					readObjects(t, CPLObject.AGENT);
+				}
+				else if (section.equals(CPLDirectConstants.CPL_ACTIVITY_STR)) {
+					readObjects(t, CPLObject.ACTIVITY);
+				}
+				else {
+					int r = relationIndex(section);
+					if (r >= 0) {
+						readRelations(t, r);
+					}
+					else {
+						t.skipValue();
+					}
+				}
+			}
+			if (t.token() != Tokenizer.END_OBJECT) {
+				throw t.error("Malformed document");
+			}
+			if (t.next() != Tokenizer.EOF) {
+				throw t.error("Unexpected content after the document");
+			}
+
+
+			// Now that all objects are known, connect the anchors and
+			// create the relations that waited for their objects
+
+			flushObjects();
+			connectAnchors();
+
+			ArrayList<Record> waiting = deferred;
+			deferred = null;
+			for (Record r : waiting) addRelation(r);
+			addSpilledRelations();
+			flushRelations();
+
+			properties.flush();
+		}
+		finally {
+			properties.clear();
+			deleteSpillFile();
+		}
+
+		return new CPLBundle(bundle.getLongId());
+	}
+
+
+	/**
+	 * Find the relation type of a section
+	 *
+	 * @param section the section name
+	 * @return the index into the relation tables, or -1 if not found
+	 */
+	private static int relationIndex(String section) {
+		for (int i = 0; i < RELATION_NAMES.length; i++) {
+			if (RELATION_NAMES[i].equals(section)) return i;
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Read the prefix section and add the prefixes to the bundle
+	 *
+	 * @param t the tokenizer
+	 */
+	private void readPrefixes(Tokenizer t) throws IOException {
+		if (t.next() != Tokenizer.START_OBJECT) {
+			throw t.error("The prefixes must be an object");
+		}
+		while (t.next() == Tokenizer.KEY) {
+			String prefix = t.text();
+			if (t.next() != Tokenizer.STRING && t.token() != Tokenizer.NUMBER
+					&& t.token() != Tokenizer.BOOLEAN) {
+				throw t.error("Invalid prefix IRI");
+			}
+			bundle.addPrefix(prefix, t.text());
+		}
+	}
+
+
+	/**
+	 * Read an object section
+	 *
+	 * @param t the tokenizer
+	 * @param type the object type
+	 */
+	private void readObjects(Tokenizer t, int type) throws IOException {
+		if (t.next() != Tokenizer.START_OBJECT) {
+			throw t.error("An object section must be an object");
+		}
+		while (t.next() == Tokenizer.KEY) {
+			Record o = new Record();
+			o.name = t.text();
+			o.type = type;
+
+			if (t.next() != Tokenizer.START_OBJECT) {
+				throw t.error("An object must be a JSON object");
+			}
+			while (t.next() == Tokenizer.KEY) {
+				String key = t.text();
+				o.addProperty(key, readValue(t));
+			}
+
+			objects.add(o);
+			objectNames.add(o.name);
+			if (objects.size() >= window) flushObjects();
+		}
+	}
+
+
+	/**
+	 * Read a relation section
+	 *
+	 * @param t the tokenizer
+	 * @param r the index into the relation tables
+	 */
+	private void readRelations(Tokenizer t, int r) throws IOException {
+		if (t.next() != Tokenizer.START_OBJECT) {
+			throw t.error("A relation section must be an object");
+		}
+		while (t.next() == Tokenizer.KEY) {
+			Record e = new Record();
+			e.type = r;
+
+			if (t.next() != Tokenizer.START_OBJECT) {
+				throw t.error("A relation must be a JSON object");
+			}
+			while (t.next() == Tokenizer.KEY) {
+				String key = t.text();
+				if (key.equals(SOURCE_KEYS[r]) && e.name == null) {
+					if (t.next() != Tokenizer.STRING) {
+						throw t.error("Invalid " + key);
+					}
+					e.name = t.text();
+				}
+				else if (key.equals(DEST_KEYS[r]) && e.dest == null) {
+					if (t.next() != Tokenizer.STRING) {
+						throw t.error("Invalid " + key);
+					}
+					e.dest = t.text();
+				}
+				else {
+					e.addProperty(key, readValue(t));
+				}
+			}
+
+			if (e.name == null || e.dest == null) {
+				throw t.error("A " + RELATION_NAMES[r]
+						+ " relation is missing an object");
+			}
+
+			addRelation(e);
+		}
+	}
+
+
+	/**
+	 * Read a property value
+	 *
+	 * @param t the tokenizer
+	 * @return a String, Double, or Boolean
+	 */
+	private static Object readValue(Tokenizer t) throws IOException {
+		switch (t.next()) {
+			case Tokenizer.STRING:
+				return t.text();
+			case Tokenizer.NUMBER:
+				return Double.valueOf(t.text());
+			case Tokenizer.BOOLEAN:
+				return Boolean.valueOf(t.text());
+			default:
+				throw new CPLException("Unsupported property value",
+						CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+	}
+
+
+	/**
+	 * Queue a relation, or defer it if one of its objects is not known yet
+	 *
+	 * @param e the relation
+	 */
+	private void addRelation(Record e) throws IOException {
+
+		// Objects defined in the document take precedence over external
+		// ones, so we cannot look up external objects before the end
+
+		boolean known = lookupTable.containsKey(e.name)
+			|| objectNames.contains(e.name);
+		known = known && (lookupTable.containsKey(e.dest)
+				|| objectNames.contains(e.dest));
+
+		if (!known && deferred != null) {
+			if (deferred.size() < window) {
+				deferred.add(e);
+			}
+			else {
+				spillRelation(e);
+			}
+			return;
+		}
+
+		relations.add(e);
+		if (relations.size() >= window) flushRelations();
+	}
+
+
+	/**
+	 * Write a deferred relation to the spill file, creating it if needed
+	 *
+	 * @param e the relation
+	 */
+	private void spillRelation(Record e) throws IOException {
+
+		if (spill == null) {
+			spillFile = File.createTempFile("cpl-import-", ".tmp");
+			spill = new DataOutputStream(new BufferedOutputStream(
+						new FileOutputStream(spillFile)));
+		}
+
+		spill.writeInt(e.type);
+		writeString(spill, e.name);
+		writeString(spill, e.dest);
+
+		int n = e.keys == null ? 0 : e.keys.size();
+		spill.writeInt(n);
+		for (int k = 0; k < n; k++) {
+			writeString(spill, e.keys.get(k));
+			Object v = e.values.get(k);
+			if (v instanceof String) {
+				spill.writeByte('s');
+				writeString(spill, (String) v);
+			}
+			else if (v instanceof Double) {
+				spill.writeByte('d');
+				spill.writeDouble((Double) v);
+			}
+			else {
+				spill.writeByte('b');
+				spill.writeBoolean((Boolean) v);
+			}
+		}
+	}
+
+
+	/**
+	 * Read back the spilled relations and queue them one by one
+	 */
+	private void addSpilledRelations() throws IOException {
+
+		if (spill == null) return;
+		spill.close();
+		spill = null;
+
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(spillFile)));
+		try {
+			while (true) {
+				Record e = new Record();
+				try {
+					e.type = in.readInt();
+				}
+				catch (EOFException ex) {
+					break;
+				}
+				e.name = readString(in);
+				e.dest = readString(in);
+
+				int n = in.readInt();
+				for (int k = 0; k < n; k++) {
+					String key = readString(in);
+					switch (in.readByte()) {
+						case 's':
+							e.addProperty(key, readString(in));
+							break;
+						case 'd':
+							e.addProperty(key, in.readDouble());
+							break;
+						default:
+							e.addProperty(key, in.readBoolean());
+							break;
+					}
+				}
+
+				addRelation(e);
+			}
+		}
+		finally {
+			in.close();
+		}
+	}
+
+
+	/**
+	 * Close and delete the spill file, if there is one
+	 */
+	private void deleteSpillFile() {
+		if (spill != null) {
+			try {
+				spill.close();
+			}
+			catch (IOException e) {
+				// Nothing to do, the file is deleted anyway
+			}
+			spill = null;
+		}
+		if (spillFile != null) {
+			spillFile.delete();
+			spillFile = null;
+		}
+	}
+
+
+	/**
+	 * Write a string of any length to the spill file
+	 *
+	 * @param out the output stream
+	 * @param str the string
+	 */
+	private static void writeString(DataOutputStream out, String str)
+			throws IOException {
+		out.writeInt(str.length());
+		out.writeChars(str);
+	}
+
+
+	/**
+	 * Read a string written by writeString()
+	 *
+	 * @param in the input stream
+	 * @return the string
+	 */
+	private static String readString(DataInputStream in) throws IOException {
+		int l = in.readInt();
+		char[] c = new char[l];
+		for (int i = 0; i < l; i++) c[i] = in.readChar();
+		return new String(c);
+	}
+
+
+	/**
+	 * Create the buffered objects, grouped by their prefixes and types
+	 */
+	private void flushObjects() {
+
+		if (objects.isEmpty()) return;
+
+		LinkedHashMap<String, ArrayList<Record>> groups
+			= new LinkedHashMap<String, ArrayList<Record>>();
+		for (Record o : objects) {
+			String[] p = splitName(o.name);
+			String g = o.type + ":" + p[0];
+			ArrayList<Record> l = groups.get(g);
+			if (l == null) {
+				l = new ArrayList<Record>();
+				groups.put(g, l);
+			}
+			l.add(o);
+		}
+
+		for (ArrayList<Record> l : groups.values()) {
+			String prefix = splitName(l.get(0).name)[0];
+			String[] names = new String[l.size()];
+			for (int i = 0; i < names.length; i++) {
+				names[i] = splitName(l.get(i).name)[1];
+			}
+
+			CPLObject[] created = CPLObject.createAll(prefix, names,
+					l.get(0).type);
+
+			for (int i = 0; i < created.length; i++) {
+				Record o = l.get(i);
+				lookupTable.put(o.name, created[i].getLongId());
+				if (o.keys == null) continue;
+				for (int k = 0; k < o.keys.size(); k++) {
+					String[] p = splitName(o.keys.get(k));
+					Object v = o.values.get(k);
+					if (v instanceof String) {
+						properties.addStringProperty(created[i], p[0], p[1],
+								(String) v);
+					}
+					else if (v instanceof Double) {
+						properties.addNumericalProperty(created[i], p[0],
+								p[1], (Double) v);
+					}
+					else {
+						properties.addBooleanProperty(created[i], p[0], p[1],
+								(Boolean) v);
+					}
+				}
+			}
+		}
+
+		objects.clear();
+		objectNames.clear();
+	}
+
+
+	/**
+	 * Create the buffered relations and add them to the bundle
+	 */
+	private void flushRelations() {
+
+		if (relations.isEmpty()) return;
+		flushObjects();
+
+		int n = relations.size();
+		long[] from = new long[n];
+		long[] to = new long[n];
+		int[] types = new int[n];
+		for (int i = 0; i < n; i++) {
+			Record e = relations.get(i);
+			from[i] = resolve(e.name, SOURCE_TYPES[e.type]);
+			to[i] = resolve(e.dest, DEST_TYPES[e.type]);
+			types[i] = RELATION_TYPES[e.type];
+		}
+
+		CPLRelation[] created = CPLRelation.createAll(from, to, types);
+		addToBundle(created);
+
+		for (int i = 0; i < n; i++) {
+			Record e = relations.get(i);
+			if (e.keys == null) continue;
+			for (int k = 0; k < e.keys.size(); k++) {
+				String[] p = splitName(e.keys.get(k));
+				Object v = e.values.get(k);
+				if (v instanceof String) {
+					properties.addStringProperty(created[i], p[0], p[1],
+							(String) v);
+				}
+				else if (v instanceof Double) {
+					properties.addNumericalProperty(created[i], p[0], p[1],
+							(Double) v);
+				}
+				else {
+					properties.addBooleanProperty(created[i], p[0], p[1],
+							(Boolean) v);
+				}
+			}
+		}
+
+		relations.clear();
+	}
+
+
+	/**
+	 * Record the membership of relations in the bundle
+	 *
+	 * @param created the relations
+	 */
+	private void addToBundle(CPLRelation[] created) {
+		long[] from = new long[created.length];
+		long[] to = new long[created.length];
+		int[] types = new int[created.length];
+		for (int i = 0; i < created.length; i++) {
+			from[i] = bundle.getLongId();
+			to[i] = created[i].getLongId();
+			types[i] = CPLDirectConstants.BUNDLERELATION;
+		}
+		CPLRelation.createAll(from, to, types);
+	}
+
+
+	/**
+	 * Connect the anchor objects to their counterparts in the document
+	 */
+	private void connectAnchors() {
+
+		if (anchorObjects == null || anchorObjects.isEmpty()) return;
+
+		ArrayList<CPLRelation> created = new ArrayList<CPLRelation>();
+		for (Map.Entry<CPLObject, String> e : anchorObjects.entrySet()) {
+			Long id = lookupTable.get(e.getValue());
+			if (id == null) {
+				String[] p = splitName(e.getValue());
+				CPLObject o = CPLObject.tryLookup(p[0], p[1], 0);
+				if (o == null) continue;
+				id = o.getLongId();
+			}
+			created.add(CPLRelation.create(new CPLObject(id), e.getKey(),
+						CPLRelation.ALTERNATEOF));
+		}
+
+		addToBundle(created.toArray(new CPLRelation[created.size()]));
+	}
+
+
+	/**
+	 * Find the ID of an object referenced by a relation
+	 *
+	 * @param name the object name
+	 * @param type the expected type of an external object
+	 * @return the object ID
+	 */
+	private long resolve(String name, int type) {
+
+		Long id = lookupTable.get(name);
+		if (id != null) return id;
+
+		if (externObjects) {
+			String[] p = splitName(name);
+			CPLObject o = CPLObject.tryLookup(p[0], p[1], type);
+			if (o != null) {
+				lookupTable.put(name, o.getLongId());
+				return o.getLongId();
+			}
+		}
+
+		throw new CPLException("Unknown object: " + name,
+				CPLDirectConstants.CPL_E_NOT_FOUND);
+	}
+
+
+	/**
+	 * Split a qualified name into the prefix and the local name, the same
+	 * way as import_document_json()
+	 *
+	 * @param name the qualified name
+	 * @return an array of the prefix (possibly empty) and the local name
+	 */
+	static String[] splitName(String name) {
+		int i = name.indexOf(':');
+		if (i < 0 || i == name.length() - 1) return new String[] { "", name };
+		return new String[] { name.substring(0, i), name.substring(i + 1) };
+	}
+
+
+	/**
+	 * A minimal pull tokenizer for JSON that reads the input through a fixed
+	 * buffer, so that only the current token is held in memory
+	 */
+	static class Tokenizer {
+
+		static final int EOF = 0;
+		static final int START_OBJECT = 1;
+		static final int END_OBJECT = 2;
+		static final int START_ARRAY = 3;
+		static final int END_ARRAY = 4;
+		static final int KEY = 5;
+		static final int STRING = 6;
+		static final int NUMBER = 7;
+		static final int BOOLEAN = 8;
+		static final int NULL = 9;
+
+		private final Reader in;
+		private final char[] buffer = new char[65536];
+		private int pos = 0;
+		private int limit = 0;
+		private long offset = 0;
+
+		private final StringBuilder text = new StringBuilder();
+		private int token = EOF;
+
+		/// For each open container, whether it is an object
+		private boolean[] stack = new boolean[32];
+		private int depth = 0;
+
+		/// Whether the next string in the current object is a key
+		private boolean expectKey = false;
+
+		/// Whether a value just ended, so that a ',' or the end of the
+		/// container must follow
+		private boolean afterValue = false;
+
+		/// Whether a ',' or a key was just read, so that a value must follow
+		private boolean needValue = false;
+
+		/// Whether the root value has ended
+		private boolean done = false;
+
+		Tokenizer(Reader in) {
+			this.in = in;
+		}
+
+		/**
+		 * Get the current token
+		 *
+		 * @return the token type
+		 */
+		int token() {
+			return token;
+		}
+
+		/**
+		 * Get the text of the current key, string, number, or literal
+		 *
+		 * @return the text
+		 */
+		String text() {
+			return text.toString();
+		}
+
+		/**
+		 * Create an exception for malformed input at the current position
+		 *
+		 * @param message the message
+		 * @return the exception
+		 */
+		CPLException error(String message) {
+			return new CPLException(message + " (at character "
+					+ (offset + pos) + ")",
+					CPLDirectConstants.CPL_E_INVALID_JSON);
+		}
+
+		/**
+		 * Read the next character without consuming it
+		 *
+		 * @return the character, or -1 at the end of the input
+		 */
+		private int peek() throws IOException {
+			if (pos == limit) {
+				offset += limit;
+				limit = in.read(buffer, 0, buffer.length);
+				pos = 0;
+				if (limit <= 0) {
+					limit = 0;
+					return -1;
+				}
+			}
+			return buffer[pos];
+		}
+
+		/**
+		 * Consume the next character
+		 *
+		 * @return the character
+		 */
+		private char read() throws IOException {
+			if (peek() < 0) throw error("Unexpected end of the document");
+			return buffer[pos++];
+		}
+
+		/**
+		 * Skip whitespace and return the next character without consuming
+		 * it
+		 *
+		 * @return the character, or -1 at the end of the input
+		 */
+		private int skipWhitespace() throws IOException {
+			while (true) {
+				int c = peek();
+				if (c != ' ' && c != '\t' && c != '\n' && c != '\r') return c;
+				pos++;
+			}
+		}
+
+		/**
+		 * Advance to the next token
+		 *
+		 * @return the token type
+		 */
+		int next() throws IOException {
+
+			text.setLength(0);
+			int c = skipWhitespace();
+
+			// Consume the separator after the previous value
+
+			if (c == ',') {
+				if (depth == 0 || !afterValue) throw error("Unexpected ','");
+				pos++;
+				expectKey = stack[depth - 1];
+				afterValue = false;
+				needValue = true;
+				c = skipWhitespace();
+			}
+
+			if (c < 0) {
+				if (depth > 0) throw error("Unexpected end of the document");
+				return token = EOF;
+			}
+
+			if (done) throw error("Unexpected content after the document");
+
+			if (c == '}' || c == ']') {
+				if (needValue) throw error("Unexpected '" + (char) c + "'");
+			}
+			else if (afterValue) {
+				throw error("Expected ','");
+			}
+
+			pos++;
+			switch (c) {
+				case '{':
+					push(true);
+					return token = START_OBJECT;
+				case '[':
+					push(false);
+					return token = START_ARRAY;
+				case '}':
+				case ']':
+					if (depth == 0 || stack[depth - 1] != (c == '}')) {
+						throw error("Unexpected '" + (char) c + "'");
+					}
+					depth--;
+					expectKey = false;
+					endValue();
+					return token = c == '}' ? END_OBJECT : END_ARRAY;
+				case '"':
+					readString();
+					if (expectKey) {
+						if (skipWhitespace() != ':') throw error("Expected ':'");
+						pos++;
+						expectKey = false;
+						needValue = true;
+						return token = KEY;
+					}
+					endValue();
+					return token = STRING;
+				default:
+					if (expectKey) throw error("Expected a key");
+					if (c == '-' || (c >= '0' && c <= '9')) {
+						text.append((char) c);
+						readWhile("0123456789+-.eE");
+						endValue();
+						return token = NUMBER;
+					}
+					if (c >= 'a' && c <= 'z') {
+						text.append((char) c);
+						readWhile("abcdefghijklmnopqrstuvwxyz");
+						String s = text.toString();
+						if (s.equals("true") || s.equals("false")) {
+							endValue();
+							return token = BOOLEAN;
+						}
+						if (s.equals("null")) {
+							endValue();
+							return token = NULL;
+						}
+					}
+					throw error("Unexpected character");
+			}
+		}
+
+		/**
+		 * Note that a value has ended, which requires a ',' or the end of
+		 * the container next, or the end of the input after the root value
+		 */
+		private void endValue() {
+			afterValue = true;
+			needValue = false;
+			if (depth == 0) done = true;
+		}
+
+		/**
+		 * Open a container
+		 *
+		 * @param object whether the container is an object
+		 */
+		private void push(boolean object) {
+			if (depth == stack.length) {
+				stack = java.util.Arrays.copyOf(stack, depth * 2);
+			}
+			stack[depth++] = object;
+			expectKey = object;
+			afterValue = false;
+			needValue = false;
+		}
+
+		/**
+		 * Append characters to the text while they belong to a set
+		 *
+		 * @param set the allowed characters
+		 */
+		private void readWhile(String set) throws IOException {
+			while (true) {
+				int c = peek();
+				if (c < 0 || set.indexOf(c) < 0) return;
+				text.append((char) c);
+				pos++;
+			}
+		}
+
+		/**
+		 * Read the rest of a string, after the opening quote
+		 */
+		private void readString() throws IOException {
+			while (true) {
+				char c = read();
+				if (c == '"') return;
+				if (c != '\\') {
+					text.append(c);
+					continue;
+				}
+				c = read();
+				switch (c) {
+					case 'b': text.append('\b'); break;
+					case 'f': text.append('\f'); break;
+					case 'n': text.append('\n'); break;
+					case 'r': text.append('\r'); break;
+					case 't': text.append('\t'); break;
+					case 'u':
+						int v = 0;
+						for (int i = 0; i < 4; i++) {
+							int d = Character.digit(read(), 16);
+							if (d < 0) throw error("Invalid escape sequence");
+							v = v * 16 + d;
+						}
+						text.append((char) v);
+						break;
+					default:
+						text.append(c);
+				}
+			}
+		}
+
+		/**
+		 * Skip the next value, including everything nested in it
+		 */
+		void skipValue() throws IOException {
+			int t = next();
+			if (t != START_OBJECT && t != START_ARRAY) {
+				if (t == END_OBJECT || t == END_ARRAY || t == EOF) {
+					throw error("Expected a value");
+				}
+				return;
+			}
+			int d = depth - 1;
+			while (depth > d) {
+				if (next() == EOF) throw error("Unexpected end of the document");
+			}
+		}
+	}
+}
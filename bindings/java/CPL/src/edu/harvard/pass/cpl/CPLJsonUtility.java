@@ -35,7 +35,20 @@ package edu.harvard.pass.cpl;
  */
 
 import swig.direct.CPLDirect.*;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 
 /**
@@ -45,7 +58,7 @@ import java.util.Map;
  */
 public class CPLJsonUtility {
 
-	private static BigInteger nullId = BigInteger.ZERO;
+	private static final long nullId = 0;
 
 	/**
 	 * Create an instance of JsonUtility
@@ -83,18 +96,50 @@ public class CPLJsonUtility {
 
 	public static CPLBundle importJson(String json, 
 			String bundleName, Map<CPLObject, String> anchorObjects, boolean externObjects) {
+		return importJson(json, bundleName, anchorObjects, externObjects, false);
+	}
 
-		cplxx_id_name_pair_vector anchorVector = new cplxx_id_name_pair_vector(anchorObjects.size());
 
-		int pos = 0;
-		for(Map.Entry<CPLObject, String> entry : anchorObjects.entrySet()){
-			anchorVector.set(pos, new cplxx_id_name_pair(entry.getKey().getId(), entry.getValue()));
-			pos++;
+	/**
+	 * Import a Prov JSON document into Prov-CPL as a bundle, optionally using
+	 * the bulk loader. The bulk loader stages all objects, properties, and
+	 * relations of the document and writes them with large multi-row inserts
+	 * instead of one statement per element, which is much faster for large
+	 * documents.
+	 *
+	 * The import is not atomic. If it fails, the bundle and everything
+	 * written before the failure stay in the database, e.g. all objects of
+	 * the document without any of its relations, and must be cleaned up by
+	 * the caller.
+	 *
+	 * @param json the JSON document as a string
+	 * @param bundleName desired name of document bundle
+	 * @param anchorObjects map of CPLObject, name pairs matching a stored object to
+	 *                      an object name in the document, or null
+	 * @param externObjects whether the document contains relations that reference
+	 *						external objects
+	 * @param bulkLoad whether to use the bulk loader
+	 */
+
+	public static CPLBundle importJson(String json, String bundleName,
+			Map<CPLObject, String> anchorObjects, boolean externObjects,
+			boolean bulkLoad) {
+
+		int numAnchors = anchorObjects == null ? 0 : anchorObjects.size();
+		cplxx_id_name_pair_vector anchorVector = new cplxx_id_name_pair_vector(numAnchors);
+
+		if (anchorObjects != null) {
+			int pos = 0;
+			for(Map.Entry<CPLObject, String> entry : anchorObjects.entrySet()){
+				anchorVector.set(pos, new cplxx_id_name_pair(entry.getKey().getLongId(), entry.getValue()));
+				pos++;
+			}
 		}
 
 		int flags = (externObjects) ? CPLDirect.CPL_J_EXTERN_OBJ : 0;
+		if (bulkLoad) flags |= CPLDirect.CPL_J_BULK;
 
-		BigInteger[] id = {nullId};
+		long[] id = {nullId};
 		int r = CPLDirect.import_document_json(json, bundleName,
 									   anchorVector, flags, id);
 		CPLException.assertSuccess(r);
@@ -151,19 +196,144 @@ public class CPLJsonUtility {
 	}
 
 	/**
-	 * Export a Prov bundle as a JSON document
+	 * Import a Prov JSON document from a stream without reading it into
+	 * memory first. Objects and relations are created in batches of at most
+	 * window records as the document is read. Relations that must wait for
+	 * objects and do not fit in the window go to a temporary file.
 	 *
-	 * @param bundles an array of bundles to export, currently only supports one
+	 * @param in the UTF-8 encoded document; the stream is not closed
+	 * @param bundleName desired name of document bundle
+	 * @param anchorObjects map of CPLObject, name pairs matching a stored object to
+	 *                      an object name in the document, or null
+	 * @param externObjects whether the document contains relations that reference
+	 *						external objects
+	 * @param window the maximum number of buffered objects or relations
+	 * @throws IOException if reading the stream fails
+	 */
+
+	public static CPLBundle importJson(InputStream in, String bundleName,
+			Map<CPLObject, String> anchorObjects, boolean externObjects,
+			int window) throws IOException {
+		Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+		return new CPLJsonImporter(bundleName, anchorObjects, externObjects,
+				window).importFrom(reader);
+	}
+
+	/**
+	 * Import a Prov JSON document from a stream using the default window.
+	 *
+	 * @param in the UTF-8 encoded document; the stream is not closed
+	 * @param bundleName desired name of document bundle
+	 * @param anchorObjects map of CPLObject, name pairs matching a stored object to
+	 *                      an object name in the document, or null
+	 * @param externObjects whether the document contains relations that reference
+	 *						external objects
+	 * @throws IOException if reading the stream fails
+	 */
+
+	public static CPLBundle importJson(InputStream in, String bundleName,
+			Map<CPLObject, String> anchorObjects, boolean externObjects)
+			throws IOException {
+		return importJson(in, bundleName, anchorObjects, externObjects,
+				CPLJsonImporter.DEFAULT_WINDOW);
+	}
+
+	/**
+	 * Import a Prov JSON document from a file, streaming its contents.
+	 *
+	 * @param path the UTF-8 encoded document
+	 * @param bundleName desired name of document bundle
+	 * @param anchorObjects map of CPLObject, name pairs matching a stored object to
+	 *                      an object name in the document, or null
+	 * @param externObjects whether the document contains relations that reference
+	 *						external objects
+	 * @param window the maximum number of buffered objects or relations
+	 * @throws IOException if reading the file fails
+	 */
+
+	public static CPLBundle importJson(Path path, String bundleName,
+			Map<CPLObject, String> anchorObjects, boolean externObjects,
+			int window) throws IOException {
+		InputStream in = Files.newInputStream(path);
+		try {
+			return importJson(in, bundleName, anchorObjects, externObjects,
+					window);
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Import a Prov JSON document from a file using the default window.
+	 *
+	 * @param path the UTF-8 encoded document
+	 * @param bundleName desired name of document bundle
+	 * @param anchorObjects map of CPLObject, name pairs matching a stored object to
+	 *                      an object name in the document, or null
+	 * @param externObjects whether the document contains relations that reference
+	 *						external objects
+	 * @throws IOException if reading the file fails
+	 */
+
+	public static CPLBundle importJson(Path path, String bundleName,
+			Map<CPLObject, String> anchorObjects, boolean externObjects)
+			throws IOException {
+		return importJson(path, bundleName, anchorObjects, externObjects,
+				CPLJsonImporter.DEFAULT_WINDOW);
+	}
+
+	/**
+	 * Export Prov bundles as a single JSON document. The bundles are fetched
+	 * in parallel and merged; a prefix must be bound to the same IRI in all
+	 * bundles that declare it.
+	 *
+	 * @param bundles an array of bundles to export
 	 */
 	public static String exportBundleJson(CPLBundle[] bundles) {
 
 		cpl_id_t_vector bundleVector = new cpl_id_t_vector(bundles.length);
 		for(int i=0; i<bundles.length; i++){
-			bundleVector.set(i, bundles[i].getId());
+			bundleVector.set(i, bundles[i].getLongId());
 		}
 		export_bundle_json_return_t r = CPLDirect.export_bundle_json(bundleVector);
 		CPLException.assertSuccess(r.getReturn_code());
 
 		return r.getOut_string();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Export Prov bundles as a JSON document written directly to a stream,
+	 * without building the document in memory. Objects and relations are
+	 * written as they are read from the database, one page at a time.
+	 *
+	 * @param bundles an array of bundles to export
+	 * @param out the stream to write the UTF-8 encoded document to; it is
+	 *            flushed, but not closed
+	 * @throws IOException if writing to the stream fails
+	 */
+	public static void exportBundleJson(CPLBundle[] bundles, OutputStream out)
+			throws IOException {
+		Writer writer = new BufferedWriter(
+				new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		new CPLJsonExporter(bundles, CPLJsonExporter.DEFAULT_PAGE_SIZE)
+			.exportTo(writer);
+	}
+
+	/**
+	 * Export Prov bundles as a JSON document written directly to a channel,
+	 * without building the document in memory.
+	 *
+	 * @param bundles an array of bundles to export
+	 * @param channel the channel to write the UTF-8 encoded document to;
+	 *                it is not closed
+	 * @throws IOException if writing to the channel fails
+	 */
+	public static void exportBundleJson(CPLBundle[] bundles,
+			WritableByteChannel channel) throws IOException {
+		Writer writer = new BufferedWriter(Channels.newWriter(channel,
+				StandardCharsets.UTF_8.newEncoder(), -1));
+		new CPLJsonExporter(bundles, CPLJsonExporter.DEFAULT_PAGE_SIZE)
+			.exportTo(writer);
+	}
+}
@@ -0,0 +1,634 @@
+package edu.harvard.pass.cpl;
+
+/*
+ * CPLLineageCache.java
+ * Prov-CPL
+ *
+ * Copyright 2026
+ *      The President and Fellows of Harvard College.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the University nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE UNIVERSITY AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE UNIVERSITY OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ *
+ * Contributor(s): agent
+ */
+
+import swig.direct.CPLDirect.*;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * A cache of the results of the transitive lineage queries of CPLObject
+ * (getAncestry() and getProgeny()). The cache is disabled by default.
+ *
+ * Staleness is detected using the relation watermark: the highest relation
+ * ID that the cached results were checked against. Before answering from
+ * the cache, it asks the database for the current highest relation ID,
+ * which is a single index lookup. If new relations exist, it fetches them
+ * and drops only the results whose objects they touch, i.e. an ancestry
+ * that gains a relation from one of its objects, or a progeny that gains
+ * a relation to one of its objects. The check can be limited to once per
+ * a given interval, trading freshness for fewer round trips.
+ *
+ * Relation IDs are assigned before the transaction commits, so a relation
+ * can become visible after a higher ID has already been seen. To catch such
+ * late commits, each check that finds new relations also re-reads the last
+ * LATE_COMMIT_WINDOW IDs below the watermark and checks the ones it has not
+ * seen before. A late relation that commits while no other relations are
+ * being added is only caught by the next check that finds new ones; to bound
+ * how long such a result can be served, set a maximum age with
+ * setMaxAge(), or call clear() after writes from other processes that must
+ * be visible right away.
+ *
+ * The size of the cache is bounded by the total number of cached relations;
+ * the least recently used results are evicted first. Relations that tie
+ * objects to bundles are not tracked, so the cache should not be used for
+ * the lineage of bundles.
+ *
+ * @author agent
+ */
+public class CPLLineageCache {
+
+	/// If more relations than this were added since the last check, the
+	/// cache is cleared instead of checking each result against them
+	static final long MAX_DELTA = 65536;
+
+	/// The number of relation IDs below the watermark that are read again
+	/// on each check, to find relations that committed late
+	static final long LATE_COMMIT_WINDOW = 4096;
+
+	/// The active cache, or null if caching is disabled
+	private static volatile CPLLineageCache instance = null;
+
+	/// The maximum total number of cached relations
+	private final long capacity;
+
+	/// The total number of cached relations
+	private long size = 0;
+
+	/// The entries, in the least-recently-used order
+	private final LinkedHashMap<Key, Lineage> entries;
+
+	/// The highest relation ID the cached results were checked against
+	private long watermark;
+
+	/// The minimum time in milliseconds between two watermark checks
+	private volatile long checkInterval = 0;
+
+	/// The time of the last watermark check
+	private long lastCheck = 0;
+
+	/// The maximum age of a cached result in milliseconds, or 0 for no limit
+	private volatile long maxAge = 0;
+
+	/// The IDs of the relations in the late-commit window that were already
+	/// checked against the cached results
+	private final TreeSet<Long> recentIds = new TreeSet<Long>();
+
+	/// The number of cache hits
+	private final AtomicLong hits = new AtomicLong();
+
+	/// The number of cache misses
+	private final AtomicLong misses = new AtomicLong();
+
+	/// The number of evicted results
+	private final AtomicLong evictions = new AtomicLong();
+
+	/// The number of results dropped because of new relations
+	private final AtomicLong invalidations = new AtomicLong();
+
+
+	/**
+	 * The cache key: the parameters of a lineage query
+	 */
+	private static final class Key {
+
+		final long id;
+		final int direction;
+		final int maxDepth;
+		final int typeMask;
+
+		Key(long id, int direction, int maxDepth, int typeMask) {
+			this.id = id;
+			this.direction = direction;
+			this.maxDepth = maxDepth;
+			this.typeMask = typeMask;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Key)) return false;
+			Key k = (Key) other;
+			return id == k.id && direction == k.direction
+				&& maxDepth == k.maxDepth && typeMask == k.typeMask;
+		}
+
+		@Override
+		public int hashCode() {
+			int h = (int) (id ^ (id >>> 32));
+			h = h * 31 + direction;
+			h = h * 31 + maxDepth;
+			return h * 31 + typeMask;
+		}
+	}
+
+
+	/**
+	 * The result of a lineage query as parallel arrays, in the order
+	 * returned by the database
+	 */
+	static class Lineage {
+
+		final long[] relationIds;
+		final long[] fromIds;
+		final long[] toIds;
+		final int[] types;
+		final int[] depths;
+
+		/// The sorted IDs of the objects whose new relations would extend
+		/// the result: the queried object and everything it reached
+		private long[] frontier;
+
+		/// The time when the result was cached
+		private long cachedAt;
+
+		Lineage(long[] relationIds, long[] fromIds, long[] toIds,
+				int[] types, int[] depths) {
+			this.relationIds = relationIds;
+			this.fromIds = fromIds;
+			this.toIds = toIds;
+			this.types = types;
+			this.depths = depths;
+		}
+
+		/**
+		 * Compute the frontier
+		 *
+		 * @param id the queried object ID
+		 * @param direction the direction of the query
+		 */
+		void computeFrontier(long id, int direction) {
+			long[] reached = direction == CPLObject.D_ANCESTORS ? toIds
+				: fromIds;
+			long[] f = Arrays.copyOf(reached, reached.length + 1);
+			f[reached.length] = id;
+			Arrays.sort(f);
+			int n = 0;
+			for (int i = 0; i < f.length; i++) {
+				if (n == 0 || f[n - 1] != f[i]) f[n++] = f[i];
+			}
+			frontier = Arrays.copyOf(f, n);
+		}
+
+		/**
+		 * Determine whether a new relation extends the result
+		 *
+		 * @param key the query
+		 * @param from the source object ID of the relation
+		 * @param to the destination object ID of the relation
+		 * @param type the relation type
+		 * @return true if the result is no longer complete
+		 */
+		boolean touchedBy(Key key, long from, long to, int type) {
+			if (!ProvGraphSnapshot.follows(key.typeMask, type)) return false;
+			long near = key.direction == CPLObject.D_ANCESTORS ? from : to;
+			return Arrays.binarySearch(frontier, near) >= 0;
+		}
+	}
+
+
+	/**
+	 * Create an instance of CPLLineageCache
+	 *
+	 * @param capacity the maximum total number of cached relations
+	 */
+	private CPLLineageCache(long capacity) {
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<Key, Lineage>(16, 0.75f, true);
+		this.watermark = fetchWatermark();
+		this.lastCheck = System.currentTimeMillis();
+	}
+
+
+	/**
+	 * Enable the lineage cache, replacing (and discarding) the previous
+	 * cache if there is one
+	 *
+	 * @param capacity the maximum total number of cached relations
+	 * @return the new cache
+	 */
+	public static CPLLineageCache enable(long capacity) {
+		if (capacity <= 0) {
+			throw new CPLException("The cache capacity must be positive",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+		CPLLineageCache c = new CPLLineageCache(capacity);
+		instance = c;
+		return c;
+	}
+
+
+	/**
+	 * Disable the lineage cache and discard its contents
+	 */
+	public static void disable() {
+		instance = null;
+	}
+
+
+	/**
+	 * Get the active cache
+	 *
+	 * @return the cache, or null if caching is disabled
+	 */
+	public static CPLLineageCache getInstance() {
+		return instance;
+	}
+
+
+	/**
+	 * Set the minimum time between two checks for new relations. Results
+	 * may be up to this old. The default is 0, which checks on every lookup.
+	 *
+	 * @param millis the interval in milliseconds
+	 */
+	public void setCheckInterval(long millis) {
+		if (millis < 0) {
+			throw new CPLException("The interval cannot be negative",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+		checkInterval = millis;
+	}
+
+
+	/**
+	 * Get the minimum time between two checks for new relations
+	 *
+	 * @return the interval in milliseconds
+	 */
+	public long getCheckInterval() {
+		return checkInterval;
+	}
+
+
+	/**
+	 * Set the maximum age of the cached results. Older results are dropped
+	 * on lookup, regardless of the watermark. The default is 0, i.e. no
+	 * limit.
+	 *
+	 * @param millis the maximum age in milliseconds, or 0 for no limit
+	 */
+	public void setMaxAge(long millis) {
+		if (millis < 0) {
+			throw new CPLException("The maximum age cannot be negative",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+		maxAge = millis;
+	}
+
+
+	/**
+	 * Get the maximum age of the cached results
+	 *
+	 * @return the maximum age in milliseconds, or 0 for no limit
+	 */
+	public long getMaxAge() {
+		return maxAge;
+	}
+
+
+	/**
+	 * Get the highest relation ID from the database
+	 *
+	 * @return the relation ID
+	 */
+	private static long fetchWatermark() {
+		long[] id = { CPLObject.nullId };
+		int r = CPLDirect.cpl_get_last_relation_id(id);
+		CPLException.assertSuccess(r);
+		return id[0];
+	}
+
+
+	/**
+	 * Drop the results that the relations added since the last check would
+	 * change, and advance the watermark. The check is skipped if the last
+	 * one was recent enough. The database is queried without holding the
+	 * lock; the lock is taken only to read the watermark and then to apply
+	 * the check, which is discarded if another check advanced the watermark
+	 * in the meantime.
+	 *
+	 * @return the watermark the cached results are now valid for
+	 */
+	long validate() {
+
+		long from;
+		boolean empty;
+		synchronized (this) {
+			long now = System.currentTimeMillis();
+			if (now - lastCheck < checkInterval) return watermark;
+			lastCheck = now;
+			from = watermark;
+			empty = entries.isEmpty();
+		}
+
+		long last = fetchWatermark();
+		if (last <= from) return from;
+
+
+		// Read the new relations together with the late-commit window,
+		// unless there are too many of them or nothing to check them against
+
+		ProvGraphSnapshot.Loader delta = null;
+		if (last - from <= MAX_DELTA && !empty) {
+			long after = Math.max(CPLObject.nullId,
+					from - LATE_COMMIT_WINDOW);
+			delta = new ProvGraphSnapshot.Loader();
+			delta.readAll(CPLObject.nullId, after);
+		}
+
+		synchronized (this) {
+			if (watermark != from) return watermark;
+
+			if (delta == null) {
+				invalidations.addAndGet(entries.size());
+				entries.clear();
+				recentIds.clear();
+				size = 0;
+				watermark = last;
+				return watermark;
+			}
+
+
+			// Skip the relations in the window that were checked before
+
+			boolean[] unseen = new boolean[delta.size];
+			for (int k = 0; k < delta.size; k++) {
+				unseen[k] = delta.relationIds[k] > watermark
+					|| !recentIds.contains(delta.relationIds[k]);
+			}
+
+			Iterator<Map.Entry<Key, Lineage>> i
+				= entries.entrySet().iterator();
+			while (i.hasNext()) {
+				Map.Entry<Key, Lineage> e = i.next();
+				for (int k = 0; k < delta.size; k++) {
+					if (unseen[k] && e.getValue().touchedBy(e.getKey(),
+								delta.fromIds[k], delta.toIds[k],
+								delta.types[k])) {
+						size -= e.getValue().relationIds.length;
+						i.remove();
+						invalidations.incrementAndGet();
+						break;
+					}
+				}
+			}
+
+			// The delta may include relations committed after we got the
+			// last ID; those were checked as well
+
+			watermark = delta.size == 0 ? last
+				: Math.max(last, delta.relationIds[delta.size - 1]);
+			for (int k = 0; k < delta.size; k++) {
+				recentIds.add(delta.relationIds[k]);
+			}
+			recentIds.headSet(watermark - LATE_COMMIT_WINDOW, true).clear();
+			return watermark;
+		}
+	}
+
+
+	/**
+	 * Look up the result of a lineage query, checking for new relations
+	 * first
+	 *
+	 * @param id the queried object ID
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the relation types to follow
+	 * @return the result, or null if it is not cached
+	 */
+	Lineage get(long id, int direction, int maxDepth, int typeMask) {
+
+		validate();
+
+		Lineage l;
+		synchronized (this) {
+			Key key = new Key(id, direction, maxDepth, typeMask);
+			l = entries.get(key);
+
+			long age = maxAge;
+			if (l != null && age > 0
+					&& System.currentTimeMillis() - l.cachedAt > age) {
+				entries.remove(key);
+				size -= l.relationIds.length;
+				invalidations.incrementAndGet();
+				l = null;
+			}
+		}
+
+		if (l == null) {
+			misses.incrementAndGet();
+		}
+		else {
+			hits.incrementAndGet();
+		}
+		return l;
+	}
+
+
+	/**
+	 * Get the current watermark, to be passed to put() after the query
+	 *
+	 * @return the watermark
+	 */
+	synchronized long getWatermark() {
+		return watermark;
+	}
+
+
+	/**
+	 * Cache the result of a lineage query, unless the watermark moved since
+	 * the query started, since then the new relations were never checked
+	 * against this result
+	 *
+	 * @param id the queried object ID
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the relation types to follow
+	 * @param lineage the result
+	 * @param queryWatermark the result of getWatermark() before the query
+	 */
+	void put(long id, int direction, int maxDepth, int typeMask,
+			Lineage lineage, long queryWatermark) {
+
+		int n = lineage.relationIds.length;
+		if (n > capacity) return;
+		lineage.computeFrontier(id, direction);
+		lineage.cachedAt = System.currentTimeMillis();
+
+		synchronized (this) {
+			if (watermark != queryWatermark) return;
+
+			Lineage old = entries.put(new Key(id, direction, maxDepth,
+						typeMask), lineage);
+			if (old != null) size -= old.relationIds.length;
+			size += n;
+
+			Iterator<Lineage> i = entries.values().iterator();
+			while (size > capacity && i.hasNext()) {
+				size -= i.next().relationIds.length;
+				i.remove();
+				evictions.incrementAndGet();
+			}
+		}
+	}
+
+
+	/**
+	 * Remove all entries from the cache. This does not reset the statistics.
+	 * Lookups after clear() see every relation committed before it was
+	 * called, including relations that the watermark check would miss.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		size = 0;
+	}
+
+
+	/**
+	 * Reset the hit, miss, eviction, and invalidation counters
+	 */
+	public void resetStatistics() {
+		hits.set(0);
+		misses.set(0);
+		evictions.set(0);
+		invalidations.set(0);
+	}
+
+
+	/**
+	 * Get the maximum total number of cached relations
+	 *
+	 * @return the capacity
+	 */
+	public long getCapacity() {
+		return capacity;
+	}
+
+
+	/**
+	 * Get the total number of cached relations
+	 *
+	 * @return the number of relations
+	 */
+	public synchronized long size() {
+		return size;
+	}
+
+
+	/**
+	 * Get the number of cached results
+	 *
+	 * @return the number of results
+	 */
+	public synchronized int getEntryCount() {
+		return entries.size();
+	}
+
+
+	/**
+	 * Get the number of lookups that were answered from the cache
+	 *
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+
+	/**
+	 * Get the number of lookups that had to go to the database
+	 *
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+
+	/**
+	 * Get the fraction of lookups that were answered from the cache
+	 *
+	 * @return the hit rate between 0 and 1, or 0 if there were no lookups
+	 */
+	public double getHitRate() {
+		long h = getHits();
+		long total = h + getMisses();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+
+	/**
+	 * Get the number of results evicted to stay within the capacity
+	 *
+	 * @return the number of evictions
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+
+	/**
+	 * Get the number of results dropped because new relations changed them
+	 *
+	 * @return the number of invalidations
+	 */
+	public long getInvalidations() {
+		return invalidations.get();
+	}
+
+
+	/**
+	 * Return a string representation of the cache statistics
+	 *
+	 * @return the string representation
+	 */
+	@Override
+	public String toString() {
+		return "relations: " + size() + "/" + capacity
+			+ "; results: " + getEntryCount()
+			+ "; hits: " + getHits()
+			+ "; misses: " + getMisses()
+			+ "; evictions: " + getEvictions()
+			+ "; invalidations: " + getInvalidations();
+	}
+}
@@ -0,0 +1,124 @@
+package edu.harvard.pass.cpl;
+
+/*
+ * CPLLineageEntry.java
+ * Prov-CPL
+ *
+ * Copyright 2026
+ *      The President and Fellows of Harvard College.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the University nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE UNIVERSITY AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE UNIVERSITY OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ *
+ * Contributor(s): agent
+ */
+
+
+/**
+ * A relation found by a transitive lineage query, together with its depth,
+ * i.e. the number of relations on the shortest path from the queried object
+ * up to and including this one
+ *
+ * @author agent
+ */
+public class CPLLineageEntry {
+
+	/// The relation
+	private CPLRelation relation;
+
+	/// The depth of the relation
+	private int depth;
+
+
+	/**
+	 * Create an instance of CPLLineageEntry
+	 *
+	 * @param relation the relation
+	 * @param depth the depth, starting at 1 for the immediate neighbors
+	 */
+	public CPLLineageEntry(CPLRelation relation, int depth) {
+		this.relation = relation;
+		this.depth = depth;
+	}
+
+
+	/**
+	 * Determine whether this and the other object are equal
+	 *
+	 * @param other the other object
+	 * @return true if they are equal
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (other instanceof CPLLineageEntry) {
+			CPLLineageEntry o = (CPLLineageEntry) other;
+			return o.relation.equals(relation) && o.depth == depth;
+		}
+		else {
+			return false;
+		}
+	}
+
+
+	/**
+	 * Compute the hash code of this object
+	 *
+	 * @return the hash code
+	 */
+	@Override
+	public int hashCode() {
+		return relation.hashCode() * 31 + depth;
+	}
+
+
+	/**
+	 * Return a string representation of the entry
+	 *
+	 * @return the string representation
+	 */
+	@Override
+	public String toString() {
+		return "[depth " + depth + "] " + relation;
+	}
+
+
+	/**
+	 * Get the relation
+	 *
+	 * @return the relation
+	 */
+	public CPLRelation getRelation() {
+		return relation;
+	}
+
+
+	/**
+	 * Get the depth of the relation
+	 *
+	 * @return the depth, starting at 1 for the immediate neighbors
+	 */
+	public int getDepth() {
+		return depth;
+	}
+}
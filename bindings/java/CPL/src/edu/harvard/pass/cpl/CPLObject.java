@@ -36,8 +36,16 @@ package edu.harvard.pass.cpl;
 
 import swig.direct.CPLDirect.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Vector;
 
+import java.util.stream.Stream;
+
 import java.math.BigInteger;
 
 /**
@@ -48,7 +56,7 @@ import java.math.BigInteger;
 public class CPLObject {
 
 	/// The null object
-	static BigInteger nullId = BigInteger.ZERO;
+	static final long nullId = 0;
 
 	/// Traversal direction: Ancestors
 	public static final int D_ANCESTORS = CPLDirectConstants.CPL_D_ANCESTORS;
@@ -62,7 +70,7 @@ public class CPLObject {
 	public static final int BUNDLE = CPLDirectConstants.CPL_BUNDLE;
 
 	/// The internal object ID
-	BigInteger id;
+	long id;
 
 	/// The object prefix (cache)
 	String prefix = null;
@@ -86,6 +94,15 @@ public class CPLObject {
 	 * @param id the internal CPL object ID
 	 */
 	public CPLObject(BigInteger id) {
+		this.id = id.longValue();
+	}
+
+	/**
+	 * Create an instance of CPLObject from its ID
+	 *
+	 * @param id the internal CPL object ID
+	 */
+	public CPLObject(long id) {
 		this.id = id;
 	}
 
@@ -99,7 +116,7 @@ public class CPLObject {
 	 */
 	public static CPLObject create(String prefix, String name, int type) {
 
-		BigInteger[] id = {nullId};
+		long[] id = {nullId};
 		int r = CPLDirect.cpl_create_object(prefix, name, type, id);
 		CPLException.assertSuccess(r);
 
@@ -111,6 +128,40 @@ public class CPLObject {
 		return o;
 	}
 
+	/**
+	 * Create many new CPLObjects with the same prefix and type at once,
+	 * which needs far fewer database round trips than calling create() for
+	 * each of them. This is not atomic: if the call fails, some of the
+	 * objects may already have been created.
+	 *
+	 * @param prefix the namespace prefix
+	 * @param names the object names
+	 * @param type the object type
+	 * @return the new objects, in the same order as the names
+	 */
+	public static CPLObject[] createAll(String prefix, String[] names,
+			int type) {
+
+		std_string_vector n = new std_string_vector();
+		n.reserve(names.length);
+		for (String name : names) n.add(name);
+
+		cpl_id_t_vector ids = new cpl_id_t_vector();
+		int r = CPLDirect.cpl_create_objects(prefix, n, type, ids);
+		CPLException.assertSuccess(r);
+
+		CPLObject[] result = new CPLObject[names.length];
+		for (int i = 0; i < names.length; i++) {
+			CPLObject o = new CPLObject(ids.get(i));
+			o.prefix = prefix;
+			o.name = names[i];
+			o.type = type;
+			result[i] = o;
+		}
+
+		return result;
+	}
+
 	/**
 	 * Lookup an existing object; return null if not found
 	 *
@@ -121,7 +172,7 @@ public class CPLObject {
 	 */
 	public static CPLObject tryLookup(String prefix, String name, int type) {
 
-		BigInteger[] id = {nullId};
+		long[] id = {nullId};
 		int r = CPLDirect.cpl_lookup_object(prefix, name, type, id);
 
 		if (CPLException.isError(r)) {
@@ -179,12 +230,15 @@ public class CPLObject {
 			long l = v.size();
 			for (long i = 0; i < l; i++) {
 				cpl_id_timestamp_t e = v.get((int) i);
-                BigInteger id = e.getId();
+                long id = e.getId();
 
                 CPLObject o = new CPLObject(id);
                 o.prefix = prefix;
                 o.name = name;
                 o.type = type;
+                o.creationTime = e.getTimestamp();
+                o.knowCreationInfo = type != 0;
+                CPLObjectCache.offer(o);
 
 				result.add(o);
 			}
@@ -223,7 +277,7 @@ public class CPLObject {
 	public static CPLObject lookupOrCreate(String prefix, String name,
 			int type) {
 
-		BigInteger[] id = {nullId};
+		long[] id = {nullId};
 		int r = CPLDirect.cpl_lookup_or_create_object(prefix, name, type, id);
 
 		if (CPLException.isError(r)) {
@@ -272,12 +326,15 @@ public class CPLObject {
 			long l = v.size();
 			for (long i = 0; i < l; i++) {
 				cplxx_object_info_t e = v.get((int) i);
-                BigInteger id = e.getId();
+                long id = e.getId();
 
                 CPLObject o = new CPLObject(id);
                 o.prefix = e.getPrefix();
                 o.name = e.getName();
                 o.type = e.getType();
+                o.creationTime = e.getCreation_time();
+                o.knowCreationInfo = true;
+                CPLObjectCache.offer(o);
 
 				result.add(o);
 			}
@@ -291,6 +348,125 @@ public class CPLObject {
     }
 
 
+	/**
+	 * Get all provenance objects of a specific type in the columnar format,
+	 * which is much more compact than a vector of CPLObjects when there are
+	 * many objects
+	 *
+	 * @param prefix the namespace prefix
+	 * @param type the object type, or 0 for all types
+	 * @return the batch of all matching objects
+	 */
+	public static CPLObjectBatch getAllObjectsByTypeBatch(String prefix,
+			int type) {
+
+		cplxx_object_columns_t columns = new cplxx_object_columns_t();
+		SWIGTYPE_p_void pv = CPLDirect
+			.cpl_convert_p_cplxx_object_columns_t_to_p_void(columns);
+
+		try {
+			int r = CPLDirect.cpl_get_all_objects(prefix, CPLDirect.CPL_I_FAST,
+					type, CPLDirect.cpl_cb_collect_object_columns, pv);
+			CPLException.assertSuccess(r);
+
+			return new CPLObjectBatch(columns);
+		}
+		finally {
+			columns.delete();
+		}
+	}
+
+
+	/**
+	 * Iterate over all provenance objects of a specific type without
+	 * loading all of them into memory at once. The objects are fetched from
+	 * the database in pages and returned in the order of their IDs.
+	 *
+	 * @param prefix the namespace prefix
+	 * @param type the object type, or 0 for all types
+	 * @return an iterator over the matching objects
+	 */
+	public static Iterator<CPLObject> iterateAllObjectsByType(
+			final String prefix, final int type) {
+
+		return new CPLResultIterator<CPLObject>(
+				CPLResultIterator.DEFAULT_PAGE_SIZE) {
+
+			@Override
+			protected long fetchPage(long afterId, int limit,
+					List<CPLObject> out) {
+				return fetchAllObjectsPage(prefix, type, afterId, limit, out);
+			}
+		};
+	}
+
+
+	/**
+	 * Get a sequential stream of all provenance objects of a specific type.
+	 * The objects are fetched lazily, one page at a time.
+	 *
+	 * @param prefix the namespace prefix
+	 * @param type the object type, or 0 for all types
+	 * @return a stream of the matching objects
+	 */
+	public static Stream<CPLObject> streamAllObjectsByType(String prefix,
+			int type) {
+		return ((CPLResultIterator<CPLObject>)
+				iterateAllObjectsByType(prefix, type)).stream();
+	}
+
+
+	/**
+	 * Fetch one page of the provenance objects of a specific type
+	 *
+	 * @param prefix the namespace prefix
+	 * @param type the object type, or 0 for all types
+	 * @param afterId fetch only objects with IDs greater than this one
+	 * @param limit the maximum number of objects to fetch
+	 * @param out the list to append the objects to
+	 * @return the ID of the last fetched object
+	 */
+	private static long fetchAllObjectsPage(String prefix, int type,
+			long afterId, int limit, List<CPLObject> out) {
+
+		SWIGTYPE_p_std_vector_cplxx_object_info_t pVector
+			= CPLDirect.new_std_vector_cplxx_object_info_tp();
+		SWIGTYPE_p_void pv = CPLDirect
+			.cpl_convert_p_std_vector_cplxx_object_info_t_to_p_void(pVector);
+		long last = afterId;
+
+		try {
+			int r = CPLDirect.cpl_get_all_objects_page(prefix,
+					CPLDirect.CPL_I_FAST, type, afterId, limit,
+					CPLDirect.cpl_cb_collect_object_info_vector, pv);
+			CPLException.assertSuccess(r);
+
+			cplxx_object_info_t_vector v = CPLDirect
+				.cpl_dereference_p_std_vector_cplxx_object_info_t(pVector);
+			long l = v.size();
+			for (long i = 0; i < l; i++) {
+				cplxx_object_info_t e = v.get((int) i);
+
+				CPLObject o = new CPLObject(e.getId());
+				o.prefix = e.getPrefix();
+				o.name = e.getName();
+				o.type = e.getType();
+				o.creationTime = e.getCreation_time();
+				o.knowCreationInfo = true;
+				CPLObjectCache.offer(o);
+
+				out.add(o);
+				last = o.id;
+			}
+		}
+		finally {
+			CPLDirect.delete_std_vector_cplxx_object_info_tp(pVector);
+		}
+
+		return last;
+	}
+
+
 	/**
 	 * Determine whether this and the other object are equal
 	 *
@@ -301,7 +477,7 @@ public class CPLObject {
 	public boolean equals(Object other) {
 		if (other instanceof CPLObject) {
 			CPLObject o = (CPLObject) other;
-			return this.id.equals(o.id);
+			return this.id == o.id;
 		}
 		else {
 			return false;
@@ -316,7 +492,7 @@ public class CPLObject {
 	 */
 	@Override
 	public int hashCode() {
-		return id.hashCode();
+		return (int) (id ^ (id >>> 32));
 	}
 
 
@@ -328,7 +504,7 @@ public class CPLObject {
 	 */
 	@Override
 	public String toString() {
-		return id.toString(16);
+		return Long.toHexString(id);
 	}
 
 
@@ -342,6 +518,8 @@ public class CPLObject {
 		if (prefix != null && knowCreationInfo)
 			return false;
 
+		if (CPLObjectCache.fill(this))
+			return true;
 
 		// Fetch the info from CPL
 		
@@ -363,6 +541,7 @@ public class CPLObject {
 			creationTime = info.getCreation_time();
 
 			knowCreationInfo = true;
+			CPLObjectCache.offer(this);
 
 			CPLDirect.cpl_free_object_info(info);
 		}
@@ -374,12 +553,86 @@ public class CPLObject {
 	}
 
 
+	/**
+	 * Fetch the information of many objects at once. Objects that already
+	 * know their information (or find it in the object cache) are skipped,
+	 * and the rest are fetched from the database in batches, instead of
+	 * issuing one query per object.
+	 *
+	 * @param objects the objects to fetch the information for
+	 */
+	public static void prefetchInfo(Collection<? extends CPLObject> objects) {
+
+		HashMap<Long, List<CPLObject>> pending
+			= new HashMap<Long, List<CPLObject>>();
+		cpl_id_t_vector ids = new cpl_id_t_vector();
+
+		for (CPLObject o : objects) {
+			if (o.prefix != null && o.knowCreationInfo) continue;
+			if (CPLObjectCache.fill(o)) continue;
+
+			List<CPLObject> l = pending.get(o.id);
+			if (l == null) {
+				l = new ArrayList<CPLObject>(1);
+				pending.put(o.id, l);
+				ids.add(o.id);
+			}
+			l.add(o);
+		}
+
+		if (pending.isEmpty()) return;
+
+		SWIGTYPE_p_std_vector_cplxx_object_info_t pVector
+			= CPLDirect.new_std_vector_cplxx_object_info_tp();
+		SWIGTYPE_p_void pv = CPLDirect
+			.cpl_convert_p_std_vector_cplxx_object_info_t_to_p_void(pVector);
+
+		try {
+			int r = CPLDirect.cpl_get_object_info_batch(ids,
+					CPLDirect.cpl_cb_collect_object_info_vector, pv);
+			if (r == CPLDirect.CPL_S_NO_DATA) return;
+			CPLException.assertSuccess(r);
+
+			cplxx_object_info_t_vector v = CPLDirect
+				.cpl_dereference_p_std_vector_cplxx_object_info_t(pVector);
+			long l = v.size();
+			for (long i = 0; i < l; i++) {
+				cplxx_object_info_t e = v.get((int) i);
+				List<CPLObject> targets = pending.get(e.getId());
+				if (targets == null) continue;
+
+				for (CPLObject o : targets) {
+					o.prefix = e.getPrefix();
+					o.name = e.getName();
+					o.type = e.getType();
+					o.creationTime = e.getCreation_time();
+					o.knowCreationInfo = true;
+				}
+				CPLObjectCache.offer(targets.get(0));
+			}
+		}
+		finally {
+			CPLDirect.delete_std_vector_cplxx_object_info_tp(pVector);
+		}
+	}
+
+
 	/**
 	 * Get the ID of the object
 	 *
 	 * @return the internal ID of this object
 	 */
 	public BigInteger getId() {
+		return BigInteger.valueOf(id);
+	}
+
+	/**
+	 * Get the ID of the object as a primitive, which avoids allocating
+	 * a BigInteger
+	 *
+	 * @return the internal ID of this object
+	 */
+	public long getLongId() {
 		return id;
 	}
 
@@ -473,11 +726,40 @@ public class CPLObject {
 	 */
 	public Vector<CPLRelation> getRelations(int direction,
 			int flags) {
+		return getRelations(direction, flags, CPLRelation.ALL_TYPES);
+	}
+
+
+	/**
+	 * Query the relations of the object that have one of the given types.
+	 * Only the matching relations are read from the database.
+	 *
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param flags a combination of A_* flags, or 0 for defaults
+	 * @param typeMask the relation types to return, built using
+	 *                 CPLRelation.typeMask(), or CPLRelation.ALL_TYPES
+	 * @return a vector of the matching relations
+	 */
+	public Vector<CPLRelation> getRelations(int direction,
+			int flags, int typeMask) {
 
 		if (this.getType() == CPLDirect.CPL_BUNDLE) {
 			throw new CPLException("Cannot get object relations for a bundle", CPLDirect.CPL_E_INVALID_ARGUMENT);
 		}
 
+		// Serve from the relation cache if possible. Only complete lists
+		// are cached; a filtered query is answered from a complete list if
+		// there is one, but a filtered result is never cached.
+
+		CPLRelationCache cache = flags == 0 ? CPLRelationCache.getInstance()
+			: null;
+		long cacheVersion = 0;
+		if (cache != null) {
+			Vector<CPLRelation> cached = cache.get(this, direction, typeMask);
+			if (cached != null) return cached;
+			cacheVersion = cache.getVersion();
+		}
+
 		SWIGTYPE_p_std_vector_cpl_relation_t pVector
 				= CPLDirect.new_std_vector_cpl_relation_tp();
 		SWIGTYPE_p_void pv = CPLDirect
@@ -485,8 +767,9 @@ public class CPLObject {
 		Vector<CPLRelation> result = null;
 
 		try {
-			int r = CPLDirect.cpl_get_object_relations(id, direction,
-					flags, CPLDirect.cpl_cb_collect_relation_vector, pv);
+			int r = CPLDirect.cpl_get_object_relations_ext(id, direction,
+					flags, typeMask, CPLDirect.cpl_cb_collect_relation_vector,
+					pv);
 			CPLException.assertSuccess(r);
 
 			cpl_relation_t_vector v = CPLDirect
@@ -507,9 +790,542 @@ public class CPLObject {
 			CPLDirect.delete_std_vector_cpl_relation_tp(pVector);
 		}
 
+		if (cache != null && typeMask == CPLRelation.ALL_TYPES) {
+			cache.put(id, direction, result, cacheVersion);
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Query the relations of the object together with the prefixes, names,
+	 * types, and creation times of the objects on their other ends, all in
+	 * one round trip. Unlike the objects returned by getRelations(), the
+	 * other objects do not need to fetch their information when it is
+	 * displayed. Relations that record bundle membership are not included.
+	 *
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param flags a combination of A_* flags, or 0 for defaults
+	 * @param typeMask the relation types to return, built using
+	 *                 CPLRelation.typeMask(), or CPLRelation.ALL_TYPES
+	 * @return a vector of the relations
+	 */
+	public Vector<CPLRelation> getRelationsWithInfo(int direction,
+			int flags, int typeMask) {
+
+		cpl_relation_t_vector relations = new cpl_relation_t_vector();
+		cplxx_object_info_t_vector others = new cplxx_object_info_t_vector();
+
+		int r = CPLDirect.cpl_get_object_relations_info(id, direction, flags,
+				typeMask, relations, others);
+		CPLException.assertSuccess(r);
+
+		long l = relations.size();
+		Vector<CPLRelation> result = new Vector<CPLRelation>((int) l);
+		for (int i = 0; i < l; i++) {
+			cpl_relation_t e = relations.get(i);
+			cplxx_object_info_t info = others.get(i);
+
+			CPLObject o = new CPLObject(info.getId());
+			o.prefix = info.getPrefix();
+			o.name = info.getName();
+			o.type = info.getType();
+			o.creationTime = info.getCreation_time();
+			o.knowCreationInfo = true;
+			CPLObjectCache.offer(o);
+
+			result.add(new CPLRelation(e.getId(), this, o, e.getType(),
+						direction == D_ANCESTORS));
+		}
+
 		return result;
 	}
 
+
+	/**
+	 * Get all relations through which this object transitively depends on
+	 * other objects, ordered by depth. The whole traversal runs in the
+	 * database as a single query. Each relation is returned with this
+	 * object's side as the base if it is an immediate relation, and with
+	 * its descendant as the base otherwise.
+	 *
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the relation types to follow, built using
+	 *                 CPLRelation.typeMask(), or CPLRelation.ALL_TYPES
+	 * @return the relations together with their depths
+	 */
+	public Vector<CPLLineageEntry> getAncestry(int maxDepth, int typeMask) {
+		return getLineage(D_ANCESTORS, maxDepth, typeMask);
+	}
+
+
+	/**
+	 * Get all relations through which other objects transitively depend on
+	 * this object, ordered by depth. This is the counterpart of
+	 * getAncestry(); the ancestor of each relation is its base.
+	 *
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the relation types to follow, built using
+	 *                 CPLRelation.typeMask(), or CPLRelation.ALL_TYPES
+	 * @return the relations together with their depths
+	 */
+	public Vector<CPLLineageEntry> getProgeny(int maxDepth, int typeMask) {
+		return getLineage(D_DESCENDANTS, maxDepth, typeMask);
+	}
+
+
+	/**
+	 * Determine whether this object is a transitive ancestor of another
+	 * object, i.e. whether the other object depends on this one through
+	 * a chain of one or more relations of any type. This uses the
+	 * reachability index if it is enabled, and otherwise the bidirectional
+	 * search of findPath(), which stops as soon as the two objects are
+	 * linked instead of loading the whole ancestry of the other object.
+	 *
+	 * @param other the other object
+	 * @return true if this object is an ancestor of the other object
+	 */
+	public boolean isAncestorOf(CPLObject other) {
+
+		CPLReachabilityIndex index = CPLReachabilityIndex.getInstance();
+		if (index != null) return index.isAncestor(id, other.id);
+
+		if (other.id != id) {
+			return findPath(other.id, id, 0, CPLRelation.ALL_TYPES) != null;
+		}
+
+
+		// An object is its own ancestor only through a cycle, so search
+		// for it from its immediate ancestors
+
+		cpl_relation_t_vector v = fetchRelationsBatch(
+				Collections.singletonList(id), D_ANCESTORS,
+				CPLRelation.ALL_TYPES);
+		long l = v.size();
+		for (long i = 0; i < l; i++) {
+			long ancestorId = v.get((int) i).getOther_object_id();
+			if (findPath(ancestorId, id, 0, CPLRelation.ALL_TYPES) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Find the shortest chain of relations that links this object and
+	 * the target object, in either direction. The search runs from both
+	 * ends at once, expanding the ancestors of the descendant and the
+	 * descendants of the ancestor one level at a time, with one database
+	 * query per level, until the two searches meet. It first looks for
+	 * the target among the ancestors of this object and then, if there is
+	 * no such path, among its descendants.
+	 *
+	 * @param target the other object
+	 * @param maxDepth the maximum number of relations in the path, or 0 for
+	 *                 no limit
+	 * @param relationTypeMask the relation types to follow, built using
+	 *                         CPLRelation.typeMask(), or
+	 *                         CPLRelation.ALL_TYPES
+	 * @return the relations, ordered from the descendant to the ancestor,
+	 *         or null if the objects are not linked within maxDepth
+	 */
+	public Vector<CPLRelation> findPath(CPLObject target, int maxDepth,
+			int relationTypeMask) {
+
+		if (maxDepth < 0) {
+			throw new CPLException("The maximum depth cannot be negative",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+
+		Vector<CPLRelation> path = findPath(id, target.id, maxDepth,
+				relationTypeMask);
+		if (path == null) {
+			path = findPath(target.id, id, maxDepth, relationTypeMask);
+		}
+		return path;
+	}
+
+
+	/**
+	 * A step of a path search: the relation through which an object was
+	 * reached, and how far the object is from where that search started
+	 */
+	private static class PathStep {
+
+		final long relationId;
+		final long fromId;
+		final long toId;
+		final int type;
+		final int depth;
+
+		PathStep(long relationId, long fromId, long toId, int type,
+				int depth) {
+			this.relationId = relationId;
+			this.fromId = fromId;
+			this.toId = toId;
+			this.type = type;
+			this.depth = depth;
+		}
+	}
+
+
+	/**
+	 * Find the shortest chain of relations from a descendant up to one of
+	 * its ancestors using a bidirectional breadth-first search
+	 *
+	 * @param descendantId the ID of the descendant
+	 * @param ancestorId the ID of the ancestor
+	 * @param maxDepth the maximum length of the path, or 0 for no limit
+	 * @param typeMask the relation types to follow
+	 * @return the relations, or null if there is no such path
+	 */
+	private static Vector<CPLRelation> findPath(long descendantId,
+			long ancestorId, int maxDepth, int typeMask) {
+
+		if (descendantId == ancestorId) return new Vector<CPLRelation>();
+
+		HashMap<Long, PathStep> up = new HashMap<Long, PathStep>();
+		HashMap<Long, PathStep> down = new HashMap<Long, PathStep>();
+		up.put(descendantId, new PathStep(nullId, nullId, nullId, 0, 0));
+		down.put(ancestorId, new PathStep(nullId, nullId, nullId, 0, 0));
+
+		ArrayList<Long> upFrontier = new ArrayList<Long>();
+		ArrayList<Long> downFrontier = new ArrayList<Long>();
+		upFrontier.add(descendantId);
+		downFrontier.add(ancestorId);
+		int upDepth = 0;
+		int downDepth = 0;
+
+		while (!upFrontier.isEmpty() && !downFrontier.isEmpty()
+				&& (maxDepth == 0 || upDepth + downDepth < maxDepth)) {
+
+			// Expand the smaller frontier by one level
+
+			boolean expandUp = upFrontier.size() <= downFrontier.size();
+			HashMap<Long, PathStep> mine = expandUp ? up : down;
+			HashMap<Long, PathStep> theirs = expandUp ? down : up;
+			int depth = (expandUp ? upDepth : downDepth) + 1;
+
+			cpl_relation_t_vector v = fetchRelationsBatch(
+					expandUp ? upFrontier : downFrontier,
+					expandUp ? D_ANCESTORS : D_DESCENDANTS, typeMask);
+
+			ArrayList<Long> next = new ArrayList<Long>();
+			long meet = nullId;
+			int best = Integer.MAX_VALUE;
+
+			long l = v.size();
+			for (long i = 0; i < l; i++) {
+				cpl_relation_t e = v.get((int) i);
+				long u = e.getQuery_object_id();
+				long w = e.getOther_object_id();
+				if (mine.containsKey(w)) continue;
+
+				mine.put(w, new PathStep(e.getId(), expandUp ? u : w,
+							expandUp ? w : u, e.getType(), depth));
+				next.add(w);
+
+				PathStep o = theirs.get(w);
+				if (o != null && o.depth < best) {
+					best = o.depth;
+					meet = w;
+				}
+			}
+
+			if (expandUp) {
+				upFrontier = next;
+				upDepth = depth;
+			}
+			else {
+				downFrontier = next;
+				downDepth = depth;
+			}
+
+			if (best != Integer.MAX_VALUE) {
+				return buildPath(meet, up, down);
+			}
+		}
+
+		return null;
+	}
+
+
+	/**
+	 * Assemble the path found by a bidirectional search
+	 *
+	 * @param meet the ID of the object where the two searches met
+	 * @param up the steps of the search from the descendant
+	 * @param down the steps of the search from the ancestor
+	 * @return the relations, ordered from the descendant to the ancestor
+	 */
+	private static Vector<CPLRelation> buildPath(long meet,
+			HashMap<Long, PathStep> up, HashMap<Long, PathStep> down) {
+
+		ArrayList<PathStep> steps = new ArrayList<PathStep>();
+		for (PathStep s = up.get(meet); s.depth > 0; s = up.get(s.fromId)) {
+			steps.add(s);
+		}
+		Collections.reverse(steps);
+		for (PathStep s = down.get(meet); s.depth > 0; s = down.get(s.toId)) {
+			steps.add(s);
+		}
+
+		HashMap<Long, CPLObject> objects = new HashMap<Long, CPLObject>();
+		Vector<CPLRelation> path = new Vector<CPLRelation>(steps.size());
+		for (PathStep s : steps) {
+			CPLObject from = objects.get(s.fromId);
+			if (from == null) {
+				from = new CPLObject(s.fromId);
+				objects.put(s.fromId, from);
+			}
+			CPLObject to = objects.get(s.toId);
+			if (to == null) {
+				to = new CPLObject(s.toId);
+				objects.put(s.toId, to);
+			}
+			path.add(new CPLRelation(s.relationId, from, to, s.type, true));
+		}
+		return path;
+	}
+
+
+	/**
+	 * Fetch the immediate ancestors or descendants of several objects
+	 *
+	 * @param ids the object IDs
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param typeMask the relation types to return
+	 * @return the relations
+	 */
+	private static cpl_relation_t_vector fetchRelationsBatch(List<Long> ids,
+			int direction, int typeMask) {
+
+		cpl_id_t_vector v = new cpl_id_t_vector();
+		v.reserve(ids.size());
+		for (Long i : ids) v.add(i);
+
+		cpl_relation_t_vector out = new cpl_relation_t_vector();
+		int r = CPLDirect.cpl_get_relations_batch(v, direction, typeMask, out);
+		CPLException.assertSuccess(r);
+		return out;
+	}
+
+
+	/**
+	 * Find all transitive ancestors or descendants of this object in an
+	 * in-memory snapshot of the graph, expanding each level of the search
+	 * in parallel. This does not access the database, so the result
+	 * reflects the state of the database when the snapshot was loaded.
+	 *
+	 * @param snapshot the graph snapshot
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the relation types to follow, built using
+	 *                 CPLRelation.typeMask(), or CPLRelation.ALL_TYPES
+	 * @return the reached objects, closer ones first
+	 */
+	public CPLObject[] expandParallel(ProvGraphSnapshot snapshot,
+			int direction, int maxDepth, int typeMask) {
+
+		long[] ids = new ProvGraphTraversal(snapshot).expand(id, direction,
+				maxDepth, typeMask);
+
+		CPLObject[] result = new CPLObject[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			result[i] = new CPLObject(ids[i]);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Run a transitive lineage query
+	 *
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the mask of relation types to follow
+	 * @return the relations together with their depths
+	 */
+	private Vector<CPLLineageEntry> getLineage(int direction, int maxDepth,
+			int typeMask) {
+
+		if (maxDepth < 0) {
+			throw new CPLException("The maximum depth cannot be negative",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+
+		CPLLineageCache cache = CPLLineageCache.getInstance();
+		CPLLineageCache.Lineage lineage = null;
+		if (cache != null) {
+			lineage = cache.get(id, direction, maxDepth, typeMask);
+		}
+		if (lineage == null) {
+			long watermark = cache == null ? 0 : cache.getWatermark();
+			lineage = fetchLineage(direction, maxDepth, typeMask);
+			if (cache != null) {
+				cache.put(id, direction, maxDepth, typeMask, lineage,
+						watermark);
+			}
+		}
+
+		boolean ancestors = direction == D_ANCESTORS;
+		int l = lineage.relationIds.length;
+		Vector<CPLLineageEntry> result = new Vector<CPLLineageEntry>(l);
+
+		HashMap<Long, CPLObject> objects = new HashMap<Long, CPLObject>();
+		objects.put(id, this);
+
+		for (int i = 0; i < l; i++) {
+			long baseId = ancestors ? lineage.fromIds[i] : lineage.toIds[i];
+			long otherId = ancestors ? lineage.toIds[i] : lineage.fromIds[i];
+
+			CPLObject base = objects.get(baseId);
+			if (base == null) {
+				base = new CPLObject(baseId);
+				objects.put(baseId, base);
+			}
+			CPLObject other = objects.get(otherId);
+			if (other == null) {
+				other = new CPLObject(otherId);
+				objects.put(otherId, other);
+			}
+
+			result.add(new CPLLineageEntry(new CPLRelation(
+							lineage.relationIds[i], base, other,
+							lineage.types[i], ancestors),
+						lineage.depths[i]));
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Run a transitive lineage query in the database
+	 *
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the relation types to follow
+	 * @return the result as parallel arrays
+	 */
+	private CPLLineageCache.Lineage fetchLineage(int direction, int maxDepth,
+			int typeMask) {
+
+		cpl_id_t_vector relationIds = new cpl_id_t_vector();
+		cpl_id_t_vector fromIds = new cpl_id_t_vector();
+		cpl_id_t_vector toIds = new cpl_id_t_vector();
+		int_vector types = new int_vector();
+		int_vector depths = new int_vector();
+
+		int r = CPLDirect.cpl_get_object_lineage(id, direction, maxDepth,
+				typeMask, relationIds, fromIds, toIds, types, depths);
+		CPLException.assertSuccess(r);
+
+		long size = relationIds.size();
+		int l = (int) size;
+		CPLLineageCache.Lineage lineage = new CPLLineageCache.Lineage(
+				new long[l], new long[l], new long[l], new int[l], new int[l]);
+		for (int i = 0; i < l; i++) {
+			lineage.relationIds[i] = relationIds.get(i);
+			lineage.fromIds[i] = fromIds.get(i);
+			lineage.toIds[i] = toIds.get(i);
+			lineage.types[i] = types.get(i);
+			lineage.depths[i] = depths.get(i);
+		}
+		return lineage;
+	}
+
+
+	/**
+	 * Iterate over the ancestry of the object without loading all of
+	 * the relations into memory at once. The relations are fetched from
+	 * the database in pages and returned in the order of their IDs.
+	 *
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param flags a combination of A_* flags, or 0 for defaults
+	 * @return an iterator over the relations
+	 */
+	public Iterator<CPLRelation> iterateRelations(final int direction,
+			final int flags) {
+
+		if (this.getType() == CPLDirect.CPL_BUNDLE) {
+			throw new CPLException("Cannot get object relations for a bundle", CPLDirect.CPL_E_INVALID_ARGUMENT);
+		}
+
+		return new CPLResultIterator<CPLRelation>(
+				CPLResultIterator.DEFAULT_PAGE_SIZE) {
+
+			@Override
+			protected long fetchPage(long afterId, int limit,
+					List<CPLRelation> out) {
+				return fetchRelationsPage(direction, flags, afterId, limit, out);
+			}
+		};
+	}
+
+
+	/**
+	 * Get a sequential stream of the ancestry of the object. The relations
+	 * are fetched lazily, one page at a time.
+	 *
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param flags a combination of A_* flags, or 0 for defaults
+	 * @return a stream of the relations
+	 */
+	public Stream<CPLRelation> streamRelations(int direction, int flags) {
+		return ((CPLResultIterator<CPLRelation>)
+				iterateRelations(direction, flags)).stream();
+	}
+
+
+	/**
+	 * Fetch one page of the ancestry of the object
+	 *
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param flags a combination of A_* flags, or 0 for defaults
+	 * @param afterId fetch only relations with IDs greater than this one
+	 * @param limit the maximum number of relations to fetch
+	 * @param out the list to append the relations to
+	 * @return the ID of the last fetched relation
+	 */
+	private long fetchRelationsPage(int direction, int flags, long afterId,
+			int limit, List<CPLRelation> out) {
+
+		SWIGTYPE_p_std_vector_cpl_relation_t pVector
+				= CPLDirect.new_std_vector_cpl_relation_tp();
+		SWIGTYPE_p_void pv = CPLDirect
+				.cpl_convert_p_std_vector_cpl_relation_t_to_p_void(pVector);
+		long last = afterId;
+
+		try {
+			int r = CPLDirect.cpl_get_object_relations_page(id, direction,
+					flags, afterId, limit,
+					CPLDirect.cpl_cb_collect_relation_vector, pv);
+			CPLException.assertSuccess(r);
+
+			cpl_relation_t_vector v = CPLDirect
+					.cpl_dereference_p_std_vector_cpl_relation_t(pVector);
+			long l = v.size();
+			for (long i = 0; i < l; i++) {
+				cpl_relation_t e = v.get((int) i);
+				out.add(new CPLRelation(
+						e.getId(),
+						this,
+						new CPLObject(e.getOther_object_id()),
+						e.getType(),
+						direction == D_ANCESTORS));
+				last = e.getId();
+			}
+		}
+		finally {
+			CPLDirect.delete_std_vector_cpl_relation_tp(pVector);
+		}
+
+		return last;
+	}
+
 	/**
 	 * Add a property
 	 *
@@ -652,7 +1468,7 @@ public class CPLObject {
 		long l = v.size();
 		result = new Vector<CPLObject>((int) l);
 		for (long i = 0; i < l; i++) {
-			BigInteger e = v.get((int) i);
+			long e = v.get((int) i);
 			result.add(new CPLObject(e));
 		}
 		return result;
@@ -923,9 +1739,15 @@ public class CPLObject {
 			long l = v.size();
 			for (long i = 0; i < l; i++) {
 				cplxx_object_info_t e = v.get((int) i);
-				BigInteger obj_id = e.getId();
+				long obj_id = e.getId();
 
 				CPLObject o = new CPLObject(obj_id);
+				o.prefix = e.getPrefix();
+				o.name = e.getName();
+				o.type = e.getType();
+				o.creationTime = e.getCreation_time();
+				o.knowCreationInfo = true;
+				CPLObjectCache.offer(o);
 
 				result.add(o);
 			}
@@ -937,6 +1759,32 @@ public class CPLObject {
 		return result;
 	}
 
+	/**
+	 * Get all objects belonging to a bundle in the columnar format
+	 *
+	 * @return the batch of matching objects (empty if not found)
+	 */
+	public CPLObjectBatch getBundleObjectsBatch() {
+		if (this.type != CPLDirect.CPL_BUNDLE) {
+			throw new CPLException("Cannot get bundle objects from non-bundle", CPLDirect.CPL_E_INVALID_ARGUMENT);
+		}
+
+		cplxx_object_columns_t columns = new cplxx_object_columns_t();
+		SWIGTYPE_p_void pv = CPLDirect
+				.cpl_convert_p_cplxx_object_columns_t_to_p_void(columns);
+
+		try {
+			int r = CPLDirect.cpl_get_bundle_objects(id,
+					CPLDirect.cpl_cb_collect_object_columns, pv);
+			CPLException.assertSuccess(r);
+
+			return new CPLObjectBatch(columns);
+		}
+		finally {
+			columns.delete();
+		}
+	}
+
 	/**
 	 * Get all relations belonging to a bundle
 	 *
@@ -978,5 +1826,80 @@ public class CPLObject {
 
 		return result;
 	}
-}
 
+	/**
+	 * Iterate over the relations belonging to a bundle without loading all
+	 * of them into memory at once
+	 *
+	 * @return an iterator over the relations, in the order of their IDs
+	 */
+	public Iterator<CPLRelation> iterateBundleRelations() {
+		if (this.type != CPLDirect.CPL_BUNDLE) {
+			throw new CPLException("Cannot get bundle relation from non-bundle", CPLDirect.CPL_E_INVALID_ARGUMENT);
+		}
+
+		return new CPLResultIterator<CPLRelation>(
+				CPLResultIterator.DEFAULT_PAGE_SIZE) {
+
+			@Override
+			protected long fetchPage(long afterId, int limit,
+					List<CPLRelation> out) {
+				return fetchBundleRelationsPage(afterId, limit, out);
+			}
+		};
+	}
+
+	/**
+	 * Get a sequential stream of the relations belonging to a bundle,
+	 * fetched lazily one page at a time
+	 *
+	 * @return a stream of the relations
+	 */
+	public Stream<CPLRelation> streamBundleRelations() {
+		return ((CPLResultIterator<CPLRelation>)
+				iterateBundleRelations()).stream();
+	}
+
+	/**
+	 * Fetch one page of the relations belonging to a bundle
+	 *
+	 * @param afterId fetch only relations with IDs greater than this one
+	 * @param limit the maximum number of relations to fetch
+	 * @param out the list to append the relations to
+	 * @return the ID of the last fetched relation
+	 */
+	private long fetchBundleRelationsPage(long afterId, int limit,
+			List<CPLRelation> out) {
+
+		SWIGTYPE_p_std_vector_cpl_relation_t pVector
+				= CPLDirect.new_std_vector_cpl_relation_tp();
+		SWIGTYPE_p_void pv = CPLDirect
+				.cpl_convert_p_std_vector_cpl_relation_t_to_p_void(pVector);
+		long last = afterId;
+
+		try {
+			int r = CPLDirect.cpl_get_bundle_relations_page(id, afterId,
+					limit, CPLDirect.cpl_cb_collect_relation_vector, pv);
+			CPLException.assertSuccess(r);
+
+			cpl_relation_t_vector v = CPLDirect
+					.cpl_dereference_p_std_vector_cpl_relation_t(pVector);
+			long l = v.size();
+			for (long i = 0; i < l; i++) {
+				cpl_relation_t e = v.get((int) i);
+				out.add(new CPLRelation(
+						e.getId(),
+						new CPLObject(e.getQuery_object_id()),
+						new CPLObject(e.getOther_object_id()),
+						e.getType(),
+						true));
+				last = e.getId();
+			}
+		}
+		finally {
+			CPLDirect.delete_std_vector_cpl_relation_tp(pVector);
+		}
+
+		return last;
+	}
+}
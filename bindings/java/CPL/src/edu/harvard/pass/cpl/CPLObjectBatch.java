@@ -0,0 +1,306 @@
+package edu.harvard.pass.cpl;
+
+/*
+ * CPLObjectBatch.java
+ * Prov-CPL
+ *
+ * Copyright 2026
+ *      The President and Fellows of Harvard College.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the University nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE UNIVERSITY AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE UNIVERSITY OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ *
+ * Contributor(s): agent
+ */
+
+import swig.direct.CPLDirect.*;
+
+
+/**
+ * A columnar, read-only batch of object information. Rather than one
+ * CPLObject per row, the batch keeps the IDs, types, and creation times in
+ * primitive arrays, and it stores each distinct prefix and name only once
+ * in a dictionary that the rows refer to by index.
+ *
+ * @author agent
+ */
+public class CPLObjectBatch {
+
+	/// The object IDs
+	private final long[] ids;
+
+	/// The object types
+	private final int[] types;
+
+	/// The creation times
+	private final long[] creationTimes;
+
+	/// The indices into the prefix dictionary
+	private final int[] prefixCodes;
+
+	/// The indices into the name dictionary
+	private final int[] nameCodes;
+
+	/// The distinct prefixes
+	private final String[] prefixDictionary;
+
+	/// The distinct names
+	private final String[] nameDictionary;
+
+
+	/**
+	 * Create an instance of CPLObjectBatch from native result columns,
+	 * which cpl_cb_collect_object_columns() fills in a single pass over
+	 * the objects, encoding the prefixes and names as it goes
+	 *
+	 * @param c the columns of object information
+	 */
+	CPLObjectBatch(cplxx_object_columns_t c) {
+
+		cpl_id_t_vector idColumn = c.getIds();
+		int_vector typeColumn = c.getTypes();
+		unsigned_long_vector creationTimeColumn = c.getCreation_times();
+		int_vector prefixCodeColumn = c.getPrefix_codes();
+		int_vector nameCodeColumn = c.getName_codes();
+
+		int l = (int) idColumn.size();
+
+		ids = new long[l];
+		types = new int[l];
+		creationTimes = new long[l];
+		prefixCodes = new int[l];
+		nameCodes = new int[l];
+
+		for (int i = 0; i < l; i++) {
+			ids[i] = idColumn.get(i);
+			types[i] = typeColumn.get(i);
+			creationTimes[i] = creationTimeColumn.get(i);
+			prefixCodes[i] = prefixCodeColumn.get(i);
+			nameCodes[i] = nameCodeColumn.get(i);
+		}
+
+		prefixDictionary = toArray(c.getPrefix_dictionary());
+		nameDictionary = toArray(c.getName_dictionary());
+	}
+
+
+	/**
+	 * Copy a native string dictionary
+	 *
+	 * @param v the vector of distinct strings
+	 * @return the array of strings
+	 */
+	private static String[] toArray(std_string_vector v) {
+		String[] a = new String[(int) v.size()];
+		for (int i = 0; i < a.length; i++) {
+			a[i] = v.get(i);
+		}
+		return a;
+	}
+
+
+	/**
+	 * Get the number of objects in the batch
+	 *
+	 * @return the number of rows
+	 */
+	public int size() {
+		return ids.length;
+	}
+
+
+	/**
+	 * Get the ID of an object
+	 *
+	 * @param row the row index
+	 * @return the object ID
+	 */
+	public long getId(int row) {
+		return ids[row];
+	}
+
+
+	/**
+	 * Get the type of an object
+	 *
+	 * @param row the row index
+	 * @return the object type
+	 */
+	public int getType(int row) {
+		return types[row];
+	}
+
+
+	/**
+	 * Get the creation time of an object
+	 *
+	 * @param row the row index
+	 * @return the creation time
+	 */
+	public long getCreationTime(int row) {
+		return creationTimes[row];
+	}
+
+
+	/**
+	 * Get the namespace prefix of an object
+	 *
+	 * @param row the row index
+	 * @return the prefix
+	 */
+	public String getPrefix(int row) {
+		return prefixDictionary[prefixCodes[row]];
+	}
+
+
+	/**
+	 * Get the name of an object
+	 *
+	 * @param row the row index
+	 * @return the name
+	 */
+	public String getName(int row) {
+		return nameDictionary[nameCodes[row]];
+	}
+
+
+	/**
+	 * Get the code of the prefix of an object, which is its index in
+	 * the prefix dictionary. Rows with equal prefixes have equal codes.
+	 *
+	 * @param row the row index
+	 * @return the prefix code
+	 * @see #getPrefixDictionary()
+	 */
+	public int getPrefixCode(int row) {
+		return prefixCodes[row];
+	}
+
+
+	/**
+	 * Get the code of the name of an object, which is its index in
+	 * the name dictionary
+	 *
+	 * @param row the row index
+	 * @return the name code
+	 * @see #getNameDictionary()
+	 */
+	public int getNameCode(int row) {
+		return nameCodes[row];
+	}
+
+
+	/**
+	 * Get the ID column. The returned array is shared with the batch and
+	 * must not be modified.
+	 *
+	 * @return the object IDs
+	 */
+	public long[] getIds() {
+		return ids;
+	}
+
+
+	/**
+	 * Get the type column. The returned array is shared with the batch and
+	 * must not be modified.
+	 *
+	 * @return the object types
+	 */
+	public int[] getTypes() {
+		return types;
+	}
+
+
+	/**
+	 * Get the creation time column. The returned array is shared with
+	 * the batch and must not be modified.
+	 *
+	 * @return the creation times
+	 */
+	public long[] getCreationTimes() {
+		return creationTimes;
+	}
+
+
+	/**
+	 * Get the prefix code column. The returned array is shared with
+	 * the batch and must not be modified.
+	 *
+	 * @return the prefix codes
+	 */
+	public int[] getPrefixCodes() {
+		return prefixCodes;
+	}
+
+
+	/**
+	 * Get the name code column. The returned array is shared with
+	 * the batch and must not be modified.
+	 *
+	 * @return the name codes
+	 */
+	public int[] getNameCodes() {
+		return nameCodes;
+	}
+
+
+	/**
+	 * Get the distinct prefixes, indexed by the prefix code. The returned
+	 * array is shared with the batch and must not be modified.
+	 *
+	 * @return the prefix dictionary
+	 */
+	public String[] getPrefixDictionary() {
+		return prefixDictionary;
+	}
+
+
+	/**
+	 * Get the distinct names, indexed by the name code. The returned array
+	 * is shared with the batch and must not be modified.
+	 *
+	 * @return the name dictionary
+	 */
+	public String[] getNameDictionary() {
+		return nameDictionary;
+	}
+
+
+	/**
+	 * Create a full object handle for a row
+	 *
+	 * @param row the row index
+	 * @return the object
+	 */
+	public CPLObject getObject(int row) {
+		CPLObject o = new CPLObject(ids[row]);
+		o.prefix = getPrefix(row);
+		o.name = getName(row);
+		o.type = types[row];
+		o.creationTime = creationTimes[row];
+		o.knowCreationInfo = true;
+		return o;
+	}
+}
@@ -0,0 +1,338 @@
+package edu.harvard.pass.cpl;
+
+/*
+ * CPLObjectCache.java
+ * Prov-CPL
+ *
+ * Copyright 2026
+ *      The President and Fellows of Harvard College.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the University nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE UNIVERSITY AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE UNIVERSITY OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ *
+ * Contributor(s): agent
+ */
+
+import swig.direct.CPLDirect.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * A size-bounded cache of object information (prefix, name, type, and
+ * creation time), keyed by the object ID. The cache is disabled by default;
+ * once enabled, it is filled by the bulk object queries in CPLObject and
+ * consulted before fetching the information of a single object from the
+ * database. Objects in CPL are immutable, so cached entries never go stale.
+ *
+ * The entries are spread over independently locked segments by their IDs,
+ * so threads that look up different objects rarely wait for each other.
+ * Each segment evicts its own least recently used entries, which makes the
+ * eviction order across the whole cache approximately LRU.
+ *
+ * @author agent
+ */
+public class CPLObjectCache {
+
+	/// The maximum number of segments
+	static final int MAX_SEGMENTS = 16;
+
+	/// The active cache, or null if caching is disabled
+	private static volatile CPLObjectCache instance = null;
+
+	/// The maximum number of entries
+	private final int capacity;
+
+	/// The segments; the number of segments is a power of two
+	private final Segment[] segments;
+
+	/// The number of cache hits
+	private final AtomicLong hits = new AtomicLong();
+
+	/// The number of cache misses
+	private final AtomicLong misses = new AtomicLong();
+
+	/// The number of evicted entries
+	private final AtomicLong evictions = new AtomicLong();
+
+
+	/**
+	 * The cached information about an object
+	 */
+	private static class Entry {
+
+		final String prefix;
+		final String name;
+		final int type;
+		final long creationTime;
+
+		Entry(String prefix, String name, int type, long creationTime) {
+			this.prefix = prefix;
+			this.name = name;
+			this.type = type;
+			this.creationTime = creationTime;
+		}
+	}
+
+
+	/**
+	 * A part of the cache with its own lock, holding its entries in the
+	 * least-recently-used order
+	 */
+	private final class Segment extends LinkedHashMap<Long, Entry> {
+
+		private static final long serialVersionUID = 1L;
+
+		/// The maximum number of entries in this segment
+		private final int segmentCapacity;
+
+		Segment(int segmentCapacity) {
+			super(16, 0.75f, true);
+			this.segmentCapacity = segmentCapacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Entry> e) {
+			if (size() <= segmentCapacity) return false;
+			evictions.incrementAndGet();
+			return true;
+		}
+	}
+
+
+	/**
+	 * Create an instance of CPLObjectCache
+	 *
+	 * @param capacity the maximum number of entries
+	 */
+	private CPLObjectCache(int capacity) {
+
+		this.capacity = capacity;
+
+		// Use fewer segments for small caches, so that each segment can
+		// hold at least one entry; the segment capacities add up to the
+		// total capacity
+
+		int n = Math.min(MAX_SEGMENTS, Integer.highestOneBit(capacity));
+		this.segments = new Segment[n];
+		for (int i = 0; i < n; i++) {
+			int extra = i < capacity % n ? 1 : 0;
+			segments[i] = new Segment(capacity / n + extra);
+		}
+	}
+
+
+	/**
+	 * Find the segment of an object
+	 *
+	 * @param id the object ID
+	 * @return the segment
+	 */
+	private Segment segmentFor(long id) {
+		int h = (int) (id ^ (id >>> 32));
+		h ^= h >>> 16;
+		return segments[h & (segments.length - 1)];
+	}
+
+
+	/**
+	 * Enable the object cache, replacing (and discarding) the previous
+	 * cache if there is one
+	 *
+	 * @param capacity the maximum number of cached objects
+	 * @return the new cache
+	 */
+	public static CPLObjectCache enable(int capacity) {
+		if (capacity <= 0) {
+			throw new CPLException("The cache capacity must be positive",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+		CPLObjectCache c = new CPLObjectCache(capacity);
+		instance = c;
+		return c;
+	}
+
+
+	/**
+	 * Disable the object cache and discard its contents
+	 */
+	public static void disable() {
+		instance = null;
+	}
+
+
+	/**
+	 * Get the active cache
+	 *
+	 * @return the cache, or null if caching is disabled
+	 */
+	public static CPLObjectCache getInstance() {
+		return instance;
+	}
+
+
+	/**
+	 * Remember the information of an object, if all of it is known
+	 *
+	 * @param o the object
+	 */
+	static void offer(CPLObject o) {
+		CPLObjectCache c = instance;
+		if (c == null) return;
+		if (o.prefix == null || o.name == null || o.type == 0
+				|| !o.knowCreationInfo) return;
+
+		Entry e = new Entry(o.prefix, o.name, o.type, o.creationTime);
+		Segment s = c.segmentFor(o.id);
+		synchronized (s) {
+			s.put(o.id, e);
+		}
+	}
+
+
+	/**
+	 * Fill in the information of an object from the cache
+	 *
+	 * @param o the object
+	 * @return true if the object was found in the cache
+	 */
+	static boolean fill(CPLObject o) {
+		CPLObjectCache c = instance;
+		if (c == null) return false;
+
+		Entry e;
+		Segment s = c.segmentFor(o.id);
+		synchronized (s) {
+			e = s.get(o.id);
+		}
+
+		if (e == null) {
+			c.misses.incrementAndGet();
+			return false;
+		}
+
+		c.hits.incrementAndGet();
+		o.prefix = e.prefix;
+		o.name = e.name;
+		o.type = e.type;
+		o.creationTime = e.creationTime;
+		o.knowCreationInfo = true;
+		return true;
+	}
+
+
+	/**
+	 * Remove all entries from the cache. This does not reset the statistics.
+	 */
+	public void clear() {
+		for (Segment s : segments) {
+			synchronized (s) {
+				s.clear();
+			}
+		}
+	}
+
+
+	/**
+	 * Reset the hit, miss, and eviction counters
+	 */
+	public void resetStatistics() {
+		hits.set(0);
+		misses.set(0);
+		evictions.set(0);
+	}
+
+
+	/**
+	 * Get the maximum number of entries
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+
+	/**
+	 * Get the current number of entries
+	 *
+	 * @return the number of cached objects
+	 */
+	public int size() {
+		int n = 0;
+		for (Segment s : segments) {
+			synchronized (s) {
+				n += s.size();
+			}
+		}
+		return n;
+	}
+
+
+	/**
+	 * Get the number of lookups that were answered from the cache
+	 *
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+
+	/**
+	 * Get the number of lookups that had to go to the database
+	 *
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+
+	/**
+	 * Get the number of entries evicted to stay within the capacity
+	 *
+	 * @return the number of evictions
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+
+	/**
+	 * Return a string representation of the cache statistics
+	 *
+	 * @return the string representation
+	 */
+	@Override
+	public String toString() {
+		return "size: " + size() + "/" + capacity
+			+ "; hits: " + getHits()
+			+ "; misses: " + getMisses()
+			+ "; evictions: " + getEvictions();
+	}
+}
@@ -0,0 +1,322 @@
+package edu.harvard.pass.cpl;
+
+/*
+ * CPLPropertyBatch.java
+ * Prov-CPL
+ *
+ * Copyright 2026
+ *      The President and Fellows of Harvard College.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the University nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE UNIVERSITY AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE UNIVERSITY OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ *
+ * Contributor(s): agent
+ */
+
+import swig.direct.CPLDirect.*;
+
+import java.util.ArrayList;
+import java.util.Locale;
+
+
+/**
+ * A buffer of property writes for any number of objects and relations.
+ * The properties are sent to the database only when the batch is flushed,
+ * using one multi-row insert per table instead of one insert per property.
+ * This class is not thread-safe.
+ *
+ * @author agent
+ */
+public class CPLPropertyBatch implements AutoCloseable {
+
+	/// The default number of buffered properties that triggers a flush
+	public static final int DEFAULT_FLUSH_SIZE = 10000;
+
+	/// The number of buffered properties that triggers a flush, or 0
+	private final int flushSize;
+
+	/// The buffered object properties
+	private final Buffer objectProperties = new Buffer();
+
+	/// The buffered relation properties
+	private final Buffer relationProperties = new Buffer();
+
+
+	/**
+	 * Parallel lists of buffered properties for one table
+	 */
+	private static class Buffer {
+
+		final ArrayList<Long> ids = new ArrayList<Long>();
+		final ArrayList<String> prefixes = new ArrayList<String>();
+		final ArrayList<String> keys = new ArrayList<String>();
+		final ArrayList<String> values = new ArrayList<String>();
+		final ArrayList<Integer> types = new ArrayList<Integer>();
+
+		void add(long id, String prefix, String key, String value, int type) {
+			if (prefix == null || key == null || value == null) {
+				throw new CPLException("The property prefix, key, and value"
+						+ " must not be null",
+						CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+			}
+			ids.add(id);
+			prefixes.add(prefix);
+			keys.add(key);
+			values.add(value);
+			types.add(type);
+		}
+
+		int size() {
+			return ids.size();
+		}
+
+		void clear() {
+			ids.clear();
+			prefixes.clear();
+			keys.clear();
+			values.clear();
+			types.clear();
+		}
+
+		void flush(boolean relations) {
+			int l = ids.size();
+			if (l == 0) return;
+
+			cpl_id_t_vector i = new cpl_id_t_vector();
+			std_string_vector p = new std_string_vector();
+			std_string_vector k = new std_string_vector();
+			std_string_vector v = new std_string_vector();
+			int_vector t = new int_vector();
+			i.reserve(l);
+			p.reserve(l);
+			k.reserve(l);
+			v.reserve(l);
+			t.reserve(l);
+
+			for (int j = 0; j < l; j++) {
+				i.add(ids.get(j));
+				p.add(prefixes.get(j));
+				k.add(keys.get(j));
+				v.add(values.get(j));
+				t.add(types.get(j));
+			}
+
+			int r = relations
+				? CPLDirect.cpl_add_relation_properties(i, p, k, v, t)
+				: CPLDirect.cpl_add_object_properties(i, p, k, v, t);
+			CPLException.assertSuccess(r);
+
+			clear();
+		}
+	}
+
+
+	/**
+	 * Create an instance of CPLPropertyBatch that flushes automatically
+	 * every DEFAULT_FLUSH_SIZE properties
+	 */
+	public CPLPropertyBatch() {
+		this(DEFAULT_FLUSH_SIZE);
+	}
+
+
+	/**
+	 * Create an instance of CPLPropertyBatch
+	 *
+	 * @param flushSize the number of buffered properties that triggers
+	 *                  an automatic flush, or 0 to flush only on request
+	 */
+	public CPLPropertyBatch(int flushSize) {
+		if (flushSize < 0) {
+			throw new CPLException("The flush size must not be negative",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+		this.flushSize = flushSize;
+	}
+
+
+	/**
+	 * Format a numerical value the same way as the C library does
+	 *
+	 * @param value the value
+	 * @return the string representation
+	 */
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%f", value);
+	}
+
+
+	/**
+	 * Format a boolean value the same way as the C library does
+	 *
+	 * @param value the value
+	 * @return the string representation
+	 */
+	private static String format(boolean value) {
+		return value ? "1" : "0";
+	}
+
+
+	/**
+	 * Flush the batch if it reached the flush size
+	 */
+	private void checkFlush() {
+		if (flushSize > 0 && size() >= flushSize) flush();
+	}
+
+
+	/**
+	 * Add a string property of an object
+	 *
+	 * @param object the object
+	 * @param prefix the prefix
+	 * @param key the key
+	 * @param value the value
+	 */
+	public void addStringProperty(CPLObject object, String prefix,
+			String key, String value) {
+		objectProperties.add(object.getLongId(), prefix, key, value,
+				CPLDirectConstants.STRINGPROPERTY);
+		checkFlush();
+	}
+
+
+	/**
+	 * Add a numerical property of an object
+	 *
+	 * @param object the object
+	 * @param prefix the prefix
+	 * @param key the key
+	 * @param value the value
+	 */
+	public void addNumericalProperty(CPLObject object, String prefix,
+			String key, double value) {
+		objectProperties.add(object.getLongId(), prefix, key, format(value),
+				CPLDirectConstants.NUMERICALPROPERTY);
+		checkFlush();
+	}
+
+
+	/**
+	 * Add a boolean property of an object
+	 *
+	 * @param object the object
+	 * @param prefix the prefix
+	 * @param key the key
+	 * @param value the value
+	 */
+	public void addBooleanProperty(CPLObject object, String prefix,
+			String key, boolean value) {
+		objectProperties.add(object.getLongId(), prefix, key, format(value),
+				CPLDirectConstants.BOOLEANPROPERTY);
+		checkFlush();
+	}
+
+
+	/**
+	 * Add a string property of a relation
+	 *
+	 * @param relation the relation
+	 * @param prefix the prefix
+	 * @param key the key
+	 * @param value the value
+	 */
+	public void addStringProperty(CPLRelation relation, String prefix,
+			String key, String value) {
+		relationProperties.add(relation.getLongId(), prefix, key, value,
+				CPLDirectConstants.STRINGPROPERTY);
+		checkFlush();
+	}
+
+
+	/**
+	 * Add a numerical property of a relation
+	 *
+	 * @param relation the relation
+	 * @param prefix the prefix
+	 * @param key the key
+	 * @param value the value
+	 */
+	public void addNumericalProperty(CPLRelation relation, String prefix,
+			String key, double value) {
+		relationProperties.add(relation.getLongId(), prefix, key,
+				format(value), CPLDirectConstants.NUMERICALPROPERTY);
+		checkFlush();
+	}
+
+
+	/**
+	 * Add a boolean property of a relation
+	 *
+	 * @param relation the relation
+	 * @param prefix the prefix
+	 * @param key the key
+	 * @param value the value
+	 */
+	public void addBooleanProperty(CPLRelation relation, String prefix,
+			String key, boolean value) {
+		relationProperties.add(relation.getLongId(), prefix, key,
+				format(value), CPLDirectConstants.BOOLEANPROPERTY);
+		checkFlush();
+	}
+
+
+	/**
+	 * Get the number of buffered properties
+	 *
+	 * @return the number of properties not yet written to the database
+	 */
+	public int size() {
+		return objectProperties.size() + relationProperties.size();
+	}
+
+
+	/**
+	 * Write all buffered properties to the database. If this fails, the
+	 * properties stay in the buffer; flushing again is safe, since
+	 * the database ignores properties that were already stored.
+	 */
+	public void flush() {
+		objectProperties.flush(false);
+		relationProperties.flush(true);
+	}
+
+
+	/**
+	 * Discard all buffered properties without writing them
+	 */
+	public void clear() {
+		objectProperties.clear();
+		relationProperties.clear();
+	}
+
+
+	/**
+	 * Flush the batch
+	 */
+	@Override
+	public void close() {
+		flush();
+	}
+}
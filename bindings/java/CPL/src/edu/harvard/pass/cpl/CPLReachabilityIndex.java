@@ -0,0 +1,543 @@
+package edu.harvard.pass.cpl;
+
+/*
+ * CPLReachabilityIndex.java
+ * Prov-CPL
+ *
+ * Copyright 2026
+ *      The President and Fellows of Harvard College.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the University nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE UNIVERSITY AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE UNIVERSITY OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ *
+ * Contributor(s): agent
+ */
+
+import swig.direct.CPLDirect.*;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Random;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+
+/**
+ * An index that answers "is X an ancestor of Y" without a full traversal.
+ * Each object gets LABEL_COUNT interval labels, one for each randomized
+ * depth-first numbering of the graph: the interval of an object spans the
+ * numbers of all objects it can reach through ancestor relations. If the
+ * interval of X is not contained in the interval of Y, X cannot be an
+ * ancestor of Y, which settles most negative queries immediately. The
+ * remaining queries run a depth-first search from Y that skips every
+ * object whose intervals do not contain those of X.
+ *
+ * The index is built from a ProvGraphSnapshot. Relations created later
+ * through CPLRelation in this process are added to the index as they are
+ * created, by widening the intervals of the new relation's source and of
+ * all its descendants. Relations created by other processes are not seen
+ * until the index is rebuilt.
+ *
+ * The index is disabled by default; once enabled, CPLObject.isAncestorOf()
+ * uses it instead of querying the database.
+ *
+ * @author agent
+ */
+public class CPLReachabilityIndex {
+
+	/// The number of interval labels per object
+	static final int LABEL_COUNT = 2;
+
+	/// The active index, or null if the index is disabled
+	private static volatile CPLReachabilityIndex instance = null;
+
+	/// The snapshot the index was built from
+	private final ProvGraphSnapshot base;
+
+	/// The lock that protects the labels and the added relations
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/// The number of nodes, including those added after the build
+	private int nodeCount;
+
+	/// The node indices of objects that are not in the snapshot
+	private final HashMap<Long, Integer> addedNodes
+		= new HashMap<Long, Integer>();
+
+	/// The lower ends of the intervals, one array per label
+	private final int[][] low;
+
+	/// The upper ends of the intervals, one array per label
+	private final int[][] high;
+
+	/// The next unused number, one per label
+	private final int[] nextNumber;
+
+	/// The ancestors reachable through relations added after the build
+	private final HashMap<Integer, int[]> addedAncestors
+		= new HashMap<Integer, int[]>();
+
+	/// The descendants reachable through relations added after the build
+	private final HashMap<Integer, int[]> addedDescendants
+		= new HashMap<Integer, int[]>();
+
+
+	/**
+	 * Create an instance of CPLReachabilityIndex
+	 *
+	 * @param base the graph snapshot
+	 */
+	private CPLReachabilityIndex(ProvGraphSnapshot base) {
+
+		this.base = base;
+		this.nodeCount = base.getNodeCount();
+		this.low = new int[LABEL_COUNT][];
+		this.high = new int[LABEL_COUNT][];
+		this.nextNumber = new int[LABEL_COUNT];
+
+		for (int i = 0; i < LABEL_COUNT; i++) {
+			low[i] = new int[nodeCount];
+			high[i] = new int[nodeCount];
+			label(i, new Random(i));
+			nextNumber[i] = nodeCount;
+		}
+	}
+
+
+	/**
+	 * Enable the index over all relations in the database, replacing the
+	 * previous index if there is one
+	 *
+	 * @return the new index
+	 */
+	public static CPLReachabilityIndex enable() {
+		return enable(ProvGraphSnapshot.load());
+	}
+
+
+	/**
+	 * Enable the index over the relations in a snapshot, replacing the
+	 * previous index if there is one
+	 *
+	 * @param snapshot the graph snapshot
+	 * @return the new index
+	 */
+	public static CPLReachabilityIndex enable(ProvGraphSnapshot snapshot) {
+		CPLReachabilityIndex index = new CPLReachabilityIndex(snapshot);
+		instance = index;
+		return index;
+	}
+
+
+	/**
+	 * Disable the index and discard it
+	 */
+	public static void disable() {
+		instance = null;
+	}
+
+
+	/**
+	 * Get the active index
+	 *
+	 * @return the index, or null if it is disabled
+	 */
+	public static CPLReachabilityIndex getInstance() {
+		return instance;
+	}
+
+
+	/**
+	 * Add a relation created in this process to the active index
+	 *
+	 * @param fromId the source object ID (the descendant)
+	 * @param toId the destination object ID (the ancestor)
+	 * @param type the relation type
+	 */
+	static void relationAdded(long fromId, long toId, int type) {
+		CPLReachabilityIndex index = instance;
+		if (index == null) return;
+		if (type == CPLDirectConstants.BUNDLERELATION) return;
+		index.addRelation(fromId, toId);
+	}
+
+
+	/**
+	 * Get the number of indexed objects
+	 *
+	 * @return the number of objects
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return nodeCount;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Determine whether one object is a transitive ancestor of another
+	 *
+	 * @param ancestorId the ID of the candidate ancestor
+	 * @param descendantId the ID of the candidate descendant
+	 * @return true if the descendant depends on the ancestor through
+	 *         a chain of one or more relations
+	 */
+	public boolean isAncestor(long ancestorId, long descendantId) {
+
+		lock.readLock().lock();
+		try {
+			int a = nodeIndex(ancestorId);
+			int d = nodeIndex(descendantId);
+			if (a < 0 || d < 0) return false;
+			if (!contains(d, a)) return false;
+
+
+			// Search from the descendant, entering only the objects whose
+			// intervals could still contain the ancestor
+
+			BitSet visited = new BitSet();
+			visited.set(d);
+			int[] stack = new int[16];
+			stack[0] = d;
+			int top = 1;
+
+			while (top > 0) {
+				int u = stack[--top];
+
+				int start = 0;
+				int end = 0;
+				if (u < base.getNodeCount()) {
+					start = base.edgeStart(CPLObject.D_ANCESTORS, u);
+					end = base.edgeEnd(CPLObject.D_ANCESTORS, u);
+				}
+				int[] added = addedAncestors.get(u);
+				int n = end - start + (added == null ? 0 : added.length);
+
+				for (int k = 0; k < n; k++) {
+					int v = k < end - start
+						? base.edgeTarget(CPLObject.D_ANCESTORS, start + k)
+						: added[k - (end - start)];
+					if (v == a) return true;
+					if (visited.get(v) || !contains(v, a)) continue;
+					visited.set(v);
+					if (top == stack.length) {
+						stack = Arrays.copyOf(stack, top * 2);
+					}
+					stack[top++] = v;
+				}
+			}
+
+			return false;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Compute one label by a depth-first numbering that starts from
+	 * the objects in a random order. The intervals computed in the same
+	 * pass are exact for acyclic graphs; relations that close a cycle are
+	 * fixed up afterwards.
+	 *
+	 * @param i the label number
+	 * @param random the random number generator
+	 */
+	private void label(int i, Random random) {
+
+		int n = nodeCount;
+		int[] lo = low[i];
+		int[] hi = high[i];
+		Arrays.fill(lo, Integer.MAX_VALUE);
+		Arrays.fill(hi, Integer.MIN_VALUE);
+
+		int[] order = new int[n];
+		for (int u = 0; u < n; u++) order[u] = u;
+		for (int u = n - 1; u > 0; u--) {
+			int j = random.nextInt(u + 1);
+			int t = order[u];
+			order[u] = order[j];
+			order[j] = t;
+		}
+
+		boolean reverse = (i & 1) != 0;
+		BitSet started = new BitSet(n);
+		int[] nodes = new int[64];
+		int[] cursors = new int[64];
+		int number = 0;
+
+		for (int root : order) {
+			if (started.get(root)) continue;
+			started.set(root);
+			nodes[0] = root;
+			cursors[0] = 0;
+			int top = 1;
+
+			while (top > 0) {
+				int u = nodes[top - 1];
+				int start = base.edgeStart(CPLObject.D_ANCESTORS, u);
+				int end = base.edgeEnd(CPLObject.D_ANCESTORS, u);
+				int c = cursors[top - 1]++;
+
+				if (c < end - start) {
+					int v = base.edgeTarget(CPLObject.D_ANCESTORS,
+							reverse ? end - 1 - c : start + c);
+					if (started.get(v)) continue;
+					started.set(v);
+					if (top == nodes.length) {
+						nodes = Arrays.copyOf(nodes, top * 2);
+						cursors = Arrays.copyOf(cursors, top * 2);
+					}
+					nodes[top] = v;
+					cursors[top] = 0;
+					top++;
+					continue;
+				}
+
+				// All ancestors of u were visited: number u and take the
+				// union of its ancestors' intervals (those still on the
+				// stack are not final yet and are skipped)
+
+				top--;
+				int l = number;
+				int h = number;
+				number++;
+				for (int k = start; k < end; k++) {
+					int v = base.edgeTarget(CPLObject.D_ANCESTORS, k);
+					if (lo[v] < l) l = lo[v];
+					if (hi[v] > h) h = hi[v];
+				}
+				lo[u] = l;
+				hi[u] = h;
+			}
+		}
+
+
+		// Propagate the intervals across the relations that close cycles
+
+		int[] queue = new int[16];
+		int size = 0;
+		for (int u = 0; u < n; u++) {
+			int end = base.edgeEnd(CPLObject.D_ANCESTORS, u);
+			boolean changed = false;
+			for (int k = base.edgeStart(CPLObject.D_ANCESTORS, u); k < end; k++) {
+				if (widen(i, u, base.edgeTarget(CPLObject.D_ANCESTORS, k))) {
+					changed = true;
+				}
+			}
+			if (changed) {
+				if (size == queue.length) queue = Arrays.copyOf(queue, size * 2);
+				queue[size++] = u;
+			}
+		}
+		propagate(i, queue, size);
+	}
+
+
+	/**
+	 * Add a relation to the index
+	 *
+	 * @param fromId the source object ID (the descendant)
+	 * @param toId the destination object ID (the ancestor)
+	 */
+	private void addRelation(long fromId, long toId) {
+
+		lock.writeLock().lock();
+		try {
+			int u = nodeIndexOrAdd(fromId);
+			int v = nodeIndexOrAdd(toId);
+
+			append(addedAncestors, u, v);
+			append(addedDescendants, v, u);
+
+			for (int i = 0; i < LABEL_COUNT; i++) {
+				if (widen(i, u, v)) propagate(i, new int[] { u }, 1);
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Widen the interval of a node to cover that of one of its ancestors
+	 *
+	 * @param i the label number
+	 * @param u the node
+	 * @param v the ancestor
+	 * @return true if the interval of u changed
+	 */
+	private boolean widen(int i, int u, int v) {
+		boolean changed = false;
+		if (low[i][v] < low[i][u]) {
+			low[i][u] = low[i][v];
+			changed = true;
+		}
+		if (high[i][v] > high[i][u]) {
+			high[i][u] = high[i][v];
+			changed = true;
+		}
+		return changed;
+	}
+
+
+	/**
+	 * Push widened intervals down to the descendants, until nothing changes
+	 *
+	 * @param i the label number
+	 * @param queue the nodes whose intervals have changed
+	 * @param size the number of nodes in the queue
+	 */
+	private void propagate(int i, int[] queue, int size) {
+
+		while (size > 0) {
+			int v = queue[--size];
+
+			int start = 0;
+			int end = 0;
+			if (v < base.getNodeCount()) {
+				start = base.edgeStart(CPLObject.D_DESCENDANTS, v);
+				end = base.edgeEnd(CPLObject.D_DESCENDANTS, v);
+			}
+			int[] added = addedDescendants.get(v);
+			int n = end - start + (added == null ? 0 : added.length);
+
+			for (int k = 0; k < n; k++) {
+				int u = k < end - start
+					? base.edgeTarget(CPLObject.D_DESCENDANTS, start + k)
+					: added[k - (end - start)];
+				if (!widen(i, u, v)) continue;
+				if (size == queue.length) {
+					queue = Arrays.copyOf(queue, Math.max(16, size * 2));
+				}
+				queue[size++] = u;
+			}
+		}
+	}
+
+
+	/**
+	 * Determine whether the intervals of a node contain those of another
+	 *
+	 * @param u the node that might reach v
+	 * @param v the other node
+	 * @return false if u certainly cannot reach v
+	 */
+	private boolean contains(int u, int v) {
+		for (int i = 0; i < LABEL_COUNT; i++) {
+			if (low[i][v] < low[i][u] || high[i][v] > high[i][u]) return false;
+		}
+		return true;
+	}
+
+
+	/**
+	 * Find the node index of an object
+	 *
+	 * @param objectId the object ID
+	 * @return the node index, or -1 if the object is not indexed
+	 */
+	private int nodeIndex(long objectId) {
+		int u = base.nodeIndex(objectId);
+		if (u >= 0) return u;
+		Integer a = addedNodes.get(objectId);
+		return a == null ? -1 : a;
+	}
+
+
+	/**
+	 * Find the node index of an object, adding the object if necessary.
+	 * A new object gets fresh numbers, so its intervals contain only itself.
+	 *
+	 * @param objectId the object ID
+	 * @return the node index
+	 */
+	private int nodeIndexOrAdd(long objectId) {
+
+		int u = nodeIndex(objectId);
+		if (u >= 0) return u;
+
+		u = nodeCount++;
+		addedNodes.put(objectId, u);
+
+		for (int i = 0; i < LABEL_COUNT; i++) {
+			if (u == low[i].length) {
+				int c = Math.max(16, u * 2);
+				low[i] = Arrays.copyOf(low[i], c);
+				high[i] = Arrays.copyOf(high[i], c);
+			}
+			low[i][u] = nextNumber[i];
+			high[i][u] = nextNumber[i];
+			nextNumber[i]++;
+		}
+
+		return u;
+	}
+
+
+	/**
+	 * Append a node to an adjacency list
+	 *
+	 * @param lists the adjacency lists
+	 * @param u the node that owns the list
+	 * @param v the node to append
+	 */
+	private static void append(HashMap<Integer, int[]> lists, int u, int v) {
+		int[] l = lists.get(u);
+		if (l == null) {
+			lists.put(u, new int[] { v });
+		}
+		else {
+			l = Arrays.copyOf(l, l.length + 1);
+			l[l.length - 1] = v;
+			lists.put(u, l);
+		}
+	}
+
+
+	/**
+	 * Return a string representation of the index
+	 *
+	 * @return the string representation
+	 */
+	@Override
+	public String toString() {
+		lock.readLock().lock();
+		try {
+			return "objects: " + nodeCount
+				+ "; added objects: " + addedNodes.size()
+				+ "; labels: " + LABEL_COUNT;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+}
@@ -67,8 +67,11 @@ public class CPLRelation {
 	public static final int ACTEDONBEHALFOF			= CPLDirectConstants.ACTEDONBEHALFOF;
 	public static final int WASINFLUENCEDBY			= CPLDirectConstants.WASINFLUENCEDBY;
 
+	/// The relation type mask that selects all relation types
+	public static final int ALL_TYPES = CPLDirectConstants.CPL_R_ALL_TYPES;
+
 	/// The null object
-	private static BigInteger nullId = BigInteger.ZERO;
+	private static final long nullId = 0;
 
 	/// The queried object
 	private CPLObject base;
@@ -83,7 +86,7 @@ public class CPLRelation {
 	private boolean otherIsAncestor;
 
 	/// The internal object ID
-	BigInteger id;
+	long id;
 
 	/**
 	 * Create an instance of CPLRelation
@@ -94,7 +97,7 @@ public class CPLRelation {
 	 * @param type the dependency type
 	 * @param otherIsAncestor the dependency direction
 	 */
-	CPLRelation(BigInteger id, CPLObject base, CPLObject other,
+	CPLRelation(long id, CPLObject base, CPLObject other,
 			int type, boolean otherIsAncestor) {
 
 		this.id = id;
@@ -104,16 +107,29 @@ public class CPLRelation {
 		this.otherIsAncestor = otherIsAncestor;
 	}
 
-	CPLRelation(BigInteger id){
+	CPLRelation(long id){
 		this.id = id;
 	}
 
+	/**
+	 * Create an instance of CPLRelation from its ID
+	 *
+	 * @param id the internal CPL relation ID
+	 */
+	CPLRelation(BigInteger id){
+		this(id.longValue());
+	}
+
 	// TODO dest == null case
 	public static CPLRelation create(CPLObject source, CPLObject dest, int type){
 
-		BigInteger[] id = {nullId};
-		int r = CPLDirect.cpl_add_relation(source.getId(), dest.getId(), type, id);
+		long[] id = {nullId};
+		int r = CPLDirect.cpl_add_relation(source.getLongId(), dest.getLongId(), type, id);
 		CPLException.assertSuccess(r);
+		CPLReachabilityIndex.relationAdded(source.getLongId(),
+				dest.getLongId(), type);
+		CPLRelationCache.relationAdded(id[0], source.getLongId(),
+				dest.getLongId(), type);
 
 		CPLRelation a = new CPLRelation(id[0]);
 		a.base = source;
@@ -124,6 +140,121 @@ public class CPLRelation {
 		return a;
 	}
 
+	/**
+	 * Create many relations at once. The three arrays are parallel: the i-th
+	 * relation goes from sources[i] to dests[i] and has type types[i].
+	 * This is not atomic: if the call fails, some of the relations may
+	 * already have been created.
+	 *
+	 * @param sources the source objects
+	 * @param dests the destination objects
+	 * @param types the relation types
+	 * @return the new relations, in the input order
+	 */
+	public static CPLRelation[] createAll(CPLObject[] sources,
+			CPLObject[] dests, int[] types) {
+
+		if (sources.length != dests.length || sources.length != types.length) {
+			throw new CPLException("The arrays must have the same length",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+
+		long[] fromIds = new long[sources.length];
+		long[] toIds = new long[sources.length];
+		for (int i = 0; i < sources.length; i++) {
+			fromIds[i] = sources[i].getLongId();
+			toIds[i] = dests[i].getLongId();
+		}
+
+		long[] ids = addAll(fromIds, toIds, types);
+
+		CPLRelation[] result = new CPLRelation[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			result[i] = new CPLRelation(ids[i], sources[i], dests[i],
+					types[i], false);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Create many relations at once from parallel arrays of object IDs.
+	 * Like createAll(CPLObject[], CPLObject[], int[]), this is not atomic.
+	 *
+	 * @param fromIds the source object IDs
+	 * @param toIds the destination object IDs
+	 * @param types the relation types
+	 * @return the new relations, in the input order
+	 */
+	public static CPLRelation[] createAll(long[] fromIds, long[] toIds,
+			int[] types) {
+
+		if (fromIds.length != toIds.length || fromIds.length != types.length) {
+			throw new CPLException("The arrays must have the same length",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+
+		long[] ids = addAll(fromIds, toIds, types);
+
+		CPLRelation[] result = new CPLRelation[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			result[i] = new CPLRelation(ids[i], new CPLObject(fromIds[i]),
+					new CPLObject(toIds[i]), types[i], false);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Insert the relations described by parallel arrays
+	 *
+	 * @param fromIds the source object IDs
+	 * @param toIds the destination object IDs
+	 * @param types the relation types
+	 * @return the IDs of the new relations
+	 */
+	private static long[] addAll(long[] fromIds, long[] toIds, int[] types) {
+
+		cpl_id_t_vector from = new cpl_id_t_vector();
+		cpl_id_t_vector to = new cpl_id_t_vector();
+		int_vector t = new int_vector();
+		from.reserve(fromIds.length);
+		to.reserve(fromIds.length);
+		t.reserve(fromIds.length);
+
+		for (int i = 0; i < fromIds.length; i++) {
+			from.add(fromIds[i]);
+			to.add(toIds[i]);
+			t.add(types[i]);
+		}
+
+		cpl_id_t_vector out = new cpl_id_t_vector();
+		int r = CPLDirect.cpl_add_relations(from, to, t, out);
+		CPLException.assertSuccess(r);
+
+		long[] ids = new long[fromIds.length];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = out.get(i);
+			CPLReachabilityIndex.relationAdded(fromIds[i], toIds[i], types[i]);
+			CPLRelationCache.relationAdded(ids[i], fromIds[i], toIds[i],
+					types[i]);
+		}
+		return ids;
+	}
+
+	/**
+	 * Build a relation type mask that selects the given relation types,
+	 * for use with the lineage queries in CPLObject
+	 *
+	 * @param types the relation types (such as USED or WASGENERATEDBY)
+	 * @return the mask
+	 */
+	public static int typeMask(int... types) {
+		int mask = 0;
+		for (int t : types) mask |= 1 << t;
+		return mask;
+	}
+
 	/**
 	 * Determine whether this and the other object are equal
 	 *
@@ -134,7 +265,7 @@ public class CPLRelation {
 	public boolean equals(Object other) {
 		if (other instanceof CPLRelation) {
 			CPLRelation o = (CPLRelation) other;
-			return o.id.equals(this.id);
+			return o.id == this.id;
 		}
 		else {
 			return false;
@@ -148,7 +279,7 @@ public class CPLRelation {
 	 */
 	@Override
 	public int hashCode() {
-		return id.hashCode();
+		return (int) (id ^ (id >>> 32));
 	}
 
 
@@ -159,7 +290,7 @@ public class CPLRelation {
 	 */
 	@Override
 	public String toString() {
-		String id = this.id.toString(16);
+		String id = Long.toHexString(this.id);
 		String arrow = otherIsAncestor ? " --> " : " <-- ";
 		return "" + base + arrow + other
 			 + " [type: " + Integer.toHexString(type) + "; id: " + id + "]";
@@ -191,6 +322,15 @@ public class CPLRelation {
 	 * @return the internal ID of this relation
 	 */
 	public BigInteger getId() {
+		return BigInteger.valueOf(id);
+	}
+
+	/**
+	 * Get the ID of the relation without boxing it into a BigInteger
+	 *
+	 * @return the internal ID of this relation
+	 */
+	public long getLongId() {
 		return id;
 	}
 
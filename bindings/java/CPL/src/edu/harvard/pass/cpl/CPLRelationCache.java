@@ -0,0 +1,424 @@
+package edu.harvard.pass.cpl;
+
+/*
+ * CPLRelationCache.java
+ * Prov-CPL
+ *
+ * Copyright 2026
+ *      The President and Fellows of Harvard College.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the University nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE UNIVERSITY AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE UNIVERSITY OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ *
+ * Contributor(s): agent
+ */
+
+import swig.direct.CPLDirect.*;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Vector;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * A process-local cache of the immediate relations of objects, as returned
+ * by CPLObject.getRelations(), keyed by the object ID and the direction.
+ * The cache is disabled by default. Its size is bounded by the total number
+ * of cached relations, and the least recently used entries are evicted
+ * first.
+ *
+ * Relations created through CPLRelation in this JVM are written through to
+ * the cached entries of both of their ends. Relations created by other
+ * processes are not seen until their entries are evicted or the cache is
+ * cleared.
+ *
+ * @author agent
+ */
+public class CPLRelationCache {
+
+	/// The active cache, or null if caching is disabled
+	private static volatile CPLRelationCache instance = null;
+
+	/// The maximum total number of cached relations
+	private final long capacity;
+
+	/// The total number of cached relations
+	private long size = 0;
+
+	/// The entries, in the least-recently-used order
+	private final LinkedHashMap<Key, Entry> entries;
+
+	/// Incremented on every write-through, so that a query that raced with
+	/// a new relation does not cache its (possibly stale) result
+	private long version = 0;
+
+	/// The number of cache hits
+	private final AtomicLong hits = new AtomicLong();
+
+	/// The number of cache misses
+	private final AtomicLong misses = new AtomicLong();
+
+	/// The number of evicted entries
+	private final AtomicLong evictions = new AtomicLong();
+
+
+	/**
+	 * The cache key: an object ID and a direction
+	 */
+	private static final class Key {
+
+		final long id;
+		final int direction;
+
+		Key(long id, int direction) {
+			this.id = id;
+			this.direction = direction;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Key)) return false;
+			Key k = (Key) other;
+			return id == k.id && direction == k.direction;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (id ^ (id >>> 32)) * 31 + direction;
+		}
+	}
+
+
+	/**
+	 * The relations of an object in one direction, as parallel arrays
+	 */
+	private static class Entry {
+
+		final long[] relationIds;
+		final long[] otherIds;
+		final int[] types;
+
+		Entry(long[] relationIds, long[] otherIds, int[] types) {
+			this.relationIds = relationIds;
+			this.otherIds = otherIds;
+			this.types = types;
+		}
+
+		/**
+		 * Create a copy of the entry with one more relation
+		 *
+		 * @param relationId the relation ID
+		 * @param otherId the ID of the other object
+		 * @param type the relation type
+		 * @return the new entry
+		 */
+		Entry append(long relationId, long otherId, int type) {
+			int n = relationIds.length;
+			Entry e = new Entry(Arrays.copyOf(relationIds, n + 1),
+					Arrays.copyOf(otherIds, n + 1), Arrays.copyOf(types, n + 1));
+			e.relationIds[n] = relationId;
+			e.otherIds[n] = otherId;
+			e.types[n] = type;
+			return e;
+		}
+	}
+
+
+	/**
+	 * Create an instance of CPLRelationCache
+	 *
+	 * @param capacity the maximum total number of cached relations
+	 */
+	private CPLRelationCache(long capacity) {
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+	}
+
+
+	/**
+	 * Enable the relation cache, replacing (and discarding) the previous
+	 * cache if there is one
+	 *
+	 * @param capacity the maximum total number of cached relations
+	 * @return the new cache
+	 */
+	public static CPLRelationCache enable(long capacity) {
+		if (capacity <= 0) {
+			throw new CPLException("The cache capacity must be positive",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+		CPLRelationCache c = new CPLRelationCache(capacity);
+		instance = c;
+		return c;
+	}
+
+
+	/**
+	 * Disable the relation cache and discard its contents
+	 */
+	public static void disable() {
+		instance = null;
+	}
+
+
+	/**
+	 * Get the active cache
+	 *
+	 * @return the cache, or null if caching is disabled
+	 */
+	public static CPLRelationCache getInstance() {
+		return instance;
+	}
+
+
+	/**
+	 * Get the current version, to be passed to put() after the query
+	 *
+	 * @return the version
+	 */
+	synchronized long getVersion() {
+		return version;
+	}
+
+
+	/**
+	 * Look up the relations of an object
+	 *
+	 * @param base the object
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param typeMask the relation types to return, or CPLRelation.ALL_TYPES
+	 * @return the relations, or null if they are not cached
+	 */
+	Vector<CPLRelation> get(CPLObject base, int direction, int typeMask) {
+
+		Entry e;
+		synchronized (this) {
+			e = entries.get(new Key(base.getLongId(), direction));
+		}
+
+		if (e == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+
+		Vector<CPLRelation> result
+			= new Vector<CPLRelation>(e.relationIds.length);
+		for (int i = 0; i < e.relationIds.length; i++) {
+			if (!ProvGraphSnapshot.follows(typeMask, e.types[i])) continue;
+			result.add(new CPLRelation(e.relationIds[i], base,
+					new CPLObject(e.otherIds[i]), e.types[i],
+					direction == CPLObject.D_ANCESTORS));
+		}
+		return result;
+	}
+
+
+	/**
+	 * Cache the complete list of relations of an object, unless a relation
+	 * was created since the query started
+	 *
+	 * @param id the object ID
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param relations all relations of the object in that direction
+	 * @param queryVersion the result of getVersion() before the query
+	 */
+	void put(long id, int direction, Vector<CPLRelation> relations,
+			long queryVersion) {
+
+		int n = relations.size();
+		if (n > capacity) return;
+
+		Entry e = new Entry(new long[n], new long[n], new int[n]);
+		for (int i = 0; i < n; i++) {
+			CPLRelation r = relations.get(i);
+			CPLObject other = r.isOtherAncestor()
+				? r.getAncestor() : r.getDescendant();
+			e.relationIds[i] = r.getLongId();
+			e.otherIds[i] = other.getLongId();
+			e.types[i] = r.getType();
+		}
+
+		synchronized (this) {
+			if (version != queryVersion) return;
+			replace(new Key(id, direction), e);
+			evict();
+		}
+	}
+
+
+	/**
+	 * Replace an entry, keeping the size up to date
+	 *
+	 * @param key the key
+	 * @param e the new entry
+	 */
+	private void replace(Key key, Entry e) {
+		Entry old = entries.put(key, e);
+		if (old != null) size -= old.relationIds.length;
+		size += e.relationIds.length;
+	}
+
+
+	/**
+	 * Evict the least recently used entries until the cache fits
+	 */
+	private void evict() {
+		Iterator<Entry> i = entries.values().iterator();
+		while (size > capacity && i.hasNext()) {
+			size -= i.next().relationIds.length;
+			i.remove();
+			evictions.incrementAndGet();
+		}
+	}
+
+
+	/**
+	 * Add a new relation to the cached entries of both of its ends
+	 *
+	 * @param relationId the relation ID
+	 * @param fromId the source object ID
+	 * @param toId the destination object ID
+	 * @param type the relation type
+	 */
+	static void relationAdded(long relationId, long fromId, long toId,
+			int type) {
+
+		CPLRelationCache c = instance;
+		if (c == null) return;
+
+		synchronized (c) {
+			c.version++;
+
+			Key k = new Key(fromId, CPLObject.D_ANCESTORS);
+			Entry e = c.entries.get(k);
+			if (e != null) c.replace(k, e.append(relationId, toId, type));
+
+			k = new Key(toId, CPLObject.D_DESCENDANTS);
+			e = c.entries.get(k);
+			if (e != null) c.replace(k, e.append(relationId, fromId, type));
+
+			c.evict();
+		}
+	}
+
+
+	/**
+	 * Remove all entries from the cache. This does not reset the statistics.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		size = 0;
+		version++;
+	}
+
+
+	/**
+	 * Reset the hit, miss, and eviction counters
+	 */
+	public void resetStatistics() {
+		hits.set(0);
+		misses.set(0);
+		evictions.set(0);
+	}
+
+
+	/**
+	 * Get the maximum total number of cached relations
+	 *
+	 * @return the capacity
+	 */
+	public long getCapacity() {
+		return capacity;
+	}
+
+
+	/**
+	 * Get the total number of cached relations
+	 *
+	 * @return the number of relations
+	 */
+	public synchronized long size() {
+		return size;
+	}
+
+
+	/**
+	 * Get the number of cached objects and directions
+	 *
+	 * @return the number of entries
+	 */
+	public synchronized int getEntryCount() {
+		return entries.size();
+	}
+
+
+	/**
+	 * Get the number of lookups that were answered from the cache
+	 *
+	 * @return the number of hits
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+
+	/**
+	 * Get the number of lookups that had to go to the database
+	 *
+	 * @return the number of misses
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+
+	/**
+	 * Get the number of entries evicted to stay within the capacity
+	 *
+	 * @return the number of evictions
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+
+	/**
+	 * Return a string representation of the cache statistics
+	 *
+	 * @return the string representation
+	 */
+	@Override
+	public String toString() {
+		return "relations: " + size() + "/" + capacity
+			+ "; entries: " + getEntryCount()
+			+ "; hits: " + getHits()
+			+ "; misses: " + getMisses()
+			+ "; evictions: " + getEvictions();
+	}
+}
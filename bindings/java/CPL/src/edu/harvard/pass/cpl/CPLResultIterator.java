@@ -0,0 +1,152 @@
+package edu.harvard.pass.cpl;
+
+/*
+ * CPLResultIterator.java
+ * Prov-CPL
+ *
+ * Copyright 2026
+ *      The President and Fellows of Harvard College.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the University nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE UNIVERSITY AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE UNIVERSITY OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ *
+ * Contributor(s): agent
+ */
+
+import swig.direct.CPLDirect.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+/**
+ * An iterator over a potentially very large query result, which fetches the
+ * result from the database one page at a time. Each page is requested with
+ * the ID of the last element of the previous page, so only a single page is
+ * held in memory at any given time, no matter how large the full result is.
+ *
+ * @author agent
+ */
+abstract class CPLResultIterator<T> implements Iterator<T> {
+
+	/// The default number of elements fetched per database round-trip
+	static final int DEFAULT_PAGE_SIZE = 1000;
+
+	/// The number of elements to fetch at once
+	private final int pageSize;
+
+	/// The current page
+	private List<T> page;
+
+	/// The position of the next element in the current page
+	private int position;
+
+	/// The ID of the last element fetched so far
+	private long lastId;
+
+	/// Whether the last page was already fetched
+	private boolean done;
+
+
+	/**
+	 * Create an instance of CPLResultIterator
+	 *
+	 * @param pageSize the number of elements to fetch at once
+	 */
+	CPLResultIterator(int pageSize) {
+		if (pageSize <= 0) {
+			throw new CPLException("The page size must be positive",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+
+		this.pageSize = pageSize;
+		this.page = new ArrayList<T>();
+		this.position = 0;
+		this.lastId = CPLObject.nullId;
+		this.done = false;
+	}
+
+
+	/**
+	 * Fetch the next page of the result
+	 *
+	 * @param afterId fetch only elements with IDs greater than this one
+	 * @param limit the maximum number of elements to fetch
+	 * @param out the list to append the fetched elements to
+	 * @return the ID of the last fetched element
+	 */
+	protected abstract long fetchPage(long afterId, int limit, List<T> out);
+
+
+	/**
+	 * Determine whether there are more elements
+	 *
+	 * @return true if there is at least one more element
+	 */
+	@Override
+	public boolean hasNext() {
+		if (position < page.size()) return true;
+		if (done) return false;
+
+		page.clear();
+		position = 0;
+		lastId = fetchPage(lastId, pageSize, page);
+		if (page.size() < pageSize) done = true;
+
+		return !page.isEmpty();
+	}
+
+
+	/**
+	 * Get the next element
+	 *
+	 * @return the next element
+	 */
+	@Override
+	public T next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		T e = page.get(position);
+		page.set(position++, null);
+		return e;
+	}
+
+
+	/**
+	 * Return a sequential stream over the remaining elements
+	 *
+	 * @return the stream
+	 */
+	Stream<T> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+				Spliterator.ORDERED | Spliterator.DISTINCT
+				| Spliterator.NONNULL), false);
+	}
+}
@@ -50,7 +50,7 @@ public class CPLSession {
 	private static CPLSession current;
 
 	/// The internal id
-	BigInteger id;
+	long id;
 
 	/// The MAC address
 	private String macAddress = null;
@@ -79,11 +79,21 @@ public class CPLSession {
 	 *
 	 * @param id the internal CPL session ID
 	 */
-	CPLSession(BigInteger id) {
+	CPLSession(long id) {
 		this.id = id;
 	}
 
 
+	/**
+	 * Create an instance of CPLSession from its ID
+	 *
+	 * @param id the internal CPL session ID
+	 */
+	CPLSession(BigInteger id) {
+		this(id.longValue());
+	}
+
+
 	/**
 	 * Get the current session
 	 *
@@ -95,7 +105,7 @@ public class CPLSession {
 		// even in the case of a race condition.
 
 		if (current == null) {
-			BigInteger[] id = {BigInteger.ZERO};
+			long[] id = {0};
 			int r = CPLDirect.cpl_get_current_session(id);
 			CPLException.assertSuccess(r);
 			current = new CPLSession(id[0]);
@@ -115,7 +125,7 @@ public class CPLSession {
 	public boolean equals(Object other) {
 		if (other instanceof CPLSession) {
 			CPLSession o = (CPLSession) other;
-			return o.id.equals(this.id);
+			return o.id == this.id;
 		}
 		else {
 			return false;
@@ -130,7 +140,7 @@ public class CPLSession {
 	 */
 	@Override
 	public int hashCode() {
-		return id.hashCode();
+		return (int) (id ^ (id >>> 32));
 	}
 
 
@@ -142,7 +152,7 @@ public class CPLSession {
 	 */
 	@Override
 	public String toString() {
-		return id.toString(16);
+		return Long.toHexString(id);
 	}
 
 
@@ -192,6 +202,15 @@ public class CPLSession {
 	 * @return the internal ID of this session
 	 */
 	public BigInteger getId() {
+		return BigInteger.valueOf(id);
+	}
+
+	/**
+	 * Get the ID of the session as a primitive long
+	 *
+	 * @return the internal ID of this session
+	 */
+	public long getLongId() {
 		return id;
 	}
 
@@ -130,6 +130,36 @@ public class ProvFactory{
         return CPLObject.create(prefix, name, CPLObject.ACTIVITY);
     }
 
+    /**
+     * Create many prov:Entity objects at once
+     *
+     * @param names
+     * @return CPLObject[] in the same order as the names
+     */
+    public CPLObject[] createEntities(String[] names) {
+        return CPLObject.createAll(prefix, names, CPLObject.ENTITY);
+    }
+
+    /**
+     * Create many prov:Agent objects at once
+     *
+     * @param names
+     * @return CPLObject[] in the same order as the names
+     */
+    public CPLObject[] createAgents(String[] names) {
+        return CPLObject.createAll(prefix, names, CPLObject.AGENT);
+    }
+
+    /**
+     * Create many prov:Activity objects at once
+     *
+     * @param names
+     * @return CPLObject[] in the same order as the names
+     */
+    public CPLObject[] createActivities(String[] names) {
+        return CPLObject.createAll(prefix, names, CPLObject.ACTIVITY);
+    }
+
     /**
      * Create prov:EmptyDictionary
      *
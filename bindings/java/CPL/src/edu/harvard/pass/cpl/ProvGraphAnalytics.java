@@ -0,0 +1,625 @@
+package edu.harvard.pass.cpl;
+
+/*
+ * ProvGraphAnalytics.java
+ * Prov-CPL
+ *
+ * Copyright 2026
+ *      The President and Fellows of Harvard College.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the University nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE UNIVERSITY AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE UNIVERSITY OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ *
+ * Contributor(s): agent
+ */
+import swig.direct.CPLDirect.*;
+
+import java.util.Arrays;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+
+/**
+ * Whole-graph analytics over a ProvGraphSnapshot, run in parallel in a
+ * ForkJoinPool: weakly connected components, and the number of transitive
+ * descendants of every object, either exact or estimated using HyperLogLog
+ * sketches. Together they answer how far a bad input could have spread.
+ *
+ * @author agent
+ */
+public class ProvGraphAnalytics {
+
+	/// The number of nodes below which a task stops splitting
+	static final int SEQUENTIAL_THRESHOLD = 1024;
+
+	/// The default number of index bits of the HyperLogLog sketches, which
+	/// gives 64 registers per object and a standard error of about 13%
+	public static final int DEFAULT_PRECISION = 6;
+
+	/// The graph
+	private final ProvGraphSnapshot graph;
+
+	/// The pool that runs the tasks
+	private final ForkJoinPool pool;
+
+
+	/**
+	 * Create an instance of ProvGraphAnalytics that uses the common pool
+	 *
+	 * @param graph the graph snapshot
+	 */
+	public ProvGraphAnalytics(ProvGraphSnapshot graph) {
+		this(graph, ForkJoinPool.commonPool());
+	}
+
+
+	/**
+	 * Create an instance of ProvGraphAnalytics
+	 *
+	 * @param graph the graph snapshot
+	 * @param pool the pool that runs the tasks
+	 */
+	public ProvGraphAnalytics(ProvGraphSnapshot graph, ForkJoinPool pool) {
+		this.graph = graph;
+		this.pool = pool;
+	}
+
+
+	/**
+	 * Get the snapshot the analytics run over
+	 *
+	 * @return the snapshot
+	 */
+	public ProvGraphSnapshot getGraph() {
+		return graph;
+	}
+
+
+	/**
+	 * The weakly connected components of a graph
+	 */
+	public static class Components {
+
+		/// The graph
+		private final ProvGraphSnapshot graph;
+
+		/// For each node, the smallest node index in its component
+		private final int[] roots;
+
+		/// For each root, the number of nodes in its component
+		private final int[] sizes;
+
+		/// The number of components
+		private final int count;
+
+		/**
+		 * Create an instance of Components
+		 *
+		 * @param graph the graph
+		 * @param roots the root of each node
+		 */
+		Components(ProvGraphSnapshot graph, int[] roots) {
+			this.graph = graph;
+			this.roots = roots;
+			this.sizes = new int[roots.length];
+			int c = 0;
+			for (int u = 0; u < roots.length; u++) {
+				if (roots[u] == u) c++;
+				sizes[roots[u]]++;
+			}
+			this.count = c;
+		}
+
+		/**
+		 * Get the number of components
+		 *
+		 * @return the number of components
+		 */
+		public int getCount() {
+			return count;
+		}
+
+		/**
+		 * Get the component of an object, identified by the smallest
+		 * object ID in it
+		 *
+		 * @param objectId the object ID
+		 * @return the component ID, or 0 if the object has no relations
+		 */
+		public long getComponentId(long objectId) {
+			int u = graph.nodeIndex(objectId);
+			return u < 0 ? CPLObject.nullId : graph.nodeId(roots[u]);
+		}
+
+		/**
+		 * Get the size of the component of an object
+		 *
+		 * @param objectId the object ID
+		 * @return the number of objects in the component, or 0 if the
+		 *         object has no relations
+		 */
+		public int getSize(long objectId) {
+			int u = graph.nodeIndex(objectId);
+			return u < 0 ? 0 : sizes[roots[u]];
+		}
+
+		/**
+		 * Get the size of the largest component
+		 *
+		 * @return the number of objects in the largest component
+		 */
+		public int getLargestSize() {
+			int m = 0;
+			for (int s : sizes) if (s > m) m = s;
+			return m;
+		}
+
+		/**
+		 * Get all objects in the component of an object
+		 *
+		 * @param objectId the object ID
+		 * @return the IDs of the objects in the ascending order
+		 */
+		public long[] getMembers(long objectId) {
+			int u = graph.nodeIndex(objectId);
+			if (u < 0) return new long[0];
+			int r = roots[u];
+			long[] result = new long[sizes[r]];
+			int n = 0;
+			for (int v = r; v < roots.length && n < result.length; v++) {
+				if (roots[v] == r) result[n++] = graph.nodeId(v);
+			}
+			return result;
+		}
+	}
+
+
+	/**
+	 * The number of transitive descendants of each object
+	 */
+	public static class DescendantCounts {
+
+		/// The graph
+		private final ProvGraphSnapshot graph;
+
+		/// The count for each node
+		private final long[] counts;
+
+		/// Whether the counts are estimates
+		private final boolean approximate;
+
+		/**
+		 * Create an instance of DescendantCounts
+		 *
+		 * @param graph the graph
+		 * @param counts the count for each node
+		 * @param approximate whether the counts are estimates
+		 */
+		DescendantCounts(ProvGraphSnapshot graph, long[] counts,
+				boolean approximate) {
+			this.graph = graph;
+			this.counts = counts;
+			this.approximate = approximate;
+		}
+
+		/**
+		 * Determine whether the counts are estimates
+		 *
+		 * @return true if the counts came from HyperLogLog sketches
+		 */
+		public boolean isApproximate() {
+			return approximate;
+		}
+
+		/**
+		 * Get the number of transitive descendants of an object
+		 *
+		 * @param objectId the object ID
+		 * @return the number of descendants, or 0 if the object has no
+		 *         relations
+		 */
+		public long getCount(long objectId) {
+			int u = graph.nodeIndex(objectId);
+			return u < 0 ? 0 : counts[u];
+		}
+
+		/**
+		 * Get the objects with the most descendants
+		 *
+		 * @param k the maximum number of objects to return
+		 * @return the IDs of the objects, starting with the largest count
+		 */
+		public long[] getTop(int k) {
+
+			// Sort (count, node) pairs packed into longs; a count does
+			// not exceed the number of nodes, which fits into 31 bits
+
+			int n = counts.length;
+			long[] keys = new long[n];
+			for (int u = 0; u < n; u++) {
+				keys[u] = (Math.min(counts[u], Integer.MAX_VALUE) << 32) | u;
+			}
+			Arrays.sort(keys);
+
+			int l = Math.min(k, n);
+			long[] result = new long[l];
+			for (int i = 0; i < l; i++) {
+				result[i] = graph.nodeId((int) keys[n - 1 - i]);
+			}
+			return result;
+		}
+	}
+
+
+	/**
+	 * Compute the weakly connected components, considering the relations
+	 * of all types
+	 *
+	 * @return the components
+	 */
+	public Components weaklyConnectedComponents() {
+		return weaklyConnectedComponents(CPLRelation.ALL_TYPES);
+	}
+
+
+	/**
+	 * Compute the weakly connected components using a lock-free union-find.
+	 * Each root is linked under a smaller root with a compare-and-swap, so
+	 * the root of a finished component is its smallest node index.
+	 *
+	 * @param typeMask the relation types to consider, or
+	 *                 CPLRelation.ALL_TYPES
+	 * @return the components
+	 */
+	public Components weaklyConnectedComponents(final int typeMask) {
+
+		int n = graph.getNodeCount();
+		final AtomicIntegerArray parent = new AtomicIntegerArray(n);
+		for (int u = 0; u < n; u++) parent.set(u, u);
+
+		pool.invoke(new NodeTask(0, n) {
+			@Override
+			boolean process(int u) {
+				int end = graph.edgeEnd(CPLObject.D_ANCESTORS, u);
+				for (int k = graph.edgeStart(CPLObject.D_ANCESTORS, u);
+						k < end; k++) {
+					if (!ProvGraphSnapshot.follows(typeMask,
+								graph.edgeType(CPLObject.D_ANCESTORS, k))) {
+						continue;
+					}
+					union(parent, u, graph.edgeTarget(CPLObject.D_ANCESTORS, k));
+				}
+				return false;
+			}
+		});
+
+		final int[] roots = new int[n];
+		pool.invoke(new NodeTask(0, n) {
+			@Override
+			boolean process(int u) {
+				roots[u] = find(parent, u);
+				return false;
+			}
+		});
+
+		return new Components(graph, roots);
+	}
+
+
+	/**
+	 * Find the root of a node, halving the path on the way
+	 *
+	 * @param parent the parent of each node
+	 * @param u the node index
+	 * @return the root
+	 */
+	private static int find(AtomicIntegerArray parent, int u) {
+		while (true) {
+			int p = parent.get(u);
+			if (p == u) return u;
+			int g = parent.get(p);
+			if (g != p) parent.compareAndSet(u, p, g);
+			u = g;
+		}
+	}
+
+
+	/**
+	 * Merge the sets of two nodes
+	 *
+	 * @param parent the parent of each node
+	 * @param a the first node index
+	 * @param b the second node index
+	 */
+	private static void union(AtomicIntegerArray parent, int a, int b) {
+		while (true) {
+			a = find(parent, a);
+			b = find(parent, b);
+			if (a == b) return;
+			if (a < b) {
+				int t = a;
+				a = b;
+				b = t;
+			}
+
+			// Only a root may be linked, so this fails if another thread
+			// has just linked a elsewhere; then we try again
+
+			if (parent.compareAndSet(a, a, b)) return;
+		}
+	}
+
+
+	/**
+	 * Count the transitive descendants of every object exactly, by running
+	 * a breadth-first search from each of them. This takes time proportional
+	 * to the number of objects times the number of relations; use
+	 * approximateDescendantCounts() for large graphs.
+	 *
+	 * @param typeMask the relation types to follow, or CPLRelation.ALL_TYPES
+	 * @return the counts
+	 */
+	public DescendantCounts exactDescendantCounts(final int typeMask) {
+
+		int n = graph.getNodeCount();
+		final long[] counts = new long[n];
+
+		pool.invoke(new NodeTask(0, n) {
+			@Override
+			boolean process(int u) {
+				counts[u] = graph.bfs(graph.nodeId(u), CPLObject.D_DESCENDANTS,
+						0, typeMask).length;
+				return false;
+			}
+		});
+
+		return new DescendantCounts(graph, counts, false);
+	}
+
+
+	/**
+	 * Estimate the number of transitive descendants of every object using
+	 * the default precision
+	 *
+	 * @param typeMask the relation types to follow, or CPLRelation.ALL_TYPES
+	 * @return the estimated counts
+	 */
+	public DescendantCounts approximateDescendantCounts(int typeMask) {
+		return approximateDescendantCounts(typeMask, DEFAULT_PRECISION);
+	}
+
+
+	/**
+	 * Estimate the number of transitive descendants of every object. Each
+	 * object gets a HyperLogLog sketch of its descendants, and the sketches
+	 * are merged along the relations until nothing changes, which takes as
+	 * many rounds as the longest shortest path. Cycles need no special
+	 * handling, because merging is idempotent. An object on a cycle counts
+	 * itself among its descendants.
+	 *
+	 * @param typeMask the relation types to follow, or CPLRelation.ALL_TYPES
+	 * @param precision the number of index bits, between 4 and 16; each
+	 *                  object takes 2^precision bytes, and the standard
+	 *                  error is about 1.04 / sqrt(2^precision)
+	 * @return the estimated counts
+	 */
+	public DescendantCounts approximateDescendantCounts(final int typeMask,
+			final int precision) {
+
+		if (precision < 4 || precision > 16) {
+			throw new CPLException("The precision must be between 4 and 16",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+
+		final int n = graph.getNodeCount();
+		final int m = 1 << precision;
+		if ((long) n * m > Integer.MAX_VALUE - 8) {
+			throw new CPLException("Too many objects for this precision",
+					CPLDirectConstants.CPL_E_INSUFFICIENT_RESOURCES);
+		}
+
+		// Each thread writes only the registers of the nodes it processes,
+		// but reads those of others; a stale read can only delay the
+		// convergence, since registers never decrease
+
+		final byte[] registers = new byte[n * m];
+		final int d = CPLObject.D_DESCENDANTS;
+
+		pool.invoke(new NodeTask(0, n) {
+			@Override
+			boolean process(int u) {
+				int end = graph.edgeEnd(d, u);
+				for (int k = graph.edgeStart(d, u); k < end; k++) {
+					if (!ProvGraphSnapshot.follows(typeMask,
+								graph.edgeType(d, k))) continue;
+					long h = mix(graph.nodeId(graph.edgeTarget(d, k)));
+					int j = (int) (h >>> (64 - precision));
+					int rank = Math.min(Long.numberOfLeadingZeros(
+								h << precision) + 1, 64 - precision + 1);
+					if (registers[u * m + j] < rank) {
+						registers[u * m + j] = (byte) rank;
+					}
+				}
+				return false;
+			}
+		});
+
+		while (pool.invoke(new NodeTask(0, n) {
+			@Override
+			boolean process(int u) {
+				boolean changed = false;
+				int base = u * m;
+				int end = graph.edgeEnd(d, u);
+				for (int k = graph.edgeStart(d, u); k < end; k++) {
+					if (!ProvGraphSnapshot.follows(typeMask,
+								graph.edgeType(d, k))) continue;
+					int other = graph.edgeTarget(d, k) * m;
+					for (int j = 0; j < m; j++) {
+						if (registers[base + j] < registers[other + j]) {
+							registers[base + j] = registers[other + j];
+							changed = true;
+						}
+					}
+				}
+				return changed;
+			}
+		})) {
+			// Repeat until a fixpoint
+		}
+
+		final long[] counts = new long[n];
+		pool.invoke(new NodeTask(0, n) {
+			@Override
+			boolean process(int u) {
+				counts[u] = estimate(registers, u * m, m);
+				return false;
+			}
+		});
+
+		return new DescendantCounts(graph, counts, true);
+	}
+
+
+	/**
+	 * Compute the HyperLogLog estimate from one sketch
+	 *
+	 * @param registers the registers of all sketches
+	 * @param base the index of the first register of the sketch
+	 * @param m the number of registers per sketch
+	 * @return the estimated number of distinct elements
+	 */
+	static long estimate(byte[] registers, int base, int m) {
+
+		double sum = 0;
+		int zeros = 0;
+		for (int j = 0; j < m; j++) {
+			int r = registers[base + j];
+			sum += 1.0 / (1L << r);
+			if (r == 0) zeros++;
+		}
+		if (zeros == m) return 0;
+
+		double alpha;
+		if (m == 16) alpha = 0.673;
+		else if (m == 32) alpha = 0.697;
+		else if (m == 64) alpha = 0.709;
+		else alpha = 0.7213 / (1 + 1.079 / m);
+
+		double e = alpha * m * m / sum;
+
+		// Use linear counting for small cardinalities
+
+		if (e <= 2.5 * m && zeros > 0) {
+			e = m * Math.log((double) m / zeros);
+		}
+
+		return Math.round(e);
+	}
+
+
+	/**
+	 * Hash an object ID (the finalizer of SplitMix64)
+	 *
+	 * @param x the object ID
+	 * @return the 64-bit hash
+	 */
+	static long mix(long x) {
+		x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+		x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+		return x ^ (x >>> 31);
+	}
+
+
+	/**
+	 * Processes a range of nodes, splitting it among the workers. The
+	 * result is true if processing any of the nodes returned true.
+	 */
+	private static abstract class NodeTask extends RecursiveTask<Boolean> {
+
+		private static final long serialVersionUID = 1L;
+
+		/// The task that defines process(), shared by all subranges
+		final NodeTask body;
+		final int lo;
+		final int hi;
+
+		NodeTask(int lo, int hi) {
+			this(null, lo, hi);
+		}
+
+		NodeTask(NodeTask body, int lo, int hi) {
+			this.body = body == null ? this : body;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		/**
+		 * Process one node
+		 *
+		 * @param u the node index
+		 * @return true if anything changed
+		 */
+		abstract boolean process(int u);
+
+		@Override
+		protected Boolean compute() {
+
+			if (hi - lo > SEQUENTIAL_THRESHOLD) {
+				int mid = (lo + hi) >>> 1;
+				NodeTask left = new Subrange(body, lo, mid);
+				NodeTask right = new Subrange(body, mid, hi);
+				left.fork();
+				boolean r = right.compute();
+				boolean l = left.join();
+				return l || r;
+			}
+
+			boolean changed = false;
+			for (int u = lo; u < hi; u++) {
+				if (body.process(u)) changed = true;
+			}
+			return changed;
+		}
+	}
+
+
+	/**
+	 * A part of the range of a NodeTask
+	 */
+	private static class Subrange extends NodeTask {
+
+		private static final long serialVersionUID = 1L;
+
+		Subrange(NodeTask body, int lo, int hi) {
+			super(body, lo, hi);
+		}
+
+		@Override
+		boolean process(int u) {
+			return body.process(u);
+		}
+	}
+}
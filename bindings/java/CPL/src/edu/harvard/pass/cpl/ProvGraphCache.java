@@ -0,0 +1,556 @@
+package edu.harvard.pass.cpl;
+
+/*
+ * ProvGraphCache.java
+ * Prov-CPL
+ *
+ * Copyright 2026
+ *      The President and Fellows of Harvard College.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the University nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE UNIVERSITY AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE UNIVERSITY OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ *
+ * Contributor(s): agent
+ */
+
+import swig.direct.CPLDirect.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/**
+ * An in-memory copy of the provenance graph that is kept up to date
+ * without reloading it. Relation IDs are assigned in increasing order, so
+ * refresh() only fetches the relations newer than the last one seen (the
+ * watermark) and appends them as a small delta segment to the immutable
+ * ProvGraphSnapshot at the base. Once the delta segments grow large enough,
+ * a background thread merges them into a new base snapshot.
+ *
+ * A cache of one bundle keys its watermark on the bundle membership rows
+ * instead, so that an existing relation added to the bundle later is still
+ * picked up by the next refresh.
+ *
+ * Compaction does not patch the base in place: it rebuilds the whole
+ * snapshot from the base and the delta, so its cost is proportional to the
+ * size of the entire graph rather than to the size of the delta. The
+ * compaction thresholds keep this amortized over many refreshes.
+ *
+ * Queries see a consistent view of the graph: the base and the segments
+ * that existed when the query started. They never block refreshes.
+ *
+ * A relation whose transaction commits after a relation with a higher ID
+ * was already read is skipped by the watermark; call reload() to pick up
+ * such stragglers if the database has many concurrent writers.
+ *
+ * @author agent
+ */
+public class ProvGraphCache implements AutoCloseable {
+
+	/// The smallest delta that is worth merging into the base
+	static final int MIN_COMPACTION_SIZE = 4096;
+
+	/// The delta is merged once it exceeds this fraction of the base
+	static final int COMPACTION_DIVISOR = 8;
+
+	/// The current view
+	private volatile View view;
+
+	/// Serializes the refreshes
+	private final Object refreshLock = new Object();
+
+	/// Whether a compaction is queued or running
+	private final AtomicBoolean compacting = new AtomicBoolean(false);
+
+	/// The background thread for periodic refreshes and compactions
+	private final ScheduledExecutorService executor;
+
+	/// The number of compactions so far
+	private volatile long compactions = 0;
+
+
+	/**
+	 * Relations fetched by one refresh, indexed by both of their ends
+	 */
+	private static class Segment {
+
+		/// The relations, in the order of their IDs
+		final ProvGraphSnapshot.Loader edges;
+
+		/// Indices of the relations by their source object ID
+		final HashMap<Long, int[]> byFrom;
+
+		/// Indices of the relations by their destination object ID
+		final HashMap<Long, int[]> byTo;
+
+		/**
+		 * Create a segment
+		 *
+		 * @param edges the relations
+		 */
+		Segment(ProvGraphSnapshot.Loader edges) {
+			this.edges = edges;
+			this.byFrom = index(edges.fromIds, edges.size);
+			this.byTo = index(edges.toIds, edges.size);
+		}
+
+		/**
+		 * Group relation indices by one of their ends
+		 *
+		 * @param keys the object IDs of that end
+		 * @param size the number of relations
+		 * @return the map from object IDs to relation indices
+		 */
+		private static HashMap<Long, int[]> index(long[] keys, int size) {
+			HashMap<Long, int[]> m = new HashMap<Long, int[]>();
+			for (int i = 0; i < size; i++) {
+				int[] a = m.get(keys[i]);
+				if (a == null) {
+					a = new int[] { i };
+				}
+				else {
+					a = Arrays.copyOf(a, a.length + 1);
+					a[a.length - 1] = i;
+				}
+				m.put(keys[i], a);
+			}
+			return m;
+		}
+
+		/**
+		 * Get the relations of an object in a direction
+		 *
+		 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+		 * @param objectId the object ID
+		 * @return the relation indices, or null if there are none
+		 */
+		int[] get(int direction, long objectId) {
+			return (direction == CPLObject.D_ANCESTORS ? byFrom : byTo)
+				.get(objectId);
+		}
+	}
+
+
+	/**
+	 * An immutable combination of the base and the delta segments
+	 */
+	private static class View {
+
+		final ProvGraphSnapshot base;
+		final Segment[] segments;
+		final int deltaSize;
+		final long lastRelationId;
+		final long lastMembershipId;
+
+		View(ProvGraphSnapshot base, Segment[] segments) {
+			this.base = base;
+			this.segments = segments;
+			int n = 0;
+			long last = base.getLastRelationId();
+			for (Segment s : segments) {
+				n += s.edges.size;
+				last = Math.max(last, s.edges.relationIds[s.edges.size - 1]);
+			}
+			this.deltaSize = n;
+			this.lastRelationId = last;
+			this.lastMembershipId = segments.length == 0
+				? base.getLastMembershipId()
+				: segments[segments.length - 1].edges.lastMembershipId;
+		}
+	}
+
+
+	/**
+	 * Create an instance of ProvGraphCache on top of an existing snapshot
+	 *
+	 * @param snapshot the initial base snapshot
+	 */
+	public ProvGraphCache(ProvGraphSnapshot snapshot) {
+		this.view = new View(snapshot, new Segment[0]);
+		this.executor = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, "ProvGraphCache");
+						t.setDaemon(true);
+						return t;
+					}
+				});
+	}
+
+
+	/**
+	 * Load a cache of all relations in the database, except for those that
+	 * only record bundle membership
+	 *
+	 * @return the cache
+	 */
+	public static ProvGraphCache load() {
+		return new ProvGraphCache(ProvGraphSnapshot.load());
+	}
+
+
+	/**
+	 * Load a cache of the relations of one bundle
+	 *
+	 * @param bundle the bundle
+	 * @return the cache
+	 */
+	public static ProvGraphCache load(CPLObject bundle) {
+		return new ProvGraphCache(ProvGraphSnapshot.load(bundle));
+	}
+
+
+	/**
+	 * Fetch the relations added since the last refresh. If the delta gets
+	 * too large, schedule its merge into the base.
+	 *
+	 * @return the number of new relations
+	 */
+	public int refresh() {
+
+		int n;
+		synchronized (refreshLock) {
+			View v = view;
+			ProvGraphSnapshot.Loader loader = new ProvGraphSnapshot.Loader();
+			long bundleId = v.base.getBundleId();
+			n = loader.readAll(bundleId, bundleId == CPLObject.nullId
+					? v.lastRelationId : v.lastMembershipId);
+			if (n == 0) return 0;
+			loader.sortById();
+
+			Segment s = new Segment(loader);
+			synchronized (this) {
+				Segment[] old = view.segments;
+				Segment[] segments = Arrays.copyOf(old, old.length + 1);
+				segments[old.length] = s;
+				view = new View(view.base, segments);
+			}
+		}
+
+		View v = view;
+		if (v.deltaSize >= Math.max(MIN_COMPACTION_SIZE,
+					v.base.getEdgeCount() / COMPACTION_DIVISOR)
+				&& compacting.compareAndSet(false, true)) {
+			try {
+				executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							compact();
+						}
+						finally {
+							compacting.set(false);
+						}
+					}
+				});
+			}
+			catch (RuntimeException e) {
+				compacting.set(false);
+				throw e;
+			}
+		}
+
+		return n;
+	}
+
+
+	/**
+	 * Discard the delta and the base and load everything again
+	 */
+	public void reload() {
+		synchronized (refreshLock) {
+			ProvGraphSnapshot base = view.base.refresh();
+			synchronized (this) {
+				view = new View(base, new Segment[0]);
+			}
+		}
+	}
+
+
+	/**
+	 * Merge the current delta segments into a new base snapshot. Segments
+	 * added while the merge is running stay in the delta.
+	 */
+	public void compact() {
+
+		View v = view;
+		if (v.segments.length == 0) return;
+
+		ProvGraphSnapshot.Loader delta;
+		if (v.segments.length == 1) {
+			delta = v.segments[0].edges;
+		}
+		else {
+			delta = new ProvGraphSnapshot.Loader();
+			for (Segment s : v.segments) {
+				for (int i = 0; i < s.edges.size; i++) {
+					delta.add(s.edges.relationIds[i], s.edges.fromIds[i],
+							s.edges.toIds[i], s.edges.types[i]);
+				}
+			}
+			delta.lastMembershipId = v.lastMembershipId;
+		}
+
+		ProvGraphSnapshot base = v.base.append(delta);
+
+		synchronized (this) {
+
+			// Another compaction or a reload might have replaced the base
+
+			if (view.base != v.base) return;
+
+			Segment[] current = view.segments;
+			view = new View(base, Arrays.copyOfRange(current,
+						v.segments.length, current.length));
+			compactions++;
+		}
+	}
+
+
+	/**
+	 * Refresh the cache periodically in the background
+	 *
+	 * @param period the time between refreshes
+	 * @param unit the unit of the period
+	 */
+	public void startAutoRefresh(long period, TimeUnit unit) {
+		executor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					refresh();
+				}
+				catch (RuntimeException e) {
+					// Keep the schedule alive; the next refresh retries
+				}
+			}
+		}, period, period, unit);
+	}
+
+
+	/**
+	 * Stop the background refreshes and compactions
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+
+	/**
+	 * Get the current base snapshot. It does not include the relations that
+	 * are still in the delta; call compact() first to include them.
+	 *
+	 * @return the snapshot
+	 */
+	public ProvGraphSnapshot getSnapshot() {
+		return view.base;
+	}
+
+
+	/**
+	 * Get the ID of the newest relation in the cache
+	 *
+	 * @return the relation ID, or 0 if the cache is empty
+	 */
+	public long getLastRelationId() {
+		return view.lastRelationId;
+	}
+
+
+	/**
+	 * Get the number of relations, including the delta
+	 *
+	 * @return the number of relations
+	 */
+	public int getEdgeCount() {
+		View v = view;
+		return v.base.getEdgeCount() + v.deltaSize;
+	}
+
+
+	/**
+	 * Get the number of relations that are not yet merged into the base
+	 *
+	 * @return the size of the delta
+	 */
+	public int getDeltaSize() {
+		return view.deltaSize;
+	}
+
+
+	/**
+	 * Get the number of delta segments
+	 *
+	 * @return the number of segments
+	 */
+	public int getSegmentCount() {
+		return view.segments.length;
+	}
+
+
+	/**
+	 * Get the number of completed compactions
+	 *
+	 * @return the number of compactions
+	 */
+	public long getCompactionCount() {
+		return compactions;
+	}
+
+
+	/**
+	 * Get the transitive ancestors of an object in the breadth-first order
+	 *
+	 * @param objectId the object ID
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the relation types to follow, built using
+	 *                 CPLRelation.typeMask(), or CPLRelation.ALL_TYPES
+	 * @return the IDs of the ancestors
+	 */
+	public long[] getAncestors(long objectId, int maxDepth, int typeMask) {
+		return bfs(objectId, CPLObject.D_ANCESTORS, maxDepth, typeMask);
+	}
+
+
+	/**
+	 * Get the transitive descendants of an object in the breadth-first order
+	 *
+	 * @param objectId the object ID
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the relation types to follow, built using
+	 *                 CPLRelation.typeMask(), or CPLRelation.ALL_TYPES
+	 * @return the IDs of the descendants
+	 */
+	public long[] getDescendants(long objectId, int maxDepth, int typeMask) {
+		return bfs(objectId, CPLObject.D_DESCENDANTS, maxDepth, typeMask);
+	}
+
+
+	/**
+	 * Traverse the graph breadth-first from an object, following both the
+	 * relations in the base and those in the delta
+	 *
+	 * @param objectId the ID of the start object (not included in the result)
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the relation types to follow, or CPLRelation.ALL_TYPES
+	 * @return the IDs of the reached objects
+	 */
+	public long[] bfs(long objectId, int direction, int maxDepth,
+			int typeMask) {
+
+		if (direction != CPLObject.D_ANCESTORS
+				&& direction != CPLObject.D_DESCENDANTS) {
+			throw new CPLException("Invalid direction",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+
+		View v = view;
+		if (v.segments.length == 0) {
+			return v.base.bfs(objectId, direction, maxDepth, typeMask);
+		}
+
+		// Objects known to the base are tracked by their node indices,
+		// the objects that only appear in the delta by their IDs
+
+		ProvGraphSnapshot base = v.base;
+		BitSet visitedBase = new BitSet();
+		HashSet<Long> visitedDelta = new HashSet<Long>();
+
+		ArrayList<Long> queue = new ArrayList<Long>();
+		queue.add(objectId);
+		visit(base, visitedBase, visitedDelta, objectId);
+		int head = 0;
+
+		for (int depth = 1; head < queue.size()
+				&& (maxDepth == 0 || depth <= maxDepth); depth++) {
+			int levelEnd = queue.size();
+			while (head < levelEnd) {
+				long u = queue.get(head++);
+
+				int ui = base.nodeIndex(u);
+				if (ui >= 0) {
+					int end = base.edgeEnd(direction, ui);
+					for (int k = base.edgeStart(direction, ui); k < end; k++) {
+						if (!ProvGraphSnapshot.follows(typeMask,
+									base.edgeType(direction, k))) continue;
+						long w = base.nodeId(base.edgeTarget(direction, k));
+						if (visit(base, visitedBase, visitedDelta, w)) {
+							queue.add(w);
+						}
+					}
+				}
+
+				for (Segment s : v.segments) {
+					int[] edges = s.get(direction, u);
+					if (edges == null) continue;
+					long[] far = direction == CPLObject.D_ANCESTORS
+						? s.edges.toIds : s.edges.fromIds;
+					for (int i : edges) {
+						if (!ProvGraphSnapshot.follows(typeMask,
+									s.edges.types[i])) continue;
+						long w = far[i];
+						if (visit(base, visitedBase, visitedDelta, w)) {
+							queue.add(w);
+						}
+					}
+				}
+			}
+		}
+
+		long[] result = new long[queue.size() - 1];
+		for (int i = 1; i < queue.size(); i++) result[i - 1] = queue.get(i);
+		return result;
+	}
+
+
+	/**
+	 * Mark an object as visited
+	 *
+	 * @param base the base snapshot
+	 * @param visitedBase the visited objects that are in the base
+	 * @param visitedDelta the visited objects that are only in the delta
+	 * @param objectId the object ID
+	 * @return true if the object was not visited before
+	 */
+	private static boolean visit(ProvGraphSnapshot base, BitSet visitedBase,
+			HashSet<Long> visitedDelta, long objectId) {
+		int i = base.nodeIndex(objectId);
+		if (i < 0) return visitedDelta.add(objectId);
+		if (visitedBase.get(i)) return false;
+		visitedBase.set(i);
+		return true;
+	}
+}
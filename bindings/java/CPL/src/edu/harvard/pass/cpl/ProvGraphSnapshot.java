@@ -0,0 +1,810 @@
+package edu.harvard.pass.cpl;
+
+/*
+ * ProvGraphSnapshot.java
+ * Prov-CPL
+ *
+ * Copyright 2026
+ *      The President and Fellows of Harvard College.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the University nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE UNIVERSITY AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE UNIVERSITY OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ *
+ * Contributor(s): agent
+ */
+
+import swig.direct.CPLDirect.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+
+/**
+ * An immutable in-memory copy of the provenance graph, or of the relations
+ * of one bundle, for traversals that do not touch the database. The graph
+ * is stored outside of the Java heap in the compressed sparse row (CSR)
+ * format, once for each direction: for every object, its outgoing relations
+ * occupy a contiguous range of the target, type, and relation ID arrays.
+ *
+ * Objects are identified by their CPL IDs in the public API. Internally,
+ * they are numbered densely in the order of their IDs; the node index of
+ * an object is the position of its ID in the sorted ID array.
+ *
+ * A snapshot never changes after it is loaded. Call refresh() to load
+ * a new one that reflects the current state of the database, or use
+ * ProvGraphCache to keep up with new relations without reloading.
+ *
+ * @author agent
+ */
+public class ProvGraphSnapshot {
+
+	/// The number of relations fetched from the database at a time
+	static final int LOAD_PAGE_SIZE = 65536;
+
+	/// The ID of the bundle, or nullId if the snapshot covers all relations
+	private final long bundleId;
+
+	/// The ID of the last relation in the snapshot, or nullId if none
+	private final long lastRelationId;
+
+	/// The ID of the last bundle membership row read, or nullId if none
+	private final long lastMembershipId;
+
+	/// The number of objects
+	private final int nodeCount;
+
+	/// The number of relations
+	private final int edgeCount;
+
+	/// The object IDs in ascending order
+	private final LongBuffer nodeIds;
+
+	/// The relations from descendants to their ancestors
+	private final Adjacency ancestors;
+
+	/// The relations from ancestors to their descendants
+	private final Adjacency descendants;
+
+
+	/**
+	 * The relations of all objects in one direction, in the CSR format
+	 */
+	private static class Adjacency {
+
+		/// For each node, the index of its first relation; one extra entry
+		/// at the end holds the total number of relations
+		final IntBuffer offsets;
+
+		/// The node index of the other end of each relation
+		final IntBuffer targets;
+
+		/// The type of each relation
+		final ByteBuffer types;
+
+		/// The ID of each relation
+		final LongBuffer relationIds;
+
+		/**
+		 * Build the adjacency from parallel arrays of relations
+		 *
+		 * @param nodeCount the number of nodes
+		 * @param edgeCount the number of relations
+		 * @param sources the node indices of the near ends
+		 * @param targets the node indices of the far ends
+		 * @param types the relation types
+		 * @param relationIds the relation IDs
+		 */
+		Adjacency(int nodeCount, int edgeCount, int[] sources, int[] targets,
+				int[] types, long[] relationIds) {
+
+			this.offsets = allocateInts(nodeCount + 1);
+			this.targets = allocateInts(edgeCount);
+			this.types = allocateBytes(edgeCount);
+			this.relationIds = allocateLongs(edgeCount);
+
+			int[] next = new int[nodeCount + 1];
+			for (int i = 0; i < edgeCount; i++) next[sources[i] + 1]++;
+			for (int i = 0; i < nodeCount; i++) next[i + 1] += next[i];
+			for (int i = 0; i <= nodeCount; i++) offsets.put(i, next[i]);
+
+			// The relations are given in the order of their IDs, so each
+			// node's range ends up sorted by the relation ID as well
+
+			for (int i = 0; i < edgeCount; i++) {
+				int k = next[sources[i]]++;
+				this.targets.put(k, targets[i]);
+				this.types.put(k, (byte) types[i]);
+				this.relationIds.put(k, relationIds[i]);
+			}
+		}
+	}
+
+
+	/**
+	 * Accumulates relations while they are being read from the database
+	 */
+	static class Loader {
+
+		int size = 0;
+		long[] relationIds = new long[1024];
+		long[] fromIds = new long[1024];
+		long[] toIds = new long[1024];
+		int[] types = new int[1024];
+
+		/// The ID of the last bundle membership row read, or nullId if none
+		long lastMembershipId = CPLObject.nullId;
+
+		/**
+		 * Add a relation
+		 *
+		 * @param id the relation ID
+		 * @param from the source object ID
+		 * @param to the destination object ID
+		 * @param type the relation type
+		 */
+		void add(long id, long from, long to, int type) {
+			if (size == relationIds.length) {
+				int n = size * 2;
+				relationIds = Arrays.copyOf(relationIds, n);
+				fromIds = Arrays.copyOf(fromIds, n);
+				toIds = Arrays.copyOf(toIds, n);
+				types = Arrays.copyOf(types, n);
+			}
+			relationIds[size] = id;
+			fromIds[size] = from;
+			toIds[size] = to;
+			types[size] = type;
+			size++;
+		}
+
+		/**
+		 * Read one page of relations. The relations of a bundle are read in
+		 * the order of their bundle membership rows, so that relations added
+		 * to the bundle later are found even if they are older.
+		 *
+		 * @param bundleId the bundle ID, or nullId for all relations
+		 * @param afterId the ID of the last relation read so far, or of the
+		 *                last bundle membership row if reading a bundle
+		 * @return the number of relations read
+		 */
+		int readPage(long bundleId, long afterId) {
+
+			SWIGTYPE_p_std_vector_cpl_relation_t pVector
+					= CPLDirect.new_std_vector_cpl_relation_tp();
+			SWIGTYPE_p_void pv = CPLDirect
+					.cpl_convert_p_std_vector_cpl_relation_t_to_p_void(pVector);
+
+			try {
+				int r;
+				if (bundleId == CPLObject.nullId) {
+					r = CPLDirect.cpl_get_all_relations_page(afterId,
+							LOAD_PAGE_SIZE,
+							CPLDirect.cpl_cb_collect_relation_vector, pv);
+				}
+				else {
+					long[] last = new long[1];
+					r = CPLDirect.cpl_get_bundle_relations_page_by_membership(
+							bundleId, afterId, LOAD_PAGE_SIZE, last,
+							CPLDirect.cpl_cb_collect_relation_vector, pv);
+					if (r == CPLDirectConstants.CPL_OK) {
+						lastMembershipId = last[0];
+					}
+				}
+				CPLException.assertSuccess(r);
+
+				cpl_relation_t_vector v = CPLDirect
+						.cpl_dereference_p_std_vector_cpl_relation_t(pVector);
+				long l = v.size();
+				for (int i = 0; i < l; i++) {
+					cpl_relation_t e = v.get(i);
+					add(e.getId(), e.getQuery_object_id(),
+							e.getOther_object_id(), e.getType());
+				}
+				return (int) l;
+			}
+			finally {
+				CPLDirect.delete_std_vector_cpl_relation_tp(pVector);
+			}
+		}
+
+		/**
+		 * Read all relations after the given watermark
+		 *
+		 * @param bundleId the bundle ID, or nullId for all relations
+		 * @param afterId the relation ID to start after, or the bundle
+		 *                membership row ID if reading a bundle, or nullId
+		 * @return the number of relations read
+		 */
+		int readAll(long bundleId, long afterId) {
+			int start = size;
+			while (true) {
+				int l = readPage(bundleId, afterId);
+				if (l == 0) break;
+				afterId = bundleId == CPLObject.nullId
+					? relationIds[size - 1] : lastMembershipId;
+				if (l < LOAD_PAGE_SIZE) break;
+			}
+			return size - start;
+		}
+
+		/**
+		 * Sort the relations by their IDs, dropping duplicates. Relations
+		 * of a bundle arrive in the order in which they were added to it,
+		 * and a relation can be added to the same bundle more than once.
+		 */
+		void sortById() {
+
+			boolean sorted = true;
+			for (int i = 1; i < size && sorted; i++) {
+				sorted = relationIds[i - 1] < relationIds[i];
+			}
+			if (sorted) return;
+
+			long[] ids = Arrays.copyOf(relationIds, size);
+			Arrays.sort(ids);
+			int n = 0;
+			for (int i = 0; i < size; i++) {
+				if (n == 0 || ids[n - 1] != ids[i]) ids[n++] = ids[i];
+			}
+
+			long[] from = new long[Math.max(n, 1)];
+			long[] to = new long[Math.max(n, 1)];
+			int[] t = new int[Math.max(n, 1)];
+			for (int i = 0; i < size; i++) {
+				int k = Arrays.binarySearch(ids, 0, n, relationIds[i]);
+				from[k] = fromIds[i];
+				to[k] = toIds[i];
+				t[k] = types[i];
+			}
+
+			relationIds = n == 0 ? new long[1] : Arrays.copyOf(ids, n);
+			fromIds = from;
+			toIds = to;
+			types = t;
+			size = n;
+		}
+	}
+
+
+	/**
+	 * Create an instance of ProvGraphSnapshot from the loaded relations
+	 *
+	 * @param bundleId the bundle ID, or nullId for all relations
+	 * @param loader the loaded relations, in the order of their IDs
+	 */
+	private ProvGraphSnapshot(long bundleId, Loader loader) {
+
+		this.bundleId = bundleId;
+		this.edgeCount = loader.size;
+		this.lastRelationId = edgeCount == 0 ? CPLObject.nullId
+			: loader.relationIds[edgeCount - 1];
+		this.lastMembershipId = loader.lastMembershipId;
+
+
+		// Number the objects
+
+		long[] ids = new long[2 * edgeCount];
+		System.arraycopy(loader.fromIds, 0, ids, 0, edgeCount);
+		System.arraycopy(loader.toIds, 0, ids, edgeCount, edgeCount);
+		Arrays.sort(ids);
+
+		int n = 0;
+		for (int i = 0; i < ids.length; i++) {
+			if (n == 0 || ids[n - 1] != ids[i]) ids[n++] = ids[i];
+		}
+
+		this.nodeCount = n;
+		this.nodeIds = allocateLongs(n);
+		for (int i = 0; i < n; i++) nodeIds.put(i, ids[i]);
+
+		int[] from = new int[edgeCount];
+		int[] to = new int[edgeCount];
+		for (int i = 0; i < edgeCount; i++) {
+			from[i] = Arrays.binarySearch(ids, 0, n, loader.fromIds[i]);
+			to[i] = Arrays.binarySearch(ids, 0, n, loader.toIds[i]);
+		}
+
+
+		// Build the adjacency in both directions
+
+		this.ancestors = new Adjacency(n, edgeCount, from, to,
+				loader.types, loader.relationIds);
+		this.descendants = new Adjacency(n, edgeCount, to, from,
+				loader.types, loader.relationIds);
+	}
+
+
+	/**
+	 * Load a snapshot of all relations in the database, except for those
+	 * that only record bundle membership
+	 *
+	 * @return the snapshot
+	 */
+	public static ProvGraphSnapshot load() {
+		return load(CPLObject.nullId);
+	}
+
+
+	/**
+	 * Load a snapshot of the relations of one bundle
+	 *
+	 * @param bundle the bundle
+	 * @return the snapshot
+	 */
+	public static ProvGraphSnapshot load(CPLObject bundle) {
+		return load(bundle.getLongId());
+	}
+
+
+	/**
+	 * Load a snapshot
+	 *
+	 * @param bundleId the bundle ID, or nullId for all relations
+	 * @return the snapshot
+	 */
+	static ProvGraphSnapshot load(long bundleId) {
+		Loader loader = new Loader();
+		loader.readAll(bundleId, CPLObject.nullId);
+		return build(bundleId, loader);
+	}
+
+
+	/**
+	 * Build a snapshot from loaded relations, checking its size
+	 *
+	 * @param bundleId the bundle ID, or nullId for all relations
+	 * @param loader the relations, sorted by this method if needed
+	 * @return the snapshot
+	 */
+	private static ProvGraphSnapshot build(long bundleId, Loader loader) {
+
+		loader.sortById();
+
+		if ((long) loader.size * 8 > Integer.MAX_VALUE) {
+			throw new CPLException("Too many relations for a snapshot",
+					CPLDirectConstants.CPL_E_INSUFFICIENT_RESOURCES);
+		}
+
+		return new ProvGraphSnapshot(bundleId, loader);
+	}
+
+
+	/**
+	 * Create a new snapshot that contains the relations of this one
+	 * followed by the given relations. This does not access the database.
+	 *
+	 * @param delta the additional relations, read after this snapshot
+	 * @return the new snapshot
+	 */
+	ProvGraphSnapshot append(Loader delta) {
+
+		// Recover the relations in the order of their IDs. Relation IDs
+		// are unique, so the position of each relation is the position of
+		// its ID among the sorted IDs.
+
+		Adjacency a = ancestors;
+		long[] sorted = new long[edgeCount];
+		for (int k = 0; k < edgeCount; k++) sorted[k] = a.relationIds.get(k);
+		Arrays.sort(sorted);
+
+		Loader loader = new Loader();
+		int n = edgeCount + delta.size;
+		loader.relationIds = new long[Math.max(n, 1)];
+		loader.fromIds = new long[Math.max(n, 1)];
+		loader.toIds = new long[Math.max(n, 1)];
+		loader.types = new int[Math.max(n, 1)];
+
+		for (int u = 0; u < nodeCount; u++) {
+			long from = nodeIds.get(u);
+			int end = a.offsets.get(u + 1);
+			for (int k = a.offsets.get(u); k < end; k++) {
+				long id = a.relationIds.get(k);
+				int i = Arrays.binarySearch(sorted, id);
+				loader.relationIds[i] = id;
+				loader.fromIds[i] = from;
+				loader.toIds[i] = nodeIds.get(a.targets.get(k));
+				loader.types[i] = a.types.get(k);
+			}
+		}
+		loader.size = edgeCount;
+		loader.lastMembershipId = Math.max(lastMembershipId,
+				delta.lastMembershipId);
+
+		for (int i = 0; i < delta.size; i++) {
+			loader.add(delta.relationIds[i], delta.fromIds[i],
+					delta.toIds[i], delta.types[i]);
+		}
+
+		return build(bundleId, loader);
+	}
+
+
+	/**
+	 * Load a new snapshot of the same relations as this one
+	 *
+	 * @return the new snapshot
+	 */
+	public ProvGraphSnapshot refresh() {
+		return load(bundleId);
+	}
+
+
+	/**
+	 * Get the ID of the bundle
+	 *
+	 * @return the bundle ID, or nullId if the snapshot covers all relations
+	 */
+	long getBundleId() {
+		return bundleId;
+	}
+
+
+	/**
+	 * Get the ID of the last bundle membership row read into the snapshot
+	 *
+	 * @return the membership row ID, or nullId if the snapshot does not
+	 *         cover a bundle or is empty
+	 */
+	long getLastMembershipId() {
+		return lastMembershipId;
+	}
+
+
+	/**
+	 * Get the number of objects that have at least one relation
+	 *
+	 * @return the number of objects
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+
+	/**
+	 * Get the number of relations
+	 *
+	 * @return the number of relations
+	 */
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+
+	/**
+	 * Get the ID of the newest relation in the snapshot
+	 *
+	 * @return the relation ID, or 0 if the snapshot is empty
+	 */
+	public long getLastRelationId() {
+		return lastRelationId;
+	}
+
+
+	/**
+	 * Determine whether the snapshot contains any relations of an object
+	 *
+	 * @param objectId the object ID
+	 * @return true if the object is in the snapshot
+	 */
+	public boolean contains(long objectId) {
+		return nodeIndex(objectId) >= 0;
+	}
+
+
+	/**
+	 * Get the transitive ancestors of an object in the breadth-first order
+	 *
+	 * @param objectId the object ID
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the relation types to follow, built using
+	 *                 CPLRelation.typeMask(), or CPLRelation.ALL_TYPES
+	 * @return the IDs of the ancestors
+	 */
+	public long[] getAncestors(long objectId, int maxDepth, int typeMask) {
+		return bfs(objectId, CPLObject.D_ANCESTORS, maxDepth, typeMask);
+	}
+
+
+	/**
+	 * Get the transitive descendants of an object in the breadth-first order
+	 *
+	 * @param objectId the object ID
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the relation types to follow, built using
+	 *                 CPLRelation.typeMask(), or CPLRelation.ALL_TYPES
+	 * @return the IDs of the descendants
+	 */
+	public long[] getDescendants(long objectId, int maxDepth, int typeMask) {
+		return bfs(objectId, CPLObject.D_DESCENDANTS, maxDepth, typeMask);
+	}
+
+
+	/**
+	 * Traverse the graph breadth-first from an object. The objects at each
+	 * depth are returned before those at the next depth.
+	 *
+	 * @param objectId the ID of the start object (not included in the result)
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the relation types to follow, or CPLRelation.ALL_TYPES
+	 * @return the IDs of the reached objects
+	 */
+	public long[] bfs(long objectId, int direction, int maxDepth,
+			int typeMask) {
+
+		int start = nodeIndex(objectId);
+		if (start < 0) return new long[0];
+
+		Adjacency a = adjacency(direction);
+		BitSet visited = new BitSet();
+		visited.set(start);
+
+		int[] queue = new int[16];
+		queue[0] = start;
+		int head = 0;
+		int tail = 1;
+
+		for (int depth = 1; head < tail
+				&& (maxDepth == 0 || depth <= maxDepth); depth++) {
+			int levelEnd = tail;
+			while (head < levelEnd) {
+				int u = queue[head++];
+				int end = a.offsets.get(u + 1);
+				for (int k = a.offsets.get(u); k < end; k++) {
+					if (!follows(typeMask, a.types.get(k))) continue;
+					int v = a.targets.get(k);
+					if (visited.get(v)) continue;
+					visited.set(v);
+					if (tail == queue.length) {
+						queue = Arrays.copyOf(queue, tail * 2);
+					}
+					queue[tail++] = v;
+				}
+			}
+		}
+
+		long[] result = new long[tail - 1];
+		for (int i = 1; i < tail; i++) result[i - 1] = nodeIds.get(queue[i]);
+		return result;
+	}
+
+
+	/**
+	 * Traverse the graph depth-first from an object, returning the objects
+	 * in the preorder. Relations of each object are followed in the order
+	 * of their IDs.
+	 *
+	 * @param objectId the ID of the start object (not included in the result)
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the relation types to follow, or CPLRelation.ALL_TYPES
+	 * @return the IDs of the reached objects
+	 */
+	public long[] dfs(long objectId, int direction, int maxDepth,
+			int typeMask) {
+
+		int start = nodeIndex(objectId);
+		if (start < 0) return new long[0];
+
+		Adjacency a = adjacency(direction);
+		BitSet visited = new BitSet();
+
+		// The stack holds pairs of node indices and their depths
+
+		int[] stack = new int[32];
+		stack[0] = start;
+		stack[1] = 0;
+		int top = 2;
+
+		long[] result = new long[16];
+		int count = 0;
+
+		while (top > 0) {
+			int depth = stack[--top];
+			int u = stack[--top];
+			if (visited.get(u)) continue;
+			visited.set(u);
+
+			if (u != start) {
+				if (count == result.length) {
+					result = Arrays.copyOf(result, count * 2);
+				}
+				result[count++] = nodeIds.get(u);
+			}
+			if (maxDepth != 0 && depth >= maxDepth) continue;
+
+			int begin = a.offsets.get(u);
+			for (int k = a.offsets.get(u + 1) - 1; k >= begin; k--) {
+				if (!follows(typeMask, a.types.get(k))) continue;
+				int v = a.targets.get(k);
+				if (visited.get(v)) continue;
+				if (top + 2 > stack.length) {
+					stack = Arrays.copyOf(stack, stack.length * 2);
+				}
+				stack[top++] = v;
+				stack[top++] = depth + 1;
+			}
+		}
+
+		return Arrays.copyOf(result, count);
+	}
+
+
+	/**
+	 * Find the node index of an object
+	 *
+	 * @param objectId the object ID
+	 * @return the node index, or a negative number if not found
+	 */
+	int nodeIndex(long objectId) {
+		int lo = 0;
+		int hi = nodeCount - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			long m = nodeIds.get(mid);
+			if (m < objectId) lo = mid + 1;
+			else if (m > objectId) hi = mid - 1;
+			else return mid;
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Get the object ID of a node
+	 *
+	 * @param index the node index
+	 * @return the object ID
+	 */
+	long nodeId(int index) {
+		return nodeIds.get(index);
+	}
+
+
+	/**
+	 * Get the index of the first relation of a node
+	 *
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param index the node index
+	 * @return the edge index
+	 */
+	int edgeStart(int direction, int index) {
+		return adjacency(direction).offsets.get(index);
+	}
+
+
+	/**
+	 * Get the index just past the last relation of a node
+	 *
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param index the node index
+	 * @return the edge index
+	 */
+	int edgeEnd(int direction, int index) {
+		return adjacency(direction).offsets.get(index + 1);
+	}
+
+
+	/**
+	 * Get the node at the far end of a relation
+	 *
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param edge the edge index
+	 * @return the node index
+	 */
+	int edgeTarget(int direction, int edge) {
+		return adjacency(direction).targets.get(edge);
+	}
+
+
+	/**
+	 * Get the type of a relation
+	 *
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param edge the edge index
+	 * @return the relation type
+	 */
+	int edgeType(int direction, int edge) {
+		return adjacency(direction).types.get(edge);
+	}
+
+
+	/**
+	 * Get the ID of a relation
+	 *
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param edge the edge index
+	 * @return the relation ID
+	 */
+	long edgeRelationId(int direction, int edge) {
+		return adjacency(direction).relationIds.get(edge);
+	}
+
+
+	/**
+	 * Get the adjacency for a direction
+	 *
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @return the adjacency
+	 */
+	private Adjacency adjacency(int direction) {
+		if (direction == CPLObject.D_ANCESTORS) return ancestors;
+		if (direction == CPLObject.D_DESCENDANTS) return descendants;
+		throw new CPLException("Invalid direction",
+				CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+	}
+
+
+	/**
+	 * Determine whether a relation type is selected by a type mask
+	 *
+	 * @param typeMask the mask, or CPLRelation.ALL_TYPES
+	 * @param type the relation type
+	 * @return true if relations of this type should be followed
+	 */
+	static boolean follows(int typeMask, int type) {
+		return typeMask == CPLRelation.ALL_TYPES
+			|| ((typeMask >>> type) & 1) != 0;
+	}
+
+
+	/**
+	 * Allocate an off-heap buffer of ints
+	 *
+	 * @param n the number of elements
+	 * @return the buffer
+	 */
+	private static IntBuffer allocateInts(int n) {
+		return ByteBuffer.allocateDirect(4 * n)
+			.order(ByteOrder.nativeOrder()).asIntBuffer();
+	}
+
+
+	/**
+	 * Allocate an off-heap buffer of longs
+	 *
+	 * @param n the number of elements
+	 * @return the buffer
+	 */
+	private static LongBuffer allocateLongs(int n) {
+		return ByteBuffer.allocateDirect(8 * n)
+			.order(ByteOrder.nativeOrder()).asLongBuffer();
+	}
+
+
+	/**
+	 * Allocate an off-heap buffer of bytes
+	 *
+	 * @param n the number of elements
+	 * @return the buffer
+	 */
+	private static ByteBuffer allocateBytes(int n) {
+		return ByteBuffer.allocateDirect(n);
+	}
+}
@@ -0,0 +1,252 @@
+package edu.harvard.pass.cpl;
+
+/*
+ * ProvGraphTraversal.java
+ * Prov-CPL
+ *
+ * Copyright 2026
+ *      The President and Fellows of Harvard College.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the University nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE UNIVERSITY AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE UNIVERSITY OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ *
+ * Contributor(s): agent
+ */
+
+import swig.direct.CPLDirect.*;
+
+import java.util.Arrays;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * A parallel breadth-first traversal over a ProvGraphSnapshot, meant for
+ * expansions that reach a large part of the graph. The traversal proceeds
+ * one level at a time: the frontier is split into chunks that are expanded
+ * concurrently in a ForkJoinPool, and a shared bitmap indexed by the node
+ * index makes sure that each object is claimed by exactly one task.
+ *
+ * The order of the objects within a level is not deterministic.
+ *
+ * @author agent
+ */
+public class ProvGraphTraversal {
+
+	/// The number of frontier nodes below which a task stops splitting
+	static final int SEQUENTIAL_THRESHOLD = 1024;
+
+	/// The graph
+	private final ProvGraphSnapshot graph;
+
+	/// The pool that runs the expansion tasks
+	private final ForkJoinPool pool;
+
+
+	/**
+	 * Create an instance of ProvGraphTraversal that uses the common pool
+	 *
+	 * @param graph the graph snapshot
+	 */
+	public ProvGraphTraversal(ProvGraphSnapshot graph) {
+		this(graph, ForkJoinPool.commonPool());
+	}
+
+
+	/**
+	 * Create an instance of ProvGraphTraversal
+	 *
+	 * @param graph the graph snapshot
+	 * @param pool the pool that runs the expansion tasks
+	 */
+	public ProvGraphTraversal(ProvGraphSnapshot graph, ForkJoinPool pool) {
+		this.graph = graph;
+		this.pool = pool;
+	}
+
+
+	/**
+	 * Get the snapshot this traversal runs over
+	 *
+	 * @return the snapshot
+	 */
+	public ProvGraphSnapshot getGraph() {
+		return graph;
+	}
+
+
+	/**
+	 * Find all objects transitively reachable from an object
+	 *
+	 * @param objectId the ID of the start object (not included in the result)
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the relation types to follow, or CPLRelation.ALL_TYPES
+	 * @return the IDs of the reached objects, level by level
+	 */
+	public long[] expand(long objectId, int direction, int maxDepth,
+			int typeMask) {
+		return expand(new long[] { objectId }, direction, maxDepth, typeMask);
+	}
+
+
+	/**
+	 * Find all objects transitively reachable from any of several objects
+	 *
+	 * @param objectIds the IDs of the start objects (not included in the
+	 *                  result); IDs not present in the snapshot are ignored
+	 * @param direction the direction, either D_ANCESTORS or D_DESCENDANTS
+	 * @param maxDepth the maximum depth, or 0 for no limit
+	 * @param typeMask the relation types to follow, or CPLRelation.ALL_TYPES
+	 * @return the IDs of the reached objects, level by level
+	 */
+	public long[] expand(long[] objectIds, int direction, int maxDepth,
+			int typeMask) {
+
+		if (direction != CPLObject.D_ANCESTORS
+				&& direction != CPLObject.D_DESCENDANTS) {
+			throw new CPLException("Invalid direction",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+		if (maxDepth < 0) {
+			throw new CPLException("The maximum depth cannot be negative",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+
+		AtomicLongArray visited
+			= new AtomicLongArray((graph.getNodeCount() + 63) >>> 6);
+
+		int[] frontier = new int[objectIds.length];
+		int size = 0;
+		for (long id : objectIds) {
+			int u = graph.nodeIndex(id);
+			if (u >= 0 && claim(visited, u)) frontier[size++] = u;
+		}
+		frontier = Arrays.copyOf(frontier, size);
+
+		int[] reached = new int[16];
+		int count = 0;
+
+		for (int depth = 1; frontier.length > 0
+				&& (maxDepth == 0 || depth <= maxDepth); depth++) {
+
+			frontier = pool.invoke(new ExpandTask(direction, typeMask,
+						visited, frontier, 0, frontier.length));
+
+			if (count + frontier.length > reached.length) {
+				reached = Arrays.copyOf(reached, Math.max(reached.length * 2,
+							count + frontier.length));
+			}
+			System.arraycopy(frontier, 0, reached, count, frontier.length);
+			count += frontier.length;
+		}
+
+		long[] result = new long[count];
+		for (int i = 0; i < count; i++) result[i] = graph.nodeId(reached[i]);
+		return result;
+	}
+
+
+	/**
+	 * Mark a node as visited
+	 *
+	 * @param visited the bitmap of visited nodes
+	 * @param u the node index
+	 * @return true if the node was not visited before
+	 */
+	private static boolean claim(AtomicLongArray visited, int u) {
+		int w = u >>> 6;
+		long bit = 1L << (u & 63);
+		while (true) {
+			long old = visited.get(w);
+			if ((old & bit) != 0) return false;
+			if (visited.compareAndSet(w, old, old | bit)) return true;
+		}
+	}
+
+
+	/**
+	 * Expands a range of the frontier into the nodes it newly reaches
+	 */
+	private class ExpandTask extends RecursiveTask<int[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		final int direction;
+		final int typeMask;
+		final AtomicLongArray visited;
+		final int[] frontier;
+		final int lo;
+		final int hi;
+
+		ExpandTask(int direction, int typeMask, AtomicLongArray visited,
+				int[] frontier, int lo, int hi) {
+			this.direction = direction;
+			this.typeMask = typeMask;
+			this.visited = visited;
+			this.frontier = frontier;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected int[] compute() {
+
+			if (hi - lo > SEQUENTIAL_THRESHOLD) {
+				int mid = (lo + hi) >>> 1;
+				ExpandTask left = new ExpandTask(direction, typeMask, visited,
+						frontier, lo, mid);
+				ExpandTask right = new ExpandTask(direction, typeMask,
+						visited, frontier, mid, hi);
+				left.fork();
+				int[] r = right.compute();
+				int[] l = left.join();
+
+				int[] both = Arrays.copyOf(l, l.length + r.length);
+				System.arraycopy(r, 0, both, l.length, r.length);
+				return both;
+			}
+
+			int[] next = new int[16];
+			int size = 0;
+			for (int i = lo; i < hi; i++) {
+				int u = frontier[i];
+				int end = graph.edgeEnd(direction, u);
+				for (int k = graph.edgeStart(direction, u); k < end; k++) {
+					if (!ProvGraphSnapshot.follows(typeMask,
+								graph.edgeType(direction, k))) continue;
+					int v = graph.edgeTarget(direction, k);
+					if (!claim(visited, v)) continue;
+					if (size == next.length) {
+						next = Arrays.copyOf(next, size * 2);
+					}
+					next[size++] = v;
+				}
+			}
+			return Arrays.copyOf(next, size);
+		}
+	}
+}
@@ -0,0 +1,901 @@
+package edu.harvard.pass.cpl;
+
+/*
+ * ProvRecorder.java
+ * Prov-CPL
+ *
+ * Copyright 2026
+ *      The President and Fellows of Harvard College.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the University nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE UNIVERSITY AND CONTRIBUTORS ``AS IS'' AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED.  IN NO EVENT SHALL THE UNIVERSITY OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS
+ * OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+ * LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY
+ * OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ *
+ * Contributor(s): agent
+ */
+
+import swig.direct.CPLDirect.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+
+/**
+ * An asynchronous, write-behind counterpart of ProvFactory. Object creation,
+ * relation creation, and property writes are put on a bounded queue and
+ * return immediately with a future; a background thread then writes them to
+ * the database in groups, using the bulk APIs (CPLObject.createAll,
+ * CPLRelation.createAll, and CPLPropertyBatch). A group is written when it
+ * reaches the flush size or when its oldest operation has waited for
+ * the flush interval, whichever comes first. If the queue is full, the
+ * calling thread blocks until there is room.
+ *
+ * Futures returned by this class can be passed back to it as relation
+ * endpoints or property targets before they complete. Other futures must
+ * already be complete when their operation is written; if one is not, the
+ * operation fails instead of blocking the background thread.
+ *
+ * @author agent
+ */
+public class ProvRecorder implements AutoCloseable {
+
+	/// The default capacity of the queue
+	public static final int DEFAULT_QUEUE_CAPACITY = 65536;
+
+	/// The default maximum number of operations written together
+	public static final int DEFAULT_FLUSH_SIZE = 4096;
+
+	/// The default maximum time an operation waits for its group, in ms
+	public static final long DEFAULT_FLUSH_INTERVAL = 50;
+
+	/// The namespace prefix of the created objects
+	private final String prefix;
+
+	/// The maximum number of operations written together
+	private final int flushSize;
+
+	/// The maximum time an operation waits for its group, in ms
+	private final long flushInterval;
+
+	/// The pending operations
+	private final BlockingQueue<Op> queue;
+
+	/// The background thread that writes the operations
+	private final Thread flusher;
+
+	/// Whether close() was called or the background thread stopped
+	private volatile boolean closed = false;
+
+	/// Whether the background thread stopped
+	private volatile boolean terminated = false;
+
+	/// Held for reading while queueing, and for writing while closing
+	private final ReentrantReadWriteLock closeLock
+		= new ReentrantReadWriteLock();
+
+
+	/**
+	 * A queued operation
+	 */
+	private static abstract class Op {
+
+		/**
+		 * Fail the operation
+		 *
+		 * @param e the cause
+		 */
+		abstract void fail(Throwable e);
+	}
+
+	/**
+	 * A queued object creation
+	 */
+	private static class ObjectOp extends Op {
+		final String name;
+		final int type;
+		final CompletableFuture<CPLObject> future
+			= new CompletableFuture<CPLObject>();
+
+		ObjectOp(String name, int type) {
+			this.name = name;
+			this.type = type;
+		}
+
+		@Override
+		void fail(Throwable e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * A queued relation creation
+	 */
+	private static class RelationOp extends Op {
+		final CompletableFuture<CPLObject> source;
+		final CompletableFuture<CPLObject> dest;
+		final int type;
+		final CompletableFuture<CPLRelation> future
+			= new CompletableFuture<CPLRelation>();
+
+		RelationOp(CompletableFuture<CPLObject> source,
+				CompletableFuture<CPLObject> dest, int type) {
+			this.source = source;
+			this.dest = dest;
+			this.type = type;
+		}
+
+		@Override
+		void fail(Throwable e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * A queued property write, either of an object or of a relation
+	 */
+	private static class PropertyOp extends Op {
+		final CompletableFuture<? extends Object> target;
+		final String prefix;
+		final String key;
+		final Object value;
+		final CompletableFuture<Void> future = new CompletableFuture<Void>();
+
+		PropertyOp(CompletableFuture<? extends Object> target, String prefix,
+				String key, Object value) {
+			this.target = target;
+			this.prefix = prefix;
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		void fail(Throwable e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * A marker that completes when all operations before it are written
+	 */
+	private static class BarrierOp extends Op {
+		final boolean last;
+		final CompletableFuture<Void> future = new CompletableFuture<Void>();
+
+		BarrierOp(boolean last) {
+			this.last = last;
+		}
+
+		@Override
+		void fail(Throwable e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+
+	/**
+	 * Create an instance of ProvRecorder with the default settings
+	 *
+	 * @param prefix the namespace prefix of the created objects
+	 */
+	public ProvRecorder(String prefix) {
+		this(prefix, DEFAULT_QUEUE_CAPACITY, DEFAULT_FLUSH_SIZE,
+				DEFAULT_FLUSH_INTERVAL);
+	}
+
+
+	/**
+	 * Create an instance of ProvRecorder
+	 *
+	 * @param prefix the namespace prefix of the created objects
+	 * @param queueCapacity the maximum number of pending operations
+	 * @param flushSize the maximum number of operations written together
+	 * @param flushInterval the maximum time in milliseconds an operation
+	 *                      waits for more operations to join its group
+	 */
+	public ProvRecorder(String prefix, int queueCapacity, int flushSize,
+			long flushInterval) {
+
+		if (queueCapacity <= 0 || flushSize <= 0 || flushInterval < 0) {
+			throw new CPLException("Invalid recorder settings",
+					CPLDirectConstants.CPL_E_INVALID_ARGUMENT);
+		}
+
+		this.prefix = prefix;
+		this.flushSize = flushSize;
+		this.flushInterval = flushInterval;
+		this.queue = new ArrayBlockingQueue<Op>(queueCapacity);
+
+		this.flusher = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				runFlusher();
+			}
+		}, "ProvRecorder-flusher");
+		this.flusher.setDaemon(true);
+		this.flusher.start();
+	}
+
+
+	/**
+	 * Get the prefix
+	 *
+	 * @return the namespace prefix of the created objects
+	 */
+	public String getPrefix() {
+		return prefix;
+	}
+
+
+	/**
+	 * Queue an operation, blocking while the queue is full
+	 *
+	 * @param op the operation
+	 */
+	private void enqueue(Op op) {
+		closeLock.readLock().lock();
+		try {
+			if (closed) {
+				throw new IllegalStateException("The recorder is closed");
+			}
+			put(op);
+		}
+		finally {
+			closeLock.readLock().unlock();
+		}
+	}
+
+
+	/**
+	 * Put an operation on the queue, blocking while the queue is full
+	 *
+	 * @param op the operation
+	 */
+	private void put(Op op) {
+		try {
+			queue.put(op);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while queueing", e);
+		}
+
+		// If the background thread stopped while we were waiting for room,
+		// nobody is going to take the operation off the queue
+
+		if (terminated && queue.remove(op)) {
+			op.fail(new IllegalStateException("The recorder has stopped"));
+		}
+	}
+
+
+	/**
+	 * Queue the creation of an object
+	 *
+	 * @param name the object name
+	 * @param type the object type
+	 * @return the future object
+	 */
+	public CompletableFuture<CPLObject> createObject(String name, int type) {
+		ObjectOp op = new ObjectOp(name, type);
+		enqueue(op);
+		return op.future;
+	}
+
+	/**
+	 * Queue the creation of a prov:Entity
+	 *
+	 * @param name the object name
+	 * @return the future object
+	 */
+	public CompletableFuture<CPLObject> createEntity(String name) {
+		return createObject(name, CPLObject.ENTITY);
+	}
+
+	/**
+	 * Queue the creation of a prov:Agent
+	 *
+	 * @param name the object name
+	 * @return the future object
+	 */
+	public CompletableFuture<CPLObject> createAgent(String name) {
+		return createObject(name, CPLObject.AGENT);
+	}
+
+	/**
+	 * Queue the creation of a prov:Activity
+	 *
+	 * @param name the object name
+	 * @return the future object
+	 */
+	public CompletableFuture<CPLObject> createActivity(String name) {
+		return createObject(name, CPLObject.ACTIVITY);
+	}
+
+
+	/**
+	 * Queue the creation of a relation
+	 *
+	 * @param source the source object, possibly not yet created
+	 * @param dest the destination object, possibly not yet created
+	 * @param type the relation type
+	 * @return the future relation
+	 */
+	public CompletableFuture<CPLRelation> createRelation(
+			CompletableFuture<CPLObject> source,
+			CompletableFuture<CPLObject> dest, int type) {
+		RelationOp op = new RelationOp(source, dest, type);
+		enqueue(op);
+		return op.future;
+	}
+
+	/**
+	 * Queue the creation of a relation between existing objects
+	 *
+	 * @param source the source object
+	 * @param dest the destination object
+	 * @param type the relation type
+	 * @return the future relation
+	 */
+	public CompletableFuture<CPLRelation> createRelation(CPLObject source,
+			CPLObject dest, int type) {
+		return createRelation(CompletableFuture.completedFuture(source),
+				CompletableFuture.completedFuture(dest), type);
+	}
+
+	/**
+	 * Queue the creation of prov:wasGeneratedBy
+	 *
+	 * @param source the generated entity
+	 * @param dest the generating activity
+	 * @return the future relation
+	 */
+	public CompletableFuture<CPLRelation> createWasGeneratedBy(
+			CompletableFuture<CPLObject> source,
+			CompletableFuture<CPLObject> dest) {
+		return createRelation(source, dest, CPLRelation.WASGENERATEDBY);
+	}
+
+	/**
+	 * Queue the creation of prov:used
+	 *
+	 * @param source the activity
+	 * @param dest the used entity
+	 * @return the future relation
+	 */
+	public CompletableFuture<CPLRelation> createUsed(
+			CompletableFuture<CPLObject> source,
+			CompletableFuture<CPLObject> dest) {
+		return createRelation(source, dest, CPLRelation.USED);
+	}
+
+	/**
+	 * Queue the creation of prov:wasDerivedFrom
+	 *
+	 * @param source the derived entity
+	 * @param dest the original entity
+	 * @return the future relation
+	 */
+	public CompletableFuture<CPLRelation> createWasDerivedFrom(
+			CompletableFuture<CPLObject> source,
+			CompletableFuture<CPLObject> dest) {
+		return createRelation(source, dest, CPLRelation.WASDERIVEDFROM);
+	}
+
+	/**
+	 * Queue the creation of prov:wasAssociatedWith
+	 *
+	 * @param source the activity
+	 * @param dest the agent
+	 * @return the future relation
+	 */
+	public CompletableFuture<CPLRelation> createWasAssociatedWith(
+			CompletableFuture<CPLObject> source,
+			CompletableFuture<CPLObject> dest) {
+		return createRelation(source, dest, CPLRelation.WASASSOCIATEDWITH);
+	}
+
+	/**
+	 * Queue the creation of prov:wasAttributedTo
+	 *
+	 * @param source the entity
+	 * @param dest the agent
+	 * @return the future relation
+	 */
+	public CompletableFuture<CPLRelation> createWasAttributedTo(
+			CompletableFuture<CPLObject> source,
+			CompletableFuture<CPLObject> dest) {
+		return createRelation(source, dest, CPLRelation.WASATTRIBUTEDTO);
+	}
+
+	/**
+	 * Queue the creation of prov:wasInformedBy
+	 *
+	 * @param source the informed activity
+	 * @param dest the informant activity
+	 * @return the future relation
+	 */
+	public CompletableFuture<CPLRelation> createWasInformedBy(
+			CompletableFuture<CPLObject> source,
+			CompletableFuture<CPLObject> dest) {
+		return createRelation(source, dest, CPLRelation.WASINFORMEDBY);
+	}
+
+
+	/**
+	 * Queue a string property of an object
+	 *
+	 * @param object the object, possibly not yet created
+	 * @param prefix the prefix
+	 * @param key the key
+	 * @param value the value
+	 * @return the future that completes when the property is written
+	 */
+	public CompletableFuture<Void> addObjectProperty(
+			CompletableFuture<CPLObject> object, String prefix, String key,
+			String value) {
+		return addProperty(object, prefix, key, value);
+	}
+
+	/**
+	 * Queue a numerical property of an object
+	 *
+	 * @param object the object, possibly not yet created
+	 * @param prefix the prefix
+	 * @param key the key
+	 * @param value the value
+	 * @return the future that completes when the property is written
+	 */
+	public CompletableFuture<Void> addObjectProperty(
+			CompletableFuture<CPLObject> object, String prefix, String key,
+			double value) {
+		return addProperty(object, prefix, key, value);
+	}
+
+	/**
+	 * Queue a boolean property of an object
+	 *
+	 * @param object the object, possibly not yet created
+	 * @param prefix the prefix
+	 * @param key the key
+	 * @param value the value
+	 * @return the future that completes when the property is written
+	 */
+	public CompletableFuture<Void> addObjectProperty(
+			CompletableFuture<CPLObject> object, String prefix, String key,
+			boolean value) {
+		return addProperty(object, prefix, key, value);
+	}
+
+	/**
+	 * Queue a string property of a relation
+	 *
+	 * @param relation the relation, possibly not yet created
+	 * @param prefix the prefix
+	 * @param key the key
+	 * @param value the value
+	 * @return the future that completes when the property is written
+	 */
+	public CompletableFuture<Void> addRelationProperty(
+			CompletableFuture<CPLRelation> relation, String prefix,
+			String key, String value) {
+		return addProperty(relation, prefix, key, value);
+	}
+
+	/**
+	 * Queue a numerical property of a relation
+	 *
+	 * @param relation the relation, possibly not yet created
+	 * @param prefix the prefix
+	 * @param key the key
+	 * @param value the value
+	 * @return the future that completes when the property is written
+	 */
+	public CompletableFuture<Void> addRelationProperty(
+			CompletableFuture<CPLRelation> relation, String prefix,
+			String key, double value) {
+		return addProperty(relation, prefix, key, value);
+	}
+
+	/**
+	 * Queue a boolean property of a relation
+	 *
+	 * @param relation the relation, possibly not yet created
+	 * @param prefix the prefix
+	 * @param key the key
+	 * @param value the value
+	 * @return the future that completes when the property is written
+	 */
+	public CompletableFuture<Void> addRelationProperty(
+			CompletableFuture<CPLRelation> relation, String prefix,
+			String key, boolean value) {
+		return addProperty(relation, prefix, key, value);
+	}
+
+	/**
+	 * Queue a property write
+	 *
+	 * @param target the future object or relation
+	 * @param prefix the prefix
+	 * @param key the key
+	 * @param value the value: a String, Double, or Boolean
+	 * @return the future that completes when the property is written
+	 */
+	private CompletableFuture<Void> addProperty(
+			CompletableFuture<? extends Object> target, String prefix,
+			String key, Object value) {
+		PropertyOp op = new PropertyOp(target, prefix, key, value);
+		enqueue(op);
+		return op.future;
+	}
+
+
+	/**
+	 * Wait until all operations queued so far are written to the database
+	 * (or failed). The individual futures report any failures.
+	 */
+	public void flush() {
+		BarrierOp op = new BarrierOp(false);
+		enqueue(op);
+		op.future.join();
+	}
+
+
+	/**
+	 * Write all queued operations and stop the background thread. Further
+	 * operations are rejected.
+	 */
+	@Override
+	public void close() {
+
+		// Mark the recorder as closed and queue the final barrier under the
+		// write lock, so that no operation can end up behind the barrier
+
+		BarrierOp op = new BarrierOp(true);
+		closeLock.writeLock().lock();
+		try {
+			if (closed) return;
+			closed = true;
+			put(op);
+		}
+		finally {
+			closeLock.writeLock().unlock();
+		}
+
+		try {
+			op.future.join();
+		}
+		catch (CompletionException e) {
+			// The failures are reported by the individual futures
+		}
+		try {
+			flusher.join();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	/**
+	 * The main loop of the background thread
+	 */
+	private void runFlusher() {
+		try {
+			flushLoop();
+		}
+		finally {
+			terminate();
+		}
+	}
+
+
+	/**
+	 * Collect the queued operations into groups and write them until the
+	 * final barrier
+	 */
+	private void flushLoop() {
+
+		ArrayList<Op> group = new ArrayList<Op>(flushSize);
+
+		while (true) {
+
+			// Wait for the first operation of the group
+
+			Op op;
+			try {
+				op = queue.take();
+			}
+			catch (InterruptedException e) {
+				continue;
+			}
+			group.add(op);
+
+
+			// Collect more operations until the group is full, the oldest
+			// operation has waited long enough, or we hit a barrier
+
+			long deadline = System.nanoTime()
+				+ TimeUnit.MILLISECONDS.toNanos(flushInterval);
+			while (group.size() < flushSize && !(op instanceof BarrierOp)) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) break;
+				try {
+					op = queue.poll(remaining, TimeUnit.NANOSECONDS);
+				}
+				catch (InterruptedException e) {
+					break;
+				}
+				if (op == null) break;
+				group.add(op);
+			}
+
+			boolean last;
+			try {
+				last = write(group);
+			}
+			catch (RuntimeException e) {
+				for (Op o : group) o.fail(e);
+				last = containsLastBarrier(group);
+			}
+			catch (Error e) {
+				for (Op o : group) o.fail(e);
+				throw e;
+			}
+			group.clear();
+			if (last) return;
+		}
+	}
+
+
+	/**
+	 * Check whether a group contains the final barrier
+	 *
+	 * @param group the operations
+	 * @return true if one of them is the barrier queued by close()
+	 */
+	private static boolean containsLastBarrier(List<Op> group) {
+		for (Op op : group) {
+			if (op instanceof BarrierOp && ((BarrierOp) op).last) return true;
+		}
+		return false;
+	}
+
+
+	/**
+	 * Reject further operations and fail the ones left in the queue. This is
+	 * called when the background thread exits, normally or not.
+	 */
+	private void terminate() {
+
+		closed = true;
+		terminated = true;
+
+		ArrayList<Op> rest = new ArrayList<Op>();
+		queue.drainTo(rest);
+		if (rest.isEmpty()) return;
+
+		IllegalStateException e
+			= new IllegalStateException("The recorder has stopped");
+		for (Op op : rest) op.fail(e);
+	}
+
+
+	/**
+	 * Write a group of operations: first all objects, then all relations,
+	 * and finally all properties, so that later operations in the group can
+	 * refer to the objects and relations created by earlier ones
+	 *
+	 * @param group the operations in the queue order
+	 * @return true if the group contains the final barrier
+	 */
+	private boolean write(List<Op> group) {
+
+		LinkedHashMap<Integer, List<ObjectOp>> objects
+			= new LinkedHashMap<Integer, List<ObjectOp>>();
+		ArrayList<RelationOp> relations = new ArrayList<RelationOp>();
+		ArrayList<PropertyOp> properties = new ArrayList<PropertyOp>();
+		ArrayList<BarrierOp> barriers = new ArrayList<BarrierOp>();
+
+		for (Op op : group) {
+			if (op instanceof ObjectOp) {
+				ObjectOp o = (ObjectOp) op;
+				List<ObjectOp> l = objects.get(o.type);
+				if (l == null) {
+					l = new ArrayList<ObjectOp>();
+					objects.put(o.type, l);
+				}
+				l.add(o);
+			}
+			else if (op instanceof RelationOp) {
+				relations.add((RelationOp) op);
+			}
+			else if (op instanceof PropertyOp) {
+				properties.add((PropertyOp) op);
+			}
+			else {
+				barriers.add((BarrierOp) op);
+			}
+		}
+
+		for (Map.Entry<Integer, List<ObjectOp>> e : objects.entrySet()) {
+			writeObjects(e.getKey(), e.getValue());
+		}
+		writeRelations(relations);
+		writeProperties(properties);
+
+		boolean last = false;
+		for (BarrierOp b : barriers) {
+			b.future.complete(null);
+			if (b.last) last = true;
+		}
+		return last;
+	}
+
+
+	/**
+	 * Create objects of the same type
+	 *
+	 * @param type the object type
+	 * @param ops the object creation operations
+	 */
+	private void writeObjects(int type, List<ObjectOp> ops) {
+
+		String[] names = new String[ops.size()];
+		for (int i = 0; i < names.length; i++) names[i] = ops.get(i).name;
+
+		try {
+			CPLObject[] created = CPLObject.createAll(prefix, names, type);
+			for (int i = 0; i < created.length; i++) {
+				ops.get(i).future.complete(created[i]);
+			}
+		}
+		catch (RuntimeException e) {
+			for (ObjectOp op : ops) op.future.completeExceptionally(e);
+		}
+	}
+
+
+	/**
+	 * Create relations, skipping those whose endpoints could not be created
+	 *
+	 * @param ops the relation creation operations
+	 */
+	private void writeRelations(List<RelationOp> ops) {
+
+		ArrayList<RelationOp> ready = new ArrayList<RelationOp>(ops.size());
+		ArrayList<CPLObject> sources = new ArrayList<CPLObject>(ops.size());
+		ArrayList<CPLObject> dests = new ArrayList<CPLObject>(ops.size());
+
+		for (RelationOp op : ops) {
+			if (!op.source.isDone() || !op.dest.isDone()) {
+				op.future.completeExceptionally(new CPLException(
+							"The relation endpoints are not created yet",
+							CPLDirectConstants.CPL_E_INVALID_ARGUMENT));
+				continue;
+			}
+			try {
+				CPLObject s = op.source.join();
+				CPLObject d = op.dest.join();
+				sources.add(s);
+				dests.add(d);
+				ready.add(op);
+			}
+			catch (RuntimeException e) {
+				op.future.completeExceptionally(e);
+			}
+		}
+		if (ready.isEmpty()) return;
+
+		int[] types = new int[ready.size()];
+		for (int i = 0; i < types.length; i++) types[i] = ready.get(i).type;
+
+		try {
+			CPLRelation[] created = CPLRelation.createAll(
+					sources.toArray(new CPLObject[sources.size()]),
+					dests.toArray(new CPLObject[dests.size()]), types);
+			for (int i = 0; i < created.length; i++) {
+				ready.get(i).future.complete(created[i]);
+			}
+		}
+		catch (RuntimeException e) {
+			for (RelationOp op : ready) op.future.completeExceptionally(e);
+		}
+	}
+
+
+	/**
+	 * Write properties, skipping those whose targets could not be created
+	 *
+	 * @param ops the property operations
+	 */
+	private void writeProperties(List<PropertyOp> ops) {
+
+		CPLPropertyBatch batch = new CPLPropertyBatch(0);
+		ArrayList<PropertyOp> ready = new ArrayList<PropertyOp>(ops.size());
+
+		for (PropertyOp op : ops) {
+			if (!op.target.isDone()) {
+				op.future.completeExceptionally(new CPLException(
+							"The property target is not created yet",
+							CPLDirectConstants.CPL_E_INVALID_ARGUMENT));
+				continue;
+			}
+			try {
+				Object t = op.target.join();
+				if (t instanceof CPLObject) {
+					CPLObject o = (CPLObject) t;
+					if (op.value instanceof Double) {
+						batch.addNumericalProperty(o, op.prefix, op.key,
+								(Double) op.value);
+					}
+					else if (op.value instanceof Boolean) {
+						batch.addBooleanProperty(o, op.prefix, op.key,
+								(Boolean) op.value);
+					}
+					else {
+						batch.addStringProperty(o, op.prefix, op.key,
+								(String) op.value);
+					}
+				}
+				else {
+					CPLRelation r = (CPLRelation) t;
+					if (op.value instanceof Double) {
+						batch.addNumericalProperty(r, op.prefix, op.key,
+								(Double) op.value);
+					}
+					else if (op.value instanceof Boolean) {
+						batch.addBooleanProperty(r, op.prefix, op.key,
+								(Boolean) op.value);
+					}
+					else {
+						batch.addStringProperty(r, op.prefix, op.key,
+								(String) op.value);
+					}
+				}
+				ready.add(op);
+			}
+			catch (RuntimeException e) {
+				op.future.completeExceptionally(e);
+			}
+		}
+		if (ready.isEmpty()) return;
+
+		try {
+			batch.flush();
+			for (PropertyOp op : ready) op.future.complete(null);
+		}
+		catch (RuntimeException e) {
+			for (PropertyOp op : ready) op.future.completeExceptionally(e);
+		}
+	}
+}
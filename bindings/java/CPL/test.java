@@ -34,7 +34,12 @@
 
 import edu.harvard.pass.cpl.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.Vector;
 import java.util.Random;
@@ -558,6 +563,439 @@ public class test {
 			throw new RuntimeException("getStringProperties(\"TAG\") returned an incorrect vector");
 		}
 
+		System.out.println();
+
+		/*
+		 * Bulk object creation
+		 */
+
+		String[] bulk_names = { "BulkA" + rand, "BulkB" + rand, "BulkC" + rand };
+		System.out.print("CPLObject.createAll(\"Bulk\")");
+		CPLObject[] bulk = CPLObject.createAll(PREFIX, bulk_names, CPLObject.ENTITY);
+		System.out.println(": " + bulk.length + " results");
+		if (bulk.length != bulk_names.length)
+			throw new RuntimeException("createAll() returned the wrong number of objects");
+		for (int i = 0; i < bulk.length; i++) {
+			CPLObject bulkx = CPLObject.lookup(PREFIX, bulk_names[i], CPLObject.ENTITY);
+			if (!bulk[i].equals(bulkx))
+				throw new RuntimeException("createAll() returned the objects in the wrong order");
+		}
+
+		System.out.println();
+
+		/*
+		 * Bulk relation creation
+		 */
+
+		System.out.print("CPLRelation.createAll(bulk)");
+		CPLRelation[] bulk_rels = CPLRelation.createAll(
+				new CPLObject[] { bulk[0], bulk[1] },
+				new CPLObject[] { bulk[1], bulk[2] },
+				new int[] { CPLRelation.WASDERIVEDFROM, CPLRelation.WASDERIVEDFROM });
+		System.out.println(": " + bulk_rels.length + " results");
+		if (bulk_rels.length != 2)
+			throw new RuntimeException("createAll() returned the wrong number of relations");
+
+		System.out.print("bulk[1].getRelations(D_ANCESTORS)");
+		rvec = bulk[1].getRelations(CPLObject.D_ANCESTORS, 0);
+		System.out.println(": " + rvec.size() + " results");
+		if (rvec.size() != 1 || !rvec.contains(bulk_rels[1])) {
+			throw new RuntimeException("Relation lookup returned an incorrect vector");
+		}
+
+		System.out.print("bulk[1].getRelations(D_DESCENDANTS)");
+		rvec = bulk[1].getRelations(CPLObject.D_DESCENDANTS, 0);
+		System.out.println(": " + rvec.size() + " results");
+		if (rvec.size() != 1 || !rvec.contains(bulk_rels[0])) {
+			throw new RuntimeException("Relation lookup returned an incorrect vector");
+		}
+
+		System.out.println();
+
+		/*
+		 * Batched properties
+		 */
+
+		System.out.print("CPLPropertyBatch.flush()");
+		CPLPropertyBatch batch = new CPLPropertyBatch(2);
+		batch.addStringProperty(bulk[1], PREFIX, "KIND", "bulk");
+		batch.addNumericalProperty(bulk[1], PREFIX, "WEIGHT", 1.5);
+		batch.addBooleanProperty(bulk[1], PREFIX, "FLAG", true);
+		batch.addStringProperty(bulk_rels[1], PREFIX, "KIND", "bulk");
+		batch.close();
+		System.out.println(": " + batch.size() + " pending");
+		if (batch.size() != 0)
+			throw new RuntimeException("close() did not flush the batch");
+
+		System.out.println("bulk[1].getStringProperties():");
+		stringProps = bulk[1].getStringProperties();
+		if (stringProps.size() != 1
+				|| !stringProps.contains(new CPLPropertyEntry<>(PREFIX, "KIND", "bulk"))) {
+			throw new RuntimeException("getStringProperties() returned an incorrect vector");
+		}
+
+		System.out.println("bulk[1].getNumericalProperties():");
+		numProps = bulk[1].getNumericalProperties();
+		if (numProps.size() != 1
+				|| !numProps.contains(new CPLPropertyEntry<>(PREFIX, "WEIGHT", 1.5))) {
+			throw new RuntimeException("getNumericalProperties() returned an incorrect vector");
+		}
+
+		System.out.println("bulk[1].getBooleanProperties():");
+		boolProps = bulk[1].getBooleanProperties();
+		if (boolProps.size() != 1
+				|| !boolProps.contains(new CPLPropertyEntry<>(PREFIX, "FLAG", true))) {
+			throw new RuntimeException("getBooleanProperties() returned an incorrect vector");
+		}
+
+		System.out.println("bulk_rels[1].getStringProperties():");
+		stringProps = bulk_rels[1].getStringProperties();
+		if (stringProps.size() != 1
+				|| !stringProps.contains(new CPLPropertyEntry<>(PREFIX, "KIND", "bulk"))) {
+			throw new RuntimeException("getStringProperties() returned an incorrect vector");
+		}
+
+		System.out.println();
+
+		/*
+		 * Transitive lineage
+		 */
+
+		System.out.print("entity.getAncestry(0, ALL_TYPES)");
+		Vector<CPLLineageEntry> lvec = entity.getAncestry(0, CPLRelation.ALL_TYPES);
+		System.out.println(": " + lvec.size() + " results");
+		if (lvec.size() != 3
+				|| !lvec.contains(new CPLLineageEntry(r1, 1))
+				|| !lvec.contains(new CPLLineageEntry(r2, 1))
+				|| !lvec.contains(new CPLLineageEntry(r3, 2))) {
+			throw new RuntimeException("getAncestry() returned an incorrect vector");
+		}
+
+		System.out.print("entity.getAncestry(1, ALL_TYPES)");
+		lvec = entity.getAncestry(1, CPLRelation.ALL_TYPES);
+		System.out.println(": " + lvec.size() + " results");
+		if (lvec.size() != 2
+				|| !lvec.contains(new CPLLineageEntry(r1, 1))
+				|| !lvec.contains(new CPLLineageEntry(r2, 1))) {
+			throw new RuntimeException("getAncestry() returned an incorrect vector");
+		}
+
+		System.out.print("entity.getAncestry(0, WASGENERATEDBY)");
+		lvec = entity.getAncestry(0, CPLRelation.typeMask(CPLRelation.WASGENERATEDBY));
+		System.out.println(": " + lvec.size() + " results");
+		if (lvec.size() != 1 || !lvec.contains(new CPLLineageEntry(r2, 1))) {
+			throw new RuntimeException("getAncestry() returned an incorrect vector");
+		}
+
+		System.out.print("agent.getProgeny(0, ALL_TYPES)");
+		lvec = agent.getProgeny(0, CPLRelation.ALL_TYPES);
+		System.out.println(": " + lvec.size() + " results");
+		if (lvec.size() != 3
+				|| !lvec.contains(new CPLLineageEntry(r1, 1))
+				|| !lvec.contains(new CPLLineageEntry(r3, 1))
+				|| !lvec.contains(new CPLLineageEntry(r2, 2))) {
+			throw new RuntimeException("getProgeny() returned an incorrect vector");
+		}
+
+		// Bundle membership is not a dependency, so it must never show up
+
+		System.out.print("bundle.getAncestry(0, ALL_TYPES)");
+		lvec = bundle.getAncestry(0, CPLRelation.ALL_TYPES);
+		System.out.println(": " + lvec.size() + " results");
+		if (lvec.size() != 0) {
+			throw new RuntimeException("getAncestry() followed bundle membership");
+		}
+
+		System.out.print("bundle.getProgeny(0, ALL_TYPES)");
+		lvec = bundle.getProgeny(0, CPLRelation.ALL_TYPES);
+		System.out.println(": " + lvec.size() + " results");
+		if (lvec.size() != 0) {
+			throw new RuntimeException("getProgeny() followed bundle membership");
+		}
+
+		System.out.println();
+
+		/*
+		 * Reachability
+		 */
+
+		for (int pass = 0; pass < 2; pass++) {
+			String mode = pass == 0 ? " (query)" : " (index)";
+			if (pass == 1) {
+				System.out.print("CPLReachabilityIndex.enable()");
+				CPLReachabilityIndex index = CPLReachabilityIndex.enable();
+				System.out.println(": " + index.size() + " objects");
+			}
+
+			System.out.print("agent.isAncestorOf(entity)" + mode);
+			boolean reachable = agent.isAncestorOf(entity);
+			System.out.println(": " + reachable);
+			if (!reachable)
+				throw new RuntimeException("isAncestorOf() missed a direct ancestor");
+
+			System.out.print("bulk[2].isAncestorOf(bulk[0])" + mode);
+			reachable = bulk[2].isAncestorOf(bulk[0]);
+			System.out.println(": " + reachable);
+			if (!reachable)
+				throw new RuntimeException("isAncestorOf() missed a transitive ancestor");
+
+			System.out.print("entity.isAncestorOf(agent)" + mode);
+			reachable = entity.isAncestorOf(agent);
+			System.out.println(": " + reachable);
+			if (reachable)
+				throw new RuntimeException("isAncestorOf() followed a relation backwards");
+
+			System.out.print("bundle.isAncestorOf(entity)" + mode);
+			reachable = bundle.isAncestorOf(entity);
+			System.out.println(": " + reachable);
+			if (reachable)
+				throw new RuntimeException("isAncestorOf() followed bundle membership");
+		}
+
+		System.out.print("CPLRelation.create(bulk[2], agent) (index)");
+		CPLRelation.create(bulk[2], agent, CPLRelation.WASATTRIBUTEDTO);
+		boolean reachable = agent.isAncestorOf(bulk[0]);
+		System.out.println(": " + reachable);
+		if (!reachable)
+			throw new RuntimeException("The reachability index missed a new relation");
+
+		CPLReachabilityIndex.disable();
+
+		System.out.println();
+
+		/*
+		 * Shortest paths
+		 */
+
+		System.out.print("entity.findPath(agent, 0, ALL_TYPES)");
+		Vector<CPLRelation> path = entity.findPath(agent, 0, CPLRelation.ALL_TYPES);
+		System.out.println(": " + path);
+		if (path == null || path.size() != 1 || !path.contains(r1)) {
+			throw new RuntimeException("findPath() did not return the shortest path");
+		}
+
+		System.out.print("agent.findPath(entity, 0, ALL_TYPES)");
+		path = agent.findPath(entity, 0, CPLRelation.ALL_TYPES);
+		System.out.println(": " + path);
+		if (path == null || path.size() != 1 || !path.contains(r1)) {
+			throw new RuntimeException("findPath() did not search the other direction");
+		}
+
+		int path_mask = CPLRelation.typeMask(CPLRelation.WASGENERATEDBY,
+				CPLRelation.WASASSOCIATEDWITH);
+		System.out.print("entity.findPath(agent, 0, WASGENERATEDBY | WASASSOCIATEDWITH)");
+		path = entity.findPath(agent, 0, path_mask);
+		System.out.println(": " + path);
+		if (path == null || path.size() != 2
+				|| !path.get(0).equals(r2) || !path.get(1).equals(r3)) {
+			throw new RuntimeException("findPath() did not apply the type mask");
+		}
+
+		System.out.print("entity.findPath(agent, 1, WASGENERATEDBY | WASASSOCIATEDWITH)");
+		path = entity.findPath(agent, 1, path_mask);
+		System.out.println(": " + path);
+		if (path != null) {
+			throw new RuntimeException("findPath() did not apply the depth limit");
+		}
+
+		System.out.print("bulk[0].findPath(agent, 0, ALL_TYPES)");
+		path = bulk[0].findPath(agent, 0, CPLRelation.ALL_TYPES);
+		System.out.println(": " + path);
+		if (path == null || path.size() != 3
+				|| !path.get(0).equals(bulk_rels[0]) || !path.get(1).equals(bulk_rels[1])) {
+			throw new RuntimeException("findPath() did not return the shortest path");
+		}
+
+		System.out.print("bundle.findPath(entity, 0, ALL_TYPES)");
+		path = bundle.findPath(entity, 0, CPLRelation.ALL_TYPES);
+		System.out.println(": " + path);
+		if (path != null) {
+			throw new RuntimeException("findPath() followed bundle membership");
+		}
+
+		System.out.println();
+
+		/*
+		 * Streaming JSON import
+		 */
+
+		// The relations come first and the window holds a single record,
+		// so they wait for their objects and one of them has to be spilled
+
+		String doc_entity = "DocEntity" + rand;
+		String doc_activity = "DocActivity" + rand;
+		String doc = "{"
+			+ "\"wasGeneratedBy\": {\"_:g1\": {"
+			+ "\"prov:entity\": \"" + PREFIX + ":" + doc_entity + "\", "
+			+ "\"prov:activity\": \"" + PREFIX + ":" + doc_activity + "\"}}, "
+			+ "\"wasDerivedFrom\": {\"_:d1\": {"
+			+ "\"prov:generatedEntity\": \"" + PREFIX + ":" + doc_entity + "\", "
+			+ "\"prov:usedEntity\": \"" + PREFIX + ":" + entity_name + "\"}}, "
+			+ "\"prefix\": {\"" + PREFIX + "\": \"" + IRI + "\"}, "
+			+ "\"entity\": {\"" + PREFIX + ":" + doc_entity + "\": {"
+			+ "\"" + PREFIX + ":LABEL\": \"doc\"}}, "
+			+ "\"activity\": {\"" + PREFIX + ":" + doc_activity + "\": {}}"
+			+ "}";
+
+		System.out.print("CPLJsonUtility.importJson(InputStream)");
+		CPLBundle doc_bundle = CPLJsonUtility.importJson(
+				new ByteArrayInputStream(doc.getBytes(StandardCharsets.UTF_8)),
+				"Doc" + rand, null, true, 1);
+		System.out.println(": " + doc_bundle);
+
+		CPLObject doc_e = CPLObject.lookup(PREFIX, doc_entity, CPLObject.ENTITY);
+		CPLObject doc_a = CPLObject.lookup(PREFIX, doc_activity, CPLObject.ACTIVITY);
+
+		System.out.print("doc_bundle.getBundleObjects()");
+		bovec = doc_bundle.getBundleObjects();
+		System.out.println(": " + bovec.size() + " results");
+		if (!bovec.contains(doc_e) || !bovec.contains(doc_a)) {
+			throw new RuntimeException("importJson() did not add the objects to the bundle");
+		}
+
+		System.out.print("doc_e.getRelations(D_ANCESTORS)");
+		rvec = doc_e.getRelations(CPLObject.D_ANCESTORS, 0);
+		System.out.println(": " + rvec.size() + " results");
+		boolean to_activity = false;
+		boolean to_extern = false;
+		for (CPLRelation rel : rvec) {
+			if (rel.getAncestor().equals(doc_a)
+					&& rel.getType() == CPLRelation.WASGENERATEDBY) to_activity = true;
+			if (rel.getAncestor().equals(entity)
+					&& rel.getType() == CPLRelation.WASDERIVEDFROM) to_extern = true;
+		}
+		if (rvec.size() != 2 || !to_activity || !to_extern) {
+			throw new RuntimeException("importJson() created the wrong relations");
+		}
+
+		System.out.println("doc_e.getStringProperties():");
+		stringProps = doc_e.getStringProperties();
+		if (stringProps.size() != 1
+				|| !stringProps.contains(new CPLPropertyEntry<>(PREFIX, "LABEL", "doc"))) {
+			throw new RuntimeException("importJson() stored the wrong properties");
+		}
+
+		String[] bad_docs = { "{\"prefix\": {},}", "{\"prefix\": {}} {}" };
+		for (int i = 0; i < bad_docs.length; i++) {
+			String bad_doc = bad_docs[i];
+			System.out.print("CPLJsonUtility.importJson(" + bad_doc + ")");
+			try {
+				CPLJsonUtility.importJson(new ByteArrayInputStream(
+						bad_doc.getBytes(StandardCharsets.UTF_8)),
+						"Bad" + i + "_" + rand, null, false, 1);
+				throw new RuntimeException("importJson() accepted " + bad_doc);
+			}
+			catch (CPLException e) {
+				System.out.println(": rejected");
+			}
+		}
+
+		System.out.println();
+
+		/*
+		 * Streaming JSON export
+		 */
+
+		CPLBundle[] doc_bundles = { doc_bundle };
+
+		System.out.print("CPLJsonUtility.exportBundleJson(OutputStream)");
+		ByteArrayOutputStream doc_out = new ByteArrayOutputStream();
+		CPLJsonUtility.exportBundleJson(doc_bundles, doc_out);
+		String exported = new String(doc_out.toByteArray(), StandardCharsets.UTF_8);
+		System.out.println(": " + exported.length() + " characters");
+		if (!exported.contains(doc_entity) || !exported.contains(doc_activity)
+				|| !exported.contains("wasGeneratedBy") || !exported.contains(IRI)) {
+			throw new RuntimeException("exportBundleJson() wrote an incomplete document");
+		}
+
+		System.out.print("CPLJsonUtility.exportBundleJson(WritableByteChannel)");
+		ByteArrayOutputStream doc_chan = new ByteArrayOutputStream();
+		CPLJsonUtility.exportBundleJson(doc_bundles, Channels.newChannel(doc_chan));
+		System.out.println(": " + doc_chan.size() + " bytes");
+		if (!Arrays.equals(doc_out.toByteArray(), doc_chan.toByteArray())) {
+			throw new RuntimeException("exportBundleJson() wrote different documents to a stream and a channel");
+		}
+
+		System.out.print("CPLJsonUtility.importJson(exported)");
+		CPLBundle doc_copy = CPLJsonUtility.importJson(
+				new ByteArrayInputStream(doc_out.toByteArray()),
+				"DocCopy" + rand, null, false);
+		System.out.println(": " + doc_copy);
+		if (doc_copy.getBundleObjects().size() != doc_bundle.getBundleObjects().size()
+				|| doc_copy.getBundleRelations().size() != doc_bundle.getBundleRelations().size()) {
+			throw new RuntimeException("The exported document does not round-trip");
+		}
+
+		System.out.println();
+
+		/*
+		 * Bulk JSON import
+		 */
+
+		String bulk_entity = "BulkDocEntity" + rand;
+		String bulk_agent = "BulkDocAgent" + rand;
+		String bulk_doc = "{"
+			+ "\"prefix\": {\"" + PREFIX + "\": \"" + IRI + "\"}, "
+			+ "\"entity\": {\"" + PREFIX + ":" + bulk_entity + "\": {"
+			+ "\"" + PREFIX + ":LABEL\": \"bulk\", \"" + PREFIX + ":SIZE\": 3}}, "
+			+ "\"agent\": {\"" + PREFIX + ":" + bulk_agent + "\": {}}, "
+			+ "\"wasAttributedTo\": {\"_:a1\": {"
+			+ "\"prov:entity\": \"" + PREFIX + ":" + bulk_entity + "\", "
+			+ "\"prov:agent\": \"" + PREFIX + ":" + bulk_agent + "\", "
+			+ "\"" + PREFIX + ":TAG\": \"owner\"}}"
+			+ "}";
+
+		System.out.print("CPLJsonUtility.importJson(bulkLoad)");
+		CPLBundle bulk_bundle = CPLJsonUtility.importJson(bulk_doc,
+				"BulkDoc" + rand, null, false, true);
+		System.out.println(": " + bulk_bundle);
+
+		CPLObject bulk_e = CPLObject.lookup(PREFIX, bulk_entity, CPLObject.ENTITY);
+		CPLObject bulk_a = CPLObject.lookup(PREFIX, bulk_agent, CPLObject.AGENT);
+
+		System.out.print("bulk_bundle.getBundleObjects()");
+		bovec = bulk_bundle.getBundleObjects();
+		System.out.println(": " + bovec.size() + " results");
+		if (bovec.size() != 2 || !bovec.contains(bulk_e) || !bovec.contains(bulk_a)) {
+			throw new RuntimeException("importJson(bulkLoad) did not add the objects to the bundle");
+		}
+
+		System.out.print("bulk_e.getRelations(D_ANCESTORS)");
+		rvec = bulk_e.getRelations(CPLObject.D_ANCESTORS, 0);
+		System.out.println(": " + rvec.size() + " results");
+		if (rvec.size() != 1 || !rvec.get(0).getAncestor().equals(bulk_a)
+				|| rvec.get(0).getType() != CPLRelation.WASATTRIBUTEDTO) {
+			throw new RuntimeException("importJson(bulkLoad) created the wrong relations");
+		}
+
+		System.out.print("bulk_bundle.getBundleRelations()");
+		brvec = bulk_bundle.getBundleRelations();
+		System.out.println(": " + brvec.size() + " results");
+		if (brvec.size() != 1 || !brvec.contains(rvec.get(0))) {
+			throw new RuntimeException("importJson(bulkLoad) did not add the relations to the bundle");
+		}
+
+		System.out.println("bulk_e.getStringProperties():");
+		stringProps = bulk_e.getStringProperties();
+		if (stringProps.size() != 1
+				|| !stringProps.contains(new CPLPropertyEntry<>(PREFIX, "LABEL", "bulk"))) {
+			throw new RuntimeException("importJson(bulkLoad) stored the wrong properties");
+		}
+
+		System.out.println("bulk_e.getNumericalProperties():");
+		numProps = bulk_e.getNumericalProperties();
+		if (numProps.size() != 1
+				|| !numProps.contains(new CPLPropertyEntry<>(PREFIX, "SIZE", 3.0))) {
+			throw new RuntimeException("importJson(bulkLoad) stored the wrong properties");
+		}
+
+		System.out.println("relation.getStringProperties():");
+		stringProps = rvec.get(0).getStringProperties();
+		if (stringProps.size() != 1
+				|| !stringProps.contains(new CPLPropertyEntry<>(PREFIX, "TAG", "owner"))) {
+			throw new RuntimeException("importJson(bulkLoad) stored the wrong relation properties");
+		}
+
 		System.out.println();
 		System.out.println("All tests passed.");
 	}
@@ -43,5 +43,18 @@
 %javaconst(0) cpl_cb_collect_property_lookup_vector;
 %javaconst(0) cpl_cb_collect_prefixes_vector;
 
+/*
+ * Pass cpl_id_t as a primitive jlong instead of java.math.BigInteger. All IDs
+ * are generated by the database and fit into a signed 64-bit integer, so
+ * nothing is lost, and we avoid allocating a BigInteger for every ID that
+ * crosses the JNI boundary.
+ */
+
+%include typemaps.i
+
+%apply long long { cpl_id_t };
+%apply const long long& { const cpl_id_t& };
+%apply long long* OUTPUT { unsigned long long* OUTPUT };
+
 %include "../../cpl.i"
 
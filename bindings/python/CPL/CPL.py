@@ -846,7 +846,8 @@ class cpl_connection:
 
     def export_bundle_json(self, bundles):
         '''
-        Exports bundles as a Prov-JSON document. Only works with single bundles currently.
+        Exports bundles as a single Prov-JSON document. The bundles are
+        fetched in parallel and merged, including their prefixes.
         '''
         bundle_ids = [bundle.id for bundle in bundles]
         bundles_vec = CPLDirect.cpl_id_t_vector(bundle_ids)
@@ -490,6 +490,53 @@ cpl_create_object(const char* prefix,
 }
 
 
+/**
+ * Create several objects with the same prefix and type at once.
+ *
+ * @param prefix the namespace prefix
+ * @param names the array of object names
+ * @param num_names the number of elements in the array
+ * @param type the object type
+ * @param out_ids the array to store the IDs of the newly created objects
+ * @return CPL_OK or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_create_objects(const char* prefix,
+				   const char* const* names,
+				   const size_t num_names,
+				   const int type,
+				   cpl_id_t* out_ids)
+{
+	CPL_ENSURE_INITIALIZED;
+
+	// Argument check
+
+	CPL_ENSURE_NOT_NULL(prefix);
+	CPL_ENSURE_O_TYPE(type);
+
+	if (num_names == 0) return CPL_S_OBJECT_CREATED;
+	CPL_ENSURE_NOT_NULL(names);
+
+	for (size_t i = 0; i < num_names; i++) {
+		CPL_ENSURE_NOT_NULL(names[i]);
+	}
+
+	// Call the backend
+
+	cpl_return_t ret;
+
+	ret = cpl_db_backend->cpl_db_create_objects(cpl_db_backend,
+												prefix,
+												names,
+												num_names,
+												type,
+												out_ids);
+	CPL_RUNTIME_VERIFY(ret);
+
+	return CPL_S_OBJECT_CREATED;
+}
+
+
 /**
  * Look up an object by name. If multiple objects share the same name,
  * get the latest one.
@@ -752,6 +799,53 @@ cpl_add_relation(const cpl_id_t from_id,
 }
 
 
+/**
+ * Add many relations at once.
+ *
+ * @param from_ids the array of the source IDs
+ * @param to_ids the array of the destination IDs
+ * @param types the array of the relation types
+ * @param num_relations the number of elements in each of the arrays
+ * @param out_ids the array to store the IDs of the new relations
+ * @return CPL_OK or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_add_relations(const cpl_id_t* from_ids,
+				  const cpl_id_t* to_ids,
+				  const int* types,
+				  const size_t num_relations,
+				  cpl_id_t* out_ids)
+{
+	CPL_ENSURE_INITIALIZED;
+
+	if (num_relations == 0) return CPL_OK;
+
+	// Check the arguments
+
+	CPL_ENSURE_NOT_NULL(from_ids);
+	CPL_ENSURE_NOT_NULL(to_ids);
+	CPL_ENSURE_NOT_NULL(types);
+
+	for (size_t i = 0; i < num_relations; i++) {
+		CPL_ENSURE_NOT_NONE(from_ids[i]);
+		CPL_ENSURE_NOT_NONE(to_ids[i]);
+		CPL_ENSURE_R_TYPE(types[i]);
+	}
+
+	cpl_return_t ret;
+
+	ret = cpl_db_backend->cpl_db_add_relations(cpl_db_backend,
+											   from_ids,
+											   to_ids,
+											   types,
+											   num_relations,
+											   out_ids);
+	CPL_RUNTIME_VERIFY(ret);
+
+	return CPL_OK;
+}
+
+
 /**
  * Add a property to the given relation.
  *
@@ -852,6 +946,113 @@ cpl_add_relation_boolean_property(const cpl_id_t id,
                                                         BOOLEANPROPERTY);
 };
 
+
+/**
+ * Check the arguments of cpl_add_object_properties() and
+ * cpl_add_relation_properties().
+ *
+ * @return CPL_OK or CPL_E_INVALID_ARGUMENT
+ */
+static cpl_return_t
+cpl_check_property_arrays(const cpl_id_t* ids,
+						  const char* const* prefixes,
+						  const char* const* keys,
+						  const char* const* values,
+						  const int* types,
+						  const size_t num_properties)
+{
+	CPL_ENSURE_NOT_NULL(ids);
+	CPL_ENSURE_NOT_NULL(prefixes);
+	CPL_ENSURE_NOT_NULL(keys);
+	CPL_ENSURE_NOT_NULL(values);
+	CPL_ENSURE_NOT_NULL(types);
+
+	for (size_t i = 0; i < num_properties; i++) {
+		CPL_ENSURE_NOT_NONE(ids[i]);
+		CPL_ENSURE_NOT_NULL(prefixes[i]);
+		CPL_ENSURE_NOT_NULL(keys[i]);
+		CPL_ENSURE_NOT_NULL(values[i]);
+		if (types[i] != STRINGPROPERTY && types[i] != NUMERICALPROPERTY
+				&& types[i] != BOOLEANPROPERTY) {
+			return CPL_E_INVALID_ARGUMENT;
+		}
+	}
+
+	return CPL_OK;
+}
+
+
+/**
+ * Add many properties to objects at once.
+ *
+ * @param ids the array of object IDs
+ * @param prefixes the array of prefixes
+ * @param keys the array of keys
+ * @param values the array of values, formatted as strings
+ * @param types the array of property types
+ * @param num_properties the number of elements in each of the arrays
+ * @return CPL_OK or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_add_object_properties(const cpl_id_t* ids,
+						  const char* const* prefixes,
+						  const char* const* keys,
+						  const char* const* values,
+						  const int* types,
+						  const size_t num_properties)
+{
+	CPL_ENSURE_INITIALIZED;
+
+	if (num_properties == 0) return CPL_OK;
+
+	cpl_return_t ret = cpl_check_property_arrays(ids, prefixes, keys,
+												 values, types,
+												 num_properties);
+	if (!CPL_IS_OK(ret)) return ret;
+
+	return cpl_db_backend->cpl_db_add_object_properties(cpl_db_backend,
+														ids, prefixes,
+														keys, values,
+														types,
+														num_properties);
+}
+
+
+/**
+ * Add many properties to relations at once.
+ *
+ * @param ids the array of relation IDs
+ * @param prefixes the array of prefixes
+ * @param keys the array of keys
+ * @param values the array of values, formatted as strings
+ * @param types the array of property types
+ * @param num_properties the number of elements in each of the arrays
+ * @return CPL_OK or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_add_relation_properties(const cpl_id_t* ids,
+							const char* const* prefixes,
+							const char* const* keys,
+							const char* const* values,
+							const int* types,
+							const size_t num_properties)
+{
+	CPL_ENSURE_INITIALIZED;
+
+	if (num_properties == 0) return CPL_OK;
+
+	cpl_return_t ret = cpl_check_property_arrays(ids, prefixes, keys,
+												 values, types,
+												 num_properties);
+	if (!CPL_IS_OK(ret)) return ret;
+
+	return cpl_db_backend->cpl_db_add_relation_properties(cpl_db_backend,
+														  ids, prefixes,
+														  keys, values,
+														  types,
+														  num_properties);
+}
+
 /**
  * Look up a relation by from_id, to_id and type.
  * If multiple relations match, get the latest one.
@@ -1006,6 +1207,40 @@ cpl_get_all_objects(const char* prefix,
 }
 
 
+/**
+ * Get one page of the objects in the database, in the order of their IDs.
+ *
+ * @param prefix the namespace prefix
+ * @param flags a logical combination of CPL_I_* flags
+ * @param type the object type, or 0 for all types
+ * @param after_id return only objects with IDs greater than this one
+ * @param limit the maximum number of objects to return
+ * @param iterator the iterator to be called for each matching object
+ * @param context the caller-provided iterator context
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_get_all_objects_page(const char* prefix,
+						 const int flags,
+						 const int type,
+						 const cpl_id_t after_id,
+						 const size_t limit,
+						 cpl_object_info_iterator_t iterator,
+						 void* context)
+{
+	CPL_ENSURE_INITIALIZED;
+	CPL_ENSURE_NOT_NULL(prefix);
+	CPL_ENSURE_NOT_NULL(iterator);
+
+	if (limit == 0) return CPL_E_INVALID_ARGUMENT;
+
+	return cpl_db_backend->cpl_db_get_all_objects_page(cpl_db_backend,
+													   prefix, flags, type,
+													   after_id, limit,
+													   iterator, context);
+}
+
+
 /**
  * Get information about the given provenance object.
  *
@@ -1028,6 +1263,35 @@ cpl_get_object_info(const cpl_id_t id,
 }
 
 
+/**
+ * Get information about several provenance objects at once.
+ *
+ * @param ids the array of object IDs
+ * @param num_ids the number of elements in the array
+ * @param iterator the iterator to be called for each found object
+ * @param context the caller-provided iterator context
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_get_object_info_batch(const cpl_id_t* ids,
+						  const size_t num_ids,
+						  cpl_object_info_iterator_t iterator,
+						  void* context)
+{
+	CPL_ENSURE_INITIALIZED;
+	CPL_ENSURE_NOT_NULL(iterator);
+
+	if (num_ids == 0) return CPL_S_NO_DATA;
+	CPL_ENSURE_NOT_NULL(ids);
+
+	// Call the database backend
+
+	return cpl_db_backend->cpl_db_get_object_info_batch(cpl_db_backend,
+														ids, num_ids,
+														iterator, context);
+}
+
+
 /**
  * Free cpl_object_info_t.
  *
@@ -1066,6 +1330,35 @@ cpl_get_object_relations(const cpl_id_t id,
 						 const int flags,
 						 cpl_relation_iterator_t iterator,
 						 void* context)
+{
+	return cpl_get_object_relations_ext(id, direction, flags, CPL_R_ALL_TYPES,
+										iterator, context);
+}
+
+
+/**
+ * Iterate over the relations of a provenance object that have one of
+ * the selected types. The type filter is applied in the database query.
+ *
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param flags the bitwise combination of flags describing how should
+ *              the graph be traversed (a logical combination of the
+ *              CPL_A_* flags)
+ * @param type_mask a combination of CPL_R_TYPE_MASK() bits, or
+ *                  CPL_R_ALL_TYPES
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_get_object_relations_ext(const cpl_id_t id,
+							 const int direction,
+							 const int flags,
+							 const int type_mask,
+							 cpl_relation_iterator_t iterator,
+							 void* context)
 {
 	CPL_ENSURE_INITIALIZED;
 
@@ -1081,14 +1374,183 @@ cpl_get_object_relations(const cpl_id_t id,
 	cpl_return_t r;
 	r = cpl_db_backend->cpl_db_get_object_relations(cpl_db_backend,
 										    id, direction,
-										    flags, iterator,
-										    context);
+										    flags, type_mask,
+										    iterator, context);
 	
 	if (r == CPL_S_NO_DATA) return CPL_OK;
 	return r;
 }
 
 
+/**
+ * Iterate over one page of the ancestors or the descendants of a provenance
+ * object, in the order of the relation IDs. Unlike
+ * cpl_get_object_relations(), this returns CPL_S_NO_DATA for an empty page,
+ * so that the caller knows when to stop.
+ *
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param flags a logical combination of the CPL_A_* flags
+ * @param after_id return only relations with IDs greater than this one
+ * @param limit the maximum number of relations to return
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_get_object_relations_page(const cpl_id_t id,
+							  const int direction,
+							  const int flags,
+							  const cpl_id_t after_id,
+							  const size_t limit,
+							  cpl_relation_iterator_t iterator,
+							  void* context)
+{
+	CPL_ENSURE_INITIALIZED;
+
+	CPL_ENSURE_NOT_NONE(id);
+	CPL_ENSURE_NOT_NULL(iterator);
+
+	if (direction != CPL_D_ANCESTORS && direction != CPL_D_DESCENDANTS) {
+		return CPL_E_INVALID_ARGUMENT;
+	}
+	if (limit == 0) return CPL_E_INVALID_ARGUMENT;
+
+	return cpl_db_backend->cpl_db_get_object_relations_page(cpl_db_backend,
+															id, direction,
+															flags, after_id,
+															limit, iterator,
+															context);
+}
+
+
+/**
+ * Iterate over the transitive ancestors or descendants of a provenance
+ * object, i.e. over all relations reachable from it in the given direction,
+ * in a single query. The relations are returned in the order of their depth
+ * and then their IDs; each relation is returned once, with the depth of the
+ * shortest path through which it is reachable.
+ *
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param max_depth the maximum number of relations between the object and
+ *                  a returned relation, counting the returned relation,
+ *                  or 0 for no limit
+ * @param type_mask follow only the relations whose types are selected by
+ *                  this combination of CPL_R_TYPE_MASK() bits, or
+ *                  CPL_R_ALL_TYPES to follow all relations
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_get_object_lineage(const cpl_id_t id,
+					   const int direction,
+					   const int max_depth,
+					   const int type_mask,
+					   cpl_lineage_iterator_t iterator,
+					   void* context)
+{
+	CPL_ENSURE_INITIALIZED;
+
+	CPL_ENSURE_NOT_NONE(id);
+	CPL_ENSURE_NOT_NULL(iterator);
+
+	if (direction != CPL_D_ANCESTORS && direction != CPL_D_DESCENDANTS) {
+		return CPL_E_INVALID_ARGUMENT;
+	}
+	if (max_depth < 0) return CPL_E_INVALID_ARGUMENT;
+
+	return cpl_db_backend->cpl_db_get_object_lineage(cpl_db_backend,
+													 id, direction,
+													 max_depth, type_mask,
+													 iterator, context);
+}
+
+
+/**
+ * Iterate over the relations of a provenance object together with the
+ * information about the objects on their other ends.
+ *
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param flags a logical combination of the CPL_A_* flags
+ * @param type_mask a combination of CPL_R_TYPE_MASK() bits, or
+ *                  CPL_R_ALL_TYPES
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_get_object_relations_info(const cpl_id_t id,
+							  const int direction,
+							  const int flags,
+							  const int type_mask,
+							  cpl_relation_info_iterator_t iterator,
+							  void* context)
+{
+	CPL_ENSURE_INITIALIZED;
+
+	CPL_ENSURE_NOT_NONE(id);
+	CPL_ENSURE_NOT_NULL(iterator);
+
+	if (direction != CPL_D_ANCESTORS && direction != CPL_D_DESCENDANTS) {
+		return CPL_E_INVALID_ARGUMENT;
+	}
+
+	cpl_return_t r;
+	r = cpl_db_backend->cpl_db_get_object_relations_info(cpl_db_backend,
+														 id, direction,
+														 flags, type_mask,
+														 iterator, context);
+
+	if (r == CPL_S_NO_DATA) return CPL_OK;
+	return r;
+}
+
+
+/**
+ * Iterate over the immediate ancestors or descendants of several objects
+ * at once, in no particular order.
+ *
+ * @param ids the array of object IDs
+ * @param num_ids the number of elements in the array
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param type_mask the mask of relation types to return, or
+ *                  CPL_R_ALL_TYPES
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_get_relations_batch(const cpl_id_t* ids,
+						const size_t num_ids,
+						const int direction,
+						const int type_mask,
+						cpl_relation_iterator_t iterator,
+						void* context)
+{
+	CPL_ENSURE_INITIALIZED;
+
+	CPL_ENSURE_NOT_NULL(ids);
+	CPL_ENSURE_NOT_NULL(iterator);
+
+	if (direction != CPL_D_ANCESTORS && direction != CPL_D_DESCENDANTS) {
+		return CPL_E_INVALID_ARGUMENT;
+	}
+	if (num_ids == 0) return CPL_S_NO_DATA;
+
+	return cpl_db_backend->cpl_db_get_relations_batch(cpl_db_backend,
+													  ids, num_ids,
+													  direction, type_mask,
+													  iterator, context);
+}
+
+
 /**
  * Get the properties associated with the given provenance object.
  *
@@ -1394,42 +1856,287 @@ cpl_get_bundle_relations(const cpl_id_t id,
 
 }
 
+
 /**
- * Get the prefixes associated with the given provenance bundle.
+ * Get one page of the relations belonging to a bundle, in the order of
+ * the relation IDs.
  *
- * @param id the the bundle ID
- * @param prefix the property prefix to fetch - or NULL for all prefixes
+ * @param id the bundle ID
+ * @param after_id return only relations with IDs greater than this one
+ * @param limit the maximum number of relations to return
  * @param iterator the iterator callback function
  * @param context the user context to be passed to the iterator function
  * @return CPL_OK, CPL_S_NO_DATA, or an error code
  */
 extern "C" EXPORT cpl_return_t
-cpl_get_prefixes(const cpl_id_t id,
-			     const char* prefix,
-			     cpl_prefix_iterator_t iterator,
-			     void* context)
+cpl_get_bundle_relations_page(const cpl_id_t id,
+							  const cpl_id_t after_id,
+							  const size_t limit,
+							  cpl_relation_iterator_t iterator,
+							  void* context)
 {
 	CPL_ENSURE_INITIALIZED;
+
 	CPL_ENSURE_NOT_NONE(id);
 	CPL_ENSURE_NOT_NULL(iterator);
 
-	// Call the database backend
+	if (limit == 0) return CPL_E_INVALID_ARGUMENT;
 
-	return cpl_db_backend->cpl_db_get_prefixes(cpl_db_backend,
-										       id, prefix,
-										       iterator, context);
+	return cpl_db_backend->cpl_db_get_bundle_relations_page(cpl_db_backend,
+															id, after_id,
+															limit, iterator,
+															context);
 }
-/***************************************************************************/
-/** Public API: Enhanced C++ Functionality                                **/
-/***************************************************************************/
 
-#ifdef __cplusplus
 
 /**
- * The iterator callback for cpl_get_all_objects() that collects the returned
- * information in an instance of vector<cplxx_object_info_t>.
+ * Get one page of the relations belonging to a bundle, in the order in
+ * which they were added to the bundle.
  *
- * @param info the object info
+ * @param id the bundle ID
+ * @param after_membership_id return only relations added to the bundle
+ *                            after this membership row
+ * @param limit the maximum number of relations to return
+ * @param out_last_membership_id the pointer to store the ID of the last
+ *                               membership row on the page
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_get_bundle_relations_page_by_membership(const cpl_id_t id,
+							  const cpl_id_t after_membership_id,
+							  const size_t limit,
+							  cpl_id_t* out_last_membership_id,
+							  cpl_relation_iterator_t iterator,
+							  void* context)
+{
+	CPL_ENSURE_INITIALIZED;
+
+	CPL_ENSURE_NOT_NONE(id);
+	CPL_ENSURE_NOT_NULL(out_last_membership_id);
+	CPL_ENSURE_NOT_NULL(iterator);
+
+	if (limit == 0) return CPL_E_INVALID_ARGUMENT;
+
+	return cpl_db_backend->cpl_db_get_bundle_relations_page_by_membership(
+			cpl_db_backend, id, after_membership_id, limit,
+			out_last_membership_id, iterator, context);
+}
+
+
+/**
+ * Get one page of the objects belonging to a bundle, in the order of the
+ * object IDs.
+ *
+ * @param id the bundle ID
+ * @param type the object type, or 0 for objects of all types
+ * @param after_id return only objects with IDs greater than this one
+ * @param limit the maximum number of objects to return
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_get_bundle_objects_page(const cpl_id_t id,
+							const int type,
+							const cpl_id_t after_id,
+							const size_t limit,
+							cpl_object_info_iterator_t iterator,
+							void* context)
+{
+	CPL_ENSURE_INITIALIZED;
+
+	CPL_ENSURE_NOT_NONE(id);
+	CPL_ENSURE_NOT_NULL(iterator);
+
+	if (limit == 0 || type < 0) return CPL_E_INVALID_ARGUMENT;
+
+	return cpl_db_backend->cpl_db_get_bundle_objects_page(cpl_db_backend,
+														  id, type, after_id,
+														  limit, iterator,
+														  context);
+}
+
+
+/**
+ * Get one page of the relations of the given types belonging to a bundle,
+ * in the order of the relation IDs.
+ *
+ * @param id the bundle ID
+ * @param type_mask the mask of relation types to return, or CPL_R_ALL_TYPES
+ * @param after_id return only relations with IDs greater than this one
+ * @param limit the maximum number of relations to return
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_get_bundle_relations_page_ext(const cpl_id_t id,
+								  const int type_mask,
+								  const cpl_id_t after_id,
+								  const size_t limit,
+								  cpl_relation_iterator_t iterator,
+								  void* context)
+{
+	CPL_ENSURE_INITIALIZED;
+
+	CPL_ENSURE_NOT_NONE(id);
+	CPL_ENSURE_NOT_NULL(iterator);
+
+	if (limit == 0) return CPL_E_INVALID_ARGUMENT;
+
+	return cpl_db_backend->cpl_db_get_bundle_relations_page_ext(
+			cpl_db_backend, id, type_mask, after_id, limit, iterator,
+			context);
+}
+
+
+/**
+ * Get the properties of all objects belonging to a bundle using a single
+ * query, ordered by the object ID.
+ *
+ * @param id the bundle ID
+ * @param type the object type, or 0 for objects of all types
+ * @param after_id include only objects with IDs greater than this one
+ * @param last_id include only objects with IDs up to this one, or CPL_NONE
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_get_bundle_object_properties(const cpl_id_t id,
+								 const int type,
+								 const cpl_id_t after_id,
+								 const cpl_id_t last_id,
+								 cpl_property_iterator_t iterator,
+								 void* context)
+{
+	CPL_ENSURE_INITIALIZED;
+
+	CPL_ENSURE_NOT_NONE(id);
+	CPL_ENSURE_NOT_NULL(iterator);
+
+	if (type < 0) return CPL_E_INVALID_ARGUMENT;
+
+	return cpl_db_backend->cpl_db_get_bundle_object_properties(
+			cpl_db_backend, id, type, after_id, last_id, iterator, context);
+}
+
+
+/**
+ * Get the properties of all relations belonging to a bundle using a single
+ * query, ordered by the relation ID.
+ *
+ * @param id the bundle ID
+ * @param type_mask the mask of relation types, or CPL_R_ALL_TYPES
+ * @param after_id include only relations with IDs greater than this one
+ * @param last_id include only relations with IDs up to this one, or CPL_NONE
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_get_bundle_relation_properties(const cpl_id_t id,
+								   const int type_mask,
+								   const cpl_id_t after_id,
+								   const cpl_id_t last_id,
+								   cpl_property_iterator_t iterator,
+								   void* context)
+{
+	CPL_ENSURE_INITIALIZED;
+
+	CPL_ENSURE_NOT_NONE(id);
+	CPL_ENSURE_NOT_NULL(iterator);
+
+	return cpl_db_backend->cpl_db_get_bundle_relation_properties(
+			cpl_db_backend, id, type_mask, after_id, last_id, iterator,
+			context);
+}
+
+
+/**
+ * Get one page of all relations in the database, in the order of their IDs,
+ * excluding the records that tie relations to bundles.
+ *
+ * @param after_id return only relations with IDs greater than this one
+ * @param limit the maximum number of relations to return
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_get_all_relations_page(const cpl_id_t after_id,
+						   const size_t limit,
+						   cpl_relation_iterator_t iterator,
+						   void* context)
+{
+	CPL_ENSURE_INITIALIZED;
+
+	CPL_ENSURE_NOT_NULL(iterator);
+
+	if (limit == 0) return CPL_E_INVALID_ARGUMENT;
+
+	return cpl_db_backend->cpl_db_get_all_relations_page(cpl_db_backend,
+														 after_id, limit,
+														 iterator, context);
+}
+
+
+/**
+ * Get the highest relation ID in the database.
+ *
+ * @param out_id the pointer to store the relation ID, which is CPL_NONE
+ *               if there are no relations
+ * @return CPL_OK or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_get_last_relation_id(cpl_id_t* out_id)
+{
+	CPL_ENSURE_INITIALIZED;
+
+	CPL_ENSURE_NOT_NULL(out_id);
+
+	return cpl_db_backend->cpl_db_get_last_relation_id(cpl_db_backend,
+													   out_id);
+}
+
+/**
+ * Get the prefixes associated with the given provenance bundle.
+ *
+ * @param id the the bundle ID
+ * @param prefix the property prefix to fetch - or NULL for all prefixes
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+extern "C" EXPORT cpl_return_t
+cpl_get_prefixes(const cpl_id_t id,
+			     const char* prefix,
+			     cpl_prefix_iterator_t iterator,
+			     void* context)
+{
+	CPL_ENSURE_INITIALIZED;
+	CPL_ENSURE_NOT_NONE(id);
+	CPL_ENSURE_NOT_NULL(iterator);
+
+	// Call the database backend
+
+	return cpl_db_backend->cpl_db_get_prefixes(cpl_db_backend,
+										       id, prefix,
+										       iterator, context);
+}
+/***************************************************************************/
+/** Public API: Enhanced C++ Functionality                                **/
+/***************************************************************************/
+
+#ifdef __cplusplus
+
+/**
+ * The iterator callback for cpl_get_all_objects() that collects the returned
+ * information in an instance of vector<cplxx_object_info_t>.
+ *
+ * @param info the object info
  * @param context the pointer to an instance of the vector 
  * @return CPL_OK or an error code
  */
@@ -1457,6 +2164,64 @@ cpl_cb_collect_object_info_vector(const cpl_object_info_t* info,
 }
 
 
+/**
+ * Get the dictionary code of a string, adding the string to the dictionary
+ * if it is not already there. cpl_cb_collect_object_columns() helper.
+ *
+ * @param value the string
+ * @param index the codes of the strings in the dictionary
+ * @param dictionary the distinct strings
+ * @return the code of the string
+ */
+static int
+cpl_encode_column_string(const char* value,
+						 boost::unordered_map<std::string, int>& index,
+						 std::vector<std::string>& dictionary)
+{
+	std::string s(value == NULL ? "" : value);
+
+	boost::unordered_map<std::string, int>::iterator it = index.find(s);
+	if (it != index.end()) return it->second;
+
+	int code = (int) dictionary.size();
+	index[s] = code;
+	dictionary.push_back(s);
+	return code;
+}
+
+
+/**
+ * The iterator callback for cpl_get_all_objects() and
+ * cpl_get_bundle_objects() that appends each object to the columns of an
+ * instance of cplxx_object_columns_t.
+ *
+ * @param info the object info
+ * @param context the pointer to an instance of cplxx_object_columns_t
+ * @return CPL_OK or an error code
+ */
+#ifdef SWIG
+%constant
+#endif
+EXPORT cpl_return_t
+cpl_cb_collect_object_columns(const cpl_object_info_t* info,
+							  void* context)
+{
+	if (context == NULL) return CPL_E_INVALID_ARGUMENT;
+
+	cplxx_object_columns_t& c = *((cplxx_object_columns_t*) context);
+
+	c.ids.push_back(info->id);
+	c.types.push_back(info->type);
+	c.creation_times.push_back(info->creation_time);
+	c.prefix_codes.push_back(cpl_encode_column_string(info->prefix,
+				c.prefix_index, c.prefix_dictionary));
+	c.name_codes.push_back(cpl_encode_column_string(info->name,
+				c.name_index, c.name_dictionary));
+
+	return CPL_OK;
+}
+
+
 /**
  * The iterator callback for cpl_lookup_object_ext() that collects the returned
  * information in an instance of vector<cpl_id_timestamp_t>.
@@ -1630,74 +2395,526 @@ cpl_cb_collect_properties_vector(const cpl_id_t id,
             break;
 	}
 
-	return CPL_OK;
+	return CPL_OK;
+}
+
+/**
+ * The iterator callback for cpl_get_prefixes() that collects the returned
+ * information in an instance of vector<cplxx_prefix_entry_t>.
+ *
+ * @param id the object ID
+ * @param prefix the namespace prefix
+ * @param iri the namespace iri
+ * @param context the pointer to an instance of the vector 
+ * @return CPL_OK or an error code
+ */
+#ifdef SWIG
+%constant
+#endif
+EXPORT cpl_return_t
+cpl_cb_collect_prefixes_vector(const cpl_id_t id,
+                               const char* prefix,
+						       const char* iri,
+						       void* context)
+{
+	if (context == NULL) return CPL_E_INVALID_ARGUMENT;
+
+	cplxx_prefix_entry_t e;
+	e.id = id;
+	e.prefix = prefix;
+	e.iri = iri;
+
+	std::vector<cplxx_prefix_entry_t>& l =
+		*((std::vector<cplxx_prefix_entry_t>*) context);
+	l.push_back(e);
+
+	return CPL_OK;
+}
+
+/**
+ * The iterator callback for cpl_lookup_by_property() that collects
+ * the returned information in an instance of vector<cpl_id_t>.
+ *
+ * @param id the object ID
+ * @param prefix the namespace prefix
+ * @param key the property name
+ * @param value the property value
+ * @param context the pointer to an instance of the vector 
+ * @return CPL_OK or an error code
+ */
+#ifdef SWIG
+%constant
+#endif
+EXPORT cpl_return_t
+cpl_cb_collect_property_lookup_vector(const cpl_id_t id,
+	                                  const char* prefix,
+									  const char* key,
+									  const char* value,
+									  const int type,
+									  void* context)
+{
+	if (context == NULL) return CPL_E_INVALID_ARGUMENT;
+
+	cpl_id_t e = id;
+
+
+	std::vector<cpl_id_t>& l =
+		*((std::vector<cpl_id_t>*) context);
+	l.push_back(e);
+
+	return CPL_OK;
+}
+
+
+/**
+ * Get information about several provenance objects at once.
+ *
+ * @param ids the vector of object IDs
+ * @param iterator the iterator to be called for each found object
+ * @param context the caller-provided iterator context
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_object_info_batch(const std::vector<cpl_id_t>& ids,
+						  cpl_object_info_iterator_t iterator,
+						  void* context)
+{
+	if (ids.empty()) return CPL_S_NO_DATA;
+	return cpl_get_object_info_batch(&ids[0], ids.size(), iterator, context);
+}
+
+
+/**
+ * Create several objects with the same prefix and type at once.
+ *
+ * @param prefix the namespace prefix
+ * @param names the object names
+ * @param type the object type
+ * @param out_ids the vector to store the IDs of the new objects, in the same
+ *                order as the names (its previous contents are replaced)
+ * @return CPL_OK or an error code
+ */
+EXPORT cpl_return_t
+cpl_create_objects(const char* prefix,
+				   const std::vector<std::string>& names,
+				   const int type,
+				   std::vector<cpl_id_t>& out_ids)
+{
+	out_ids.clear();
+	if (names.empty()) return CPL_S_OBJECT_CREATED;
+
+	std::vector<const char*> n;
+	n.reserve(names.size());
+	for (size_t i = 0; i < names.size(); i++) {
+		n.push_back(names[i].c_str());
+	}
+
+	out_ids.resize(names.size(), CPL_NONE);
+	cpl_return_t r = cpl_create_objects(prefix, &n[0], n.size(), type,
+										&out_ids[0]);
+	if (!CPL_IS_OK(r)) out_ids.clear();
+	return r;
+}
+
+
+/**
+ * Add many relations at once, given as parallel vectors.
+ *
+ * @param from_ids the source IDs
+ * @param to_ids the destination IDs
+ * @param types the relation types
+ * @param out_ids the vector to store the IDs of the new relations, in the
+ *                input order (its previous contents are replaced)
+ * @return CPL_OK or an error code
+ */
+EXPORT cpl_return_t
+cpl_add_relations(const std::vector<cpl_id_t>& from_ids,
+				  const std::vector<cpl_id_t>& to_ids,
+				  const std::vector<int>& types,
+				  std::vector<cpl_id_t>& out_ids)
+{
+	out_ids.clear();
+	if (from_ids.size() != to_ids.size() || from_ids.size() != types.size()) {
+		return CPL_E_INVALID_ARGUMENT;
+	}
+	if (from_ids.empty()) return CPL_OK;
+
+	out_ids.resize(from_ids.size(), CPL_NONE);
+	cpl_return_t r = cpl_add_relations(&from_ids[0], &to_ids[0], &types[0],
+									   from_ids.size(), &out_ids[0]);
+	if (!CPL_IS_OK(r)) out_ids.clear();
+	return r;
+}
+
+
+/**
+ * The output vectors of the vector version of cpl_get_object_lineage()
+ */
+typedef struct {
+	std::vector<cpl_id_t>* relation_ids;
+	std::vector<cpl_id_t>* from_ids;
+	std::vector<cpl_id_t>* to_ids;
+	std::vector<int>* types;
+	std::vector<int>* depths;
+} cpl_lineage_vectors_t;
+
+
+/**
+ * The iterator callback for cpl_get_object_lineage() that appends each
+ * relation to the vectors in a cpl_lineage_vectors_t.
+ */
+static cpl_return_t
+cpl_cb_collect_lineage_vectors(const cpl_id_t relation_id,
+							   const cpl_id_t from_id,
+							   const cpl_id_t to_id,
+							   const int type,
+							   const int depth,
+							   void* context)
+{
+	cpl_lineage_vectors_t* v = (cpl_lineage_vectors_t*) context;
+	v->relation_ids->push_back(relation_id);
+	v->from_ids->push_back(from_id);
+	v->to_ids->push_back(to_id);
+	v->types->push_back(type);
+	v->depths->push_back(depth);
+	return CPL_OK;
+}
+
+
+/**
+ * Get the transitive ancestors or descendants of a provenance object as
+ * parallel vectors, in the order of depth and then relation ID.
+ *
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param max_depth the maximum depth, or 0 for no limit
+ * @param type_mask the mask of relation types to follow, or
+ *                  CPL_R_ALL_TYPES
+ * @param relation_ids the vector for the relation IDs
+ * @param from_ids the vector for the source IDs
+ * @param to_ids the vector for the destination IDs
+ * @param types the vector for the relation types
+ * @param depths the vector for the depths
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_object_lineage(const cpl_id_t id,
+					   const int direction,
+					   const int max_depth,
+					   const int type_mask,
+					   std::vector<cpl_id_t>& relation_ids,
+					   std::vector<cpl_id_t>& from_ids,
+					   std::vector<cpl_id_t>& to_ids,
+					   std::vector<int>& types,
+					   std::vector<int>& depths)
+{
+	relation_ids.clear();
+	from_ids.clear();
+	to_ids.clear();
+	types.clear();
+	depths.clear();
+
+	cpl_lineage_vectors_t v;
+	v.relation_ids = &relation_ids;
+	v.from_ids = &from_ids;
+	v.to_ids = &to_ids;
+	v.types = &types;
+	v.depths = &depths;
+
+	return cpl_get_object_lineage(id, direction, max_depth, type_mask,
+								  cpl_cb_collect_lineage_vectors, &v);
+}
+
+
+/**
+ * Get the immediate ancestors or descendants of several objects at once.
+ *
+ * @param ids the object IDs
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param type_mask the mask of relation types to return, or
+ *                  CPL_R_ALL_TYPES
+ * @param out the vector for the relations (its previous contents are
+ *            replaced); the query object of each is the one from ids
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_relations_batch(const std::vector<cpl_id_t>& ids,
+						const int direction,
+						const int type_mask,
+						std::vector<cpl_relation_t>& out)
+{
+	out.clear();
+	if (ids.empty()) return CPL_S_NO_DATA;
+	return cpl_get_relations_batch(&ids[0], ids.size(), direction, type_mask,
+								   cpl_cb_collect_relation_vector, &out);
+}
+
+
+/**
+ * The output vectors of the vector version of cpl_get_object_relations_info()
+ */
+typedef struct {
+	std::vector<cpl_relation_t>* relations;
+	std::vector<cplxx_object_info_t>* others;
+} cpl_relation_info_vectors_t;
+
+
+/**
+ * The iterator callback for cpl_get_object_relations_info() that appends
+ * each relation and its other object to a cpl_relation_info_vectors_t.
+ */
+static cpl_return_t
+cpl_cb_collect_relation_info_vectors(const cpl_id_t relation_id,
+									 const cpl_id_t query_object_id,
+									 const cpl_object_info_t* other,
+									 const int type,
+									 void* context)
+{
+	cpl_relation_info_vectors_t* v = (cpl_relation_info_vectors_t*) context;
+
+	cpl_relation_t e;
+	e.id = relation_id;
+	e.query_object_id = query_object_id;
+	e.other_object_id = other->id;
+	e.type = type;
+	v->relations->push_back(e);
+
+	cplxx_object_info_t o;
+	o.id = other->id;
+	o.creation_time = other->creation_time;
+	o.prefix = other->prefix;
+	o.name = other->name;
+	o.type = other->type;
+	v->others->push_back(o);
+
+	return CPL_OK;
+}
+
+
+/**
+ * Get the relations of a provenance object together with the information
+ * about the objects on their other ends, as two parallel vectors.
+ *
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param flags a logical combination of the CPL_A_* flags
+ * @param type_mask the mask of relation types to return, or
+ *                  CPL_R_ALL_TYPES
+ * @param relations the vector for the relations
+ * @param others the vector for the other objects; the i-th element
+ *               belongs to the i-th relation
+ * @return CPL_OK or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_object_relations_info(const cpl_id_t id,
+							  const int direction,
+							  const int flags,
+							  const int type_mask,
+							  std::vector<cpl_relation_t>& relations,
+							  std::vector<cplxx_object_info_t>& others)
+{
+	relations.clear();
+	others.clear();
+
+	cpl_relation_info_vectors_t v;
+	v.relations = &relations;
+	v.others = &others;
+
+	return cpl_get_object_relations_info(id, direction, flags, type_mask,
+										 cpl_cb_collect_relation_info_vectors,
+										 &v);
+}
+
+
+/**
+ * The destination of cpl_get_bundle_object_properties() and
+ * cpl_get_bundle_relation_properties(): one vector per property type.
+ */
+typedef struct cpl_property_vectors {
+	std::vector<cplxx_string_property_entry_t>* strings;
+	std::vector<cplxx_numerical_property_entry_t>* numbers;
+	std::vector<cplxx_boolean_property_entry_t>* booleans;
+} cpl_property_vectors_t;
+
+
+/**
+ * The iterator callback for the bundle property queries that passes each
+ * property on to cpl_cb_collect_properties_vector() with the vector that
+ * matches its type.
+ */
+static cpl_return_t
+cpl_cb_collect_property_vectors(const cpl_id_t id,
+								const char* prefix,
+								const char* key,
+								const char* value,
+								const int type,
+								void* context)
+{
+	cpl_property_vectors_t* v = (cpl_property_vectors_t*) context;
+	void* target;
+
+	switch (type) {
+		case STRINGPROPERTY:    target = v->strings;  break;
+		case NUMERICALPROPERTY: target = v->numbers;  break;
+		case BOOLEANPROPERTY:   target = v->booleans; break;
+		default:
+			return CPL_OK;
+	}
+
+	return cpl_cb_collect_properties_vector(id, prefix, key, value, type,
+											target);
+}
+
+
+/**
+ * Get the properties of all objects belonging to a bundle using a single
+ * query, split into one vector per property type.
+ *
+ * @param id the bundle ID
+ * @param type the object type, or 0 for objects of all types
+ * @param after_id include only objects with IDs greater than this one
+ * @param last_id include only objects with IDs up to this one, or CPL_NONE
+ * @param string_properties the vector for the string properties
+ * @param numerical_properties the vector for the numerical properties
+ * @param boolean_properties the vector for the boolean properties
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_bundle_object_properties(const cpl_id_t id,
+		const int type,
+		const cpl_id_t after_id,
+		const cpl_id_t last_id,
+		std::vector<cplxx_string_property_entry_t>& string_properties,
+		std::vector<cplxx_numerical_property_entry_t>& numerical_properties,
+		std::vector<cplxx_boolean_property_entry_t>& boolean_properties)
+{
+	cpl_property_vectors_t v;
+	v.strings = &string_properties;
+	v.numbers = &numerical_properties;
+	v.booleans = &boolean_properties;
+
+	return cpl_get_bundle_object_properties(id, type, after_id, last_id,
+											cpl_cb_collect_property_vectors,
+											&v);
+}
+
+
+/**
+ * Get the properties of all relations belonging to a bundle using a single
+ * query, split into one vector per property type.
+ *
+ * @param id the bundle ID
+ * @param type_mask the mask of relation types, or CPL_R_ALL_TYPES
+ * @param after_id include only relations with IDs greater than this one
+ * @param last_id include only relations with IDs up to this one, or CPL_NONE
+ * @param string_properties the vector for the string properties
+ * @param numerical_properties the vector for the numerical properties
+ * @param boolean_properties the vector for the boolean properties
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_bundle_relation_properties(const cpl_id_t id,
+		const int type_mask,
+		const cpl_id_t after_id,
+		const cpl_id_t last_id,
+		std::vector<cplxx_string_property_entry_t>& string_properties,
+		std::vector<cplxx_numerical_property_entry_t>& numerical_properties,
+		std::vector<cplxx_boolean_property_entry_t>& boolean_properties)
+{
+	cpl_property_vectors_t v;
+	v.strings = &string_properties;
+	v.numbers = &numerical_properties;
+	v.booleans = &boolean_properties;
+
+	return cpl_get_bundle_relation_properties(id, type_mask, after_id,
+											  last_id,
+											  cpl_cb_collect_property_vectors,
+											  &v);
+}
+
+
+/**
+ * Convert the string vectors of a property batch to arrays of C strings
+ * and pass them to cpl_add_object_properties() or
+ * cpl_add_relation_properties().
+ */
+static cpl_return_t
+cpl_add_properties_vector(const bool relations,
+						  const std::vector<cpl_id_t>& ids,
+						  const std::vector<std::string>& prefixes,
+						  const std::vector<std::string>& keys,
+						  const std::vector<std::string>& values,
+						  const std::vector<int>& types)
+{
+	size_t n = ids.size();
+	if (prefixes.size() != n || keys.size() != n || values.size() != n
+			|| types.size() != n) {
+		return CPL_E_INVALID_ARGUMENT;
+	}
+	if (n == 0) return CPL_OK;
+
+	std::vector<const char*> p(n), k(n), v(n);
+	for (size_t i = 0; i < n; i++) {
+		p[i] = prefixes[i].c_str();
+		k[i] = keys[i].c_str();
+		v[i] = values[i].c_str();
+	}
+
+	if (relations) {
+		return cpl_add_relation_properties(&ids[0], &p[0], &k[0], &v[0],
+										   &types[0], n);
+	}
+	else {
+		return cpl_add_object_properties(&ids[0], &p[0], &k[0], &v[0],
+										 &types[0], n);
+	}
 }
 
+
 /**
- * The iterator callback for cpl_get_prefixes() that collects the returned
- * information in an instance of vector<cplxx_prefix_entry_t>.
+ * Add many properties to objects at once, given as parallel vectors.
  *
- * @param id the object ID
- * @param prefix the namespace prefix
- * @param iri the namespace iri
- * @param context the pointer to an instance of the vector 
+ * @param ids the object IDs
+ * @param prefixes the prefixes
+ * @param keys the keys
+ * @param values the values, formatted as strings
+ * @param types the property types
  * @return CPL_OK or an error code
  */
-#ifdef SWIG
-%constant
-#endif
 EXPORT cpl_return_t
-cpl_cb_collect_prefixes_vector(const cpl_id_t id,
-                               const char* prefix,
-						       const char* iri,
-						       void* context)
+cpl_add_object_properties(const std::vector<cpl_id_t>& ids,
+						  const std::vector<std::string>& prefixes,
+						  const std::vector<std::string>& keys,
+						  const std::vector<std::string>& values,
+						  const std::vector<int>& types)
 {
-	if (context == NULL) return CPL_E_INVALID_ARGUMENT;
-
-	cplxx_prefix_entry_t e;
-	e.id = id;
-	e.prefix = prefix;
-	e.iri = iri;
-
-	std::vector<cplxx_prefix_entry_t>& l =
-		*((std::vector<cplxx_prefix_entry_t>*) context);
-	l.push_back(e);
-
-	return CPL_OK;
+	return cpl_add_properties_vector(false, ids, prefixes, keys, values,
+									 types);
 }
 
+
 /**
- * The iterator callback for cpl_lookup_by_property() that collects
- * the returned information in an instance of vector<cpl_id_t>.
+ * Add many properties to relations at once, given as parallel vectors.
  *
- * @param id the object ID
- * @param prefix the namespace prefix
- * @param key the property name
- * @param value the property value
- * @param context the pointer to an instance of the vector 
+ * @param ids the relation IDs
+ * @param prefixes the prefixes
+ * @param keys the keys
+ * @param values the values, formatted as strings
+ * @param types the property types
  * @return CPL_OK or an error code
  */
-#ifdef SWIG
-%constant
-#endif
 EXPORT cpl_return_t
-cpl_cb_collect_property_lookup_vector(const cpl_id_t id,
-	                                  const char* prefix,
-									  const char* key,
-									  const char* value,
-									  const int type,
-									  void* context)
+cpl_add_relation_properties(const std::vector<cpl_id_t>& ids,
+							const std::vector<std::string>& prefixes,
+							const std::vector<std::string>& keys,
+							const std::vector<std::string>& values,
+							const std::vector<int>& types)
 {
-	if (context == NULL) return CPL_E_INVALID_ARGUMENT;
-
-	cpl_id_t e = id;
-
-
-	std::vector<cpl_id_t>& l =
-		*((std::vector<cpl_id_t>*) context);
-	l.push_back(e);
-
-	return CPL_OK;
+	return cpl_add_properties_vector(true, ids, prefixes, keys, values,
+									 types);
 }
 
 
@@ -2087,6 +3304,241 @@ import_relations_json(const cpl_id_t bundle_id,
 	return CPL_OK;
 }
 
+/*
+ * Staged properties of objects or relations, as parallel vectors for
+ * cpl_add_object_properties() and cpl_add_relation_properties().
+ */
+typedef struct import_property_rows {
+	std::vector<cpl_id_t> ids;
+	std::vector<std::string> prefixes;
+	std::vector<std::string> keys;
+	std::vector<std::string> values;
+	std::vector<int> types;
+} import_property_rows_t;
+
+/*
+ * Stages one property in the string format used by the property tables.
+ * Bulk import helper function.
+ */
+static cpl_return_t
+stage_property_json(const cpl_id_t id,
+					const std::string& name,
+					const json& val_json,
+					import_property_rows_t& rows)
+{
+	token_pair_t pair = name_to_tokens(name);
+
+	switch (val_json.type()) {
+		case json::value_t::string:
+			rows.values.push_back(val_json.get<std::string>());
+			rows.types.push_back(STRINGPROPERTY);
+			break;
+		case json::value_t::number_integer:
+		case json::value_t::number_unsigned:
+		case json::value_t::number_float:
+			rows.values.push_back(std::to_string(val_json.get<double>()));
+			rows.types.push_back(NUMERICALPROPERTY);
+			break;
+		case json::value_t::boolean:
+			rows.values.push_back(std::to_string(val_json.get<bool>()));
+			rows.types.push_back(BOOLEANPROPERTY);
+			break;
+		default:
+			return CPL_E_INVALID_ARGUMENT;
+	}
+
+	rows.ids.push_back(id);
+	rows.prefixes.push_back(pair.first);
+	rows.keys.push_back(pair.second);
+
+	return CPL_OK;
+}
+
+/*
+ * Imports the objects of all types using multi-row inserts: the objects are
+ * grouped by prefix and type and created with cpl_create_objects(), and all
+ * of their properties are then added with one cpl_add_object_properties()
+ * call. Bulk counterpart of import_objects_json().
+ */
+cpl_return_t
+import_objects_json_bulk(std::map<std::string, cpl_id_t>& lookup_tbl,
+						 json& document)
+{
+	const int types[] = { CPL_ENTITY, CPL_AGENT, CPL_ACTIVITY };
+	const char* type_strs[] = { CPL_ENTITY_STR, CPL_AGENT_STR,
+								CPL_ACTIVITY_STR };
+
+	cpl_return_t ret;
+	import_property_rows_t rows;
+
+	for (int t = 0; t < 3; t++) {
+
+		auto doc_check = document.find(type_strs[t]);
+		if(doc_check == document.end()) continue;
+
+		json& o = *doc_check;
+		if(!o.is_object()) return CPL_E_INVALID_JSON;
+
+		// Group the names by prefix, keeping the document order
+
+		std::map<std::string, std::vector<std::string>> names;
+		std::map<std::string, std::vector<std::string>> full_names;
+		for (json::iterator it = o.begin(); it != o.end(); ++it) {
+			token_pair_t pair = name_to_tokens(it.key());
+			names[pair.first].push_back(pair.second);
+			full_names[pair.first].push_back(it.key());
+		}
+
+		for (auto & group: names) {
+			std::vector<cpl_id_t> ids;
+			if(!CPL_IS_OK(ret = cpl_create_objects(group.first.c_str(),
+							group.second, types[t], ids))){
+				return ret;
+			}
+
+			std::vector<std::string>& keys = full_names[group.first];
+			for (size_t k = 0; k < ids.size(); k++) {
+				lookup_tbl.emplace(keys[k], ids[k]);
+
+				json& properties = o[keys[k]];
+				for (json::iterator it2 = properties.begin(); it2 != properties.end(); ++it2){
+					if(!CPL_IS_OK(ret = stage_property_json(ids[k], it2.key(),
+									*it2, rows))){
+						return ret;
+					}
+				}
+			}
+		}
+	}
+
+	if (rows.ids.empty()) return CPL_OK;
+	return cpl_add_object_properties(rows.ids, rows.prefixes, rows.keys,
+									 rows.values, rows.types);
+}
+
+/*
+ * Finds the ID of a relation endpoint, first in the lookup table, then
+ * (if allowed) among the existing objects. Bulk import helper function.
+ */
+static cpl_return_t
+resolve_object_json(const std::string& obj_name,
+					const int type,
+					const std::map<std::string, cpl_id_t>& lookup_tbl,
+					const int extern_obj_f,
+					cpl_id_t* out_id)
+{
+	auto tbl_it = lookup_tbl.find(obj_name);
+	if(tbl_it != lookup_tbl.end()){
+		*out_id = tbl_it->second;
+		return CPL_OK;
+	}
+
+	if(!extern_obj_f) return CPL_E_NOT_FOUND;
+
+	token_pair_t pair = name_to_tokens(obj_name);
+	return cpl_lookup_object(pair.first.c_str(), pair.second.c_str(), type,
+							 out_id);
+}
+
+/*
+ * Imports relations using multi-row inserts: all relations, then all
+ * of their bundle memberships, then all relation properties are written
+ * in one cpl_add_relations() or cpl_add_relation_properties() call each.
+ * Bulk counterpart of import_relations_json().
+ */
+cpl_return_t
+import_relations_json_bulk(const cpl_id_t bundle_id,
+						   const std::map<std::string, cpl_id_t>& lookup_tbl,
+						   json& document,
+						   const int extern_obj_f)
+{
+	cpl_return_t ret;
+
+	std::vector<cpl_id_t> from_ids, to_ids, relation_ids;
+	std::vector<int> types;
+	std::vector<json*> relation_json;
+	std::vector<int> relation_entry;
+
+	for(int i=0; i<CPL_NUM_R_TYPES; i++){
+		const prov_relation_data_t& entry = rdata_array[i];
+
+		auto doc_check = document.find(entry.type_str);
+		if(doc_check == document.end()) continue;
+
+		json& relations = *doc_check;
+		if(!relations.is_object()) return CPL_E_INVALID_JSON;
+
+		for (json::iterator it = relations.begin(); it != relations.end(); ++it) {
+
+			cpl_id_t source, dest;
+
+			auto obj_check = it.value().find(entry.source_str);
+			if(obj_check == it.value().end()) return CPL_E_INVALID_JSON;
+			std::string source_name = *obj_check;
+			if(!CPL_IS_OK(ret = resolve_object_json(source_name,
+							entry.source_t, lookup_tbl, extern_obj_f, &source))){
+				return ret;
+			}
+
+			obj_check = it.value().find(entry.dest_str);
+			if(obj_check == it.value().end()) return CPL_E_INVALID_JSON;
+			std::string dest_name = *obj_check;
+			if(!CPL_IS_OK(ret = resolve_object_json(dest_name,
+							entry.dest_t, lookup_tbl, extern_obj_f, &dest))){
+				return ret;
+			}
+
+			from_ids.push_back(source);
+			to_ids.push_back(dest);
+			types.push_back(entry.type);
+			relation_json.push_back(&it.value());
+			relation_entry.push_back(i);
+		}
+	}
+
+	if (from_ids.empty()) return CPL_OK;
+
+	if(!CPL_IS_OK(ret = cpl_add_relations(from_ids, to_ids, types,
+					relation_ids))){
+		return ret;
+	}
+
+
+	// Add the relations to the bundle
+
+	size_t n = relation_ids.size();
+	std::vector<cpl_id_t> bundle_ids(n, bundle_id);
+	std::vector<int> bundle_types(n, BUNDLERELATION);
+	std::vector<cpl_id_t> membership_ids;
+	if(!CPL_IS_OK(ret = cpl_add_relations(bundle_ids, relation_ids,
+					bundle_types, membership_ids))){
+		return ret;
+	}
+
+
+	// Stage and add the relation properties
+
+	import_property_rows_t rows;
+	for (size_t k = 0; k < n; k++) {
+		const prov_relation_data_t& entry = rdata_array[relation_entry[k]];
+		json& properties = *relation_json[k];
+
+		for (json::iterator it2 = properties.begin(); it2 != properties.end(); ++it2){
+			if(it2.key() == entry.source_str || it2.key() == entry.dest_str){
+				continue;
+			}
+			if(!CPL_IS_OK(ret = stage_property_json(relation_ids[k],
+							it2.key(), *it2, rows))){
+				return ret;
+			}
+		}
+	}
+
+	if (rows.ids.empty()) return CPL_OK;
+	return cpl_add_relation_properties(rows.ids, rows.prefixes, rows.keys,
+									   rows.values, rows.types);
+}
+
 /*
  * Imports a Prov-JSON document into Prov-CPL.
  *
@@ -2096,6 +3548,12 @@ import_relations_json(const cpl_id_t bundle_id,
  * @param flags a logical combination of CPL_J_* flags
  * @param out_id the ID of the imported bundle
  * @return CPL_OK or an error code
+ *
+ * The import is not atomic. If it fails, the bundle and whatever was
+ * written before the failure remain in the database; with CPL_J_BULK,
+ * this can be all objects of the document but none of its relations.
+ * The error code of the bulk loader is returned as is, e.g. CPL_E_NOT_FOUND
+ * for a relation that references an unknown object.
  */
 EXPORT cpl_return_t
 import_document_json(const std::string& json_string,
@@ -2105,7 +3563,9 @@ import_document_json(const std::string& json_string,
 					 cpl_id_t* out_id)
 {
 	json document = json::parse(json_string);
-	int extern_obj_f = (flags && CPL_J_EXTERN_OBJ) ? 1 : 0;
+	int extern_obj_f = (flags & CPL_J_EXTERN_OBJ) ? 1 : 0;
+	int bulk_f = (flags & CPL_J_BULK) ? 1 : 0;
+	cpl_return_t ret;
 
 	if(document == NULL || document.empty()){
 		return CPL_E_INTERNAL_ERROR;
@@ -2125,14 +3585,20 @@ import_document_json(const std::string& json_string,
 		goto error;
 	}
 	// Import objects
-	if(!CPL_IS_OK(import_objects_json(CPL_ENTITY, CPL_ENTITY_STR, lookup_tbl, document))){
-		goto error;
-	}
-	if(!CPL_IS_OK(import_objects_json(CPL_AGENT, CPL_AGENT_STR, lookup_tbl, document))){
-		goto error;
-	}
-	if(!CPL_IS_OK(import_objects_json(CPL_ACTIVITY, CPL_ACTIVITY_STR, lookup_tbl, document))){
-		goto error;
+	if(bulk_f){
+		if(!CPL_IS_OK(ret = import_objects_json_bulk(lookup_tbl, document))){
+			return ret;
+		}
+	} else {
+		if(!CPL_IS_OK(import_objects_json(CPL_ENTITY, CPL_ENTITY_STR, lookup_tbl, document))){
+			goto error;
+		}
+		if(!CPL_IS_OK(import_objects_json(CPL_AGENT, CPL_AGENT_STR, lookup_tbl, document))){
+			goto error;
+		}
+		if(!CPL_IS_OK(import_objects_json(CPL_ACTIVITY, CPL_ACTIVITY_STR, lookup_tbl, document))){
+			goto error;
+		}
 	}
 
 	// Connect anchor objects
@@ -2154,7 +3620,12 @@ import_document_json(const std::string& json_string,
 		}
 	}
 
-	if(!CPL_IS_OK(import_relations_json(bundle_id, lookup_tbl, document, extern_obj_f))){
+	if(bulk_f){
+		if(!CPL_IS_OK(ret = import_relations_json_bulk(bundle_id, lookup_tbl,
+						document, extern_obj_f))){
+			return ret;
+		}
+	} else if(!CPL_IS_OK(import_relations_json(bundle_id, lookup_tbl, document, extern_obj_f))){
 		goto error;
 	}
 	
@@ -2168,78 +3639,73 @@ error:
 }
 
 /*
- * Retrieves bundle prefixes. export_bundle_json helper function.
- */
-cpl_return_t
-export_bundle_prefixes_json(const std::vector<cpl_id_t>& bundles,
-							json& document)
+ * Collects the properties returned by cpl_get_bundle_object_properties() or
+ * cpl_get_bundle_relation_properties() into a map from the object or
+ * relation ID to a JSON object. export_bundle_json helper function.
+ */
+static cpl_return_t
+cpl_cb_collect_properties_json(const cpl_id_t id,
+							   const char* prefix,
+							   const char* key,
+							   const char* value,
+							   const int type,
+							   void* context)
 {
-	if(bundles.size() == 1){
-
-		cpl_return_t ret;
-		cpl_id_t bundle = bundles.at(0);
-
-		std::vector<cplxx_prefix_entry_t> prefix_vec;
-		if(!CPL_IS_OK(ret = cpl_get_prefixes(bundle, NULL, cpl_cb_collect_prefixes_vector, &prefix_vec)))
-				return ret;
-
-		json prefixes;
-		if (!prefix_vec.empty()){
-			for(auto & entry: prefix_vec){
-
-				prefixes[entry.prefix] = entry.iri;
-			}
-
-			document["prefix"] = prefixes;
-		}
+	if (context == NULL) return CPL_E_INVALID_ARGUMENT;
 
-	} else {
+	boost::unordered_map<cpl_id_t, json>& m
+		= *((boost::unordered_map<cpl_id_t, json>*) context);
 
-		/**
-		typedef map<pair<string, string>, vector<cpl_id_t>> prefix_id_map;
-		prefix_id_map map;
+	std::string full_prop_name(prefix);
+	if(full_prop_name != "") full_prop_name.append(":");
+	full_prop_name.append(key);
 
-		for (auto & bundle: bundles){
+	switch (type) {
+		case STRINGPROPERTY:
+			m[id][full_prop_name] = value;
+			break;
+		case NUMERICALPROPERTY:
+			m[id][full_prop_name] = std::stod(value);
+			break;
+		case BOOLEANPROPERTY:
+			m[id][full_prop_name] = (strcmp(value, "1") == 0);
+			break;
+		default:
+			break;
+	}
 
-			vector<cplxx_prefix_entry_t> prefix_vec;
-			cpl_get_prefixes(bundle, NULL, cpl_cb_collect_prefixes_vector, &prefix_vec);
+	return CPL_OK;
+}
 
-			for(auto & entry: prefix_vec){
-				pair<string, string> key(entry.prefix, entry.iri);
-				prefix_id_map::iterator vec_it = map.find(key);
-				if(vec_it == map.end()){
-					vector<cpl_id_t> id_vec;
-					id_vec.push_back(bundle);
-					map.emplace(pair<string, string>(entry.prefix, entry.iri), id_vec);
-				} else {
-					vec_it->push_back(bundle);
-				}
+/*
+ * Merges the prefixes of several bundles into the prefix section of the
+ * document. A prefix may appear in more than one bundle only if it is
+ * bound to the same IRI everywhere. export_bundle_json helper function.
+ */
+cpl_return_t
+export_bundle_prefixes_json(const std::vector<std::vector<cplxx_prefix_entry_t>>& bundle_prefixes,
+							json& document)
+{
+	std::map<std::string, std::string> merged;
+
+	for(auto & prefix_vec: bundle_prefixes){
+		for(auto & entry: prefix_vec){
+			auto it = merged.find(entry.prefix);
+			if(it == merged.end()){
+				merged.emplace(entry.prefix, entry.iri);
+			} else if(it->second != entry.iri){
+				return CPL_E_INVALID_ARGUMENT;
 			}
 		}
+	}
 
-		json document_prefixes;
-		map<cpl_id_t, json> bundle_prefixes;
-
-		for(auto & entry: prefix_id_map){
-			if(entry->second.size() == 1){
-				document_prefixes[entry->first.first] = entry->first.second;
-			} else {
-				for( auto & id: entry->second){
-					map<cpl_id_t, json>::iterator vec_it = bundle_prefixes.find(cpl_id_t);
-					if(vec_it == map.end()){
-						json p[entry->second.first] = entry->second.second;
-						map.emplace(cpl_id_t, p);
-					} else {
-						vec_it->second[entry->second.first] = entry->second.second;
-					}
-				}
-			}
-		}
+	if(merged.empty()) return CPL_OK;
 
-		//throw prefixes into appropriate bundles
-		**/
-		return CPL_E_INVALID_ARGUMENT;
+	json prefixes;
+	for(auto & entry: merged){
+		prefixes[entry.first] = entry.second;
 	}
+	document["prefix"] = prefixes;
 
 	return CPL_OK;
 }
@@ -2265,48 +3731,22 @@ export_objects_json(const std::vector<cpl_id_t>& bundles,
 			return CPL_OK;
 		}
 
-		std::vector<cplxx_string_property_entry_t> string_property_vec;
-        std::vector<cplxx_numerical_property_entry_t> numerical_property_vec;
-        std::vector<cplxx_boolean_property_entry_t> boolean_property_vec;
+		// Fetch the properties of all objects at once, rather than
+		// issuing three queries per object
+
+		boost::unordered_map<cpl_id_t, json> property_map;
+		ret = cpl_get_bundle_object_properties(bundle, 0, CPL_NONE, CPL_NONE,
+				cpl_cb_collect_properties_json, &property_map);
+		if(!CPL_IS_OK(ret)) return ret;
 
 		for(auto & obj: object_vec){
 
 			json properties;
-			if(!CPL_IS_OK(ret = cpl_get_object_string_properties(obj.id, NULL, NULL,
-				cpl_cb_collect_properties_vector, &string_property_vec))) return ret;
-            if(!CPL_IS_OK(ret = cpl_get_object_numerical_properties(obj.id, NULL, NULL,
-                cpl_cb_collect_properties_vector, &numerical_property_vec))) return ret;
-            if(!CPL_IS_OK(ret = cpl_get_object_boolean_properties(obj.id, NULL, NULL,
-                cpl_cb_collect_properties_vector, &boolean_property_vec))) return ret;
-
-			for(auto & property: string_property_vec){
-				std::string full_prop_name(property.prefix);
-				if(full_prop_name != "") full_prop_name.append(":");
-				full_prop_name.append(property.key);
-
-				properties[full_prop_name] = property.value;
+			auto prop_it = property_map.find(obj.id);
+			if(prop_it != property_map.end()){
+				properties = std::move(prop_it->second);
 			}
 
-            for(auto & property: numerical_property_vec){
-                std::string full_prop_name(property.prefix);
-                if(full_prop_name != "") full_prop_name.append(":");
-                full_prop_name.append(property.key);
-
-                properties[full_prop_name] = property.value;
-            }
-
-            for(auto & property: boolean_property_vec){
-                std::string full_prop_name(property.prefix);
-                if(full_prop_name != "") full_prop_name.append(":");
-                full_prop_name.append(property.key);
-
-                properties[full_prop_name] = property.value;
-            }
-
-            string_property_vec.clear();
-            numerical_property_vec.clear();
-            boolean_property_vec.clear();
-
 			std::string full_obj_name(obj.prefix);
 			if(full_obj_name != "") full_obj_name.append(":");
 			full_obj_name.append(obj.name);
@@ -2356,47 +3796,19 @@ export_relations_json(const std::vector<cpl_id_t>& bundles,
 			return CPL_OK;
 		}
 
-        std::vector<cplxx_string_property_entry_t> string_property_vec;
-        std::vector<cplxx_numerical_property_entry_t> numerical_property_vec;
-        std::vector<cplxx_boolean_property_entry_t> boolean_property_vec;
+		boost::unordered_map<cpl_id_t, json> property_map;
+		ret = cpl_get_bundle_relation_properties(bundle, CPL_R_ALL_TYPES,
+				CPL_NONE, CPL_NONE, cpl_cb_collect_properties_json,
+				&property_map);
+		if(!CPL_IS_OK(ret)) return ret;
 
 		for(auto & relation: relation_vec){
 
 			json properties;
-			if(!CPL_IS_OK(ret = cpl_get_relation_string_properties(relation.id, NULL, NULL,
-				cpl_cb_collect_properties_vector, &string_property_vec))) return ret;
-            if(!CPL_IS_OK(ret = cpl_get_relation_numerical_properties(relation.id, NULL, NULL,
-                cpl_cb_collect_properties_vector, &numerical_property_vec))) return ret;
-            if(!CPL_IS_OK(ret = cpl_get_relation_boolean_properties(relation.id, NULL, NULL,
-                cpl_cb_collect_properties_vector, &boolean_property_vec))) return ret;
-
-            for(auto & property: string_property_vec){
-                std::string full_prop_name(property.prefix);
-                if(full_prop_name != "") full_prop_name.append(":");
-                full_prop_name.append(property.key);
-
-                properties[full_prop_name] = property.value;
-            }
-
-            for(auto & property: numerical_property_vec){
-                std::string full_prop_name(property.prefix);
-                if(full_prop_name != "") full_prop_name.append(":");
-                full_prop_name.append(property.key);
-
-                properties[full_prop_name] = property.value;
-            }
-
-            for(auto & property: boolean_property_vec){
-                std::string full_prop_name(property.prefix);
-                if(full_prop_name != "") full_prop_name.append(":");
-                full_prop_name.append(property.key);
-
-                properties[full_prop_name] = property.value;
-            }
-
-            string_property_vec.clear();
-            numerical_property_vec.clear();
-            boolean_property_vec.clear();
+			auto prop_it = property_map.find(relation.id);
+			if(prop_it != property_map.end()){
+				properties = std::move(prop_it->second);
+			}
 
 			cpl_object_info *from_info, *to_info;
 			bool is_from_info = false;
@@ -2418,10 +3830,11 @@ export_relations_json(const std::vector<cpl_id_t>& bundles,
 			if(tbl_it != lookup_tbl.end()){
 				properties[rdata_array[relation.type-1].dest_str] = tbl_it->second;
 			} else if(!CPL_IS_OK(ret = cpl_get_object_info(relation.other_object_id, &to_info))){
+				if(is_from_info) cpl_free_object_info(from_info);
 				return ret;
 			} else {
 				properties[rdata_array[relation.type-1].dest_str] = to_info->name;
-				is_from_info = true;
+				is_to_info = true;
 			}
 
 			if(is_from_info){
@@ -2446,39 +3859,103 @@ export_relations_json(const std::vector<cpl_id_t>& bundles,
 }
 
 /*
- * Exports a Prov-CPL bundle as a Prov-JSON document.
+ * The part of a document exported from a single bundle.
+ */
+typedef struct export_bundle_part {
+
+	/// The bundle ID
+	cpl_id_t bundle;
+
+	/// The objects and relations of the bundle
+	json document;
+
+	/// The prefixes of the bundle
+	std::vector<cplxx_prefix_entry_t> prefixes;
+
+	/// The result of the export
+	cpl_return_t ret;
+
+} export_bundle_part_t;
+
+/*
+ * Exports the prefixes, objects, and relations of a single bundle.
+ * export_bundle_json helper function.
+ */
+static void
+export_bundle_part_json(export_bundle_part_t& part)
+{
+	const std::vector<cpl_id_t> sub_bundles = {part.bundle};
+	boost::unordered_map<cpl_id_t, std::string> lookup_tbl;
+
+	part.ret = cpl_get_prefixes(part.bundle, NULL,
+								cpl_cb_collect_prefixes_vector, &part.prefixes);
+	if(!CPL_IS_OK(part.ret)) return;
+
+	part.ret = export_objects_json(sub_bundles, lookup_tbl, part.document);
+	if(!CPL_IS_OK(part.ret)) return;
+
+	part.ret = export_relations_json(sub_bundles, lookup_tbl, part.document);
+}
+
+/*
+ * Exports Prov-CPL bundles as a single Prov-JSON document. Each bundle is
+ * serialized into a separate partial document, and the parts are then merged
+ * in the order of the bundles: objects with the same name and the same
+ * relations appear only once, and the prefixes of all bundles form one
+ * prefix section.
+ *
+ * The bundles are exported one at a time, since the backend shares a single
+ * database connection between all callers.
  *
- * @param bundles vector of bundle IDs, currently only single bundle supported
- * @param json_string the bundle as a string in JSON format
+ * @param bundles vector of bundle IDs
+ * @param json_string the bundles as a string in JSON format
  * @return CPL_OK or an error code
  */
 EXPORT cpl_return_t
 export_bundle_json(const std::vector<cpl_id_t>& bundles, 
 				   std::string& json_string)
 {
+	if(bundles.empty()) return CPL_E_INVALID_ARGUMENT;
+
+	std::vector<export_bundle_part_t> parts(bundles.size());
+	for (size_t i = 0; i < bundles.size(); i++) {
+		parts[i].bundle = bundles[i];
+		parts[i].ret = CPL_E_INTERNAL_ERROR;
+	}
+
+
+	// Export the bundles
+
+	for (auto & part: parts) {
+		export_bundle_part_json(part);
+		if(!CPL_IS_OK(part.ret)) return part.ret;
+	}
+
+
+	// Merge the parts
 
 	json document;
+	std::vector<std::vector<cplxx_prefix_entry_t>> bundle_prefixes;
 	cpl_return_t ret;
 
-	std::ofstream outputFile("/Users/jpokuhn/Desktop/test-output.txt");
+	for (auto & part: parts) {
+		if(!CPL_IS_OK(part.ret)) return part.ret;
 
-	outputFile << "entered function" << "\n";
-
- 	boost::unordered_map<cpl_id_t, std::string> lookup_tbl;
+		for (json::iterator section = part.document.begin();
+				section != part.document.end(); ++section) {
+			json& merged_section = document[section.key()];
+			for (json::iterator it = section.value().begin();
+					it != section.value().end(); ++it) {
+				merged_section[it.key()] = it.value();
+			}
+		}
 
-//	if(!CPL_IS_OK(ret = export_bundle_prefixes_json(bundles, document))){
-//		return ret;
-//	}
-    for (int i = 0; i<bundles.size(); i++) {
-        const std::vector<cpl_id_t>& sub_bundles = {bundles.at(i)};
-        if(!CPL_IS_OK(ret = export_objects_json(sub_bundles, lookup_tbl, document))){
-		    return ret;
-	    }
-	    if(!CPL_IS_OK(ret = export_relations_json(sub_bundles, lookup_tbl, document))){
-		    return ret;
-	    }
-    }
+		bundle_prefixes.push_back(std::move(part.prefixes));
+	}
 
+	if(!CPL_IS_OK(ret = export_bundle_prefixes_json(bundle_prefixes, document))){
+		return ret;
+	}
 
 	json_string = document.dump();
 
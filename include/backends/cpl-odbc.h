@@ -91,6 +91,11 @@ extern "C" {
 #define CPL_VALUE_LEN				4095
 #define CPL_STMT_MAX				4
 
+/**
+ * The maximum number of IDs sent to the database in a single batch query
+ */
+#define CPL_ID_BATCH_MAX			1000
+
 
 /***************************************************************************/
 /** Constructor                                                           **/
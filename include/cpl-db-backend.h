@@ -315,6 +315,8 @@ typedef struct _cpl_db_backend_t {
 	 * @param flags the bitwise combination of flags describing how should
 	 *              the graph be traversed (a logical combination of the
 	 *              CPL_A_* flags)
+	 * @param type_mask return only the relations whose types are selected
+	 *                  by this mask, or CPL_R_ALL_TYPES
 	 * @param iterator the iterator callback function
 	 * @param context the user context to be passed to the iterator function
 	 * @return CPL_OK, CPL_S_NO_DATA, or an error code
@@ -324,6 +326,7 @@ typedef struct _cpl_db_backend_t {
 								  const cpl_id_t id,
 								  const int direction,
 								  const int flags,
+								  const int type_mask,
 								  cpl_relation_iterator_t callback,
 								  void* context);
 
@@ -437,6 +440,393 @@ typedef struct _cpl_db_backend_t {
 				            cpl_prefix_iterator_t iterator,
 				            void* context);
 
+	/**
+	 * Get information about several provenance objects at once. IDs that
+	 * do not exist are silently skipped.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param ids the array of object IDs
+	 * @param num_ids the number of elements in the array
+	 * @param callback the iterator to be called for each found object
+	 * @param context the caller-provided iterator context
+	 * @return CPL_OK, CPL_S_NO_DATA, or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_get_object_info_batch)(struct _cpl_db_backend_t* backend,
+									const cpl_id_t* ids,
+									const size_t num_ids,
+									cpl_object_info_iterator_t callback,
+									void* context);
+
+	/**
+	 * Get one page of the objects in the database, ordered by their IDs.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param prefix the namespace prefix
+	 * @param flags a logical combination of CPL_I_* flags
+	 * @param type the object type, or 0 for all types
+	 * @param after_id return only objects with IDs greater than this one
+	 * @param limit the maximum number of objects to return
+	 * @param iterator the iterator to be called for each matching object
+	 * @param context the caller-provided iterator context
+	 * @return CPL_OK, CPL_S_NO_DATA, or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_get_all_objects_page)(struct _cpl_db_backend_t* backend,
+								   const char* prefix,
+								   const int flags,
+								   const int type,
+								   const cpl_id_t after_id,
+								   const size_t limit,
+								   cpl_object_info_iterator_t iterator,
+								   void* context);
+
+	/**
+	 * Iterate over one page of the ancestors or the descendants of
+	 * a provenance object, ordered by the relation IDs.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param id the object ID
+	 * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+	 *                  or CPL_D_DESCENDANTS)
+	 * @param flags a logical combination of the CPL_A_* flags
+	 * @param after_id return only relations with IDs greater than this one
+	 * @param limit the maximum number of relations to return
+	 * @param iterator the iterator callback function
+	 * @param context the user context to be passed to the iterator function
+	 * @return CPL_OK, CPL_S_NO_DATA, or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_get_object_relations_page)(struct _cpl_db_backend_t* backend,
+										const cpl_id_t id,
+										const int direction,
+										const int flags,
+										const cpl_id_t after_id,
+										const size_t limit,
+										cpl_relation_iterator_t iterator,
+										void* context);
+
+	/**
+	 * Returns one page of the relations contained in a bundle, ordered by
+	 * the relation IDs.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param id the bundle ID
+	 * @param after_id return only relations with IDs greater than this one
+	 * @param limit the maximum number of relations to return
+	 * @param callback the iterator to be called for each matching relation
+	 * @param context the caller-provided iterator context
+	 * @return CPL_OK, CPL_S_NO_DATA, or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_get_bundle_relations_page)(struct _cpl_db_backend_t* backend,
+										const cpl_id_t id,
+										const cpl_id_t after_id,
+										const size_t limit,
+										cpl_relation_iterator_t callback,
+										void* context);
+
+	/**
+	 * Returns one page of the relations contained in a bundle, ordered by
+	 * the IDs of the bundle membership rows.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param id the bundle ID
+	 * @param after_membership_id return only relations with membership
+	 *                            rows newer than this one
+	 * @param limit the maximum number of relations to return
+	 * @param out_last_membership_id the pointer to store the ID of the
+	 *                               last membership row on the page
+	 * @param callback the iterator to be called for each matching relation
+	 * @param context the caller-provided iterator context
+	 * @return CPL_OK, CPL_S_NO_DATA, or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_get_bundle_relations_page_by_membership)(
+										struct _cpl_db_backend_t* backend,
+										const cpl_id_t id,
+										const cpl_id_t after_membership_id,
+										const size_t limit,
+										cpl_id_t* out_last_membership_id,
+										cpl_relation_iterator_t callback,
+										void* context);
+
+	/**
+	 * Create several objects with the same prefix and type at once.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param prefix the namespace prefix
+	 * @param names the array of object names
+	 * @param num_names the number of elements in the array
+	 * @param type the object type
+	 * @param out_ids the array to store the IDs of the new objects, in
+	 *                the same order as the names
+	 * @return CPL_OK or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_create_objects)(struct _cpl_db_backend_t* backend,
+							 const char* prefix,
+							 const char* const* names,
+							 const size_t num_names,
+							 const int type,
+							 cpl_id_t* out_ids);
+
+	/**
+	 * Add many provenance relations at once.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param from_ids the array of the relation source IDs
+	 * @param to_ids the array of the relation destination IDs
+	 * @param types the array of the relation types
+	 * @param num_relations the number of elements in each of the arrays
+	 * @param out_ids the array to store the IDs of the new relations,
+	 *                in the input order
+	 * @return CPL_OK or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_add_relations)(struct _cpl_db_backend_t* backend,
+							const cpl_id_t* from_ids,
+							const cpl_id_t* to_ids,
+							const int* types,
+							const size_t num_relations,
+							cpl_id_t* out_ids);
+
+	/**
+	 * Add many properties to objects at once.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param ids the array of object IDs
+	 * @param prefixes the array of namespace prefixes
+	 * @param keys the array of keys
+	 * @param values the array of values
+	 * @param types the array of property types (STRINGPROPERTY, ...)
+	 * @param num_properties the number of elements in each of the arrays
+	 * @return CPL_OK or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_add_object_properties)(struct _cpl_db_backend_t* backend,
+									const cpl_id_t* ids,
+									const char* const* prefixes,
+									const char* const* keys,
+									const char* const* values,
+									const int* types,
+									const size_t num_properties);
+
+	/**
+	 * Add many properties to relations at once.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param ids the array of relation IDs
+	 * @param prefixes the array of namespace prefixes
+	 * @param keys the array of keys
+	 * @param values the array of values
+	 * @param types the array of property types (STRINGPROPERTY, ...)
+	 * @param num_properties the number of elements in each of the arrays
+	 * @return CPL_OK or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_add_relation_properties)(struct _cpl_db_backend_t* backend,
+									  const cpl_id_t* ids,
+									  const char* const* prefixes,
+									  const char* const* keys,
+									  const char* const* values,
+									  const int* types,
+									  const size_t num_properties);
+
+	/**
+	 * Iterate over all relations transitively reachable from an object
+	 * in the given direction, ordered by depth and then by ID.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param id the object ID
+	 * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+	 *                  or CPL_D_DESCENDANTS)
+	 * @param max_depth the maximum depth, or 0 for no limit
+	 * @param type_mask the mask of relation types to follow, or
+	 *                  CPL_R_ALL_TYPES
+	 * @param callback the iterator callback function
+	 * @param context the user context to be passed to the iterator function
+	 * @return CPL_OK, CPL_S_NO_DATA, or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_get_object_lineage)(struct _cpl_db_backend_t* backend,
+								 const cpl_id_t id,
+								 const int direction,
+								 const int max_depth,
+								 const int type_mask,
+								 cpl_lineage_iterator_t callback,
+								 void* context);
+
+	/**
+	 * Returns one page of all relations except the bundle membership
+	 * records, ordered by the relation IDs.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param after_id return only relations with IDs greater than this one
+	 * @param limit the maximum number of relations to return
+	 * @param callback the iterator to be called for each relation
+	 * @param context the caller-provided iterator context
+	 * @return CPL_OK, CPL_S_NO_DATA, or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_get_all_relations_page)(struct _cpl_db_backend_t* backend,
+									 const cpl_id_t after_id,
+									 const size_t limit,
+									 cpl_relation_iterator_t callback,
+									 void* context);
+
+	/**
+	 * Iterate over the immediate ancestors or descendants of several
+	 * objects at once.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param ids the array of object IDs
+	 * @param num_ids the number of elements in the array
+	 * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+	 *                  or CPL_D_DESCENDANTS)
+	 * @param type_mask the mask of relation types to return, or
+	 *                  CPL_R_ALL_TYPES
+	 * @param callback the iterator callback function
+	 * @param context the user context to be passed to the iterator function
+	 * @return CPL_OK, CPL_S_NO_DATA, or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_get_relations_batch)(struct _cpl_db_backend_t* backend,
+								  const cpl_id_t* ids,
+								  const size_t num_ids,
+								  const int direction,
+								  const int type_mask,
+								  cpl_relation_iterator_t callback,
+								  void* context);
+
+	/**
+	 * Iterate over the ancestors or the descendants of a provenance object,
+	 * joined with the information about the objects on the other ends.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param id the object ID
+	 * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+	 *                  or CPL_D_DESCENDANTS)
+	 * @param flags the bitwise combination of flags describing how should
+	 *              the graph be traversed
+	 * @param type_mask the mask of relation types to return, or
+	 *                  CPL_R_ALL_TYPES
+	 * @param callback the iterator callback function
+	 * @param context the user context to be passed to the iterator function
+	 * @return CPL_OK, CPL_S_NO_DATA, or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_get_object_relations_info)(struct _cpl_db_backend_t* backend,
+										const cpl_id_t id,
+										const int direction,
+										const int flags,
+										const int type_mask,
+										cpl_relation_info_iterator_t callback,
+										void* context);
+
+	/**
+	 * Get the highest relation ID in the database.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param out_id the pointer to store the relation ID (CPL_NONE if there
+	 *               are no relations)
+	 * @return CPL_OK or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_get_last_relation_id)(struct _cpl_db_backend_t* backend,
+								   cpl_id_t* out_id);
+
+	/**
+	 * Get one page of the objects belonging to a bundle, in the order of
+	 * the object IDs.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param id the bundle ID
+	 * @param type the object type, or 0 for all types
+	 * @param after_id return only objects with IDs greater than this one
+	 * @param limit the maximum number of objects to return
+	 * @param callback the iterator to be called for each matching object
+	 * @param context the caller-provided iterator context
+	 * @return CPL_OK, CPL_S_NO_DATA, or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_get_bundle_objects_page)(struct _cpl_db_backend_t* backend,
+									  const cpl_id_t id,
+									  const int type,
+									  const cpl_id_t after_id,
+									  const size_t limit,
+									  cpl_object_info_iterator_t callback,
+									  void* context);
+
+	/**
+	 * Get one page of the relations of the given types belonging to
+	 * a bundle, in the order of the relation IDs.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param id the bundle ID
+	 * @param type_mask the mask of relation types to return, or
+	 *                  CPL_R_ALL_TYPES
+	 * @param after_id return only relations with IDs greater than this one
+	 * @param limit the maximum number of relations to return
+	 * @param callback the iterator to be called for each matching relation
+	 * @param context the caller-provided iterator context
+	 * @return CPL_OK, CPL_S_NO_DATA, or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_get_bundle_relations_page_ext)(struct _cpl_db_backend_t* backend,
+											const cpl_id_t id,
+											const int type_mask,
+											const cpl_id_t after_id,
+											const size_t limit,
+											cpl_relation_iterator_t callback,
+											void* context);
+
+	/**
+	 * Get the properties of all objects belonging to a bundle in a single
+	 * scan, ordered by the object ID.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param id the bundle ID
+	 * @param type the object type, or 0 for all types
+	 * @param after_id include only objects with IDs greater than this one
+	 * @param last_id include only objects with IDs up to this one, or
+	 *                CPL_NONE for no upper bound
+	 * @param callback the iterator to be called for each property
+	 * @param context the caller-provided iterator context
+	 * @return CPL_OK, CPL_S_NO_DATA, or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_get_bundle_object_properties)(struct _cpl_db_backend_t* backend,
+										   const cpl_id_t id,
+										   const int type,
+										   const cpl_id_t after_id,
+										   const cpl_id_t last_id,
+										   cpl_property_iterator_t callback,
+										   void* context);
+
+	/**
+	 * Get the properties of all relations belonging to a bundle in a single
+	 * scan, ordered by the relation ID.
+	 *
+	 * @param backend the pointer to the backend structure
+	 * @param id the bundle ID
+	 * @param type_mask the mask of relation types, or CPL_R_ALL_TYPES
+	 * @param after_id include only relations with IDs greater than this one
+	 * @param last_id include only relations with IDs up to this one, or
+	 *                CPL_NONE for no upper bound
+	 * @param callback the iterator to be called for each property
+	 * @param context the caller-provided iterator context
+	 * @return CPL_OK, CPL_S_NO_DATA, or an error code
+	 */
+	cpl_return_t
+	(*cpl_db_get_bundle_relation_properties)(struct _cpl_db_backend_t* backend,
+											 const cpl_id_t id,
+											 const int type_mask,
+											 const cpl_id_t after_id,
+											 const cpl_id_t last_id,
+											 cpl_property_iterator_t callback,
+											 void* context);
+
 } cpl_db_backend_t;
 
 
@@ -217,6 +217,46 @@ typedef struct cpl_relation {
 
 } cpl_relation_t;
 
+/**
+ * The iterator callback function used by cpl_get_object_relations_info().
+ * It is called with the information about the object on the other end of
+ * the relation, which the caller destroys after the callback returns.
+ *
+ * @param relation_id the ID of the relation
+ * @param query_object_id the ID of the object on which we are querying
+ * @param other the information about the object on the other end of the
+ *              relation
+ * @param type the type of the relation
+ * @param context the application-provided context
+ * @return CPL_OK or an error code (the caller should fail on this error)
+ */
+typedef cpl_return_t (*cpl_relation_info_iterator_t)
+						(const cpl_id_t relation_id,
+						 const cpl_id_t query_object_id,
+						 const cpl_object_info_t* other,
+						 const int type,
+						 void* context);
+
+/**
+ * The iterator callback function used by cpl_get_object_lineage().
+ *
+ * @param relation_id the ID of the relation
+ * @param from_id the ID of the source (the descendant) of the relation
+ * @param to_id the ID of the destination (the ancestor) of the relation
+ * @param type the type of the relation
+ * @param depth the number of relations on the shortest path from the
+ *              queried object, counting this one
+ * @param context the application-provided context
+ * @return CPL_OK or an error code (the caller should fail on this error)
+ */
+typedef cpl_return_t (*cpl_lineage_iterator_t)
+						(const cpl_id_t relation_id,
+						 const cpl_id_t from_id,
+						 const cpl_id_t to_id,
+						 const int type,
+						 const int depth,
+						 void* context);
+
 /**
  * The iterator callback function used by property accessors.
  *
@@ -311,6 +351,16 @@ extern cpl_session_t cpl_session;
 
 #define CPL_NUM_R_TYPES					19
 
+/**
+ * The bit that selects the given relation type in a relation type mask
+ */
+#define CPL_R_TYPE_MASK(r)				(1 << (r))
+
+/**
+ * The relation type mask that selects all relation types
+ */
+#define CPL_R_ALL_TYPES					0
+
 /***************************************************************************/
 /** Object Property Types                                                 **/
 /***************************************************************************/
@@ -533,6 +583,12 @@ extern cpl_session_t cpl_session;
 #define CPL_D_DESCENDANTS				1
 
 #define CPL_J_EXTERN_OBJ				(1 << 0)
+
+/**
+ * Import the document with multi-row inserts rather than one statement per
+ * object, relation, and property
+ */
+#define CPL_J_BULK						(1 << 1)
 /***************************************************************************/
 /** Initialization and Cleanup                                            **/
 /***************************************************************************/
@@ -590,6 +646,30 @@ cpl_create_object(const char* prefix,
 				  const int type,
 				  cpl_id_t* out_id);
 
+/**
+ * Create several objects with the same prefix and type at once. This is
+ * much faster than calling cpl_create_object() for each of them, since the
+ * backend can insert many objects in a single round trip.
+ *
+ * The call is not atomic. The backend may insert the objects in several
+ * chunks, and if a chunk fails, the objects from the previous chunks remain
+ * in the database, although their IDs are not returned.
+ *
+ * @param prefix the object prefix, must be an existing bundle prefix
+ * @param names the array of object names
+ * @param num_names the number of elements in the array
+ * @param type the object type
+ * @param out_ids the array of num_names elements to store the IDs of the
+ *                newly created objects, in the same order as the names
+ * @return CPL_OK or an error code
+ */
+EXPORT cpl_return_t
+cpl_create_objects(const char* prefix,
+				   const char* const* names,
+				   const size_t num_names,
+				   const int type,
+				   cpl_id_t* out_ids);
+
 /**
  * Look up an object by name. If multiple objects share the same name,
  * get the latest one.
@@ -703,6 +783,30 @@ cpl_add_relation(const cpl_id_t from_id,
 			     const int type,
 			     cpl_id_t* out_id);
 
+/**
+ * Add many relations at once, given as parallel arrays. The backend can
+ * insert them with far fewer round trips than one cpl_add_relation() call
+ * per relation.
+ *
+ * The call is not atomic. The backend may insert the relations in several
+ * chunks, and if a chunk fails, the relations from the previous chunks
+ * remain in the database, although their IDs are not returned.
+ *
+ * @param from_ids the array of the source IDs
+ * @param to_ids the array of the destination IDs
+ * @param types the array of the relations' PROV types
+ * @param num_relations the number of elements in each of the arrays
+ * @param out_ids the array of num_relations elements to store the IDs of
+ *                the newly created relations, in the input order
+ * @return CPL_OK or an error code
+ */
+EXPORT cpl_return_t
+cpl_add_relations(const cpl_id_t* from_ids,
+				  const cpl_id_t* to_ids,
+				  const int* types,
+				  const size_t num_relations,
+				  cpl_id_t* out_ids);
+
 /**
  * Add a property to the given relation.
  *
@@ -748,6 +852,49 @@ cpl_add_relation_boolean_property(const cpl_id_t id,
                           const char* key,
                           const bool value);
 
+/**
+ * Add many properties to objects at once, given as parallel arrays. Each
+ * value must already be formatted as a string: numerical and boolean values
+ * are stored the same way as by cpl_add_object_numerical_property() and
+ * cpl_add_object_boolean_property(), that is, as by std::to_string().
+ *
+ * @param ids the array of object IDs
+ * @param prefixes the array of prefixes
+ * @param keys the array of keys
+ * @param values the array of values
+ * @param types the array of property types (STRINGPROPERTY,
+ *              NUMERICALPROPERTY, or BOOLEANPROPERTY)
+ * @param num_properties the number of elements in each of the arrays
+ * @return CPL_OK or an error code
+ */
+EXPORT cpl_return_t
+cpl_add_object_properties(const cpl_id_t* ids,
+						  const char* const* prefixes,
+						  const char* const* keys,
+						  const char* const* values,
+						  const int* types,
+						  const size_t num_properties);
+
+/**
+ * Add many properties to relations at once, given as parallel arrays.
+ *
+ * @param ids the array of relation IDs
+ * @param prefixes the array of prefixes
+ * @param keys the array of keys
+ * @param values the array of values, formatted as strings
+ * @param types the array of property types (STRINGPROPERTY,
+ *              NUMERICALPROPERTY, or BOOLEANPROPERTY)
+ * @param num_properties the number of elements in each of the arrays
+ * @return CPL_OK or an error code
+ */
+EXPORT cpl_return_t
+cpl_add_relation_properties(const cpl_id_t* ids,
+							const char* const* prefixes,
+							const char* const* keys,
+							const char* const* values,
+							const int* types,
+							const size_t num_properties);
+
 /**
  * Look up a relation by from_id, to_id and type.
  * If multiple relations match, get the latest one.
@@ -834,6 +981,30 @@ cpl_get_all_objects( const char* prefix,
 					cpl_object_info_iterator_t iterator,
 					void* context);
 
+/**
+ * Get one page of the objects in the database, in the order of their IDs.
+ * To walk through all objects without holding them in memory at once, start
+ * with after_id set to CPL_NONE and then pass the ID of the last object
+ * returned by the previous call, until the function returns CPL_S_NO_DATA.
+ *
+ * @param prefix the namespace prefix
+ * @param flags a logical combination of CPL_I_* flags
+ * @param type the object type, or 0 for all types
+ * @param after_id return only objects with IDs greater than this one
+ * @param limit the maximum number of objects to return
+ * @param iterator the iterator to be called for each matching object
+ * @param context the caller-provided iterator context
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_all_objects_page(const char* prefix,
+						 const int flags,
+						 const int type,
+						 const cpl_id_t after_id,
+						 const size_t limit,
+						 cpl_object_info_iterator_t iterator,
+						 void* context);
+
 /**
  * Get information about the given provenance object.
  *
@@ -845,6 +1016,24 @@ EXPORT cpl_return_t
 cpl_get_object_info(const cpl_id_t id,
 					cpl_object_info_t** out_info);
 
+/**
+ * Get information about several provenance objects at once, which the
+ * database backend can answer with a handful of queries instead of one
+ * query per object. IDs that do not exist are skipped, and
+ * the order in which the objects are returned is undefined.
+ *
+ * @param ids the array of object IDs
+ * @param num_ids the number of elements in the array
+ * @param iterator the iterator to be called for each found object
+ * @param context the caller-provided iterator context
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_object_info_batch(const cpl_id_t* ids,
+						  const size_t num_ids,
+						  cpl_object_info_iterator_t iterator,
+						  void* context);
+
 /**
  * Free cpl_object_info_t.
  *
@@ -875,6 +1064,137 @@ cpl_get_object_relations(const cpl_id_t id,
 						 cpl_relation_iterator_t iterator,
 						 void* context);
 
+/**
+ * Iterate over the ancestors or the descendants of a provenance object,
+ * returning only the relations of the selected types. The filter is
+ * evaluated by the database, so relations of the other types are never
+ * transferred.
+ *
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param flags a logical combination of the CPL_A_* flags
+ * @param type_mask a combination of CPL_R_TYPE_MASK() bits, or
+ *                  CPL_R_ALL_TYPES
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_object_relations_ext(const cpl_id_t id,
+							 const int direction,
+							 const int flags,
+							 const int type_mask,
+							 cpl_relation_iterator_t iterator,
+							 void* context);
+
+/**
+ * Iterate over the ancestors or the descendants of a provenance object
+ * together with the information about the objects on the other ends, which
+ * the database joins into the same result set. This saves a call to
+ * cpl_get_object_info() per relation when the neighbors are displayed.
+ * Relations that record bundle membership are not returned.
+ *
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param flags a logical combination of the CPL_A_* flags
+ * @param type_mask a combination of CPL_R_TYPE_MASK() bits, or
+ *                  CPL_R_ALL_TYPES
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_object_relations_info(const cpl_id_t id,
+							  const int direction,
+							  const int flags,
+							  const int type_mask,
+							  cpl_relation_info_iterator_t iterator,
+							  void* context);
+
+/**
+ * Iterate over one page of the ancestors or the descendants of a provenance
+ * object, in the order of the relation IDs. Pass the ID of the last relation
+ * seen as after_id to get the next page.
+ *
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param flags a logical combination of the CPL_A_* flags
+ * @param after_id return only relations with IDs greater than this one,
+ *                 or CPL_NONE to start from the beginning
+ * @param limit the maximum number of relations to return
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_object_relations_page(const cpl_id_t id,
+							  const int direction,
+							  const int flags,
+							  const cpl_id_t after_id,
+							  const size_t limit,
+							  cpl_relation_iterator_t iterator,
+							  void* context);
+
+/**
+ * Iterate over the transitive ancestors or descendants of a provenance
+ * object, i.e. over all relations reachable from it in the given direction,
+ * in a single query. The relations are returned in the order of their depth
+ * and then their IDs; each relation is returned once, with the depth of the
+ * shortest path through which it is reachable, which the database computes
+ * along with the relations. Bundle membership relations (BUNDLERELATION)
+ * are never followed or returned. The iterator is called for each row as
+ * it is read, so the lineage is never held in memory all at once.
+ *
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param max_depth the maximum number of relations between the object and
+ *                  a returned relation, counting the returned relation,
+ *                  or 0 for no limit
+ * @param type_mask follow only the relations whose types are selected by
+ *                  this combination of CPL_R_TYPE_MASK() bits, or
+ *                  CPL_R_ALL_TYPES to follow all relations
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_object_lineage(const cpl_id_t id,
+					   const int direction,
+					   const int max_depth,
+					   const int type_mask,
+					   cpl_lineage_iterator_t iterator,
+					   void* context);
+
+/**
+ * Iterate over the immediate ancestors or descendants of several objects
+ * at once. This is the set-based counterpart of cpl_get_object_relations(),
+ * meant for expanding a whole frontier of a graph search in one round trip.
+ * The relations are returned in no particular order.
+ *
+ * @param ids the array of object IDs
+ * @param num_ids the number of elements in the array
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param type_mask return only the relations whose types are selected by
+ *                  this combination of CPL_R_TYPE_MASK() bits, or
+ *                  CPL_R_ALL_TYPES
+ * @param iterator the iterator callback function; the query object is
+ *                 the one from the array
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_relations_batch(const cpl_id_t* ids,
+						const size_t num_ids,
+						const int direction,
+						const int type_mask,
+						cpl_relation_iterator_t iterator,
+						void* context);
+
 /**
  * Get the properties associated with the given provenance object.
  *
@@ -1065,6 +1385,177 @@ cpl_get_bundle_relations(const cpl_id_t id,
 					     cpl_relation_iterator_t iterator,
 					     void* context);
 
+/**
+ * Get one page of the relations belonging to a bundle, in the order of
+ * the relation IDs.
+ *
+ * @param id the bundle ID
+ * @param after_id return only relations with IDs greater than this one,
+ *                 or CPL_NONE to start from the beginning
+ * @param limit the maximum number of relations to return
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_bundle_relations_page(const cpl_id_t id,
+							  const cpl_id_t after_id,
+							  const size_t limit,
+							  cpl_relation_iterator_t iterator,
+							  void* context);
+
+/**
+ * Get one page of the relations belonging to a bundle, in the order in
+ * which they were added to the bundle. Unlike paging on the relation IDs,
+ * this also returns older relations that were added to the bundle after
+ * the previous page was read.
+ *
+ * @param id the bundle ID
+ * @param after_membership_id return only relations added to the bundle
+ *                            after this membership row, or CPL_NONE to
+ *                            start from the beginning
+ * @param limit the maximum number of relations to return
+ * @param out_last_membership_id the pointer to store the ID of the last
+ *                               membership row on the page, to be passed
+ *                               as after_membership_id for the next page
+ *                               (unchanged if there are no more relations)
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_bundle_relations_page_by_membership(const cpl_id_t id,
+							  const cpl_id_t after_membership_id,
+							  const size_t limit,
+							  cpl_id_t* out_last_membership_id,
+							  cpl_relation_iterator_t iterator,
+							  void* context);
+
+/**
+ * Get one page of the objects belonging to a bundle, in the order of the
+ * object IDs.
+ *
+ * @param id the bundle ID
+ * @param type the object type, or 0 for objects of all types
+ * @param after_id return only objects with IDs greater than this one,
+ *                 or CPL_NONE to start from the beginning
+ * @param limit the maximum number of objects to return
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_bundle_objects_page(const cpl_id_t id,
+							const int type,
+							const cpl_id_t after_id,
+							const size_t limit,
+							cpl_object_info_iterator_t iterator,
+							void* context);
+
+/**
+ * Get one page of the relations of the given types belonging to a bundle,
+ * in the order of the relation IDs.
+ *
+ * @param id the bundle ID
+ * @param type_mask the mask of relation types to return (bit t set for
+ *                  type t), or CPL_R_ALL_TYPES
+ * @param after_id return only relations with IDs greater than this one,
+ *                 or CPL_NONE to start from the beginning
+ * @param limit the maximum number of relations to return
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_bundle_relations_page_ext(const cpl_id_t id,
+								  const int type_mask,
+								  const cpl_id_t after_id,
+								  const size_t limit,
+								  cpl_relation_iterator_t iterator,
+								  void* context);
+
+/**
+ * Get the properties of all objects belonging to a bundle using a single
+ * query, ordered by the object ID. The iterator receives the properties of
+ * all types, distinguished by its type argument. The objects can be limited
+ * to an ID range, which matches the pages of cpl_get_bundle_objects_page().
+ * The iterator is called for each row as it is read, so the properties are
+ * never held in memory all at once.
+ *
+ * @param id the bundle ID
+ * @param type the object type, or 0 for objects of all types
+ * @param after_id include only objects with IDs greater than this one,
+ *                 or CPL_NONE to start from the beginning
+ * @param last_id include only objects with IDs up to this one, or CPL_NONE
+ *                for no upper bound
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_bundle_object_properties(const cpl_id_t id,
+								 const int type,
+								 const cpl_id_t after_id,
+								 const cpl_id_t last_id,
+								 cpl_property_iterator_t iterator,
+								 void* context);
+
+/**
+ * Get the properties of all relations belonging to a bundle using a single
+ * query, ordered by the relation ID. Like with
+ * cpl_get_bundle_object_properties(), the rows are passed to the iterator
+ * as they are read.
+ *
+ * @param id the bundle ID
+ * @param type_mask the mask of relation types, or CPL_R_ALL_TYPES
+ * @param after_id include only relations with IDs greater than this one,
+ *                 or CPL_NONE to start from the beginning
+ * @param last_id include only relations with IDs up to this one, or
+ *                CPL_NONE for no upper bound
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_bundle_relation_properties(const cpl_id_t id,
+								   const int type_mask,
+								   const cpl_id_t after_id,
+								   const cpl_id_t last_id,
+								   cpl_property_iterator_t iterator,
+								   void* context);
+
+/**
+ * Get one page of all relations in the database, in the order of their IDs,
+ * excluding the records that tie relations to bundles. For each relation,
+ * the iterator receives its source as the query object and its destination
+ * as the other object. Since relation IDs only grow, the ID of the last
+ * relation seen also serves as a high-water mark for picking up new
+ * relations later.
+ *
+ * @param after_id return only relations with IDs greater than this one,
+ *                 or CPL_NONE to start from the beginning
+ * @param limit the maximum number of relations to return
+ * @param iterator the iterator callback function
+ * @param context the user context to be passed to the iterator function
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_all_relations_page(const cpl_id_t after_id,
+						   const size_t limit,
+						   cpl_relation_iterator_t iterator,
+						   void* context);
+
+/**
+ * Get the highest relation ID in the database. Relation IDs only grow, so
+ * a change of this value is a cheap sign that relations were added.
+ *
+ * @param out_id the pointer to store the relation ID, which is CPL_NONE
+ *               if there are no relations
+ * @return CPL_OK or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_last_relation_id(cpl_id_t* out_id);
+
 /**
  * Get the prefixes associated with the given provenance bundle.
  *
@@ -124,6 +124,44 @@ typedef struct cplxx_object_info {
 
 } cplxx_object_info_t;
 
+/**
+ * Information about many provenance objects in a columnar form, with one
+ * vector per field. Each distinct prefix and name is stored only once in
+ * a dictionary, and the rows refer to it by its index.
+ */
+typedef struct cplxx_object_columns {
+
+	/// The object IDs.
+	std::vector<cpl_id_t> ids;
+
+	/// The object types.
+	std::vector<int> types;
+
+	/// The object creation times expressed as UNIX time.
+	std::vector<unsigned long> creation_times;
+
+	/// The indices into the prefix dictionary.
+	std::vector<int> prefix_codes;
+
+	/// The indices into the name dictionary.
+	std::vector<int> name_codes;
+
+	/// The distinct prefixes.
+	std::vector<std::string> prefix_dictionary;
+
+	/// The distinct names.
+	std::vector<std::string> name_dictionary;
+
+#ifndef SWIG
+	/// The codes of the prefixes in the dictionary.
+	boost::unordered_map<std::string, int> prefix_index;
+
+	/// The codes of the names in the dictionary.
+	boost::unordered_map<std::string, int> name_index;
+#endif
+
+} cplxx_object_columns_t;
+
 /**
  * An entry in the collection of properties
  */
@@ -229,6 +267,22 @@ EXPORT cpl_return_t
 cpl_cb_collect_object_info_vector(const cpl_object_info_t* info,
 							      void* context);
 
+/**
+ * The iterator callback for cpl_get_all_objects() and
+ * cpl_get_bundle_objects() that appends each object to the columns of an
+ * instance of cplxx_object_columns_t.
+ *
+ * @param info the object info
+ * @param context the pointer to an instance of cplxx_object_columns_t
+ * @return CPL_OK or an error code
+ */
+#ifdef SWIG
+%constant
+#endif
+EXPORT cpl_return_t
+cpl_cb_collect_object_columns(const cpl_object_info_t* info,
+							  void* context);
+
 /**
  * The iterator callback for cpl_lookup_object_ext() that collects the returned
  * information in an instance of std::vector<cpl_id_timestamp_t>.
@@ -358,6 +412,203 @@ cpl_cb_collect_property_lookup_vector(const cpl_id_t id,
 									  void* context);
 
 
+/***************************************************************************/
+/** Bulk Queries                                                          **/
+/***************************************************************************/
+
+/**
+ * Get information about several provenance objects at once.
+ *
+ * @param ids the vector of object IDs
+ * @param iterator the iterator to be called for each found object
+ * @param context the caller-provided iterator context
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_object_info_batch(const std::vector<cpl_id_t>& ids,
+						  cpl_object_info_iterator_t iterator,
+						  void* context);
+
+/**
+ * Create several objects with the same prefix and type at once.
+ *
+ * @param prefix the namespace prefix
+ * @param names the object names
+ * @param type the object type
+ * @param out_ids the vector to store the IDs of the new objects, in the same
+ *                order as the names
+ * @return CPL_OK or an error code
+ */
+EXPORT cpl_return_t
+cpl_create_objects(const char* prefix,
+				   const std::vector<std::string>& names,
+				   const int type,
+				   std::vector<cpl_id_t>& out_ids);
+
+/**
+ * Add many relations at once, given as parallel vectors.
+ *
+ * @param from_ids the source IDs
+ * @param to_ids the destination IDs
+ * @param types the relation types
+ * @param out_ids the vector to store the IDs of the new relations, in the
+ *                input order
+ * @return CPL_OK or an error code
+ */
+EXPORT cpl_return_t
+cpl_add_relations(const std::vector<cpl_id_t>& from_ids,
+				  const std::vector<cpl_id_t>& to_ids,
+				  const std::vector<int>& types,
+				  std::vector<cpl_id_t>& out_ids);
+
+/**
+ * Add many properties to objects at once, given as parallel vectors.
+ *
+ * @param ids the object IDs
+ * @param prefixes the prefixes
+ * @param keys the keys
+ * @param values the values, formatted as strings
+ * @param types the property types
+ * @return CPL_OK or an error code
+ */
+EXPORT cpl_return_t
+cpl_add_object_properties(const std::vector<cpl_id_t>& ids,
+						  const std::vector<std::string>& prefixes,
+						  const std::vector<std::string>& keys,
+						  const std::vector<std::string>& values,
+						  const std::vector<int>& types);
+
+/**
+ * Add many properties to relations at once, given as parallel vectors.
+ *
+ * @param ids the relation IDs
+ * @param prefixes the prefixes
+ * @param keys the keys
+ * @param values the values, formatted as strings
+ * @param types the property types
+ * @return CPL_OK or an error code
+ */
+EXPORT cpl_return_t
+cpl_add_relation_properties(const std::vector<cpl_id_t>& ids,
+							const std::vector<std::string>& prefixes,
+							const std::vector<std::string>& keys,
+							const std::vector<std::string>& values,
+							const std::vector<int>& types);
+
+/**
+ * Get the transitive ancestors or descendants of a provenance object as
+ * parallel vectors, in the order of depth and then relation ID.
+ *
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param max_depth the maximum depth, or 0 for no limit
+ * @param type_mask the mask of relation types to follow, or
+ *                  CPL_R_ALL_TYPES
+ * @param relation_ids the vector for the relation IDs
+ * @param from_ids the vector for the source IDs
+ * @param to_ids the vector for the destination IDs
+ * @param types the vector for the relation types
+ * @param depths the vector for the depths
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_object_lineage(const cpl_id_t id,
+					   const int direction,
+					   const int max_depth,
+					   const int type_mask,
+					   std::vector<cpl_id_t>& relation_ids,
+					   std::vector<cpl_id_t>& from_ids,
+					   std::vector<cpl_id_t>& to_ids,
+					   std::vector<int>& types,
+					   std::vector<int>& depths);
+
+/**
+ * Get the immediate ancestors or descendants of several objects at once.
+ *
+ * @param ids the object IDs
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param type_mask the mask of relation types to return, or
+ *                  CPL_R_ALL_TYPES
+ * @param out the vector for the relations (its previous contents are
+ *            replaced); the query object of each is the one from ids
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_relations_batch(const std::vector<cpl_id_t>& ids,
+						const int direction,
+						const int type_mask,
+						std::vector<cpl_relation_t>& out);
+
+/**
+ * Get the relations of a provenance object together with the information
+ * about the objects on their other ends, as two parallel vectors.
+ *
+ * @param id the object ID
+ * @param direction the direction of the graph traversal (CPL_D_ANCESTORS
+ *                  or CPL_D_DESCENDANTS)
+ * @param flags a logical combination of the CPL_A_* flags
+ * @param type_mask the mask of relation types to return, or
+ *                  CPL_R_ALL_TYPES
+ * @param relations the vector for the relations
+ * @param others the vector for the other objects; the i-th element
+ *               belongs to the i-th relation
+ * @return CPL_OK or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_object_relations_info(const cpl_id_t id,
+							  const int direction,
+							  const int flags,
+							  const int type_mask,
+							  std::vector<cpl_relation_t>& relations,
+							  std::vector<cplxx_object_info_t>& others);
+
+/**
+ * Get the properties of all objects belonging to a bundle using a single
+ * query, split into one vector per property type.
+ *
+ * @param id the bundle ID
+ * @param type the object type, or 0 for objects of all types
+ * @param after_id include only objects with IDs greater than this one
+ * @param last_id include only objects with IDs up to this one, or CPL_NONE
+ * @param string_properties the vector for the string properties
+ * @param numerical_properties the vector for the numerical properties
+ * @param boolean_properties the vector for the boolean properties
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_bundle_object_properties(const cpl_id_t id,
+		const int type,
+		const cpl_id_t after_id,
+		const cpl_id_t last_id,
+		std::vector<cplxx_string_property_entry_t>& string_properties,
+		std::vector<cplxx_numerical_property_entry_t>& numerical_properties,
+		std::vector<cplxx_boolean_property_entry_t>& boolean_properties);
+
+/**
+ * Get the properties of all relations belonging to a bundle using a single
+ * query, split into one vector per property type.
+ *
+ * @param id the bundle ID
+ * @param type_mask the mask of relation types, or CPL_R_ALL_TYPES
+ * @param after_id include only relations with IDs greater than this one
+ * @param last_id include only relations with IDs up to this one, or CPL_NONE
+ * @param string_properties the vector for the string properties
+ * @param numerical_properties the vector for the numerical properties
+ * @param boolean_properties the vector for the boolean properties
+ * @return CPL_OK, CPL_S_NO_DATA, or an error code
+ */
+EXPORT cpl_return_t
+cpl_get_bundle_relation_properties(const cpl_id_t id,
+		const int type_mask,
+		const cpl_id_t after_id,
+		const cpl_id_t last_id,
+		std::vector<cplxx_string_property_entry_t>& string_properties,
+		std::vector<cplxx_numerical_property_entry_t>& numerical_properties,
+		std::vector<cplxx_boolean_property_entry_t>& boolean_properties);
+
+
 /***************************************************************************/
 /** Document Handling                                                     **/
 /***************************************************************************/
@@ -383,6 +634,9 @@ validate_json(const std::string& json_string,
  * @param flags a logical combination of CPL_J_* flags
  * @param out_id the ID of the imported bundle
  * @return CPL_OK or an error code
+ *
+ * The import is not atomic: if it fails, the bundle and the objects and
+ * relations imported so far remain in the database.
  */
 EXPORT cpl_return_t
 import_document_json(const std::string& json_string,
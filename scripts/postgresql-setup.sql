@@ -115,6 +115,12 @@ CREATE TABLE IF NOT EXISTS cpl_object_properties (
            REFERENCES cpl_objects(id)
            ON DELETE CASCADE);
 
+CREATE INDEX IF NOT EXISTS cpl_relations_from_type_idx
+    ON cpl_relations (from_id, type);
+
+CREATE INDEX IF NOT EXISTS cpl_relations_to_type_idx
+    ON cpl_relations (to_id, type);
+
 INSERT INTO cpl_sessions (id, mac_address, username, pid, program, cmdline)
   VALUES (0, NULL, NULL, NULL, NULL, NULL);
 INSERT INTO cpl_objects (id, prefix, name, type)
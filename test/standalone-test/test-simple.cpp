@@ -137,6 +137,34 @@ cb_lookup_relations(const cpl_id_t relation_id,
 	return CPL_OK;
 }
 
+/**
+ * The iterator callback for cpl_get_object_lineage() that collects the
+ * depth of each relation in an instance of std::map<cpl_id_t, int>.
+ * Bundle membership relations are recorded with a negative depth, so that
+ * the caller can tell that the query followed them.
+ *
+ * @param relation_id the ID of the relation
+ * @param from_id the ID of the descendant
+ * @param to_id the ID of the ancestor
+ * @param type the type of relation
+ * @param depth the depth of the relation
+ * @param context the pointer to an instance of the map
+ * @return CPL_OK or an error code
+ */
+static cpl_return_t
+cb_lookup_lineage(const cpl_id_t relation_id,
+				  const cpl_id_t from_id,
+				  const cpl_id_t to_id,
+				  const int type,
+				  const int depth,
+				  void* context)
+{
+	std::map<cpl_id_t, int>* m
+		= (std::map<cpl_id_t, int>*) context;
+	(*m)[relation_id] = type == BUNDLERELATION ? -depth : depth;
+	return CPL_OK;
+}
+
 static cpl_return_t
 cb_collect_object_info_set(const cpl_object_info_t* info,
 							      void* context)
@@ -941,6 +969,139 @@ test_simple(void)
 		throw CPLException("The bundle has unexpected properties.");
 	if (with_delays) delay();
 
+	print(L_DEBUG, " ");
+
+
+	// Bulk object creation
+
+	std::string bulk_names_s[3] = { "BulkA" + rand_tag, "BulkB" + rand_tag,
+									"BulkC" + rand_tag };
+	const char* bulk_names[3];
+	for (int i = 0; i < 3; i++) bulk_names[i] = bulk_names_s[i].c_str();
+	cpl_id_t bulk[3];
+
+	ret = cpl_create_objects("test", bulk_names, 3, CPL_ENTITY, bulk);
+	print(L_DEBUG, "cpl_create_objects --> %llx %llx %llx [%d]",
+		  bulk[0], bulk[1], bulk[2], ret);
+	CPL_VERIFY(cpl_create_objects, ret);
+	for (int i = 0; i < 3; i++) {
+		ret = cpl_lookup_object("test", bulk_names[i], CPL_ENTITY, &objx);
+		CPL_VERIFY(cpl_lookup_object, ret);
+		if (bulk[i] != objx)
+			throw CPLException("Bulk object creation returned the wrong IDs");
+	}
+	if (with_delays) delay();
+
+
+	// Bulk relation creation
+
+	cpl_id_t bulk_from[2] = { bulk[0], bulk[1] };
+	cpl_id_t bulk_to[2] = { bulk[1], bulk[2] };
+	int bulk_types[2] = { WASDERIVEDFROM, WASDERIVEDFROM };
+	cpl_id_t bulk_rels[2];
+
+	ret = cpl_add_relations(bulk_from, bulk_to, bulk_types, 2, bulk_rels);
+	print(L_DEBUG, "cpl_add_relations --> %llx %llx [%d]",
+		  bulk_rels[0], bulk_rels[1], ret);
+	CPL_VERIFY(cpl_add_relations, ret);
+
+	rctx.clear();
+	ret = cpl_get_object_relations(bulk[1], CPL_D_ANCESTORS, 0,
+								   cb_lookup_relations, &rctx);
+	CPL_VERIFY(cpl_get_object_relations, ret);
+	if (rctx.size() != 1 || !contains(rctx, bulk_rels[1]))
+		throw CPLException("Bulk relation creation returned the wrong IDs");
+
+	rctx.clear();
+	ret = cpl_get_object_relations(bulk[1], CPL_D_DESCENDANTS, 0,
+								   cb_lookup_relations, &rctx);
+	CPL_VERIFY(cpl_get_object_relations, ret);
+	if (rctx.size() != 1 || !contains(rctx, bulk_rels[0]))
+		throw CPLException("Bulk relation creation returned the wrong IDs");
+	if (with_delays) delay();
+
+
+	// Bulk properties
+
+	cpl_id_t bulk_prop_ids[2] = { bulk[0], bulk[0] };
+	const char* bulk_prop_prefixes[2] = { "test", "test" };
+	const char* bulk_prop_keys[2] = { "KIND", "WEIGHT" };
+	const char* bulk_prop_values[2] = { "bulk", "1.500000" };
+	int bulk_prop_types[2] = { STRINGPROPERTY, NUMERICALPROPERTY };
+
+	ret = cpl_add_object_properties(bulk_prop_ids, bulk_prop_prefixes,
+									bulk_prop_keys, bulk_prop_values,
+									bulk_prop_types, 2);
+	print(L_DEBUG, "cpl_add_object_properties --> %d", ret);
+	CPL_VERIFY(cpl_add_object_properties, ret);
+
+	ret = cpl_add_relation_properties(bulk_rels, bulk_prop_prefixes,
+									  bulk_prop_keys, bulk_prop_values,
+									  bulk_prop_types, 1);
+	print(L_DEBUG, "cpl_add_relation_properties --> %d", ret);
+	CPL_VERIFY(cpl_add_relation_properties, ret);
+
+	pctx.clear();
+	ret = cpl_get_object_string_properties(bulk[0], "test", NULL,
+			cb_get_properties, &pctx);
+	CPL_VERIFY(cpl_get_object_string_properties, ret);
+	if (!contains(pctx, "test:KIND", "bulk") || pctx.size() != 1)
+		throw CPLException("Bulk property insertion stored the wrong properties.");
+
+	pctx.clear();
+	ret = cpl_get_object_numerical_properties(bulk[0], "test", NULL,
+			cb_get_properties, &pctx);
+	CPL_VERIFY(cpl_get_object_numerical_properties, ret);
+	if (!contains(pctx, "test:WEIGHT", "1.500000") || pctx.size() != 1)
+		throw CPLException("Bulk property insertion stored the wrong properties.");
+
+	pctx.clear();
+	ret = cpl_get_relation_string_properties(bulk_rels[0], "test", NULL,
+			cb_get_properties, &pctx);
+	CPL_VERIFY(cpl_get_relation_string_properties, ret);
+	if (!contains(pctx, "test:KIND", "bulk") || pctx.size() != 1)
+		throw CPLException("Bulk property insertion stored the wrong properties.");
+	if (with_delays) delay();
+
+
+	// Transitive lineage
+
+	std::map<cpl_id_t, int> lineage_ctx;
+	ret = cpl_get_object_lineage(obj1, CPL_D_ANCESTORS, 0, CPL_R_ALL_TYPES,
+								 cb_lookup_lineage, &lineage_ctx);
+	print(L_DEBUG, "cpl_get_object_lineage --> %lu results [%d]",
+		  lineage_ctx.size(), ret);
+	CPL_VERIFY(cpl_get_object_lineage, ret);
+	if (lineage_ctx.size() != 3 || lineage_ctx[rel1] != 1
+			|| lineage_ctx[rel2] != 1 || lineage_ctx[rel3] != 2)
+		throw CPLException("The lineage query returned the wrong relations");
+
+	lineage_ctx.clear();
+	ret = cpl_get_object_lineage(obj1, CPL_D_ANCESTORS, 0,
+								 CPL_R_TYPE_MASK(WASGENERATEDBY),
+								 cb_lookup_lineage, &lineage_ctx);
+	CPL_VERIFY(cpl_get_object_lineage, ret);
+	if (lineage_ctx.size() != 1 || lineage_ctx[rel2] != 1)
+		throw CPLException("The lineage query did not apply the type mask");
+
+	lineage_ctx.clear();
+	ret = cpl_get_object_lineage(obj2, CPL_D_DESCENDANTS, 1, CPL_R_ALL_TYPES,
+								 cb_lookup_lineage, &lineage_ctx);
+	CPL_VERIFY(cpl_get_object_lineage, ret);
+	if (lineage_ctx.size() != 2 || lineage_ctx[rel1] != 1
+			|| lineage_ctx[rel3] != 1)
+		throw CPLException("The lineage query did not apply the depth limit");
+
+	// Bundle membership is not a dependency, so it must never show up
+
+	lineage_ctx.clear();
+	ret = cpl_get_object_lineage(bun, CPL_D_ANCESTORS, 0, CPL_R_ALL_TYPES,
+								 cb_lookup_lineage, &lineage_ctx);
+	CPL_VERIFY(cpl_get_object_lineage, ret);
+	if (lineage_ctx.size() != 0)
+		throw CPLException("The lineage query followed bundle membership");
+	if (with_delays) delay();
+
 
 	cpl_detach();
 }